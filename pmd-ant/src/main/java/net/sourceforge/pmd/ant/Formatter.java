@@ -29,6 +29,7 @@ import net.sourceforge.pmd.Report;
 import net.sourceforge.pmd.annotation.InternalApi;
 import net.sourceforge.pmd.internal.util.IOUtil;
 import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.renderers.BinaryRenderer;
 import net.sourceforge.pmd.renderers.Renderer;
 import net.sourceforge.pmd.renderers.RendererFactory;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
@@ -107,6 +108,15 @@ public class Formatter {
             }
         }
 
+        renderer = createRenderer();
+        if (renderer instanceof BinaryRenderer) {
+            // the binary format is not text, it is written to the file directly
+            if (toConsole) {
+                throw binaryToConsoleError();
+            }
+            renderer.setReportFile(getToFile(baseDir, toFile).getPath());
+            return;
+        }
         try {
             if (toConsole) {
                 writer = new BufferedWriter(new OutputStreamWriter(System.out, charset));
@@ -114,7 +124,6 @@ public class Formatter {
             if (toFile != null) {
                 writer = getToFileWriter(baseDir, toFile, charset);
             }
-            renderer = createRenderer();
             renderer.setWriter(writer);
         } catch (IOException ioe) {
             throw new BuildException(ioe.getMessage(), ioe);
@@ -127,6 +136,10 @@ public class Formatter {
         try {
             renderer.renderFileReport(errorReport);
             renderer.end();
+            if (writer == null) {
+                // the binary renderer closes its report file itself
+                return;
+            }
             if (toConsole) {
                 writer.flush();
             } else {
@@ -143,6 +156,20 @@ public class Formatter {
         return toFile == null && !toConsole;
     }
 
+    /**
+     * Throws a {@link BuildException} if this formatter cannot write its
+     * format to the configured output.
+     */
+    void checkOutput() {
+        if (toConsole && BinaryRenderer.NAME.equals(type)) {
+            throw binaryToConsoleError();
+        }
+    }
+
+    private static BuildException binaryToConsoleError() {
+        return new BuildException("The " + BinaryRenderer.NAME + " format cannot be written to the console, use toFile");
+    }
+
     @Override
     public String toString() {
         return "file = " + toFile + "; renderer = " + type;
@@ -183,13 +210,15 @@ public class Formatter {
         return properties;
     }
 
-    private static Writer getToFileWriter(String baseDir, File toFile, Charset charset) throws IOException {
-        final File file;
+    private static File getToFile(String baseDir, File toFile) {
         if (toFile.isAbsolute()) {
-            file = toFile;
-        } else {
-            file = new File(baseDir + System.getProperty("file.separator") + toFile.getPath());
+            return toFile;
         }
+        return new File(baseDir + System.getProperty("file.separator") + toFile.getPath());
+    }
+
+    private static Writer getToFileWriter(String baseDir, File toFile, Charset charset) throws IOException {
+        final File file = getToFile(baseDir, toFile);
 
         OutputStream output = null;
         Writer writer = null;
@@ -273,7 +302,7 @@ public class Formatter {
             @Override
             public void close() throws Exception {
                 listener.close();
-                if (!toConsole) {
+                if (!toConsole && writer != null) {
                     writer.close();
                 }
             }
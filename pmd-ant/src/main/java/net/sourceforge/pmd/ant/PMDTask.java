@@ -74,6 +74,7 @@ public class PMDTask extends Task {
                 if (f.isNoOutputSupplied()) {
                     throw new BuildException("toFile or toConsole needs to be specified in Formatter");
                 }
+                f.checkOutput();
             }
         }
 
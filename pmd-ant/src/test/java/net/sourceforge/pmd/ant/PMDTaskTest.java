@@ -7,6 +7,7 @@ package net.sourceforge.pmd.ant;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.File;
@@ -15,6 +16,7 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Collections;
 
 import org.apache.tools.ant.BuildException;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -22,6 +24,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import net.sourceforge.pmd.internal.util.IOUtil;
+import net.sourceforge.pmd.reporting.binary.BinaryReportReader;
 
 class PMDTaskTest extends AbstractAntTest {
 
@@ -95,6 +98,22 @@ class PMDTaskTest extends AbstractAntTest {
         }
     }
 
+    @Test
+    void testBinaryFormatter() throws IOException {
+        executeTarget("testBinaryFormatter");
+
+        try (BinaryReportReader reader = BinaryReportReader.open(Paths.get("target/pmd-ant.pmdb"))) {
+            assertEquals(Collections.singletonList("sample.dummy"), reader.getFileNames());
+            assertEquals(2, reader.getViolationCount("sample.dummy"));
+        }
+    }
+
+    @Test
+    void testBinaryFormatterToConsole() {
+        BuildException ex = assertThrows(BuildException.class, () -> executeTarget("testBinaryFormatterToConsole"));
+        assertEquals("The binary format cannot be written to the console, use toFile", ex.getMessage());
+    }
+
     private static @NonNull String readAndNormalize(InputStream expectedStream) throws IOException {
         String expected = IOUtil.readToString(expectedStream, StandardCharsets.UTF_8);
         expected = expected.replaceFirst("timestamp=\"[^\"]+\"", "timestamp=\"\"");
@@ -5,6 +5,7 @@
 package net.sourceforge.pmd.cli;
 
 import net.sourceforge.pmd.cli.commands.internal.PmdRootCommand;
+import net.sourceforge.pmd.cli.internal.DaemonClient;
 
 import picocli.CommandLine;
 
@@ -13,6 +14,11 @@ public final class PmdCli {
     private PmdCli() { }
 
     public static void main(String[] args) {
+        final Integer daemonExitCode = DaemonClient.runInDaemon(args);
+        if (daemonExitCode != null) {
+            System.exit(daemonExitCode);
+        }
+
         final int exitCode = new CommandLine(new PmdRootCommand())
                 .setCaseInsensitiveEnumValuesAllowed(true)
                 .execute(args);
@@ -0,0 +1,67 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cli.commands.internal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.RuleSetLoadException;
+import net.sourceforge.pmd.RuleSetLoader;
+import net.sourceforge.pmd.cli.internal.CliExitCode;
+import net.sourceforge.pmd.internal.LogMessages;
+import net.sourceforge.pmd.util.log.MessageReporter;
+import net.sourceforge.pmd.util.log.internal.SimpleMessageReporter;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+
+@Command(name = "compile-ruleset",
+    description = "Experimental: compiles a ruleset into a snapshot, which PMD loads much faster than the XML ruleset. "
+        + "Use the snapshot as the ruleset of the check command. If the ruleset changes, "
+        + "the snapshot is ignored and the ruleset is loaded from XML until the snapshot is compiled again.")
+public class CompileRulesetCommand extends AbstractPmdSubcommand {
+
+    @Option(names = { "--rulesets", "-R" }, required = true,
+            description = "Path to a ruleset xml file. "
+                          + "The path may reference a resource on the classpath of the application, be a local file system path, or a URL.")
+    private String ruleset;
+
+    @Option(names = { "--output", "-o" }, required = true,
+            description = "The snapshot file to write. Its name must end with '.snapshot'.")
+    private Path output;
+
+    @Option(names = "--no-ruleset-compatibility",
+            description = "Disable the ruleset compatibility filter. The filter is active by default and tries automatically 'fix' old ruleset files with old rule names")
+    private boolean noRuleSetCompatibility;
+
+    @Override
+    protected void validate() throws ParameterException {
+        super.validate();
+
+        if (!output.toString().endsWith(".snapshot")) {
+            throw new ParameterException(spec.commandLine(), "The name of the snapshot file must end with '.snapshot'.");
+        }
+    }
+
+    @Override
+    protected CliExitCode execute() {
+        final MessageReporter reporter = new SimpleMessageReporter(LoggerFactory.getLogger(CompileRulesetCommand.class));
+        final PMDConfiguration configuration = new PMDConfiguration();
+        configuration.setReporter(reporter);
+        configuration.setRuleSetFactoryCompatibilityEnabled(!noRuleSetCompatibility);
+
+        try {
+            RuleSetLoader.fromPmdConfig(configuration).writeSnapshot(ruleset, output);
+            return CliExitCode.OK;
+        } catch (final RuleSetLoadException | IOException e) {
+            reporter.error(e, LogMessages.errorDetectedMessage(1, "compile-ruleset"));
+            return CliExitCode.ERROR;
+        }
+    }
+}
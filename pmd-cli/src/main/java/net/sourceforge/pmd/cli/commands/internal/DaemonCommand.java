@@ -0,0 +1,122 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cli.commands.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.pmd.AnalysisSession;
+import net.sourceforge.pmd.cli.internal.CliExitCode;
+import net.sourceforge.pmd.cli.internal.DaemonProtocol;
+import net.sourceforge.pmd.cli.internal.DaemonProtocol.Request;
+import net.sourceforge.pmd.internal.LogMessages;
+import net.sourceforge.pmd.util.log.MessageReporter;
+import net.sourceforge.pmd.util.log.internal.SimpleMessageReporter;
+
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+@Command(name = "daemon",
+    description = "Experimental: starts a daemon, which keeps rulesets and language processors warm between analyses. "
+        + "When the environment variable " + DaemonProtocol.PORT_ENV_VAR + " is set to the port of the daemon, "
+        + "'pmd check' runs its analysis in the daemon. Analyses run one after another.")
+public class DaemonCommand extends AbstractPmdSubcommand {
+
+    @Option(names = { "--port", "-p" }, defaultValue = "" + DaemonProtocol.DEFAULT_PORT,
+            description = "The port on the loopback interface on which the daemon listens.")
+    private int port;
+
+    @Option(names = "--token-file",
+            description = "The file into which the daemon writes the token that clients must send. "
+                + "Only the user of the daemon can read it. Clients read it from the environment variable "
+                + DaemonProtocol.TOKEN_FILE_ENV_VAR + ". Defaults to ~/.cache/pmd/daemon-<port>.token.")
+    private Path tokenFile;
+
+    @Override
+    protected CliExitCode execute() {
+        final MessageReporter reporter = new SimpleMessageReporter(LoggerFactory.getLogger(DaemonCommand.class));
+
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+             AnalysisSession session = new AnalysisSession()) {
+            final Path file = tokenFile != null ? tokenFile : DaemonProtocol.defaultTokenFile(server.getLocalPort());
+            final String token = DaemonProtocol.createToken(file);
+            reporter.info("PMD daemon listening on port {0}, token in {1}", String.valueOf(server.getLocalPort()), file);
+            serve(server, token, session, reporter);
+            return CliExitCode.OK;
+        } catch (IOException e) {
+            reporter.error(e, LogMessages.errorDetectedMessage(1, "daemon"));
+            return CliExitCode.ERROR;
+        }
+    }
+
+    /**
+     * Serves the clients one after another, until the server socket is closed.
+     */
+    static void serve(ServerSocket server, String token, AnalysisSession session, MessageReporter reporter) {
+        while (!server.isClosed()) {
+            try (Socket socket = server.accept()) {
+                serve(socket, token, session);
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    reporter.warnEx("Lost the connection to a client", e);
+                }
+            } catch (RuntimeException e) {
+                // keep serving the next clients
+                reporter.errorEx("Exception while serving a client", e);
+            }
+        }
+    }
+
+    private static void serve(Socket socket, String token, AnalysisSession session) throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        // check the client before reading its arguments
+        final int header = DaemonProtocol.readHeader(in, token);
+        if (header != 0) {
+            DaemonProtocol.writeExitCode(out, header);
+            return;
+        }
+        final Request request = DaemonProtocol.readRequest(in);
+
+        final PrintStream stdout = System.out;
+        final PrintStream stderr = System.err;
+        final PrintStream clientOut = new PrintStream(DaemonProtocol.stdout(out), true);
+        final PrintStream clientErr = new PrintStream(DaemonProtocol.stderr(out), true);
+        final int exitCode;
+        try {
+            // reports and log messages go to the client
+            System.setOut(clientOut);
+            System.setErr(clientErr);
+
+            final PmdCommand command = new PmdCommand();
+            command.runInSession(session, request.getWorkingDirectory());
+            final CommandLine commandLine = new CommandLine(command)
+                .setCommandName("pmd check")
+                .setCaseInsensitiveEnumValuesAllowed(true)
+                .setOut(new PrintWriter(clientOut, true))
+                .setErr(new PrintWriter(clientErr, true))
+                .registerConverter(Path.class, path -> request.getWorkingDirectory().resolve(path));
+            exitCode = commandLine.execute(request.getArgs().toArray(new String[0]));
+            clientOut.flush();
+            clientErr.flush();
+        } finally {
+            System.setOut(stdout);
+            System.setErr(stderr);
+        }
+        DaemonProtocol.writeExitCode(out, exitCode);
+    }
+}
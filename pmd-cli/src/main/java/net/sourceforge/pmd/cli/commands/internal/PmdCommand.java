@@ -4,11 +4,15 @@
 
 package net.sourceforge.pmd.cli.commands.internal;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
@@ -18,9 +22,12 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.sourceforge.pmd.AnalysisSession;
 import net.sourceforge.pmd.PMDConfiguration;
 import net.sourceforge.pmd.PmdAnalysis;
 import net.sourceforge.pmd.RulePriority;
+import net.sourceforge.pmd.benchmark.CollapsedStacksRenderer;
+import net.sourceforge.pmd.benchmark.TextCostProfileRenderer;
 import net.sourceforge.pmd.benchmark.TextTimingReportRenderer;
 import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.benchmark.TimingReport;
@@ -36,6 +43,7 @@ import net.sourceforge.pmd.lang.LanguageVersion;
 import net.sourceforge.pmd.properties.PropertyDescriptor;
 import net.sourceforge.pmd.renderers.Renderer;
 import net.sourceforge.pmd.renderers.RendererFactory;
+import net.sourceforge.pmd.reporting.Baseline;
 import net.sourceforge.pmd.reporting.ReportStats;
 import net.sourceforge.pmd.util.StringUtil;
 import net.sourceforge.pmd.util.log.MessageReporter;
@@ -86,6 +94,8 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
 
     private boolean benchmark;
 
+    private Path profileFile;
+
     private boolean showSuppressed;
 
     private String suppressMarker;
@@ -108,8 +118,17 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
 
     private boolean noCache;
 
+    private Path baselineFile;
+
+    private Path writeBaselineFile;
+
     private boolean showProgressBar;
 
+    // set when the command runs in the daemon
+    private AnalysisSession session;
+
+    private Path workingDirectory;
+
     @Option(names = { "--rulesets", "-R" },
                description = "Path to a ruleset xml file. "
                              + "The path may reference a resource on the classpath of the application, be a local file system path, or a URL. "
@@ -140,6 +159,14 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
         this.benchmark = benchmark;
     }
 
+    @Option(names = "--profile",
+            description = "Profiling mode - records the time of each rule and phase per file, and writes the most expensive files "
+                          + "and time percentiles to the given file upon completion. The stacks of operations are written "
+                          + "in the collapsed format of flame graph tools to the same path with '.collapsed' appended.")
+    public void setProfileFile(final Path profileFile) {
+        this.profileFile = profileFile;
+    }
+
     @Option(names = "--show-suppressed", description = "Report should show suppressed rule violations.")
     public void setShowSuppressed(final boolean showSuppressed) {
         this.showSuppressed = showSuppressed;
@@ -233,6 +260,22 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
         this.noCache = noCache;
     }
 
+    @Option(names = "--baseline",
+            description = "Path to a baseline file. The violations recorded in the baseline are reported as suppressed violations. "
+                    + "Files are matched by their path relative to the paths of '--relativize-paths-with', "
+                    + "which should be the same as when the baseline was written.")
+    public void setBaselineFile(final Path baselineFile) {
+        this.baselineFile = baselineFile;
+    }
+
+    @Option(names = "--write-baseline",
+            description = "Path of a baseline file to write with the violations of this analysis. "
+                    + "The violations that are suppressed by '--baseline' are written too. "
+                    + "The analysis cache is not used, as it doesn't keep suppressed violations.")
+    public void setWriteBaselineFile(final Path writeBaselineFile) {
+        this.writeBaselineFile = writeBaselineFile;
+    }
+
     @Option(names = { "--threads", "-t" }, description = "Sets the number of threads used by PMD.",
             defaultValue = "1")
     public void setThreads(final int threads) {
@@ -249,6 +292,15 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
         this.showProgressBar = showProgressBar;
     }
 
+    /**
+     * Runs the analysis with the warm state of the session of the daemon.
+     * Relative paths are resolved against the working directory of the client.
+     */
+    void runInSession(final AnalysisSession session, final Path workingDirectory) {
+        this.session = session;
+        this.workingDirectory = workingDirectory;
+    }
+
     /**
      * Converts these parameters into a configuration.
      *
@@ -273,14 +325,16 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
         if (relativizeRootPaths != null) {
             configuration.addRelativizeRoots(relativizeRootPaths);
         }
-        configuration.setRuleSets(rulesets);
+        configuration.setRuleSets(workingDirectory != null ? resolveRuleSets() : rulesets);
         configuration.setRuleSetFactoryCompatibilityEnabled(!this.noRuleSetCompatibility);
         configuration.setShowSuppressedViolations(showSuppressed);
         configuration.setSuppressMarker(suppressMarker);
         configuration.setThreads(threads);
         configuration.setFailOnViolation(failOnViolation);
         configuration.setAnalysisCacheLocation(cacheLocation != null ? cacheLocation.toString() : null);
-        configuration.setIgnoreIncrementalAnalysis(noCache);
+        // the cache does not replay the suppressed violations, which the baseline must contain
+        configuration.setIgnoreIncrementalAnalysis(noCache || writeBaselineFile != null);
+        configuration.setBaselineFile(baselineFile);
 
         if (languageVersion != null) {
             configuration.setDefaultLanguageVersions(languageVersion);
@@ -297,18 +351,37 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
         configuration.setReporter(new SimpleMessageReporter(LoggerFactory.getLogger(PmdCommand.class)));
 
         try {
-            configuration.prependAuxClasspath(auxClasspath);
+            configuration.prependAuxClasspath(workingDirectory != null ? resolveAuxClasspath() : auxClasspath);
         } catch (IllegalArgumentException e) {
             throw new ParameterException(spec.commandLine(), "Invalid auxiliary classpath: " + e.getMessage(), e);
         }
         return configuration;
     }
 
+    private List<String> resolveRuleSets() {
+        final List<String> resolved = new ArrayList<>(rulesets.size());
+        for (final String ruleset : rulesets) {
+            final Path file = workingDirectory.resolve(ruleset);
+            // other rulesets are resources on the classpath or URLs
+            resolved.add(Files.isRegularFile(file) ? file.toString() : ruleset);
+        }
+        return resolved;
+    }
+
+    private String resolveAuxClasspath() {
+        if (auxClasspath == null || auxClasspath.startsWith("file:")) {
+            return auxClasspath;
+        }
+        return Arrays.stream(auxClasspath.split(File.pathSeparator))
+                     .map(entry -> entry.isEmpty() ? entry : workingDirectory.resolve(entry).toString())
+                     .collect(Collectors.joining(File.pathSeparator));
+    }
+
     @Override
     @NonNull
     protected CliExitCode doExecute(PMDConfiguration configuration) {
-        if (benchmark) {
-            TimeTracker.startGlobalTracking();
+        if (benchmark || profileFile != null) {
+            TimeTracker.startGlobalTracking(profileFile != null);
         }
 
         final MessageReporter pmdReporter = configuration.getReporter();
@@ -317,7 +390,7 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
             PmdAnalysis pmd = null;
             try {
                 try {
-                    pmd = PmdAnalysis.create(configuration);
+                    pmd = session != null ? session.newAnalysis(configuration) : PmdAnalysis.create(configuration);
                 } catch (final Exception e) {
                     pmdReporter.errorEx("Could not initialize analysis", e);
                     return CliExitCode.ERROR;
@@ -334,6 +407,10 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
                     }
                 }
 
+                if (writeBaselineFile != null) {
+                    pmd.addListener(Baseline.recorder(writeBaselineFile));
+                }
+
                 final ReportStats stats = pmd.runAndReturnStats();
                 if (pmdReporter.numErrors() > 0) {
                     // processing errors are ignored
@@ -366,9 +443,18 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
     }
 
     private void finishBenchmarker(final MessageReporter pmdReporter) {
-        if (benchmark) {
-            final TimingReport timingReport = TimeTracker.stopGlobalTracking();
+        if (!benchmark && profileFile == null) {
+            return;
+        }
+        final TimingReport timingReport = TimeTracker.stopGlobalTracking();
+
+        if (profileFile != null) {
+            writeProfile(timingReport, profileFile, new TextCostProfileRenderer(), pmdReporter);
+            writeProfile(timingReport, profileFile.resolveSibling(profileFile.getFileName() + ".collapsed"),
+                         new CollapsedStacksRenderer(), pmdReporter);
+        }
 
+        if (benchmark) {
             // TODO get specified report format from config
             final TimingReportRenderer renderer = new TextTimingReportRenderer();
 
@@ -383,6 +469,14 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
         }
     }
 
+    private void writeProfile(TimingReport timingReport, Path file, TimingReportRenderer renderer, MessageReporter pmdReporter) {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            renderer.render(timingReport, writer);
+        } catch (final IOException e) {
+            pmdReporter.errorEx("Error writing profile to " + file, e);
+        }
+    }
+
     /**
      * Provider of candidates for valid report formats.
      */
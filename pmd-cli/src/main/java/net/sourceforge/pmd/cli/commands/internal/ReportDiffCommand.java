@@ -0,0 +1,84 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cli.commands.internal;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.pmd.cli.internal.CliExitCode;
+import net.sourceforge.pmd.internal.LogMessages;
+import net.sourceforge.pmd.internal.util.IOUtil;
+import net.sourceforge.pmd.reporting.binary.BinaryReportReader;
+import net.sourceforge.pmd.reporting.binary.ReportDiff;
+import net.sourceforge.pmd.reporting.binary.ReportDiff.DiffListener;
+import net.sourceforge.pmd.reporting.binary.ReportedViolation;
+import net.sourceforge.pmd.util.log.MessageReporter;
+import net.sourceforge.pmd.util.log.internal.SimpleMessageReporter;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+@Command(name = "report-diff",
+    description = "Experimental: compares two reports written with the format 'binary', and prints the violations "
+        + "of the current report that are not in the baseline report, prefixed with '+', and the violations of the "
+        + "baseline report that are not in the current report anymore, prefixed with '-'. "
+        + "The exit code is 4 if there are new violations.")
+public class ReportDiffCommand extends AbstractPmdSubcommand {
+
+    @Parameters(index = "0", paramLabel = "<baseline>", description = "The report to compare against.")
+    private Path baseline;
+
+    @Parameters(index = "1", paramLabel = "<current>", description = "The new report.")
+    private Path current;
+
+    @Option(names = { "--report-file", "-r" },
+            description = "Path to a file to which the differences are written. "
+                          + "If not set, the differences are written to the console.")
+    private Path reportFile;
+
+    @Override
+    protected CliExitCode execute() {
+        final MessageReporter reporter = new SimpleMessageReporter(LoggerFactory.getLogger(ReportDiffCommand.class));
+
+        try (BinaryReportReader baselineReport = BinaryReportReader.open(baseline);
+             BinaryReportReader currentReport = BinaryReportReader.open(current);
+             PrintWriter out = new PrintWriter(IOUtil.createWriter(reportFile != null ? reportFile.toString() : null))) {
+            final DiffPrinter printer = new DiffPrinter(out);
+            ReportDiff.compare(baselineReport, currentReport, printer);
+            reporter.info("{0} new violations, {1} fixed violations", String.valueOf(printer.numNew), String.valueOf(printer.numFixed));
+            return printer.numNew > 0 ? CliExitCode.VIOLATIONS_FOUND : CliExitCode.OK;
+        } catch (final IOException e) {
+            reporter.error(e, LogMessages.errorDetectedMessage(1, "report-diff"));
+            return CliExitCode.ERROR;
+        }
+    }
+
+    private static final class DiffPrinter implements DiffListener {
+
+        private final PrintWriter out;
+        private int numNew;
+        private int numFixed;
+
+        DiffPrinter(PrintWriter out) {
+            this.out = out;
+        }
+
+        @Override
+        public void newViolation(ReportedViolation violation) {
+            numNew++;
+            out.println("+ " + violation);
+        }
+
+        @Override
+        public void fixedViolation(ReportedViolation violation) {
+            numFixed++;
+            out.println("- " + violation);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cli.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Sends {@code pmd check} to a running {@code pmd daemon}, if the
+ * environment variable {@value DaemonProtocol#PORT_ENV_VAR} is set.
+ * This class avoids loading anything of PMD but the protocol, so that
+ * the client starts fast.
+ */
+public final class DaemonClient {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+
+    private DaemonClient() {
+        // utility class
+    }
+
+    /**
+     * Runs the command in the daemon and returns its exit code. Returns
+     * null if the command should run in this JVM instead, because there
+     * is no daemon to use, the daemon cannot be reached, it runs another
+     * PMD version, or it rejects the token.
+     */
+    public static @Nullable Integer runInDaemon(String[] args) {
+        String port = System.getenv(DaemonProtocol.PORT_ENV_VAR);
+        if (port == null || args.length == 0 || !"check".equals(args[0])) {
+            return null;
+        }
+        final int portNumber;
+        try {
+            portNumber = Integer.parseInt(port.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        String tokenFile = System.getenv(DaemonProtocol.TOKEN_FILE_ENV_VAR);
+        return runInDaemon(portNumber,
+                           tokenFile != null ? Paths.get(tokenFile) : DaemonProtocol.defaultTokenFile(portNumber),
+                           args);
+    }
+
+    static @Nullable Integer runInDaemon(int port, Path tokenFile, String[] args) {
+        final String token;
+        try {
+            token = DaemonProtocol.readToken(tokenFile);
+        } catch (IOException e) {
+            // no daemon was started by this user
+            return null;
+        }
+
+        try (Socket socket = new Socket()) {
+            try {
+                socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), CONNECT_TIMEOUT_MILLIS);
+            } catch (IOException e) {
+                // no daemon listens on this port
+                return null;
+            }
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DaemonProtocol.writeRequest(out, token, Paths.get(""), Arrays.asList(args).subList(1, args.length));
+            int exitCode = DaemonProtocol.readResponse(in, System.out, System.err);
+            if (exitCode == DaemonProtocol.UNAUTHORIZED) {
+                System.err.println("The PMD daemon on port " + port + " rejected the token in " + tokenFile
+                                       + ", running without the daemon");
+                return null;
+            }
+            return exitCode == DaemonProtocol.VERSION_MISMATCH ? null : exitCode;
+        } catch (IOException e) {
+            // the output may be incomplete, don't run the analysis again
+            System.err.println("Lost the connection to the PMD daemon: " + e);
+            return CliExitCode.ERROR.getExitCode();
+        }
+    }
+}
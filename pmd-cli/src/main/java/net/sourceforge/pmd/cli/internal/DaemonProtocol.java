@@ -0,0 +1,257 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cli.internal;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import net.sourceforge.pmd.PMDVersion;
+
+/**
+ * The protocol between {@code pmd daemon} and its clients. A client
+ * connects to the loopback port of the daemon and sends its PMD version,
+ * the token of the daemon, its working directory and the arguments of the
+ * {@code check} command. The daemon answers with frames of standard output
+ * and standard error, and finally with the exit code of the analysis.
+ *
+ * <p>The daemon writes a random token into a file that only its user can
+ * read, and rejects requests with another token before reading their
+ * arguments. This keeps other local users from running analyses with the
+ * permissions of the user of the daemon.
+ */
+public final class DaemonProtocol {
+
+    /** Environment variable with the port of the daemon, which makes {@code pmd check} use the daemon. */
+    public static final String PORT_ENV_VAR = "PMD_DAEMON_PORT";
+    /** Environment variable with the token file of the daemon, if it is not the default one. */
+    public static final String TOKEN_FILE_ENV_VAR = "PMD_DAEMON_TOKEN_FILE";
+    public static final int DEFAULT_PORT = 4747;
+
+    /** Exit code sent by a daemon of another PMD version. The client then runs the analysis itself. */
+    public static final int VERSION_MISMATCH = -1;
+    /** Exit code sent by a daemon, if the token of the request is wrong. */
+    public static final int UNAUTHORIZED = -2;
+
+    private static final int TOKEN_BYTES = 32;
+
+    private static final byte EXIT = 0;
+    private static final byte STDOUT = 1;
+    private static final byte STDERR = 2;
+
+    private DaemonProtocol() {
+        // utility class
+    }
+
+    /**
+     * Returns the default token file of the daemon listening on the given port.
+     */
+    public static Path defaultTokenFile(int port) {
+        return Paths.get(System.getProperty("user.home"), ".cache", "pmd", "daemon-" + port + ".token");
+    }
+
+    /**
+     * Creates a new random token, and writes it into the given file,
+     * which only the current user can read and write.
+     */
+    public static String createToken(Path tokenFile) throws IOException {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder token = new StringBuilder(2 * TOKEN_BYTES);
+        for (byte b : bytes) {
+            token.append(String.format("%02x", b));
+        }
+
+        Path dir = tokenFile.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        // the permissions are set before the token is written, and the file is only moved into place afterwards
+        Path tmp = Files.createTempFile(dir, "daemon", ".token");
+        try {
+            restrictToOwner(tmp);
+            Files.write(tmp, token.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, tokenFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return token.toString();
+    }
+
+    private static void restrictToOwner(Path file) throws IOException {
+        if (Files.getFileStore(file).supportsFileAttributeView("posix")) {
+            Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-------"));
+        } else {
+            File f = file.toFile();
+            boolean restricted = f.setReadable(false, false) && f.setReadable(true, true)
+                && f.setWritable(false, false) && f.setWritable(true, true);
+            if (!restricted) {
+                throw new IOException("Cannot restrict the permissions of " + file);
+            }
+        }
+    }
+
+    /**
+     * Reads the token of a daemon from its token file.
+     */
+    public static String readToken(Path tokenFile) throws IOException {
+        return new String(Files.readAllBytes(tokenFile), StandardCharsets.UTF_8).trim();
+    }
+
+    public static void writeRequest(DataOutputStream out, String token, Path workingDirectory, List<String> args)
+            throws IOException {
+        out.writeUTF(PMDVersion.VERSION);
+        out.writeUTF(token);
+        out.writeUTF(workingDirectory.toAbsolutePath().toString());
+        out.writeInt(args.size());
+        for (String arg : args) {
+            out.writeUTF(arg);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads the header of a request, and checks the PMD version and the token
+     * of the client. Returns 0 if the request may be read with {@link #readRequest(DataInputStream)},
+     * otherwise {@link #VERSION_MISMATCH} or {@link #UNAUTHORIZED}.
+     */
+    public static int readHeader(DataInputStream in, String token) throws IOException {
+        String version = in.readUTF();
+        if (!PMDVersion.VERSION.equals(version)) {
+            return VERSION_MISMATCH;
+        }
+        byte[] expected = token.getBytes(StandardCharsets.UTF_8);
+        byte[] actual = in.readUTF().getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(expected, actual) ? 0 : UNAUTHORIZED;
+    }
+
+    /**
+     * Reads the rest of a request, after its {@linkplain #readHeader(DataInputStream, String) header}
+     * has been checked.
+     */
+    public static Request readRequest(DataInputStream in) throws IOException {
+        Path workingDirectory = Paths.get(in.readUTF());
+        int size = in.readInt();
+        List<String> args = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            args.add(in.readUTF());
+        }
+        return new Request(workingDirectory, args);
+    }
+
+    /** Returns a stream that sends everything written to it as standard output of the client. */
+    public static OutputStream stdout(DataOutputStream out) {
+        return new FrameOutputStream(out, STDOUT);
+    }
+
+    /** Returns a stream that sends everything written to it as standard error of the client. */
+    public static OutputStream stderr(DataOutputStream out) {
+        return new FrameOutputStream(out, STDERR);
+    }
+
+    public static void writeExitCode(DataOutputStream out, int exitCode) throws IOException {
+        synchronized (out) {
+            out.writeByte(EXIT);
+            out.writeInt(exitCode);
+            out.flush();
+        }
+    }
+
+    /**
+     * Copies the frames of the response to the given streams, and returns
+     * the exit code.
+     */
+    public static int readResponse(DataInputStream in, OutputStream stdout, OutputStream stderr) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (true) {
+            byte channel = in.readByte();
+            if (channel == EXIT) {
+                return in.readInt();
+            }
+            OutputStream target = channel == STDOUT ? stdout : stderr;
+            int length = in.readInt();
+            while (length > 0) {
+                int read = in.read(buffer, 0, Math.min(length, buffer.length));
+                if (read < 0) {
+                    throw new IOException("Truncated response of the daemon");
+                }
+                target.write(buffer, 0, read);
+                length -= read;
+            }
+            target.flush();
+        }
+    }
+
+    public static final class Request {
+
+        private final Path workingDirectory;
+        private final List<String> args;
+
+        Request(Path workingDirectory, List<String> args) {
+            this.workingDirectory = workingDirectory;
+            this.args = Collections.unmodifiableList(args);
+        }
+
+        public Path getWorkingDirectory() {
+            return workingDirectory;
+        }
+
+        public List<String> getArgs() {
+            return args;
+        }
+    }
+
+    private static final class FrameOutputStream extends OutputStream {
+
+        private final DataOutputStream out;
+        private final byte channel;
+
+        FrameOutputStream(DataOutputStream out, byte channel) {
+            this.out = out;
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            synchronized (out) {
+                out.writeByte(channel);
+                out.writeInt(len);
+                out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (out) {
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            // the connection is closed by the daemon
+            flush();
+        }
+    }
+}
@@ -510,6 +510,24 @@ class PmdCliTest extends BaseCliTest {
         runCliSuccessfully("-d", srcDir.toString(), "-f", "text", "-R", RULESET_WITH_VIOLATION, "--minimum-priority", "2");
     }
 
+    @Test
+    void testBaseline() throws Exception {
+        Path baseline = tempRoot().resolve("baseline.pmdbl");
+        runCli(VIOLATIONS_FOUND, "-d", srcDir.toString(), "-f", "text", "-R", RULESET_WITH_VIOLATION,
+               "-z", tempRoot().toString(), "--write-baseline", baseline.toString());
+        assertTrue(Files.exists(baseline));
+
+        runCliSuccessfully("-d", srcDir.toString(), "-f", "text", "-R", RULESET_WITH_VIOLATION,
+                           "-z", tempRoot().toString(), "--baseline", baseline.toString());
+
+        // a file with the same name in another directory is not in the baseline
+        Path otherDir = Files.createDirectories(tempRoot().resolve("other"));
+        writeString(otherDir.resolve("someSource.dummy"), "dummy text");
+        runCli(VIOLATIONS_FOUND, "-d", otherDir.toString(), "-f", "text", "-R", RULESET_WITH_VIOLATION,
+               "-z", tempRoot().toString(), "--baseline", baseline.toString())
+            .verify(r -> r.checkStdOut(startsWith(IOUtil.normalizePath("other/someSource.dummy"))));
+    }
+
     // utilities
     private Path tempRoot() {
         return tempDir;
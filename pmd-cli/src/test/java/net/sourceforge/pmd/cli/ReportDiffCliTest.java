@@ -0,0 +1,77 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cli;
+
+import static net.sourceforge.pmd.cli.internal.CliExitCode.VIOLATIONS_FOUND;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.pmd.cli.internal.CliExitCode;
+
+class ReportDiffCliTest extends BaseCliTest {
+
+    @TempDir
+    private Path tempDir;
+    private Path srcDir;
+    private Path oneFile;
+    private Path twoFiles;
+
+    @BeforeEach
+    void setup() throws Exception {
+        srcDir = Files.createDirectories(tempDir.resolve("src"));
+        Files.write(srcDir.resolve("a.dummy"), "dummy text".getBytes(StandardCharsets.UTF_8));
+        oneFile = writeReport("one.pmdb");
+        Files.write(srcDir.resolve("b.dummy"), "dummy text".getBytes(StandardCharsets.UTF_8));
+        twoFiles = writeReport("two.pmdb");
+    }
+
+    @Test
+    void testNewViolations() throws Exception {
+        runCli(VIOLATIONS_FOUND, "report-diff", oneFile.toString(), twoFiles.toString())
+            .verify(r -> {
+                r.checkStdOut(containsString("+ " + srcDir.resolve("b.dummy") + ":1:1: ReportAllRootNodes:"));
+                r.checkStdOut(not(containsString("a.dummy")));
+            });
+    }
+
+    @Test
+    void testFixedViolations() throws Exception {
+        Path diff = tempDir.resolve("diff.txt");
+        runCliSuccessfully("report-diff", twoFiles.toString(), oneFile.toString(), "-r", diff.toString())
+            .verify(r -> r.checkStdOut(equalTo("")));
+        String contents = new String(Files.readAllBytes(diff), StandardCharsets.UTF_8);
+        assertThat(contents, equalTo("- " + srcDir.resolve("b.dummy") + ":1:1: ReportAllRootNodes: Violation from ReportAllRootNodes" + System.lineSeparator()));
+    }
+
+    @Test
+    void testMissingReport() throws Exception {
+        runCli(CliExitCode.ERROR, "report-diff", oneFile.toString(), tempDir.resolve("missing.pmdb").toString())
+            .verify(r -> r.checkStdErr(containsString("missing.pmdb")));
+    }
+
+    private Path writeReport(String name) throws Exception {
+        Path report = tempDir.resolve(name);
+        runCli(VIOLATIONS_FOUND, "check", "-d", srcDir.toString(), "-R", PmdCliTest.RULESET_WITH_VIOLATION,
+               "-f", "binary", "-r", report.toString(), "--no-cache", "--no-progress");
+        return report;
+    }
+
+    @Override
+    protected List<String> cliStandardArgs() {
+        return Collections.emptyList();
+    }
+}
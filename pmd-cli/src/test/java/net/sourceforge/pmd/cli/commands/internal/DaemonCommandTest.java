@@ -0,0 +1,112 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cli.commands.internal;
+
+import static net.sourceforge.pmd.util.CollectionUtil.listOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.pmd.AnalysisSession;
+import net.sourceforge.pmd.cli.internal.CliExitCode;
+import net.sourceforge.pmd.cli.internal.DaemonProtocol;
+import net.sourceforge.pmd.util.log.internal.SimpleMessageReporter;
+
+class DaemonCommandTest {
+
+    private static final String RULESET_WITH_VIOLATION = "net/sourceforge/pmd/cli/RuleSetWithViolations.xml";
+
+    @TempDir
+    private Path tempDir;
+
+    private ServerSocket server;
+    private AnalysisSession session;
+    private Thread daemon;
+    private String token;
+
+    @BeforeEach
+    void startDaemon() throws IOException {
+        token = DaemonProtocol.createToken(tempDir.resolve("daemon.token"));
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        session = new AnalysisSession();
+        SimpleMessageReporter reporter = new SimpleMessageReporter(LoggerFactory.getLogger(DaemonCommandTest.class));
+        daemon = new Thread(() -> DaemonCommand.serve(server, token, session, reporter));
+        daemon.start();
+    }
+
+    @AfterEach
+    void stopDaemon() throws Exception {
+        server.close();
+        daemon.join();
+        session.close();
+    }
+
+    @Test
+    void testRequestWithTokenIsAnalysed() throws IOException {
+        Path report = tempDir.resolve("report.txt");
+
+        assertEquals(CliExitCode.VIOLATIONS_FOUND.getExitCode(), send(token, checkArgs(report)));
+        assertThat(new String(Files.readAllBytes(report), StandardCharsets.UTF_8),
+                   containsString("Violation from ReportAllRootNodes"));
+    }
+
+    @Test
+    void testRequestWithWrongTokenIsNotAnalysed() throws IOException {
+        Path report = tempDir.resolve("report.txt");
+
+        assertEquals(DaemonProtocol.UNAUTHORIZED, send("not the token", checkArgs(report)));
+        assertFalse(Files.exists(report));
+
+        // the daemon keeps serving
+        assertEquals(CliExitCode.VIOLATIONS_FOUND.getExitCode(), send(token, checkArgs(report)));
+    }
+
+    @Test
+    void testRelativePathsAreResolvedAgainstTheWorkingDirectory() throws IOException {
+        Path source = Files.write(tempDir.resolve("Foo.dummy"), "foo".getBytes(StandardCharsets.UTF_8));
+
+        List<String> args = listOf("-d", "Foo.dummy", "-R", RULESET_WITH_VIOLATION, "-f", "text", "-r", "report.txt");
+        assertEquals(CliExitCode.VIOLATIONS_FOUND.getExitCode(), send(token, args));
+        // the paths are rendered like in a local run, which doesn't relativize them by default
+        assertThat(new String(Files.readAllBytes(tempDir.resolve("report.txt")), StandardCharsets.UTF_8),
+                   startsWith(source + ":"));
+    }
+
+    private List<String> checkArgs(Path report) throws IOException {
+        Path source = Files.write(tempDir.resolve("Foo.dummy"), "foo".getBytes(StandardCharsets.UTF_8));
+        return listOf("-d", source.toString(), "-R", RULESET_WITH_VIOLATION, "-f", "text", "-r", report.toString());
+    }
+
+    private int send(String token, List<String> args) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort())) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DaemonProtocol.writeRequest(out, token, tempDir, args);
+            return DaemonProtocol.readResponse(in, new ByteArrayOutputStream(), new ByteArrayOutputStream());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cli.internal;
+
+import static net.sourceforge.pmd.util.CollectionUtil.listOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DaemonProtocolTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testTokenFileIsOnlyReadableByOwner() throws IOException {
+        Path tokenFile = tempDir.resolve("sub/daemon.token");
+        String token = DaemonProtocol.createToken(tokenFile);
+
+        assertEquals(64, token.length());
+        assertEquals(token, DaemonProtocol.readToken(tokenFile));
+        assumeTrue(Files.getFileStore(tokenFile).supportsFileAttributeView("posix"));
+        assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(tokenFile)));
+    }
+
+    @Test
+    void testNewTokenReplacesOldOne() throws IOException {
+        Path tokenFile = tempDir.resolve("daemon.token");
+        String first = DaemonProtocol.createToken(tokenFile);
+        String second = DaemonProtocol.createToken(tokenFile);
+
+        assertNotEquals(first, second);
+        assertEquals(second, DaemonProtocol.readToken(tokenFile));
+    }
+
+    @Test
+    void testRequestWithRightToken() throws IOException {
+        DataInputStream in = request("secret");
+
+        assertEquals(0, DaemonProtocol.readHeader(in, "secret"));
+        DaemonProtocol.Request request = DaemonProtocol.readRequest(in);
+        assertEquals(tempDir.toAbsolutePath(), request.getWorkingDirectory());
+        assertEquals(listOf("-d", "src"), request.getArgs());
+    }
+
+    @Test
+    void testRequestWithWrongTokenIsRejected() throws IOException {
+        assertEquals(DaemonProtocol.UNAUTHORIZED, DaemonProtocol.readHeader(request("guess"), "secret"));
+        assertEquals(DaemonProtocol.UNAUTHORIZED, DaemonProtocol.readHeader(request(""), "secret"));
+    }
+
+    @Test
+    void testResponseFrames() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try (OutputStream stdout = DaemonProtocol.stdout(out);
+             OutputStream stderr = DaemonProtocol.stderr(out)) {
+            stdout.write("report".getBytes(StandardCharsets.UTF_8));
+            stderr.write("warning".getBytes(StandardCharsets.UTF_8));
+            stdout.write('\n');
+        }
+        DaemonProtocol.writeExitCode(out, 4);
+
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(4, DaemonProtocol.readResponse(in, stdout, stderr));
+        assertEquals("report\n", new String(stdout.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals("warning", new String(stderr.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private DataInputStream request(String token) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DaemonProtocol.writeRequest(new DataOutputStream(bytes), token, tempDir, listOf("-d", "src"));
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+}
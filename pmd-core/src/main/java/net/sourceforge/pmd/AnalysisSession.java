@@ -0,0 +1,266 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.cache.AbstractAnalysisCache;
+import net.sourceforge.pmd.cache.AnalysisCache;
+import net.sourceforge.pmd.cache.NoopAnalysisCache;
+import net.sourceforge.pmd.cache.internal.ClasspathFingerprinter;
+import net.sourceforge.pmd.internal.util.ClasspathClassLoader;
+import net.sourceforge.pmd.internal.util.IOUtil;
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageProcessorRegistry;
+import net.sourceforge.pmd.lang.LanguageProcessorRegistry.LanguageTerminationException;
+import net.sourceforge.pmd.lang.LanguagePropertyBundle;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.properties.PropertyDescriptor;
+
+/**
+ * Keeps the expensive state of analyses warm between several analyses
+ * that run in the same JVM, for instance in a long-running daemon process.
+ * Analyses created with {@link #newAnalysis(PMDConfiguration)} reuse
+ * <ul>
+ * <li>the rulesets loaded by previous analyses, as long as the ruleset files
+ * on the file system did not change,
+ * <li>the language processors, including their symbol resolvers, as long as the
+ * analysed languages, the language properties and the auxclasspath did not change, and
+ * <li>the violations of files that did not change since the previous analysis,
+ * unless the configuration disables incremental analysis or uses its own cache file.
+ * </ul>
+ *
+ * <p>The state is invalidated automatically when any of these change.
+ * When some files are edited between two analyses, only those files are
+ * analysed again, by the warm language processors. A language processor
+ * may also invalidate the cached violations of files that depend on the
+ * edited files. For instance, the Java processor does so when the edit
+ * changes declarations that other files resolved from the sources.
+ * Analyses of a session must run one after another, not concurrently.
+ *
+ * <pre>{@code
+ * try (AnalysisSession session = new AnalysisSession()) {
+ *     for (PMDConfiguration config : requests) {
+ *         try (PmdAnalysis pmd = session.newAnalysis(config)) {
+ *             pmd.performAnalysis();
+ *         }
+ *     }
+ * }
+ * }</pre>
+ */
+@Experimental
+public final class AnalysisSession implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AnalysisSession.class);
+    private static final ClasspathFingerprinter FINGERPRINTER = new ClasspathFingerprinter();
+
+    private final Map<List<Object>, LoadedRuleSets> ruleSets = new HashMap<>();
+    private @Nullable List<Object> processorsKey;
+    private @Nullable LanguageProcessorRegistry processors;
+    private @Nullable ClassLoader processorsClassLoader;
+    private final SessionAnalysisCache analysisCache = new SessionAnalysisCache();
+
+    /**
+     * Creates an analysis like {@link PmdAnalysis#create(PMDConfiguration)},
+     * which reuses the warm state of this session. The configuration is
+     * not modified.
+     */
+    public PmdAnalysis newAnalysis(PMDConfiguration config) {
+        return PmdAnalysis.create(config, this);
+    }
+
+    /**
+     * Returns the cache used by an analysis of this session. If the
+     * configuration has no analysis cache, and incremental analysis is
+     * not disabled, this is the in-memory cache of this session.
+     */
+    AnalysisCache getAnalysisCache(PMDConfiguration config) {
+        if (!config.isIgnoreIncrementalAnalysis() && config.getAnalysisCache() instanceof NoopAnalysisCache) {
+            return analysisCache;
+        }
+        return config.getAnalysisCache();
+    }
+
+    List<RuleSet> getRuleSets(PMDConfiguration config, RuleSetLoader loader) {
+        List<String> paths = config.getRuleSetPaths();
+        List<Object> key = Arrays.asList(paths, config.getMinimumPriority(), config.isRuleSetFactoryCompatibilityEnabled());
+        LoadedRuleSets loaded = ruleSets.get(key);
+        if (loaded != null && loaded.isUpToDate()) {
+            return loaded.ruleSets;
+        } else if (loaded != null) {
+            LOG.debug("Ruleset files changed, reloading {}", paths);
+        }
+
+        Set<String> files = new LinkedHashSet<>();
+        List<RuleSet> result = loader.recordRuleSetFiles(files).loadRuleSetsWithoutException(paths);
+        if (result.size() == paths.size()) {
+            ruleSets.put(key, new LoadedRuleSets(result, files));
+        } else {
+            // some rulesets could not be loaded, retry next time
+            ruleSets.remove(key);
+        }
+        return result;
+    }
+
+    LanguageProcessorRegistry getLanguageProcessors(LanguageRegistry languages,
+                                                    Map<Language, LanguagePropertyBundle> properties,
+                                                    PMDConfiguration config) {
+        List<Object> key = processorsKey(languages, properties, config.getClassLoader());
+        if (processors != null && key.equals(processorsKey)) {
+            return processors;
+        } else if (processors != null) {
+            LOG.debug("Languages, language properties or auxclasspath changed, restarting language processors");
+        }
+        // the cached violations may depend on the language properties
+        analysisCache.clear();
+
+        closeProcessors();
+        processors = LanguageProcessorRegistry.create(languages, properties, config.getReporter());
+        processorsKey = key;
+        processorsClassLoader = config.getClassLoader();
+        return processors;
+    }
+
+    /**
+     * Returns true if the language processors of this session use the
+     * given classloader, which must then stay open.
+     */
+    boolean isInUse(ClassLoader classLoader) {
+        return classLoader == processorsClassLoader; // NOPMD CompareObjectsWithEquals
+    }
+
+    private static List<Object> processorsKey(LanguageRegistry languages,
+                                              Map<Language, LanguagePropertyBundle> properties,
+                                              ClassLoader classLoader) {
+        List<Object> key = new ArrayList<>();
+        for (Language language : languages) {
+            key.add(language.getId());
+            LanguagePropertyBundle bundle = properties.get(language);
+            if (bundle != null) {
+                Map<String, String> values = new TreeMap<>();
+                for (Entry<PropertyDescriptor<?>, Object> entry : bundle.getPropertiesByPropertyDescriptor().entrySet()) {
+                    values.put(entry.getKey().name(), String.valueOf(entry.getValue()));
+                }
+                key.add(values);
+            }
+        }
+        if (classLoader instanceof URLClassLoader) {
+            // the classloader itself is new for each configuration, compare its contents
+            @SuppressWarnings("PMD.CloseResource")
+            URLClassLoader urlClassLoader = (URLClassLoader) classLoader;
+            key.add(Arrays.asList(urlClassLoader.getURLs()));
+            key.add(FINGERPRINTER.fingerprint(urlClassLoader.getURLs()));
+        } else {
+            key.add(classLoader);
+        }
+        return key;
+    }
+
+    private void closeProcessors() {
+        if (processors != null) {
+            try {
+                processors.close();
+            } catch (LanguageTerminationException e) {
+                LOG.warn("Error while closing language processors", e);
+            }
+            if (processorsClassLoader instanceof ClasspathClassLoader) {
+                IOUtil.tryCloseClassLoader(processorsClassLoader);
+            }
+        }
+        processors = null;
+        processorsKey = null;
+        processorsClassLoader = null;
+    }
+
+    /**
+     * Closes the language processors of this session and forgets the loaded rulesets.
+     */
+    @Override
+    public void close() {
+        closeProcessors();
+        ruleSets.clear();
+        analysisCache.clear();
+    }
+
+    /**
+     * Keeps the results of the previous analysis in memory.
+     */
+    private static final class SessionAnalysisCache extends AbstractAnalysisCache {
+
+        private boolean exists;
+
+        @Override
+        public void persist() {
+            fileResultsCache.clear();
+            fileResultsCache.putAll(updatedResultsCache);
+            updatedResultsCache.clear();
+            exists = true;
+        }
+
+        @Override
+        protected boolean cacheExists() {
+            return exists;
+        }
+
+        @Override
+        protected long computeExecutionClassPathChecksum() {
+            // the classpath of a running JVM doesn't change
+            return 0;
+        }
+
+        void clear() {
+            fileResultsCache.clear();
+            exists = false;
+        }
+    }
+
+    private static final class LoadedRuleSets {
+
+        private final List<RuleSet> ruleSets;
+        private final Map<String, Long> checksums = new HashMap<>();
+
+        LoadedRuleSets(List<RuleSet> ruleSets, Set<String> files) {
+            this.ruleSets = Collections.unmodifiableList(ruleSets);
+            for (String file : files) {
+                checksums.put(file, checksum(file));
+            }
+        }
+
+        boolean isUpToDate() {
+            for (Entry<String, Long> file : checksums.entrySet()) {
+                if (checksum(file.getKey()) != file.getValue()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long checksum(String file) {
+            try {
+                return RuleSetSnapshot.checksum(new File(file).toPath());
+            } catch (IOException e) {
+                // the file has been removed, or cannot be read
+                return -1;
+            }
+        }
+    }
+}
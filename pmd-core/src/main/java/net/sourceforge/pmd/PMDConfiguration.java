@@ -117,6 +117,8 @@ public class PMDConfiguration extends AbstractConfiguration {
     private AnalysisCache analysisCache = new NoopAnalysisCache();
     private boolean ignoreIncrementalAnalysis;
 
+    private Path baselineFile;
+
     public PMDConfiguration() {
         this(DEFAULT_REGISTRY);
     }
@@ -576,4 +578,28 @@ public class PMDConfiguration extends AbstractConfiguration {
     public void setReportFile(Path reportFile) {
         this.reportFile = reportFile;
     }
+
+    /**
+     * Get the baseline file, whose violations are reported as suppressed
+     * violations.
+     *
+     * @return The baseline file, or null if there is none
+     *
+     * @see net.sourceforge.pmd.reporting.Baseline
+     */
+    public @Nullable Path getBaselineFile() {
+        return baselineFile;
+    }
+
+    /**
+     * Set the baseline file, whose violations are reported as suppressed
+     * violations. A baseline is written by {@link net.sourceforge.pmd.reporting.Baseline#recorder(Path)}.
+     * Files are matched by their path relative to the {@linkplain #getRelativizeRoots() relativize roots},
+     * which should be the same as when the baseline was recorded.
+     *
+     * @param baselineFile The baseline file, or null to report all violations
+     */
+    public void setBaselineFile(@Nullable Path baselineFile) {
+        this.baselineFile = baselineFile;
+    }
 }
@@ -6,6 +6,7 @@ package net.sourceforge.pmd;
 
 import static net.sourceforge.pmd.util.CollectionUtil.listOf;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -17,6 +18,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.event.Level;
@@ -25,6 +27,8 @@ import net.sourceforge.pmd.Report.GlobalReportBuilderListener;
 import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.benchmark.TimedOperation;
 import net.sourceforge.pmd.benchmark.TimedOperationCategory;
+import net.sourceforge.pmd.benchmark.internal.FlightRecorderEvents;
+import net.sourceforge.pmd.cache.AnalysisCache;
 import net.sourceforge.pmd.cache.AnalysisCacheListener;
 import net.sourceforge.pmd.cache.NoopAnalysisCache;
 import net.sourceforge.pmd.internal.LogMessages;
@@ -43,6 +47,7 @@ import net.sourceforge.pmd.lang.LanguageVersionDiscoverer;
 import net.sourceforge.pmd.lang.document.FileCollector;
 import net.sourceforge.pmd.lang.document.TextFile;
 import net.sourceforge.pmd.renderers.Renderer;
+import net.sourceforge.pmd.reporting.Baseline;
 import net.sourceforge.pmd.reporting.ConfigurableFileNameRenderer;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
 import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
@@ -141,6 +146,8 @@ public final class PmdAnalysis implements AutoCloseable {
     private final Map<Language, LanguagePropertyBundle> langProperties = new HashMap<>();
     private boolean closed;
     private final ConfigurableFileNameRenderer fileNameRenderer = new ConfigurableFileNameRenderer();
+    // set if this analysis reuses the warm state of a session
+    private @Nullable AnalysisSession session;
 
     /**
      * Constructs a new instance. The files paths (input files, filelist,
@@ -172,7 +179,12 @@ public final class PmdAnalysis implements AutoCloseable {
      * </ul>
      */
     public static PmdAnalysis create(PMDConfiguration config) {
+        return create(config, null);
+    }
+
+    static PmdAnalysis create(PMDConfiguration config, @Nullable AnalysisSession session) {
         PmdAnalysis pmd = new PmdAnalysis(config);
+        pmd.session = session;
 
         // note: do not filter files by language
         // they could be ignored later. The problem is if you call
@@ -187,28 +199,12 @@ public final class PmdAnalysis implements AutoCloseable {
 
         if (!config.getRuleSetPaths().isEmpty()) {
             final RuleSetLoader ruleSetLoader = pmd.newRuleSetLoader();
-            final List<RuleSet> ruleSets = ruleSetLoader.loadRuleSetsWithoutException(config.getRuleSetPaths());
+            final List<RuleSet> ruleSets = session != null
+                                           ? session.getRuleSets(config, ruleSetLoader)
+                                           : ruleSetLoader.loadRuleSetsWithoutException(config.getRuleSetPaths());
             pmd.addRuleSets(ruleSets);
         }
 
-        for (Language language : config.getLanguageRegistry()) {
-            LanguagePropertyBundle props = config.getLanguageProperties(language);
-            assert props.getLanguage().equals(language);
-            pmd.langProperties.put(language, props);
-
-            LanguageVersion forcedVersion = config.getForceLanguageVersion();
-            if (forcedVersion != null && forcedVersion.getLanguage().equals(language)) {
-                props.setLanguageVersion(forcedVersion.getVersion());
-            }
-
-            // TODO replace those with actual language properties when the
-            //  CLI syntax is implemented.
-            props.setProperty(LanguagePropertyBundle.SUPPRESS_MARKER, config.getSuppressMarker());
-            if (props instanceof JvmLanguagePropertyBundle) {
-                ((JvmLanguagePropertyBundle) props).setClassLoader(config.getClassLoader());
-            }
-        }
-
         for (Path path : config.getRelativizeRoots()) {
             pmd.fileNameRenderer.relativizeWith(path);
         }
@@ -328,7 +324,27 @@ public final class PmdAnalysis implements AutoCloseable {
      */
     public LanguagePropertyBundle getLanguageProperties(Language language) {
         configuration.checkLanguageIsRegistered(language);
-        return langProperties.computeIfAbsent(language, Language::newPropertyBundle);
+        return langProperties.computeIfAbsent(language, this::initLanguageProperties);
+    }
+
+    // The bundles are only set up for the languages that are used, which
+    // avoids loading the property classes of every language on the classpath.
+    private LanguagePropertyBundle initLanguageProperties(Language language) {
+        LanguagePropertyBundle props = configuration.getLanguageProperties(language);
+        assert props.getLanguage().equals(language);
+
+        LanguageVersion forcedVersion = configuration.getForceLanguageVersion();
+        if (forcedVersion != null && forcedVersion.getLanguage().equals(language)) {
+            props.setLanguageVersion(forcedVersion.getVersion());
+        }
+
+        // TODO replace those with actual language properties when the
+        //  CLI syntax is implemented.
+        props.setProperty(LanguagePropertyBundle.SUPPRESS_MARKER, configuration.getSuppressMarker());
+        if (props instanceof JvmLanguagePropertyBundle) {
+            ((JvmLanguagePropertyBundle) props).setClassLoader(configuration.getClassLoader());
+        }
+        return props;
     }
 
 
@@ -373,18 +389,22 @@ public final class PmdAnalysis implements AutoCloseable {
 
     void performAnalysisImpl(List<? extends GlobalReportBuilderListener> extraListeners, List<TextFile> textFiles) {
         RuleSets rulesets = new RuleSets(this.ruleSets);
+        rulesets.setBaseline(loadBaseline());
+        AnalysisCache analysisCache = session != null ? session.getAnalysisCache(configuration)
+                                                      : configuration.getAnalysisCache();
 
         GlobalAnalysisListener listener;
         try {
             @SuppressWarnings("PMD.CloseResource")
-            AnalysisCacheListener cacheListener = new AnalysisCacheListener(configuration.getAnalysisCache(),
+            AnalysisCacheListener cacheListener = new AnalysisCacheListener(analysisCache,
                                                                             rulesets,
                                                                             configuration.getClassLoader(),
                                                                             textFiles);
             listener = GlobalAnalysisListener.tee(listOf(createComposedRendererListener(renderers),
                                                          GlobalAnalysisListener.tee(listeners),
                                                          GlobalAnalysisListener.tee(extraListeners),
-                                                         cacheListener));
+                                                         cacheListener,
+                                                         FlightRecorderEvents.getInstance().newListener()));
             
             // Initialize listeners
             try (ListenerInitializer initializer = listener.initializer()) {
@@ -405,14 +425,23 @@ public final class PmdAnalysis implements AutoCloseable {
                 listener.onConfigError(new Report.ConfigurationError(rule, rule.dysfunctionReason()));
             }
 
-            encourageToUseIncrementalAnalysis(configuration);
+            encourageToUseIncrementalAnalysis(configuration, analysisCache);
 
-            try (LanguageProcessorRegistry lpRegistry = LanguageProcessorRegistry.create(
-                // only start the applicable languages (and dependencies)
-                new LanguageRegistry(getApplicableLanguages(true)),
-                langProperties,
-                reporter
-            )) {
+            // Only start the applicable languages (and dependencies). Processors of
+            // a session are kept warm for all rule languages, otherwise languages
+            // without any file to analyse are not started at all.
+            LanguageRegistry applicableLanguages = new LanguageRegistry(
+                session == null ? getLanguagesToStart(textFiles) : getApplicableLanguages(true));
+            for (Language language : applicableLanguages) {
+                getLanguageProperties(language);
+            }
+            // the processors of a session are kept open for the next analyses
+            try (LanguageProcessorRegistry ownRegistry = session == null
+                                                         ? LanguageProcessorRegistry.create(applicableLanguages, langProperties, reporter)
+                                                         : null) {
+                LanguageProcessorRegistry lpRegistry = ownRegistry != null
+                                                       ? ownRegistry
+                                                       : session.getLanguageProcessors(applicableLanguages, langProperties, configuration);
                 // Note the analysis task is shared: all processors see
                 // the same file list, which may contain files for other
                 // languages.
@@ -421,7 +450,7 @@ public final class PmdAnalysis implements AutoCloseable {
                     textFiles,
                     listener,
                     configuration.getThreads(),
-                    configuration.getAnalysisCache(),
+                    analysisCache,
                     reporter,
                     lpRegistry
                 );
@@ -475,6 +504,24 @@ public final class PmdAnalysis implements AutoCloseable {
     }
 
     private Set<Language> getApplicableLanguages(boolean quiet) {
+        return withDependencies(getRuleLanguages(quiet));
+    }
+
+    /**
+     * Returns the applicable languages of which some files are analysed,
+     * and their dependencies.
+     */
+    private Set<Language> getLanguagesToStart(List<TextFile> textFiles) {
+        Set<Language> fileLanguages = new HashSet<>();
+        for (TextFile file : textFiles) {
+            fileLanguages.add(file.getLanguageVersion().getLanguage());
+        }
+        Set<Language> languages = getRuleLanguages(true);
+        languages.retainAll(fileLanguages);
+        return withDependencies(languages);
+    }
+
+    private Set<Language> getRuleLanguages(boolean quiet) {
         Set<Language> languages = new HashSet<>();
         LanguageVersionDiscoverer discoverer = configuration.getLanguageVersionDiscoverer();
 
@@ -494,7 +541,10 @@ public final class PmdAnalysis implements AutoCloseable {
                 }
             }
         }
+        return languages;
+    }
 
+    private Set<Language> withDependencies(Set<Language> languages) {
         // collect all dependencies, they shouldn't be filtered out
         LanguageRegistry reg = configuration.getLanguageRegistry();
         boolean changed;
@@ -533,6 +583,25 @@ public final class PmdAnalysis implements AutoCloseable {
         return brokenRules;
     }
 
+    /**
+     * Opens the baseline of the configuration, if any. If it cannot be
+     * opened, the error is reported and all violations are reported.
+     */
+    private @Nullable Baseline loadBaseline() {
+        Path baselineFile = configuration.getBaselineFile();
+        if (baselineFile == null) {
+            return null;
+        }
+        try {
+            Baseline baseline = Baseline.open(baselineFile, fileNameRenderer());
+            reporter.log(Level.DEBUG, "Loaded baseline {0} with {1} violations", baselineFile, baseline.size());
+            return baseline;
+        } catch (IOException e) {
+            reporter.errorEx("Cannot load baseline {0}", new Object[] {baselineFile}, e);
+            return null;
+        }
+    }
+
 
     public MessageReporter getReporter() {
         return reporter;
@@ -553,8 +622,10 @@ public final class PmdAnalysis implements AutoCloseable {
          * Make sure it's our own classloader before attempting to close it....
          * Maven + Jacoco provide us with a cloaseable classloader that if closed
          * will throw a ClassNotFoundException.
+         * A session may still use it in its language processors.
          */
-        if (configuration.getClassLoader() instanceof ClasspathClassLoader) {
+        if (configuration.getClassLoader() instanceof ClasspathClassLoader
+            && (session == null || !session.isInUse(configuration.getClassLoader()))) {
             IOUtil.tryCloseClassLoader(configuration.getClassLoader());
         }
     }
@@ -597,11 +668,11 @@ public final class PmdAnalysis implements AutoCloseable {
         printErrorDetected(getReporter(), errors);
     }
 
-    private static void encourageToUseIncrementalAnalysis(final PMDConfiguration configuration) {
+    private static void encourageToUseIncrementalAnalysis(final PMDConfiguration configuration, AnalysisCache analysisCache) {
         final MessageReporter reporter = configuration.getReporter();
 
         if (!configuration.isIgnoreIncrementalAnalysis()
-            && configuration.getAnalysisCache() instanceof NoopAnalysisCache
+            && analysisCache instanceof NoopAnalysisCache
             && reporter.isLoggable(Level.WARN)) {
             final String version =
                 PMDVersion.isUnknown() || PMDVersion.isSnapshot() ? "latest" : "pmd-doc-" + PMDVersion.VERSION;
@@ -11,7 +11,10 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -189,13 +192,48 @@ public final class Report {
     @InternalApi
     public void addRuleViolation(RuleViolation violation) {
         synchronized (violations) {
-            // note that this binary search is inefficient as we usually
-            // report violations file by file.
+            if (violations.isEmpty()
+                || RuleViolation.DEFAULT_COMPARATOR.compare(violations.get(violations.size() - 1), violation) <= 0) {
+                // violations of a file are usually reported in order
+                violations.add(violation);
+                return;
+            }
             int index = Collections.binarySearch(violations, violation, RuleViolation.DEFAULT_COMPARATOR);
             violations.add(index < 0 ? -index - 1 : index, violation);
         }
     }
 
+    /**
+     * Adds violations that are sorted with {@link RuleViolation#DEFAULT_COMPARATOR}.
+     * This is a linear merge, instead of one binary search per violation.
+     */
+    private void addSortedViolations(List<RuleViolation> sorted) {
+        if (sorted.isEmpty()) {
+            return;
+        }
+        synchronized (violations) {
+            if (violations.isEmpty()
+                || RuleViolation.DEFAULT_COMPARATOR.compare(violations.get(violations.size() - 1), sorted.get(0)) <= 0) {
+                violations.addAll(sorted);
+                return;
+            }
+            List<RuleViolation> merged = new ArrayList<>(violations.size() + sorted.size());
+            int i = 0;
+            int j = 0;
+            while (i < violations.size() && j < sorted.size()) {
+                if (RuleViolation.DEFAULT_COMPARATOR.compare(violations.get(i), sorted.get(j)) <= 0) {
+                    merged.add(violations.get(i++));
+                } else {
+                    merged.add(sorted.get(j++));
+                }
+            }
+            merged.addAll(violations.subList(i, violations.size()));
+            merged.addAll(sorted.subList(j, sorted.size()));
+            violations.clear();
+            violations.addAll(merged);
+        }
+    }
+
     /**
      * Adds a new suppressed violation.
      */
@@ -251,9 +289,11 @@ public final class Report {
         configErrors.addAll(r.configErrors);
         suppressedRuleViolations.addAll(r.suppressedRuleViolations);
 
-        for (RuleViolation violation : r.getViolations()) {
-            addRuleViolation(violation);
+        List<RuleViolation> otherViolations;
+        synchronized (r.violations) {
+            otherViolations = new ArrayList<>(r.violations);
         }
+        addSortedViolations(otherViolations);
     }
 
 
@@ -350,10 +390,15 @@ public final class Report {
 
         private final Report report = new Report();
 
+        // each file gets its own report, so that analysis threads
+        // don't contend on the lists of the global report
+        private final Queue<FileReport> fileReports = new ConcurrentLinkedQueue<>();
+
         @Override
         public FileAnalysisListener startFileAnalysis(TextFile file) {
-            // note that the report is shared, but Report is now thread-safe
-            return new ReportBuilderListener(this.report);
+            Report fileReport = new Report();
+            fileReports.add(new FileReport(file.getFileId(), fileReport));
+            return new ReportBuilderListener(fileReport);
         }
 
         @Override
@@ -361,10 +406,36 @@ public final class Report {
             report.addConfigError(error);
         }
 
+        /**
+         * Merges the reports of the files into the global report. They
+         * are merged in file order, so the violations of the global
+         * report are sorted without sorting them again.
+         */
+        @Override
+        protected void closeImpl() {
+            List<FileReport> sorted = new ArrayList<>(fileReports);
+            fileReports.clear();
+            sorted.sort(Comparator.comparing(fr -> fr.fileId));
+            for (FileReport fileReport : sorted) {
+                report.merge(fileReport.report);
+            }
+        }
+
         @Override
         protected Report getResultImpl() {
             return report;
         }
+
+        private static final class FileReport {
+
+            private final FileId fileId;
+            private final Report report;
+
+            FileReport(FileId fileId, Report report) {
+                this.fileId = fileId;
+                this.report = report;
+            }
+        }
     }
 
     /**
@@ -5,25 +5,29 @@
 package net.sourceforge.pmd;
 
 import static net.sourceforge.pmd.util.CollectionUtil.listOf;
+import static net.sourceforge.pmd.util.CollectionUtil.map;
 
 import java.text.MessageFormat;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
-import org.apache.commons.lang3.StringUtils;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import net.sourceforge.pmd.Report.SuppressedViolation;
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.annotation.InternalApi;
 import net.sourceforge.pmd.lang.LanguageVersionHandler;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.document.FileLocation;
 import net.sourceforge.pmd.lang.document.TextRange2d;
 import net.sourceforge.pmd.lang.rule.AbstractRule;
-import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
-import net.sourceforge.pmd.properties.PropertyDescriptor;
+import net.sourceforge.pmd.lang.rule.internal.CompactRuleViolation;
+import net.sourceforge.pmd.lang.rule.xpath.impl.XPathHandler;
+import net.sourceforge.pmd.lang.rule.xpath.internal.SaxonXPathRuleQuery;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
 import net.sourceforge.pmd.reporting.ViolationDecorator;
 
@@ -50,12 +54,25 @@ public final class RuleContext {
 
     private final FileAnalysisListener listener;
     private final Rule rule;
+    private final List<ViolationSuppressor> defaultSuppressors;
+    private final @Nullable ViolationSuppressor baselineSuppressor;
 
-    private RuleContext(FileAnalysisListener listener, Rule rule) {
+    private RuleContext(FileAnalysisListener listener,
+                        Rule rule,
+                        @Nullable SaxonXPathRuleQuery suppressionQuery,
+                        @Nullable ViolationSuppressor baselineSuppressor) {
         Objects.requireNonNull(listener, "Listener was null");
         Objects.requireNonNull(rule, "Rule was null");
         this.listener = listener;
         this.rule = rule;
+        this.defaultSuppressors = suppressionQuery == null
+                                  ? DEFAULT_SUPPRESSORS
+                                  : withXPathSuppressor(new CompiledXPathSuppressor(suppressionQuery));
+        this.baselineSuppressor = baselineSuppressor;
+    }
+
+    private static List<ViolationSuppressor> withXPathSuppressor(ViolationSuppressor xpathSuppressor) {
+        return map(DEFAULT_SUPPRESSORS, s -> s == ViolationSuppressor.XPATH_SUPPRESSOR ? xpathSuppressor : s);
     }
 
     /**
@@ -137,16 +154,42 @@ public final class RuleContext {
         Objects.requireNonNull(message, "Message was null");
         Objects.requireNonNull(formatArgs, "Format arguments were null, use an empty array");
 
-        LanguageVersionHandler handler = node.getAstInfo().getLanguageProcessor().services();
-
         FileLocation location = node.getReportLocation();
         if (beginLine != -1 && endLine != -1) {
             location = FileLocation.range(location.getFileId(), TextRange2d.range2d(beginLine, 1, endLine, 1));
         }
+        addViolation(node, location, message, formatArgs, Collections.emptyMap());
+    }
+
+    /**
+     * Record a new violation of the contextual rule, at the given node.
+     * The given additional info is added to the {@linkplain RuleViolation#getAdditionalInfo() additional info}
+     * of the violation, after the info computed for the node by the language.
+     * Renderers can read it back, and it is stored in the analysis cache.
+     * The given violation message is treated as a format string for a
+     * {@link MessageFormat}, without formatting arguments.
+     *
+     * @param location       Location of the violation
+     * @param message        Violation message
+     * @param additionalInfo Additional info of the violation
+     */
+    @Experimental
+    public void addViolationWithAdditionalInfo(Node location, String message, Map<String, String> additionalInfo) {
+        Objects.requireNonNull(location, "Node was null");
+        Objects.requireNonNull(message, "Message was null");
+        Objects.requireNonNull(additionalInfo, "Additional info was null");
+        addViolation(location, location.getReportLocation(), message, NO_ARGS, additionalInfo);
+    }
 
-        final Map<String, String> extraVariables = ViolationDecorator.apply(handler.getViolationDecorator(), node);
-        final String description = makeMessage(message, formatArgs, extraVariables);
-        final RuleViolation violation = new ParametricRuleViolation(rule, location, description, extraVariables);
+    private void addViolation(Node node, FileLocation location, String message, Object[] formatArgs, Map<String, String> additionalInfo) {
+        LanguageVersionHandler handler = node.getAstInfo().getLanguageProcessor().services();
+
+        Map<String, String> extraVariables = ViolationDecorator.apply(handler.getViolationDecorator(), node);
+        if (!additionalInfo.isEmpty()) {
+            extraVariables = new LinkedHashMap<>(extraVariables);
+            extraVariables.putAll(additionalInfo);
+        }
+        final RuleViolation violation = CompactRuleViolation.create(rule, location, message, formatArgs, extraVariables);
 
         final SuppressedViolation suppressed = suppressOrNull(node, violation, handler);
 
@@ -157,10 +200,14 @@ public final class RuleContext {
         }
     }
 
-    private static @Nullable SuppressedViolation suppressOrNull(Node location, RuleViolation rv, LanguageVersionHandler handler) {
+    private @Nullable SuppressedViolation suppressOrNull(Node location, RuleViolation rv, LanguageVersionHandler handler) {
         SuppressedViolation suppressed = ViolationSuppressor.suppressOrNull(handler.getExtraViolationSuppressors(), rv, location);
         if (suppressed == null) {
-            suppressed = ViolationSuppressor.suppressOrNull(DEFAULT_SUPPRESSORS, rv, location);
+            suppressed = ViolationSuppressor.suppressOrNull(defaultSuppressors, rv, location);
+        }
+        if (suppressed == null && baselineSuppressor != null) {
+            // last, so that violations also suppressed otherwise are not attributed to the baseline
+            suppressed = baselineSuppressor.suppressOrNull(rv, location);
         }
         return suppressed;
     }
@@ -176,54 +223,71 @@ public final class RuleContext {
         listener.onRuleViolation(rv);
     }
 
-    private String makeMessage(@NonNull String message, Object[] args, Map<String, String> extraVars) {
-        // Escape PMD specific variable message format, specifically the {
-        // in the ${, so MessageFormat doesn't bitch.
-        final String escapedMessage = StringUtils.replace(message, "${", "$'{'");
-        String formatted = MessageFormat.format(escapedMessage, args);
-        return expandVariables(formatted, extraVars);
-    }
-
-
-    private String expandVariables(String message, Map<String, String> extraVars) {
-
-        if (!message.contains("${")) {
-            return message;
-        }
-
-        StringBuilder buf = new StringBuilder(message);
-        int startIndex = -1;
-        while ((startIndex = buf.indexOf("${", startIndex + 1)) >= 0) {
-            final int endIndex = buf.indexOf("}", startIndex);
-            if (endIndex >= 0) {
-                final String name = buf.substring(startIndex + 2, endIndex);
-                String variableValue = getVariableValue(name, extraVars);
-                if (variableValue != null) {
-                    buf.replace(startIndex, endIndex + 1, variableValue);
-                }
-            }
-        }
-        return buf.toString();
+    /**
+     * Create a new RuleContext.
+     *
+     * The listener must be closed by its creator.
+     */
+    @InternalApi
+    public static RuleContext create(FileAnalysisListener listener, Rule rule) {
+        return new RuleContext(listener, rule, null, null);
     }
 
-    private String getVariableValue(String name, Map<String, String> extraVars) {
-        String value = extraVars.get(name);
-        if (value != null) {
-            return value;
-        }
-        final PropertyDescriptor<?> propertyDescriptor = rule.getPropertyDescriptor(name);
-        return propertyDescriptor == null ? null : String.valueOf(rule.getProperty(propertyDescriptor));
+    /**
+     * Create a new RuleContext, that uses the given query to implement
+     * the violationSuppressXPath property of the rule. The query should
+     * have been compiled with {@link SaxonXPathRuleQuery#forViolationSuppression(Rule, XPathHandler)}.
+     *
+     * The listener must be closed by its creator.
+     */
+    @InternalApi
+    public static RuleContext create(FileAnalysisListener listener, Rule rule, @Nullable SaxonXPathRuleQuery suppressionQuery) {
+        return new RuleContext(listener, rule, suppressionQuery, null);
     }
 
-
     /**
-     * Create a new RuleContext.
+     * Create a new RuleContext, like {@link #create(FileAnalysisListener, Rule, SaxonXPathRuleQuery)}.
+     * Violations that are not suppressed otherwise are checked against
+     * the given baseline suppressor, if any, before they are reported.
      *
      * The listener must be closed by its creator.
+     *
+     * @see ViolationSuppressor#baselineSuppressor(net.sourceforge.pmd.reporting.Baseline)
      */
     @InternalApi
-    public static RuleContext create(FileAnalysisListener listener, Rule rule) {
-        return new RuleContext(listener, rule);
+    public static RuleContext create(FileAnalysisListener listener,
+                                     Rule rule,
+                                     @Nullable SaxonXPathRuleQuery suppressionQuery,
+                                     @Nullable ViolationSuppressor baselineSuppressor) {
+        return new RuleContext(listener, rule, suppressionQuery, baselineSuppressor);
+    }
+
+
+    /**
+     * Suppressor for the violationSuppressXPath property, whose query
+     * was compiled when the rule was initialized. This avoids parsing
+     * the expression again for each violation.
+     */
+    private static final class CompiledXPathSuppressor implements ViolationSuppressor {
+
+        private final SaxonXPathRuleQuery query;
+
+        CompiledXPathSuppressor(SaxonXPathRuleQuery query) {
+            this.query = query;
+        }
+
+        @Override
+        public String getId() {
+            return XPATH_SUPPRESSOR.getId();
+        }
+
+        @Override
+        public @Nullable SuppressedViolation suppressOrNull(RuleViolation rv, @NonNull Node node) {
+            if (!query.evaluate(node).isEmpty()) {
+                return new SuppressedViolation(rv, this, query.getXpathExpression());
+            }
+            return null;
+        }
     }
 
 }
@@ -15,6 +15,7 @@ import static net.sourceforge.pmd.util.internal.xml.SchemaConstants.REF;
 import static net.sourceforge.pmd.util.internal.xml.SchemaConstants.RULE;
 import static net.sourceforge.pmd.util.internal.xml.SchemaConstants.RULESET;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.MessageFormat;
@@ -83,6 +84,7 @@ final class RuleSetFactory {
     private final RuleSetFactoryCompatibility compatibilityFilter;
     private final MessageReporter reporter;
     private final boolean includeDeprecatedRuleReferences;
+    private final @Nullable Set<String> readRuleSetFiles;
 
     private final Map<RuleSetReferenceId, RuleSet> parsedRulesets = new HashMap<>();
 
@@ -92,7 +94,8 @@ final class RuleSetFactory {
                    boolean warnDeprecated,
                    RuleSetFactoryCompatibility compatFilter,
                    boolean includeDeprecatedRuleReferences,
-                   MessageReporter reporter) {
+                   MessageReporter reporter,
+                   @Nullable Set<String> readRuleSetFiles) {
         this.resourceLoader = resourceLoader;
         this.languageRegistry = Objects.requireNonNull(languageRegistry);
         this.minimumPriority = minimumPriority;
@@ -101,6 +104,7 @@ final class RuleSetFactory {
 
         this.compatibilityFilter = compatFilter;
         this.reporter = reporter;
+        this.readRuleSetFiles = readRuleSetFiles;
     }
 
 
@@ -197,6 +201,7 @@ final class RuleSetFactory {
                     }
                     throw new RuleSetLoadException(ruleSetReferenceId, message);
                 }
+                recordRuleSetFile(ruleSetReferenceId);
                 return ruleSet;
             } catch (Exception | Error e) {
                 throw e;
@@ -207,6 +212,17 @@ final class RuleSetFactory {
     }
 
 
+    private void recordRuleSetFile(RuleSetReferenceId ruleSetReferenceId) {
+        if (readRuleSetFiles != null) {
+            // rulesets on the classpath only change with their jar
+            File file = new File(ruleSetReferenceId.getRuleSetFileName());
+            if (file.isFile()) {
+                readRuleSetFiles.add(file.getAbsolutePath());
+            }
+        }
+    }
+
+
     private RuleSet parseRulesetNode(RuleSetReferenceId ruleSetReferenceId,
                                      boolean withDeprecatedRuleReferences,
                                      PositionedXmlDoc parsed,
@@ -665,7 +681,8 @@ final class RuleSetFactory {
                                   .filterAbovePriority(minimumPriority)
                                   .warnDeprecated(warnDeprecated)
                                   .enableCompatibility(compatibilityFilter != null)
-                                  .includeDeprecatedRuleReferences(includeDeprecatedRuleReferences);
+                                  .includeDeprecatedRuleReferences(includeDeprecatedRuleReferences)
+                                  .recordRuleSetFiles(readRuleSetFiles);
     }
 
     private @NonNull XmlMessageHandler getXmlMessagePrinter() {
@@ -0,0 +1,524 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd;
+
+import static net.sourceforge.pmd.util.internal.xml.SchemaConstants.PROPERTY_MAX;
+import static net.sourceforge.pmd.util.internal.xml.SchemaConstants.PROPERTY_MIN;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.zip.Adler32;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.RuleSet.RuleSetBuilder;
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.properties.NumericConstraints;
+import net.sourceforge.pmd.properties.PropertyBuilder;
+import net.sourceforge.pmd.properties.PropertyConstraint;
+import net.sourceforge.pmd.properties.PropertyDescriptor;
+import net.sourceforge.pmd.properties.PropertySerializer;
+import net.sourceforge.pmd.properties.PropertyTypeId;
+import net.sourceforge.pmd.properties.PropertyTypeId.BuilderAndMapper;
+import net.sourceforge.pmd.util.ResourceLoader;
+
+/**
+ * A ruleset resolved from XML, stored in a binary file, see
+ * {@link RuleSetLoader#writeSnapshot(String, Path)}. Rule references are
+ * flattened: each rule is stored with its class, its effective metadata,
+ * the properties defined in XML, and the values of the properties that are
+ * not the default. Loading a rule instantiates its class and sets these again,
+ * which is much faster than parsing the XML of the ruleset and of the rulesets
+ * it references.
+ *
+ * <p>The snapshot records the PMD version and the checksums of the ruleset files
+ * it was made from. It is out of date if any of those changed.
+ */
+final class RuleSetSnapshot {
+
+    /** File extension of snapshots, used to tell them apart from XML rulesets. */
+    static final String FILE_EXTENSION = ".snapshot";
+
+    private static final int MAGIC = 0x504d4452; // "PMDR"
+    private static final int FORMAT_VERSION = 1;
+
+    private final String pmdVersion;
+    private final String sourcePath;
+    private final Map<String, Long> sourceFiles;
+    /** Null if the snapshot was made by another version of PMD. */
+    private final @Nullable RuleSetData ruleSet;
+
+    private RuleSetSnapshot(String pmdVersion, String sourcePath, Map<String, Long> sourceFiles, @Nullable RuleSetData ruleSet) {
+        this.pmdVersion = pmdVersion;
+        this.sourcePath = sourcePath;
+        this.sourceFiles = sourceFiles;
+        this.ruleSet = ruleSet;
+    }
+
+    static boolean isSnapshot(String path) {
+        return path.endsWith(FILE_EXTENSION);
+    }
+
+    /** Returns the ruleset reference the snapshot was made from. */
+    String getSourcePath() {
+        return sourcePath;
+    }
+
+    /**
+     * Returns true if the snapshot was made by this version of PMD,
+     * and the ruleset files it was made from are unchanged.
+     */
+    boolean isUpToDate() {
+        if (!PMDVersion.VERSION.equals(pmdVersion)) {
+            return false;
+        }
+        for (Map.Entry<String, Long> file : sourceFiles.entrySet()) {
+            Path path = new File(file.getKey()).toPath();
+            try {
+                if (!Files.isRegularFile(path) || checksum(path) != file.getValue()) {
+                    return false;
+                }
+            } catch (IOException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static long checksum(Path file) throws IOException {
+        Adler32 checksum = new Adler32();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                checksum.update(buffer, 0, read);
+            }
+        }
+        return checksum.getValue();
+    }
+
+    /**
+     * Creates the ruleset of the snapshot. The rules are new instances.
+     * Only call this if the snapshot {@linkplain #isUpToDate() is up to date}.
+     *
+     * @throws ReflectiveOperationException If a rule class cannot be instantiated
+     * @throws IllegalArgumentException     If the languages, versions, or properties
+     *                                      of the snapshot don't exist
+     */
+    RuleSet createRuleSet(ResourceLoader resourceLoader, LanguageRegistry languages, RulePriority minimumPriority)
+        throws ReflectiveOperationException {
+        assert ruleSet != null : "Snapshot made by PMD " + pmdVersion;
+        RuleSetBuilder builder = new RuleSetBuilder(ruleSet.checksum)
+            .withName(ruleSet.name)
+            .withDescription(ruleSet.description)
+            .withFileName(ruleSet.fileName)
+            .replaceFileExclusions(compile(ruleSet.excludePatterns))
+            .replaceFileInclusions(compile(ruleSet.includePatterns));
+        for (RuleData rule : ruleSet.rules) {
+            builder.addRule(rule.createRule(resourceLoader, languages));
+        }
+        builder.filterRulesByPriority(minimumPriority);
+        return builder.build();
+    }
+
+    private static List<Pattern> compile(List<String> patterns) {
+        List<Pattern> result = new ArrayList<>(patterns.size());
+        for (String pattern : patterns) {
+            result.add(Pattern.compile(pattern));
+        }
+        return result;
+    }
+
+    static void write(Path snapshotFile, String sourcePath, Collection<String> sourceFiles, RuleSet ruleSet) throws IOException {
+        Map<String, Long> checksums = new LinkedHashMap<>();
+        for (String file : sourceFiles) {
+            checksums.put(file, checksum(new File(file).toPath()));
+        }
+        File source = new File(sourcePath);
+        // make the fallback independent of the working directory
+        String fallbackPath = source.isFile() ? source.getAbsolutePath() : sourcePath;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(snapshotFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeString(out, PMDVersion.VERSION);
+            writeString(out, fallbackPath);
+            out.writeInt(checksums.size());
+            for (Map.Entry<String, Long> file : checksums.entrySet()) {
+                writeString(out, file.getKey());
+                out.writeLong(file.getValue());
+            }
+            RuleSetData.of(ruleSet).write(out);
+        }
+    }
+
+    static RuleSetSnapshot read(Path snapshotFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a ruleset snapshot: " + snapshotFile);
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported ruleset snapshot format " + version + ": " + snapshotFile);
+            }
+            String pmdVersion = readString(in);
+            String sourcePath = readString(in);
+            int numFiles = in.readInt();
+            Map<String, Long> sourceFiles = new LinkedHashMap<>();
+            for (int i = 0; i < numFiles; i++) {
+                sourceFiles.put(readString(in), in.readLong());
+            }
+            if (!PMDVersion.VERSION.equals(pmdVersion)) {
+                // the rest may not be readable, it will not be used anyway
+                return new RuleSetSnapshot(pmdVersion, sourcePath, sourceFiles, null);
+            }
+            return new RuleSetSnapshot(pmdVersion, sourcePath, sourceFiles, RuleSetData.read(in));
+        }
+    }
+
+    // strings are not written with writeUTF, which is limited to 64K bytes
+    private static void writeString(DataOutputStream out, @Nullable String string) throws IOException {
+        if (string == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static @Nullable String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            writeString(out, string);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            strings.add(readString(in));
+        }
+        return strings;
+    }
+
+    private static final class RuleSetData {
+        private String name;
+        private String description;
+        private String fileName;
+        private long checksum;
+        private List<String> excludePatterns;
+        private List<String> includePatterns;
+        private List<RuleData> rules;
+
+        static RuleSetData of(RuleSet ruleSet) {
+            RuleSetData data = new RuleSetData();
+            data.name = ruleSet.getName();
+            data.description = ruleSet.getDescription();
+            data.fileName = ruleSet.getFileName();
+            data.checksum = ruleSet.getChecksum();
+            data.excludePatterns = patterns(ruleSet.getFileExclusions());
+            data.includePatterns = patterns(ruleSet.getFileInclusions());
+            data.rules = new ArrayList<>(ruleSet.size());
+            for (Rule rule : ruleSet.getRules()) {
+                data.rules.add(RuleData.of(rule));
+            }
+            return data;
+        }
+
+        private static List<String> patterns(List<Pattern> patterns) {
+            List<String> result = new ArrayList<>(patterns.size());
+            for (Pattern pattern : patterns) {
+                result.add(pattern.pattern());
+            }
+            return result;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            writeString(out, name);
+            writeString(out, description);
+            writeString(out, fileName);
+            out.writeLong(checksum);
+            writeStrings(out, excludePatterns);
+            writeStrings(out, includePatterns);
+            out.writeInt(rules.size());
+            for (RuleData rule : rules) {
+                rule.write(out);
+            }
+        }
+
+        static RuleSetData read(DataInputStream in) throws IOException {
+            RuleSetData data = new RuleSetData();
+            data.name = readString(in);
+            data.description = readString(in);
+            data.fileName = readString(in);
+            data.checksum = in.readLong();
+            data.excludePatterns = readStrings(in);
+            data.includePatterns = readStrings(in);
+            int numRules = in.readInt();
+            data.rules = new ArrayList<>(numRules);
+            for (int i = 0; i < numRules; i++) {
+                data.rules.add(RuleData.read(in));
+            }
+            return data;
+        }
+    }
+
+    private static final class RuleData {
+        private String ruleClass;
+        private String language;
+        private @Nullable String minimumLanguageVersion;
+        private @Nullable String maximumLanguageVersion;
+        private String name;
+        private @Nullable String since;
+        private @Nullable String message;
+        private @Nullable String description;
+        private @Nullable String externalInfoUrl;
+        private int priority;
+        private boolean deprecated;
+        private @Nullable String ruleSetName;
+        private List<String> examples;
+        private List<PropertyDefinition> propertyDefinitions;
+        /** Property names and values, in pairs. */
+        private List<String> propertyValues;
+
+        static RuleData of(Rule rule) {
+            RuleData data = new RuleData();
+            data.ruleClass = rule.getRuleClass();
+            data.language = rule.getLanguage().getId();
+            data.minimumLanguageVersion = versionOrNull(rule.getMinimumLanguageVersion());
+            data.maximumLanguageVersion = versionOrNull(rule.getMaximumLanguageVersion());
+            data.name = rule.getName();
+            data.since = rule.getSince();
+            data.message = rule.getMessage();
+            data.description = rule.getDescription();
+            data.externalInfoUrl = rule.getExternalInfoUrl();
+            data.priority = rule.getPriority().getPriority();
+            data.deprecated = rule.isDeprecated();
+            data.ruleSetName = rule.getRuleSetName();
+            data.examples = new ArrayList<>(rule.getExamples());
+            data.propertyDefinitions = new ArrayList<>();
+            data.propertyValues = new ArrayList<>();
+            for (PropertyDescriptor<?> descriptor : rule.getPropertyDescriptors()) {
+                if (descriptor.getTypeId() != null) {
+                    data.propertyDefinitions.add(PropertyDefinition.of(descriptor));
+                }
+                addValueIfNotDefault(data.propertyValues, rule, descriptor);
+            }
+            return data;
+        }
+
+        private static <T> void addValueIfNotDefault(List<String> values, Rule rule, PropertyDescriptor<T> descriptor) {
+            T value = rule.getProperty(descriptor);
+            if (!Objects.equals(value, descriptor.defaultValue())) {
+                values.add(descriptor.name());
+                values.add(descriptor.serializer().toString(value));
+            }
+        }
+
+        private static @Nullable String versionOrNull(@Nullable LanguageVersion version) {
+            return version == null ? null : version.getVersion();
+        }
+
+        Rule createRule(ResourceLoader resourceLoader, LanguageRegistry languages) throws ReflectiveOperationException {
+            Rule rule = resourceLoader.loadRuleFromClassPath(ruleClass);
+            Language lang = languages.getLanguageById(language);
+            if (lang == null) {
+                throw new IllegalArgumentException("Unknown language " + language);
+            }
+            rule.setLanguage(lang);
+            rule.setMinimumLanguageVersion(version(lang, minimumLanguageVersion));
+            rule.setMaximumLanguageVersion(version(lang, maximumLanguageVersion));
+            rule.setName(name);
+            rule.setSince(since);
+            rule.setMessage(message);
+            rule.setDescription(description);
+            rule.setExternalInfoUrl(externalInfoUrl);
+            rule.setPriority(RulePriority.valueOf(priority));
+            rule.setDeprecated(deprecated);
+            rule.setRuleSetName(ruleSetName);
+            for (String example : examples) {
+                rule.addExample(example);
+            }
+            for (PropertyDefinition definition : propertyDefinitions) {
+                rule.definePropertyDescriptor(definition.toDescriptor());
+            }
+            for (int i = 0; i < propertyValues.size(); i += 2) {
+                String propertyName = propertyValues.get(i);
+                PropertyDescriptor<?> descriptor = rule.getPropertyDescriptor(propertyName);
+                if (descriptor == null) {
+                    throw new IllegalArgumentException("Unknown property " + propertyName + " of rule " + name);
+                }
+                setProperty(rule, descriptor, propertyValues.get(i + 1));
+            }
+            return rule;
+        }
+
+        private static <T> void setProperty(Rule rule, PropertyDescriptor<T> descriptor, String value) {
+            rule.setProperty(descriptor, descriptor.serializer().fromString(value));
+        }
+
+        private static @Nullable LanguageVersion version(Language language, @Nullable String version) {
+            if (version == null) {
+                return null;
+            }
+            LanguageVersion result = language.getVersion(version);
+            if (result == null) {
+                throw new IllegalArgumentException("Unknown version " + version + " of " + language.getId());
+            }
+            return result;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            writeString(out, ruleClass);
+            writeString(out, language);
+            writeString(out, minimumLanguageVersion);
+            writeString(out, maximumLanguageVersion);
+            writeString(out, name);
+            writeString(out, since);
+            writeString(out, message);
+            writeString(out, description);
+            writeString(out, externalInfoUrl);
+            out.writeInt(priority);
+            out.writeBoolean(deprecated);
+            writeString(out, ruleSetName);
+            writeStrings(out, examples);
+            out.writeInt(propertyDefinitions.size());
+            for (PropertyDefinition definition : propertyDefinitions) {
+                definition.write(out);
+            }
+            writeStrings(out, propertyValues);
+        }
+
+        static RuleData read(DataInputStream in) throws IOException {
+            RuleData data = new RuleData();
+            data.ruleClass = readString(in);
+            data.language = readString(in);
+            data.minimumLanguageVersion = readString(in);
+            data.maximumLanguageVersion = readString(in);
+            data.name = readString(in);
+            data.since = readString(in);
+            data.message = readString(in);
+            data.description = readString(in);
+            data.externalInfoUrl = readString(in);
+            data.priority = in.readInt();
+            data.deprecated = in.readBoolean();
+            data.ruleSetName = readString(in);
+            data.examples = readStrings(in);
+            int numDefinitions = in.readInt();
+            data.propertyDefinitions = new ArrayList<>(numDefinitions);
+            for (int i = 0; i < numDefinitions; i++) {
+                data.propertyDefinitions.add(PropertyDefinition.read(in));
+            }
+            data.propertyValues = readStrings(in);
+            return data;
+        }
+    }
+
+    /** A property defined in XML, see {@link PropertyTypeId}. */
+    private static final class PropertyDefinition {
+        private String name;
+        private String typeId;
+        private String description;
+        private @Nullable String min;
+        private @Nullable String max;
+        private String defaultValue;
+
+        static <T> PropertyDefinition of(PropertyDescriptor<T> descriptor) {
+            PropertyDefinition definition = new PropertyDefinition();
+            definition.name = descriptor.name();
+            definition.typeId = descriptor.getTypeId().getStringId();
+            definition.description = descriptor.description();
+            definition.defaultValue = descriptor.serializer().toString(descriptor.defaultValue());
+            for (PropertyConstraint<? super T> constraint : descriptor.serializer().getConstraints()) {
+                Map<String, String> attributes = constraint.getXmlConstraint();
+                if (attributes == null) {
+                    continue;
+                }
+                if (attributes.containsKey(PROPERTY_MIN.xmlName())) {
+                    definition.min = attributes.get(PROPERTY_MIN.xmlName());
+                }
+                if (attributes.containsKey(PROPERTY_MAX.xmlName())) {
+                    definition.max = attributes.get(PROPERTY_MAX.xmlName());
+                }
+            }
+            return definition;
+        }
+
+        PropertyDescriptor<?> toDescriptor() {
+            PropertyTypeId type = PropertyTypeId.lookupMnemonic(typeId);
+            if (type == null) {
+                throw new IllegalArgumentException("Unknown property type " + typeId);
+            }
+            return toDescriptor(type.getBuilderUtils());
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private <T> PropertyDescriptor<T> toDescriptor(BuilderAndMapper<T> factory) {
+            PropertySerializer<T> serializer = factory.getXmlMapper();
+            PropertyBuilder<?, T> builder = factory.newBuilder(name).desc(description);
+            // same constraints as those RuleFactory builds from the min and max attributes
+            Comparable minValue = min == null ? null : (Comparable) serializer.fromString(min);
+            Comparable maxValue = max == null ? null : (Comparable) serializer.fromString(max);
+            if (minValue != null && maxValue != null) {
+                builder.require(NumericConstraints.inRange(minValue, maxValue));
+            } else if (minValue != null) {
+                builder.require(NumericConstraints.above(minValue));
+            } else if (maxValue != null) {
+                builder.require(NumericConstraints.below(maxValue));
+            }
+            builder.defaultValue(serializer.fromString(defaultValue));
+            return builder.build();
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            writeString(out, name);
+            writeString(out, typeId);
+            writeString(out, description);
+            writeString(out, min);
+            writeString(out, max);
+            writeString(out, defaultValue);
+        }
+
+        static PropertyDefinition read(DataInputStream in) throws IOException {
+            PropertyDefinition definition = new PropertyDefinition();
+            definition.name = readString(in);
+            definition.typeId = readString(in);
+            definition.description = readString(in);
+            definition.min = readString(in);
+            definition.max = readString(in);
+            definition.defaultValue = readString(in);
+            return definition;
+        }
+    }
+}
@@ -8,18 +8,25 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+
 import net.sourceforge.pmd.annotation.InternalApi;
 import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.benchmark.TimedOperation;
 import net.sourceforge.pmd.benchmark.TimedOperationCategory;
+import net.sourceforge.pmd.lang.LanguageProcessor;
 import net.sourceforge.pmd.lang.LanguageProcessorRegistry;
 import net.sourceforge.pmd.lang.ast.RootNode;
 import net.sourceforge.pmd.lang.document.TextFile;
 import net.sourceforge.pmd.lang.rule.internal.RuleApplicator;
+import net.sourceforge.pmd.lang.rule.xpath.internal.SaxonXPathRuleQuery;
+import net.sourceforge.pmd.reporting.Baseline;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
 import net.sourceforge.pmd.util.log.MessageReporter;
 
@@ -38,6 +45,15 @@ public class RuleSets {
 
     private RuleApplicator ruleApplicator;
 
+    /**
+     * The compiled violationSuppressXPath queries of the rules, populated
+     * by {@link #initializeRules(LanguageProcessorRegistry, MessageReporter)}.
+     * Copies of this object compile their own queries.
+     */
+    private final Map<Rule, SaxonXPathRuleQuery> suppressionQueries = new IdentityHashMap<>();
+
+    private @Nullable Baseline baseline;
+
     /**
      * Copy constructor. Deep copies RuleSets.
      *
@@ -49,6 +65,7 @@ public class RuleSets {
             rsets.add(new RuleSet(rs));
         }
         this.ruleSets = Collections.unmodifiableList(rsets);
+        this.baseline = ruleSets.baseline;
     }
 
     public RuleSets(Collection<? extends RuleSet> ruleSets) {
@@ -69,8 +86,14 @@ public class RuleSets {
         for (RuleSet rset : ruleSets) {
             for (Iterator<Rule> iterator = rset.getRules().iterator(); iterator.hasNext();) {
                 Rule rule = iterator.next();
+                if (!lpReg.getLanguages().getLanguages().contains(rule.getLanguage())) {
+                    // the language is not started, because no file of it is analysed
+                    continue;
+                }
                 try {
-                    rule.initialize(lpReg.getProcessor(rule.getLanguage()));
+                    LanguageProcessor processor = lpReg.getProcessor(rule.getLanguage());
+                    rule.initialize(processor);
+                    initializeSuppressionQuery(rule, processor);
                 } catch (Exception e) {
                     reporter.errorEx(
                         "Exception while initializing rule " + rule.getName() + ", the rule will not be run", e);
@@ -80,6 +103,30 @@ public class RuleSets {
         }
     }
 
+    /**
+     * Compiles the violationSuppressXPath of the rule once, so that
+     * an invalid expression is reported before the analysis, and so
+     * that it is not parsed again for each violation.
+     */
+    private void initializeSuppressionQuery(Rule rule, LanguageProcessor processor) {
+        SaxonXPathRuleQuery query = SaxonXPathRuleQuery.forViolationSuppression(rule, processor.services().getXPathHandler());
+        if (query != null) {
+            suppressionQueries.put(rule, query);
+        } else {
+            suppressionQueries.remove(rule);
+        }
+    }
+
+    /**
+     * Sets the baseline whose violations are reported as suppressed
+     * violations. The baseline is part of the {@linkplain #getChecksum() checksum}.
+     *
+     * @param baseline A baseline, or null to report all violations
+     */
+    public void setBaseline(@Nullable Baseline baseline) {
+        this.baseline = baseline;
+    }
+
     private RuleApplicator prepareApplicator() {
         return RuleApplicator.build(ruleSets.stream().flatMap(it -> it.getRules().stream())::iterator);
     }
@@ -153,9 +200,11 @@ public class RuleSets {
             ruleApplicator.index(root);
         }
 
+        // the baseline suppressor numbers the identical violations of the file
+        ViolationSuppressor baselineSuppressor = baseline == null ? null : ViolationSuppressor.baselineSuppressor(baseline);
         for (RuleSet ruleSet : ruleSets) {
             if (ruleSet.applies(root.getTextDocument().getFileId())) {
-                ruleApplicator.apply(ruleSet.getRules(), listener);
+                ruleApplicator.apply(ruleSet.getRules(), listener, suppressionQueries::get, baselineSuppressor);
             }
         }
     }
@@ -215,6 +264,10 @@ public class RuleSets {
         for (final RuleSet ruleSet : ruleSets) {
             checksum = checksum * 31 + ruleSet.getChecksum();
         }
+        if (baseline != null) {
+            // cached violations must be suppressed again if the baseline changes
+            checksum = checksum * 31 + baseline.getChecksum();
+        }
         return checksum;
     }
 }
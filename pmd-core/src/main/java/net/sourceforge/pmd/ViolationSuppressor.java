@@ -13,11 +13,11 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import net.sourceforge.pmd.Report.SuppressedViolation;
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.lang.ast.AstInfo;
 import net.sourceforge.pmd.lang.ast.Node;
-import net.sourceforge.pmd.lang.rule.xpath.XPathVersion;
-import net.sourceforge.pmd.lang.rule.xpath.internal.DeprecatedAttrLogger;
 import net.sourceforge.pmd.lang.rule.xpath.internal.SaxonXPathRuleQuery;
+import net.sourceforge.pmd.reporting.Baseline;
 
 /**
  * An object that suppresses rule violations. Suppressors are used by
@@ -60,24 +60,14 @@ public interface ViolationSuppressor {
 
         @Override
         public @Nullable SuppressedViolation suppressOrNull(RuleViolation rv, @NonNull Node node) {
-            // todo this should not be implemented via a rule property
-            //  because the parsed xpath expression should be stored, not a random string
-            //  this needs to be checked to be a valid xpath expression in the ruleset,
-            //  not at the time it is evaluated, and also parsed by the XPath parser only once
-            Rule rule = rv.getRule();
-            Optional<String> xpath = rule.getProperty(Rule.VIOLATION_SUPPRESS_XPATH_DESCRIPTOR);
-            if (!xpath.isPresent()) {
-                return null;
-            }
-            SaxonXPathRuleQuery rq = new SaxonXPathRuleQuery(
-                xpath.get(),
-                XPathVersion.DEFAULT,
-                rule.getPropertiesByPropertyDescriptor(),
-                node.getAstInfo().getLanguageProcessor().services().getXPathHandler(),
-                DeprecatedAttrLogger.createForSuppression(rv.getRule())
+            // Rules initialized by RuleSets have their query compiled once,
+            // see RuleContext. This is the fallback for other rules.
+            SaxonXPathRuleQuery rq = SaxonXPathRuleQuery.forViolationSuppression(
+                rv.getRule(),
+                node.getAstInfo().getLanguageProcessor().services().getXPathHandler()
             );
-            if (!rq.evaluate(node).isEmpty()) {
-                return new SuppressedViolation(rv, this, xpath.get());
+            if (rq != null && !rq.evaluate(node).isEmpty()) {
+                return new SuppressedViolation(rv, this, rq.getXpathExpression());
             }
             return null;
         }
@@ -105,6 +95,12 @@ public interface ViolationSuppressor {
         }
     };
 
+    /**
+     * The {@linkplain #getId() id} of the suppressors returned by
+     * {@link #baselineSuppressor(Baseline)}.
+     */
+    String BASELINE_SUPPRESSOR_ID = "Baseline";
+
 
     /**
      * A name, for reporting and documentation purposes.
@@ -121,6 +117,31 @@ public interface ViolationSuppressor {
     SuppressedViolation suppressOrNull(RuleViolation rv, @NonNull Node node);
 
 
+    /**
+     * Returns a suppressor for the violations that are part of the given
+     * baseline. The suppressor numbers identical violations, so it must
+     * only be used for the violations of a single file.
+     */
+    @Experimental
+    static ViolationSuppressor baselineSuppressor(Baseline baseline) {
+        Baseline.FileMatcher matcher = baseline.newFileMatcher();
+        return new ViolationSuppressor() {
+            @Override
+            public String getId() {
+                return BASELINE_SUPPRESSOR_ID;
+            }
+
+            @Override
+            public @Nullable SuppressedViolation suppressOrNull(RuleViolation rv, @NonNull Node node) {
+                if (matcher.contains(rv, node.getTextDocument())) {
+                    return new SuppressedViolation(rv, this, "baseline");
+                }
+                return null;
+            }
+        };
+    }
+
+
     /**
      * Apply a list of suppressors on the violation. Returns the violation
      * of the first suppressor that matches the input violation. If no
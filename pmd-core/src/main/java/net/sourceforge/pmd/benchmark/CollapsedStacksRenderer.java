@@ -0,0 +1,41 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+
+import net.sourceforge.pmd.annotation.Experimental;
+
+/**
+ * Renders the {@link CostProfile#getCollapsedStacks() stacks} of the
+ * {@link CostProfile} of a {@link TimingReport} in the collapsed stack
+ * format, which is read by flame graph tools, e.g. {@code flamegraph.pl}
+ * or speedscope. Each line is a stack followed by its self time in
+ * microseconds. Nothing is rendered if profiling was not enabled.
+ */
+@Experimental
+public class CollapsedStacksRenderer implements TimingReportRenderer {
+
+    @Override
+    public void render(final TimingReport report, final Writer writer) throws IOException {
+        CostProfile profile = report.getCostProfile();
+        if (profile == null) {
+            return;
+        }
+        for (Map.Entry<String, Long> stack : new TreeMap<>(profile.getCollapsedStacks()).entrySet()) {
+            long micros = stack.getValue() / 1000;
+            if (micros > 0) {
+                writer.write(stack.getKey());
+                writer.write(' ');
+                writer.write(Long.toString(micros));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+}
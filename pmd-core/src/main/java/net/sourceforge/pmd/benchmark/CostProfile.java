@@ -0,0 +1,173 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.benchmark.CostProfiler.Histogram;
+import net.sourceforge.pmd.lang.document.FileId;
+
+/**
+ * The cost of the operations of PMD per file, recorded when tracking is started
+ * with {@link TimeTracker#startGlobalTracking(boolean) profiling enabled}. Unlike
+ * a {@link TimingReport}, which only has totals, this tells which files are
+ * expensive for each rule or phase, and how the cost is distributed among files.
+ *
+ * @see TextCostProfileRenderer
+ * @see CollapsedStacksRenderer
+ */
+@Experimental
+public final class CostProfile {
+
+    private final List<OperationCost> operationCosts;
+    private final Map<String, Long> collapsedStacks;
+
+    /* package */ CostProfile(Collection<OperationCost> operationCosts, Map<String, Long> collapsedStacks) {
+        List<OperationCost> sorted = new ArrayList<>(operationCosts);
+        sorted.sort(Comparator.comparingLong(OperationCost::getTotalNanos).reversed());
+        this.operationCosts = Collections.unmodifiableList(sorted);
+        this.collapsedStacks = Collections.unmodifiableMap(collapsedStacks);
+    }
+
+    /**
+     * Returns the cost of each operation, the most expensive first.
+     */
+    public List<OperationCost> getOperationCosts() {
+        return operationCosts;
+    }
+
+    /**
+     * Returns the self time of each stack of operations in nanoseconds. A stack
+     * is the list of the nested operations separated with {@code ;}, starting
+     * with the processing of the file, as in the collapsed stack format of
+     * flame graph tools.
+     */
+    public Map<String, Long> getCollapsedStacks() {
+        return collapsedStacks;
+    }
+
+    /**
+     * The cost of an operation, that is a category and a label, over all the files.
+     */
+    public static final class OperationCost {
+        private final TimedOperationCategory category;
+        private final String label;
+        private final int fileCount;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long[] histogram;
+        private final List<FileCost> mostExpensiveFiles;
+
+        /* package */ OperationCost(TimedOperationCategory category, String label, int fileCount, long totalNanos,
+                                    long maxNanos, long[] histogram, Collection<FileCost> mostExpensiveFiles) {
+            this.category = category;
+            this.label = label;
+            this.fileCount = fileCount;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.histogram = histogram;
+            List<FileCost> sorted = new ArrayList<>(mostExpensiveFiles);
+            sorted.sort(FileCost.BY_NANOS.reversed());
+            this.mostExpensiveFiles = Collections.unmodifiableList(sorted);
+        }
+
+        public TimedOperationCategory getCategory() {
+            return category;
+        }
+
+        /**
+         * Returns the label of the operation, e.g. the name of the rule,
+         * or null if the operation has none.
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * Returns the number of files in which the operation was executed.
+         */
+        public int getFileCount() {
+            return fileCount;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * Returns the time the operation took on a file, for the given percentile
+         * of files. The result is an upper bound that is at most 1/16 too high.
+         *
+         * @param percentile A percentile between 0 and 100, e.g. 99 for the time
+         *                   under which the operation took on 99% of the files
+         */
+        public long getPercentileNanos(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Not a percentile: " + percentile);
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * fileCount));
+            long seen = 0;
+            for (int bucket = 0; bucket < histogram.length; bucket++) {
+                seen += histogram[bucket];
+                if (seen >= rank) {
+                    return Math.min(Histogram.highestValue(bucket), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+
+        /**
+         * Returns the files on which the operation took the most time,
+         * the most expensive first.
+         */
+        public List<FileCost> getMostExpensiveFiles() {
+            return mostExpensiveFiles;
+        }
+
+        @Override
+        public String toString() {
+            return "OperationCost[" + category + (label == null ? "" : ", " + label) + ", files=" + fileCount
+                + ", total=" + totalNanos + "ns]";
+        }
+    }
+
+    /**
+     * The time an operation took on a file.
+     */
+    public static final class FileCost {
+        /* package */ static final Comparator<FileCost> BY_NANOS = Comparator.comparingLong(FileCost::getNanos);
+
+        private final FileId fileId;
+        private final long nanos;
+
+        /* package */ FileCost(FileId fileId, long nanos) {
+            this.fileId = fileId;
+            this.nanos = nanos;
+        }
+
+        public FileId getFileId() {
+            return fileId;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return fileId.getOriginalPath() + ": " + nanos + "ns";
+        }
+    }
+}
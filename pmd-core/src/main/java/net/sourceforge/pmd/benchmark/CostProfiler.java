@@ -0,0 +1,207 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import net.sourceforge.pmd.benchmark.CostProfile.FileCost;
+import net.sourceforge.pmd.benchmark.TimeTracker.TimedOperationKey;
+import net.sourceforge.pmd.lang.document.FileId;
+
+/**
+ * Records the cost of the timed operations of each file, for {@link CostProfile}.
+ * Each thread records the operations of the file it is processing into its own
+ * buffer, which is reused from one file to the next, so that recording an operation
+ * doesn't allocate nor synchronize. The buffer is merged into the profile when the
+ * file is done.
+ */
+final class CostProfiler {
+
+    /** Number of the most expensive files kept for each operation. */
+    static final int TOP_FILES = 10;
+
+    private final ThreadLocal<FileSamples> samples = ThreadLocal.withInitial(FileSamples::new);
+
+    private final Map<TimedOperationKey, OperationStats> stats = new HashMap<>();
+    private final Map<String, long[]> stacks = new HashMap<>();
+
+    /**
+     * Starts recording the operations of a file on the current thread.
+     *
+     * @param fileId The file
+     * @param depth  The depth of the operation that processes the file,
+     *               the number of operations it is nested in
+     */
+    void startFile(FileId fileId, int depth) {
+        FileSamples fileSamples = samples.get();
+        fileSamples.fileId = fileId;
+        fileSamples.fileDepth = depth;
+        fileSamples.size = 0;
+    }
+
+    /**
+     * Records a finished operation. Operations that are not part of
+     * the processing of a file are ignored.
+     */
+    void record(TimedOperationKey operation, int depth, long totalNanos, long selfNanos) {
+        FileSamples fileSamples = samples.get();
+        if (fileSamples.fileId == null) {
+            return;
+        }
+        fileSamples.add(operation, depth - fileSamples.fileDepth, totalNanos, selfNanos);
+        if (depth == fileSamples.fileDepth) {
+            // the file is done
+            merge(fileSamples);
+            fileSamples.fileId = null;
+            fileSamples.clear();
+        }
+    }
+
+    private synchronized void merge(FileSamples fileSamples) {
+        Map<TimedOperationKey, long[]> fileCosts = new HashMap<>();
+        TimedOperationKey[] path = new TimedOperationKey[8];
+        StringBuilder stack = new StringBuilder();
+
+        // operations are recorded when they finish, so an operation is
+        // recorded after the operations nested in it
+        for (int i = fileSamples.size - 1; i >= 0; i--) {
+            TimedOperationKey operation = fileSamples.operations[i];
+            int depth = fileSamples.depths[i];
+            fileCosts.computeIfAbsent(operation, k -> new long[1])[0] += fileSamples.totalNanos[i];
+
+            if (depth >= path.length) {
+                path = Arrays.copyOf(path, depth * 2);
+            }
+            path[depth] = operation;
+            stack.setLength(0);
+            for (int d = 0; d <= depth; d++) {
+                if (d > 0) {
+                    stack.append(';');
+                }
+                appendFrame(stack, path[d]);
+            }
+            stacks.computeIfAbsent(stack.toString(), k -> new long[1])[0] += fileSamples.selfNanos[i];
+        }
+
+        for (Map.Entry<TimedOperationKey, long[]> entry : fileCosts.entrySet()) {
+            stats.computeIfAbsent(entry.getKey(), k -> new OperationStats())
+                 .add(fileSamples.fileId, entry.getValue()[0]);
+        }
+    }
+
+    private static void appendFrame(StringBuilder stack, TimedOperationKey operation) {
+        stack.append(operation.category.displayName());
+        if (operation.label != null) {
+            stack.append(": ");
+            // ';' separates frames in the collapsed stack format
+            for (int i = 0; i < operation.label.length(); i++) {
+                char c = operation.label.charAt(i);
+                stack.append(c == ';' || c == '\n' ? ',' : c);
+            }
+        }
+    }
+
+    synchronized CostProfile toProfile() {
+        Map<String, Long> collapsedStacks = new HashMap<>();
+        stacks.forEach((stack, nanos) -> collapsedStacks.put(stack, nanos[0]));
+        Map<TimedOperationKey, CostProfile.OperationCost> costs = new HashMap<>();
+        stats.forEach((operation, operationStats) -> costs.put(operation, operationStats.toCost(operation)));
+        return new CostProfile(costs.values(), collapsedStacks);
+    }
+
+    /** Reusable buffer of the operations of one file. */
+    private static final class FileSamples {
+        private FileId fileId;
+        private int fileDepth;
+        private int size;
+        private TimedOperationKey[] operations = new TimedOperationKey[256];
+        private int[] depths = new int[256];
+        private long[] totalNanos = new long[256];
+        private long[] selfNanos = new long[256];
+
+        void add(TimedOperationKey operation, int depth, long total, long self) {
+            if (size == operations.length) {
+                int capacity = size * 2;
+                operations = Arrays.copyOf(operations, capacity);
+                depths = Arrays.copyOf(depths, capacity);
+                totalNanos = Arrays.copyOf(totalNanos, capacity);
+                selfNanos = Arrays.copyOf(selfNanos, capacity);
+            }
+            operations[size] = operation;
+            depths[size] = depth;
+            totalNanos[size] = total;
+            selfNanos[size] = self;
+            size++;
+        }
+
+        void clear() {
+            Arrays.fill(operations, 0, size, null);
+            size = 0;
+        }
+    }
+
+    /** Per-file costs of an operation. */
+    private static final class OperationStats {
+        private final long[] histogram = new long[Histogram.NUM_BUCKETS];
+        private final PriorityQueue<FileCost> mostExpensive = new PriorityQueue<>(FileCost.BY_NANOS);
+        private int fileCount;
+        private long totalNanos;
+        private long maxNanos;
+
+        void add(FileId fileId, long nanos) {
+            fileCount++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            histogram[Histogram.bucket(nanos)]++;
+            if (mostExpensive.size() < TOP_FILES) {
+                mostExpensive.add(new FileCost(fileId, nanos));
+            } else if (mostExpensive.peek().getNanos() < nanos) {
+                mostExpensive.poll();
+                mostExpensive.add(new FileCost(fileId, nanos));
+            }
+        }
+
+        CostProfile.OperationCost toCost(TimedOperationKey operation) {
+            return new CostProfile.OperationCost(operation.category, operation.label, fileCount, totalNanos,
+                                                 maxNanos, histogram.clone(), mostExpensive);
+        }
+    }
+
+    /**
+     * A log-linear histogram: values are grouped by their highest bit, and
+     * each group is split into 16 buckets, so that the error is below 1/16.
+     */
+    static final class Histogram {
+        private static final int SUB_BITS = 4;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+        static final int NUM_BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+        private Histogram() {
+            // utility class
+        }
+
+        static int bucket(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) Math.max(value, 0);
+            }
+            int highestBit = 63 - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) (value >>> (highestBit - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return (highestBit - SUB_BITS + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        /** Returns the highest value of the bucket. */
+        static long highestValue(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int highestBit = bucket / SUB_BUCKETS + SUB_BITS - 1;
+            long lowest = (long) (SUB_BUCKETS | bucket % SUB_BUCKETS) << (highestBit - SUB_BITS);
+            return lowest + (1L << (highestBit - SUB_BITS)) - 1;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.text.MessageFormat;
+
+import org.apache.commons.lang3.StringUtils;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.benchmark.CostProfile.FileCost;
+import net.sourceforge.pmd.benchmark.CostProfile.OperationCost;
+
+/**
+ * A text based renderer for the {@link CostProfile} of a {@link TimingReport}.
+ * For each operation, the most expensive first, it renders the distribution of
+ * its time over the files, and the files on which it took the most time.
+ */
+@Experimental
+public class TextCostProfileRenderer implements TimingReportRenderer {
+
+    private static final String TIME_FORMAT = "{0,number,0.0000}";
+
+    private static final int LABEL_COLUMN_WIDTH = 50;
+    private static final int COUNT_COLUMN_WIDTH = 9;
+    private static final int TIME_COLUMN_WIDTH = 12;
+
+    private static final double[] PERCENTILES = {50, 90, 99};
+
+    private final int topFiles;
+
+    public TextCostProfileRenderer() {
+        this(CostProfiler.TOP_FILES);
+    }
+
+    /**
+     * @param topFiles Maximum number of files rendered for each operation
+     */
+    public TextCostProfileRenderer(int topFiles) {
+        this.topFiles = topFiles;
+    }
+
+    @Override
+    public void render(final TimingReport report, final Writer writer0) throws IOException {
+        PrintWriter writer = new PrintWriter(writer0);
+        CostProfile profile = report.getCostProfile();
+        if (profile == null) {
+            writer.println("No cost profile, profiling was not enabled");
+            writer.flush();
+            return;
+        }
+
+        writer.write(StringUtils.rightPad("Operation", LABEL_COLUMN_WIDTH));
+        writer.write(StringUtils.leftPad("# Files", COUNT_COLUMN_WIDTH));
+        writer.write(StringUtils.leftPad("Time (secs)", TIME_COLUMN_WIDTH));
+        for (double percentile : PERCENTILES) {
+            writer.write(StringUtils.leftPad("p" + (int) percentile, TIME_COLUMN_WIDTH));
+        }
+        writer.write(StringUtils.leftPad("max", TIME_COLUMN_WIDTH));
+        writer.println();
+        writer.println();
+
+        for (OperationCost cost : profile.getOperationCosts()) {
+            writer.write(StringUtils.rightPad(operationName(cost), LABEL_COLUMN_WIDTH));
+            writer.write(StringUtils.leftPad(String.valueOf(cost.getFileCount()), COUNT_COLUMN_WIDTH));
+            writer.write(StringUtils.leftPad(formatTime(cost.getTotalNanos()), TIME_COLUMN_WIDTH));
+            for (double percentile : PERCENTILES) {
+                writer.write(StringUtils.leftPad(formatTime(cost.getPercentileNanos(percentile)), TIME_COLUMN_WIDTH));
+            }
+            writer.write(StringUtils.leftPad(formatTime(cost.getMaxNanos()), TIME_COLUMN_WIDTH));
+            writer.println();
+
+            int rendered = 0;
+            for (FileCost fileCost : cost.getMostExpensiveFiles()) {
+                if (rendered++ == topFiles) {
+                    break;
+                }
+                writer.write("    ");
+                writer.write(StringUtils.leftPad(formatTime(fileCost.getNanos()), TIME_COLUMN_WIDTH));
+                writer.write("  ");
+                writer.write(fileCost.getFileId().getOriginalPath());
+                writer.println();
+            }
+            writer.println();
+        }
+        writer.flush();
+    }
+
+    private static String operationName(OperationCost cost) {
+        String name = cost.getCategory().displayName();
+        return cost.getLabel() == null ? name : name + ": " + cost.getLabel();
+    }
+
+    private static String formatTime(long nanos) {
+        return MessageFormat.format(TIME_FORMAT, nanos / 1000000000.0);
+    }
+}
@@ -14,9 +14,16 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.annotation.InternalApi;
+import net.sourceforge.pmd.benchmark.internal.FlightRecorderEvents;
+import net.sourceforge.pmd.lang.document.FileId;
+
 /**
  * A time tracker class to measure time spent on different sections of PMD analysis.
  * The class is thread-aware, allowing to differentiate CPU and wall clock time.
+ * The operations are also recorded as JDK Flight Recorder events, see
+ * {@link FlightRecorderEvents}.
  *
  * @author Juan Martín Sotuyo Dodero
  */
@@ -24,6 +31,7 @@ public final class TimeTracker {
 
     private static boolean trackTime = false;
     private static long wallClockStartMillis = -1;
+    private static CostProfiler profiler;
     private static final ThreadLocal<Queue<TimerEntry>> TIMER_ENTRIES;
     private static final ConcurrentMap<TimedOperationKey, TimedResult> ACCUMULATED_RESULTS = new ConcurrentHashMap<>();
     private static final TimedOperation NOOP_TIMED_OPERATION = new TimedOperation() {
@@ -52,6 +60,19 @@ public final class TimeTracker {
      * Must be called once PMD starts if tracking is desired, no tracking will be performed otherwise.
      */
     public static void startGlobalTracking() {
+        startGlobalTracking(false);
+    }
+
+    /**
+     * Starts global tracking, like {@link #startGlobalTracking()}. If profiling
+     * is enabled, the time of each operation is also recorded per file, which
+     * is reported by {@link TimingReport#getCostProfile()}.
+     *
+     * @param profileFiles Whether to record the time of operations per file
+     */
+    @Experimental
+    public static void startGlobalTracking(boolean profileFiles) {
+        profiler = profileFiles ? new CostProfiler() : null;
         wallClockStartMillis = System.currentTimeMillis();
         trackTime = true;
         ACCUMULATED_RESULTS.clear(); // just in case
@@ -76,7 +97,9 @@ public final class TimeTracker {
         unaccountedResult.totalTimeNanos.set(unaccountedResult.selfTimeNanos.get());
         unaccountedResult.callCount.set(0);
 
-        return new TimingReport(System.currentTimeMillis() - wallClockStartMillis, ACCUMULATED_RESULTS);
+        final CostProfile costProfile = profiler == null ? null : profiler.toProfile();
+        profiler = null;
+        return new TimingReport(System.currentTimeMillis() - wallClockStartMillis, ACCUMULATED_RESULTS, costProfile);
     }
 
     /**
@@ -122,12 +145,30 @@ public final class TimeTracker {
      * @return The current timed operation being tracked.
      */
     public static TimedOperation startOperation(final TimedOperationCategory category, final String label) {
+        final TimedOperation event = FlightRecorderEvents.getInstance().startOperation(category, label);
         if (!trackTime) {
-            return NOOP_TIMED_OPERATION;
+            return event != null ? event : NOOP_TIMED_OPERATION;
         }
 
         TIMER_ENTRIES.get().add(new TimerEntry(category, label));
-        return new TimedOperationImpl();
+        return new TimedOperationImpl(event);
+    }
+
+    /**
+     * Starts tracking the processing of a file, which is an operation of
+     * category {@link TimedOperationCategory#FILE_PROCESSING}. When profiling,
+     * the operations nested in it are recorded for this file.
+     * @param fileId The file
+     * @return The current timed operation being tracked.
+     */
+    @InternalApi
+    public static TimedOperation startFileProcessing(final FileId fileId) {
+        final TimedOperation operation = startOperation(TimedOperationCategory.FILE_PROCESSING);
+        if (trackTime && profiler != null) {
+            // the depth of the file operation once it is removed from the queue
+            profiler.startFile(fileId, TIMER_ENTRIES.get().size() - 1);
+        }
+        return operation;
     }
 
     /**
@@ -153,6 +194,9 @@ public final class TimeTracker {
 
         // Update counters and let next element on the stack ignore the time we spent
         final long delta = result.accumulate(timerEntry, extraDataCounter);
+        if (profiler != null) {
+            profiler.record(timerEntry.operation, queue.size(), delta, delta - timerEntry.inNestedOperationsNanos);
+        }
         if (!queue.isEmpty()) {
             queue.peek().inNestedOperationsNanos += delta;
         }
@@ -271,8 +315,13 @@ public final class TimeTracker {
      * A standard timed operation implementation.
      */
     private static final class TimedOperationImpl implements TimedOperation {
+        private final TimedOperation event;
         private boolean closed = false;
 
+        TimedOperationImpl(final TimedOperation event) {
+            this.event = event;
+        }
+
         @Override
         public void close() {
             close(0);
@@ -286,6 +335,9 @@ public final class TimeTracker {
 
             closed = true;
             TimeTracker.finishOperation(extraDataCounter);
+            if (event != null) {
+                event.close(extraDataCounter);
+            }
         }
     }
 }
@@ -7,6 +7,7 @@ package net.sourceforge.pmd.benchmark;
 import java.util.HashMap;
 import java.util.Map;
 
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.benchmark.TimeTracker.TimedOperationKey;
 import net.sourceforge.pmd.benchmark.TimeTracker.TimedResult;
 
@@ -18,10 +19,13 @@ public class TimingReport {
 
     private final long wallClockMillis;
     private final Map<TimedOperationKey, TimedResult> results;
+    private final CostProfile costProfile;
 
-    /* package */ TimingReport(final long wallClockMillis, final Map<TimedOperationKey, TimedResult> accumulatedResults) {
+    /* package */ TimingReport(final long wallClockMillis, final Map<TimedOperationKey, TimedResult> accumulatedResults,
+                               final CostProfile costProfile) {
         this.wallClockMillis = wallClockMillis;
         results = accumulatedResults;
+        this.costProfile = costProfile;
     }
 
     public Map<String, TimedResult> getLabeledMeasurements(final TimedOperationCategory category) {
@@ -51,4 +55,13 @@ public class TimingReport {
     public long getWallClockMillis() {
         return wallClockMillis;
     }
+
+    /**
+     * Returns the cost of the operations per file, or null if profiling
+     * was not enabled with {@link TimeTracker#startGlobalTracking(boolean)}.
+     */
+    @Experimental
+    public CostProfile getCostProfile() {
+        return costProfile;
+    }
 }
@@ -0,0 +1,66 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark.internal;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.benchmark.TimeTracker;
+import net.sourceforge.pmd.benchmark.TimedOperation;
+import net.sourceforge.pmd.benchmark.TimedOperationCategory;
+import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
+
+/**
+ * Emits JDK Flight Recorder events for the operations tracked by the
+ * {@link TimeTracker} (parsing, the passes of the language processors,
+ * the execution of rules, the analysis cache), and for the analysis of
+ * each file. The events are implemented in the Java 11 part of this
+ * multi-release jar, and are only used if the module {@code jdk.jfr}
+ * is present. Otherwise, this does nothing.
+ *
+ * <p>Events are only created while a recording enables them, e.g. with
+ * {@code -XX:StartFlightRecording}, independently of the {@code --benchmark}
+ * option.
+ */
+public class FlightRecorderEvents {
+
+    private static final String IMPLEMENTATION = "net.sourceforge.pmd.benchmark.internal.FlightRecorderEventsImpl";
+    private static final FlightRecorderEvents INSTANCE = load();
+
+    FlightRecorderEvents() {
+        // only the implementation
+    }
+
+    public static FlightRecorderEvents getInstance() {
+        return INSTANCE;
+    }
+
+    private static FlightRecorderEvents load() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return (FlightRecorderEvents) Class.forName(IMPLEMENTATION).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Java 8, or a runtime without the jdk.jfr module
+            return new FlightRecorderEvents();
+        }
+    }
+
+    /**
+     * Starts the event of an operation, which is committed when the
+     * returned operation is closed. Returns null if the event is not
+     * enabled.
+     */
+    public @Nullable TimedOperation startOperation(TimedOperationCategory category, @Nullable String label) {
+        return null;
+    }
+
+    /**
+     * Returns a listener that emits an event for the analysis of each
+     * file, which records whether the file was found in the analysis
+     * cache.
+     */
+    public GlobalAnalysisListener newListener() {
+        return GlobalAnalysisListener.noop();
+    }
+}
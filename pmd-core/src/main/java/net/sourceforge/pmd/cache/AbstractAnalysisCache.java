@@ -112,6 +112,13 @@ public abstract class AbstractAnalysisCache implements AnalysisCache {
         updatedResultsCache.remove(sourceFile.getFileId());
     }
 
+    @Override
+    public void invalidate(Collection<? extends TextFile> files) {
+        for (TextFile file : files) {
+            fileResultsCache.remove(file.getFileId());
+        }
+    }
+
 
     /**
      * Returns true if the cache exists. If so, normal cache validity checks
@@ -145,7 +152,7 @@ public abstract class AbstractAnalysisCache implements AnalysisCache {
                 currentAuxClassPathChecksum = 0;
             }
 
-            final long currentExecutionClassPathChecksum = FINGERPRINTER.fingerprint(getClassPathEntries());
+            final long currentExecutionClassPathChecksum = computeExecutionClassPathChecksum();
             if (cacheIsValid && currentExecutionClassPathChecksum != executionClassPathChecksum) {
                 LOG.debug("Analysis cache invalidated, execution classpath changed.");
                 cacheIsValid = false;
@@ -164,6 +171,14 @@ public abstract class AbstractAnalysisCache implements AnalysisCache {
         }
     }
 
+    /**
+     * Returns the checksum of the classpath PMD runs with. A change
+     * of it invalidates the cache.
+     */
+    protected long computeExecutionClassPathChecksum() {
+        return FINGERPRINTER.fingerprint(getClassPathEntries());
+    }
+
     private static boolean isClassPathWildcard(String entry) {
         return entry.endsWith("/*") || entry.endsWith("\\*");
     }
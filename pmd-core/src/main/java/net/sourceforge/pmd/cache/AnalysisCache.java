@@ -70,6 +70,17 @@ public interface AnalysisCache {
      */
     void checkValidity(RuleSets ruleSets, ClassLoader auxclassPathClassLoader, Collection<? extends TextFile> files);
 
+    /**
+     * Forgets the cached results of the given files, for instance because
+     * they may depend on other files that changed. These files are then
+     * analysed again, and their new results are cached. This needs to be
+     * called after {@link #checkValidity(RuleSets, ClassLoader, Collection)},
+     * but before the files are checked with {@link #isUpToDate(TextDocument)}.
+     *
+     * @param files Files whose cached results are outdated
+     */
+    void invalidate(Collection<? extends TextFile> files);
+
     /**
      * Returns a listener that will be used like in {@link GlobalAnalysisListener#startFileAnalysis(TextFile)}.
      * This should record violations, and call {@link #analysisFailed(TextDocument)}
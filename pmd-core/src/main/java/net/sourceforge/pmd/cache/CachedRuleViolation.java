@@ -20,6 +20,7 @@ import net.sourceforge.pmd.annotation.InternalApi;
 import net.sourceforge.pmd.lang.document.FileId;
 import net.sourceforge.pmd.lang.document.FileLocation;
 import net.sourceforge.pmd.lang.document.TextRange2d;
+import net.sourceforge.pmd.lang.rule.internal.CompactRuleViolation;
 import net.sourceforge.pmd.util.StringUtil;
 
 /**
@@ -37,18 +38,27 @@ public final class CachedRuleViolation implements RuleViolation {
     private final String ruleClassName;
     private final String ruleName;
     private final String ruleTargetLanguage;
-    private final Map<String, String> additionalInfo;
+    /** Alternating keys and values, see {@link CompactRuleViolation#packInfo(Map)}. */
+    private final String[] additionalInfo;
 
-    private final FileLocation location;
+    private final FileId fileId;
+    private final int beginLine;
+    private final int beginColumn;
+    private final int endLine;
+    private final int endColumn;
 
     private CachedRuleViolation(final CachedRuleMapper mapper, final String description,
                                 final FileId fileFileId, final String ruleClassName, final String ruleName,
                                 final String ruleTargetLanguage, final int beginLine, final int beginColumn,
                                 final int endLine, final int endColumn,
-                                final Map<String, String> additionalInfo) {
+                                final String[] additionalInfo) {
         this.mapper = mapper;
         this.description = description;
-        this.location = FileLocation.range(fileFileId, TextRange2d.range2d(beginLine, beginColumn, endLine, endColumn));
+        this.fileId = fileFileId;
+        this.beginLine = beginLine;
+        this.beginColumn = beginColumn;
+        this.endLine = endLine;
+        this.endColumn = endColumn;
         this.ruleClassName = ruleClassName;
         this.ruleName = ruleName;
         this.ruleTargetLanguage = ruleTargetLanguage;
@@ -68,12 +78,37 @@ public final class CachedRuleViolation implements RuleViolation {
 
     @Override
     public FileLocation getLocation() {
-        return location;
+        return FileLocation.range(fileId, TextRange2d.range2d(beginLine, beginColumn, endLine, endColumn));
+    }
+
+    @Override
+    public FileId getFileId() {
+        return fileId;
+    }
+
+    @Override
+    public int getBeginLine() {
+        return beginLine;
+    }
+
+    @Override
+    public int getBeginColumn() {
+        return beginColumn;
+    }
+
+    @Override
+    public int getEndLine() {
+        return endLine;
+    }
+
+    @Override
+    public int getEndColumn() {
+        return endColumn;
     }
 
     @Override
     public Map<String, String> getAdditionalInfo() {
-        return additionalInfo;
+        return CompactRuleViolation.infoMap(additionalInfo);
     }
 
     /**
@@ -98,15 +133,15 @@ public final class CachedRuleViolation implements RuleViolation {
         int beginColumn = stream.readInt();
         int endLine = stream.readInt();
         int endColumn = stream.readInt();
-        Map<String, String> additionalInfo = readAdditionalInfo(stream);
+        String[] additionalInfo = readAdditionalInfo(stream);
         return new CachedRuleViolation(mapper, description, fileFileId, ruleClassName, ruleName, ruleTargetLanguage,
                                        beginLine, beginColumn, endLine, endColumn, additionalInfo);
     }
 
-    private static @NonNull Map<String, String> readAdditionalInfo(DataInputStream stream) throws IOException {
+    private static String @NonNull [] readAdditionalInfo(DataInputStream stream) throws IOException {
         int numAdditionalInfoKeyValuePairs = stream.readInt();
         if (numAdditionalInfoKeyValuePairs == 0) {
-            return Collections.emptyMap();
+            return CompactRuleViolation.packInfo(Collections.emptyMap());
         }
 
         Map<String, String> additionalInfo = new LinkedHashMap<>();
@@ -115,7 +150,8 @@ public final class CachedRuleViolation implements RuleViolation {
             final String value = stream.readUTF();
             additionalInfo.put(key, value);
         }
-        return Collections.unmodifiableMap(additionalInfo);
+        // the keys read from the stream are replaced with shared constants
+        return CompactRuleViolation.packInfo(additionalInfo);
     }
 
     /**
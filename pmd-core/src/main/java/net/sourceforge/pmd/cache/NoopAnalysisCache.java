@@ -44,6 +44,11 @@ public class NoopAnalysisCache implements AnalysisCache {
         // noop
     }
 
+    @Override
+    public void invalidate(Collection<? extends TextFile> files) {
+        // noop
+    }
+
     @Override
     public List<RuleViolation> getCachedViolations(TextDocument sourceFile) {
         return Collections.emptyList();
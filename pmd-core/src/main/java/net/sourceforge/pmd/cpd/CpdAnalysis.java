@@ -86,10 +86,6 @@ public final class CpdAnalysis implements AutoCloseable {
         this.renderer = config.getCPDReportRenderer();
 
         FileCollectionUtil.collectFiles(config, files());
-
-        for (Language language : config.getLanguageRegistry()) {
-            setLanguageProperties(language, config);
-        }
     }
 
     /**
@@ -110,7 +106,8 @@ public final class CpdAnalysis implements AutoCloseable {
         }
     }
 
-    private void setLanguageProperties(Language language, CPDConfiguration configuration) {
+    // only called for the languages of the analysed files
+    private LanguagePropertyBundle setLanguageProperties(Language language, CPDConfiguration configuration) {
         LanguagePropertyBundle props = configuration.getLanguageProperties(language);
 
         setPropertyIfMissing(CpdLanguageProperties.CPD_ANONYMIZE_LITERALS, props, configuration.isIgnoreLiterals());
@@ -124,6 +121,7 @@ public final class CpdAnalysis implements AutoCloseable {
             PropertyDescriptor<String> skipBlocks = (PropertyDescriptor) props.getPropertyDescriptor("cpdSkipBlocksPattern");
             setPropertyIfMissing(skipBlocks, props, configuration.getSkipBlocksPattern());
         }
+        return props;
     }
 
     public FileCollector files() {
@@ -157,7 +155,7 @@ public final class CpdAnalysis implements AutoCloseable {
                              .map(it -> it.getLanguageVersion().getLanguage())
                              .distinct()
                              .filter(it -> it instanceof CpdCapableLanguage)
-                             .collect(Collectors.toMap(lang -> lang, lang -> ((CpdCapableLanguage) lang).createCpdTokenizer(configuration.getLanguageProperties(lang))));
+                             .collect(Collectors.toMap(lang -> lang, lang -> ((CpdCapableLanguage) lang).createCpdTokenizer(setLanguageProperties(lang, configuration))));
 
             Map<FileId, Integer> numberOfTokensPerFile = new HashMap<>();
 
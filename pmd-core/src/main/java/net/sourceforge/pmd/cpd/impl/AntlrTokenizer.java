@@ -7,11 +7,11 @@ package net.sourceforge.pmd.cpd.impl;
 import java.io.IOException;
 
 import org.antlr.v4.runtime.CharStream;
-import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.Lexer;
 
 import net.sourceforge.pmd.cpd.Tokenizer;
 import net.sourceforge.pmd.lang.TokenManager;
+import net.sourceforge.pmd.lang.ast.impl.antlr4.AntlrCharStream;
 import net.sourceforge.pmd.lang.ast.impl.antlr4.AntlrToken;
 import net.sourceforge.pmd.lang.ast.impl.antlr4.AntlrTokenManager;
 import net.sourceforge.pmd.lang.document.TextDocument;
@@ -22,8 +22,10 @@ import net.sourceforge.pmd.lang.document.TextDocument;
 public abstract class AntlrTokenizer extends TokenizerBase<AntlrToken> {
     @Override
     protected final TokenManager<AntlrToken> makeLexerImpl(TextDocument doc) throws IOException {
-        CharStream charStream = CharStreams.fromReader(doc.newReader(), doc.getFileId().getAbsolutePath());
-        return new AntlrTokenManager(getLexerForSource(charStream), doc);
+        CharStream charStream = AntlrCharStream.create(doc);
+        Lexer lexer = getLexerForSource(charStream);
+        AntlrCharStream.useSlicedTokens(lexer);
+        return new AntlrTokenManager(lexer, doc);
     }
 
     protected abstract Lexer getLexerForSource(CharStream charStream);
@@ -5,11 +5,9 @@
 package net.sourceforge.pmd.internal.util;
 
 import java.io.IOException;
-import java.io.Reader;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.sql.SQLException;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -19,6 +17,7 @@ import net.sourceforge.pmd.AbstractConfiguration;
 import net.sourceforge.pmd.lang.document.FileCollector;
 import net.sourceforge.pmd.lang.document.FileId;
 import net.sourceforge.pmd.util.database.DBMSMetadata;
+import net.sourceforge.pmd.util.database.DBMSMetadata.SourceCodeConsumer;
 import net.sourceforge.pmd.util.database.DBURI;
 import net.sourceforge.pmd.util.database.SourceObject;
 import net.sourceforge.pmd.util.log.MessageReporter;
@@ -126,19 +125,21 @@ public final class FileCollectionUtil {
             LOG.trace("DBMSMetadata retrieved");
             List<SourceObject> sourceObjectList = dbmsMetadata.getSourceObjectList();
             LOG.trace("Located {} database source objects", sourceObjectList.size());
-            for (SourceObject sourceObject : sourceObjectList) {
-                String falseFilePath = sourceObject.getPseudoFileName();
-                LOG.trace("Adding database source object {}", falseFilePath);
-
-                try (Reader sourceCode = dbmsMetadata.getSourceCode(sourceObject)) {
-                    String source = IOUtil.readToString(sourceCode);
-                    collector.addSourceFile(FileId.fromPathLikeString(falseFilePath), source);
-                } catch (SQLException ex) {
+            dbmsMetadata.getSourceCode(sourceObjectList, new SourceCodeConsumer() {
+                @Override
+                public void accept(SourceObject sourceObject, String sourceCode) {
+                    String falseFilePath = sourceObject.getPseudoFileName();
+                    LOG.trace("Adding database source object {}", falseFilePath);
+                    collector.addSourceFile(FileId.fromPathLikeString(falseFilePath), sourceCode);
+                }
+
+                @Override
+                public void failed(SourceObject sourceObject, Exception e) {
                     collector.getReporter().warnEx("Cannot get SourceCode for {}  - skipping ...",
-                                                   new Object[] { falseFilePath },
-                                                   ex);
+                                                   new Object[] { sourceObject.getPseudoFileName() },
+                                                   e);
                 }
-            }
+            });
         } catch (ClassNotFoundException e) {
             collector.getReporter().errorEx("Cannot get files from DB - probably missing database JDBC driver", e);
         } catch (Exception e) {
@@ -4,6 +4,7 @@
 
 package net.sourceforge.pmd.internal.util;
 
+import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FilterInputStream;
@@ -112,26 +113,7 @@ public final class IOUtil {
     public static Writer createWriter(Charset charset, String reportFile) {
         try {
             if (StringUtils.isBlank(reportFile)) {
-                return new OutputStreamWriter(new FilterOutputStream(System.out) {
-                    @Override
-                    public void close() {
-                        // avoid closing stdout, simply flush
-                        try {
-                            out.flush();
-                        } catch (IOException ignored) {
-                            // Nothing left to do
-                        }
-                    }
-                    
-                    @Override
-                    public void write(byte[] b, int off, int len) throws IOException {
-                        /*
-                         * FilterOutputStream iterates over each byte, asking subclasses to provide more efficient implementations
-                         * It therefore negates any such optimizations that the underlying stream actually may implement.
-                         */
-                        out.write(b, off, len);
-                    }
-                }, charset);
+                return new OutputStreamWriter(nonClosingStdout(), charset);
             }
             Path path = new File(reportFile).toPath().toAbsolutePath();
             Files.createDirectories(path.getParent()); // ensure parent dir exists
@@ -142,6 +124,50 @@ public final class IOUtil {
         }
     }
 
+    /**
+     * Creates an output stream that writes to the given file or to stdout.
+     * The file is created if it does not exist. This is the binary
+     * counterpart of {@link #createWriter(Charset, String)}.
+     *
+     * @param reportFile the file name (optional)
+     */
+    public static OutputStream createOutputStream(String reportFile) {
+        try {
+            if (StringUtils.isBlank(reportFile)) {
+                return new BufferedOutputStream(nonClosingStdout());
+            }
+            Path path = new File(reportFile).toPath().toAbsolutePath();
+            Files.createDirectories(path.getParent()); // ensure parent dir exists
+            // this will create the file if it doesn't exist
+            return new BufferedOutputStream(Files.newOutputStream(path));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static OutputStream nonClosingStdout() {
+        return new FilterOutputStream(System.out) {
+            @Override
+            public void close() {
+                // avoid closing stdout, simply flush
+                try {
+                    out.flush();
+                } catch (IOException ignored) {
+                    // Nothing left to do
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                /*
+                 * FilterOutputStream iterates over each byte, asking subclasses to provide more efficient implementations
+                 * It therefore negates any such optimizations that the underlying stream actually may implement.
+                 */
+                out.write(b, off, len);
+            }
+        };
+    }
+
     public static void tryCloseClassLoader(ClassLoader classLoader) {
         if (classLoader instanceof Closeable) {
             closeQuietly((Closeable) classLoader);
@@ -4,9 +4,17 @@
 
 package net.sourceforge.pmd.lang.ast.impl.antlr4;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.ANTLRErrorStrategy;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.CharStream;
-import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 
 import net.sourceforge.pmd.lang.ast.ParseException;
 import net.sourceforge.pmd.lang.ast.Parser;
@@ -26,11 +34,52 @@ public abstract class AntlrBaseParser<
 
     @Override
     public R parse(ParserTask task) throws ParseException {
-        CharStream cs = CharStreams.fromString(task.getSourceText(), task.getTextDocument().getFileId().getAbsolutePath());
-        return parse(getLexer(cs), task);
+        CharStream cs = AntlrCharStream.create(task.getTextDocument());
+        Lexer lexer = getLexer(cs);
+        AntlrCharStream.useSlicedTokens(lexer);
+        return parse(lexer, task);
     }
 
     protected abstract R parse(Lexer parser, ParserTask task);
 
+    /**
+     * Calls the start rule of the parser in two stages. The first stage uses
+     * the faster {@link PredictionMode#SLL SLL} prediction, and gives up at
+     * the first syntax error. Only if it fails, the input is parsed again
+     * with full {@link PredictionMode#LL LL} prediction and the usual error
+     * reporting and recovery. The tree is the same as with full LL only.
+     * Whether a file parses in the first stage depends on the grammar: eg
+     * with the Kotlin grammar, an {@code else} on the line after its
+     * {@code if} expression makes SLL give up, while the code is valid.
+     *
+     * <p>The DFA and prediction context caches are static fields of the
+     * generated parsers, so they are already shared by all files and threads
+     * parsing the same language.
+     *
+     * @param parser    A new parser, that hasn't parsed anything yet
+     * @param startRule The start rule, eg {@code KotlinParser::kotlinFile}
+     * @param <P>       Type of the generated parser
+     * @param <T>       Type of the root node
+     */
+    protected static <P extends org.antlr.v4.runtime.Parser, T> T parseWithSllFirst(P parser,
+                                                                                   Function<? super P, ? extends T> startRule) {
+        ANTLRErrorStrategy errorHandler = parser.getErrorHandler();
+        List<? extends ANTLRErrorListener> listeners = new ArrayList<>(parser.getErrorListeners());
+
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        parser.setErrorHandler(new BailErrorStrategy());
+        parser.removeErrorListeners();
+        try {
+            return startRule.apply(parser);
+        } catch (ParseCancellationException e) {
+            // a syntax error, or a construct SLL can't predict
+            parser.reset();
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            parser.setErrorHandler(errorHandler);
+            listeners.forEach(parser::addErrorListener);
+            return startRule.apply(parser);
+        }
+    }
+
     protected abstract Lexer getLexer(CharStream source);
 }
@@ -0,0 +1,174 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.ast.impl.antlr4;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.CommonTokenFactory;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.misc.Pair;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.annotation.InternalApi;
+import net.sourceforge.pmd.lang.document.Chars;
+import net.sourceforge.pmd.lang.document.TextDocument;
+
+/**
+ * An Antlr char stream that reads the text of a {@link TextDocument}
+ * without copying it. The indices of the stream are the offsets in the
+ * document, so that tokens can slice their text out of the document.
+ *
+ * <p>Antlr streams index code points. This stream indexes chars, so it
+ * is only used for documents without surrogate pairs, where both are
+ * the same. Other documents are copied into a regular code point stream.
+ */
+@InternalApi
+public final class AntlrCharStream implements CharStream {
+
+    private final Chars chars;
+    private final String sourceName;
+    private int position;
+
+    private AntlrCharStream(Chars chars, String sourceName) {
+        this.chars = chars;
+        this.sourceName = sourceName;
+    }
+
+    /**
+     * Returns a char stream that reads the text of the document.
+     */
+    public static CharStream create(TextDocument document) {
+        Chars text = document.getText();
+        String sourceName = document.getFileId().getAbsolutePath();
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isSurrogate(text.charAt(i))) {
+                return CharStreams.fromString(text.toString(), sourceName);
+            }
+        }
+        return new AntlrCharStream(text, sourceName);
+    }
+
+    /**
+     * Makes the lexer create tokens, whose text is sliced from the document
+     * by {@link AntlrToken#getImageCs()} instead of being copied into a string.
+     */
+    public static void useSlicedTokens(Lexer lexer) {
+        if (lexer.getInputStream() instanceof AntlrCharStream) {
+            lexer.setTokenFactory(SlicedTokenFactory.INSTANCE);
+        }
+    }
+
+    /**
+     * Returns the text of the token, sliced from the document. Returns null
+     * if the token was not created from this stream, or the lexer set its text.
+     */
+    static @Nullable Chars getTextCs(Token token) {
+        if (token instanceof SlicedToken && token.getInputStream() instanceof AntlrCharStream) {
+            return ((SlicedToken) token).getTextCs(((AntlrCharStream) token.getInputStream()).chars);
+        }
+        return null;
+    }
+
+    @Override
+    public String getText(Interval interval) {
+        int start = Math.min(interval.a, chars.length());
+        int len = Math.min(interval.b - interval.a + 1, chars.length() - start);
+        return len <= 0 ? "" : chars.substring(start, start + len);
+    }
+
+    @Override
+    public void consume() {
+        if (position >= chars.length()) {
+            assert LA(1) == IntStream.EOF;
+            throw new IllegalStateException("cannot consume EOF");
+        }
+        position++;
+    }
+
+    @Override
+    public int LA(int i) {
+        int offset;
+        if (i > 0) {
+            offset = position + i - 1;
+        } else if (i < 0) {
+            offset = position + i;
+        } else {
+            // undefined
+            return 0;
+        }
+        return offset < 0 || offset >= chars.length() ? IntStream.EOF : chars.charAt(offset);
+    }
+
+    @Override
+    public int mark() {
+        return -1;
+    }
+
+    @Override
+    public void release(int marker) {
+        // nothing to release
+    }
+
+    @Override
+    public int index() {
+        return position;
+    }
+
+    @Override
+    public void seek(int index) {
+        position = index;
+    }
+
+    @Override
+    public int size() {
+        return chars.length();
+    }
+
+    @Override
+    public String getSourceName() {
+        return sourceName;
+    }
+
+    @Override
+    public String toString() {
+        return chars.toString();
+    }
+
+    private static final class SlicedTokenFactory extends CommonTokenFactory {
+
+        static final SlicedTokenFactory INSTANCE = new SlicedTokenFactory();
+
+        @Override
+        public CommonToken create(Pair<TokenSource, CharStream> source, int type, String text,
+                                  int channel, int start, int stop, int line, int charPositionInLine) {
+            CommonToken t = new SlicedToken(source, type, channel, start, stop);
+            t.setLine(line);
+            t.setCharPositionInLine(charPositionInLine);
+            if (text != null) {
+                t.setText(text);
+            }
+            return t;
+        }
+    }
+
+    private static final class SlicedToken extends CommonToken {
+
+        SlicedToken(Pair<TokenSource, CharStream> source, int type, int channel, int start, int stop) {
+            super(source, type, channel, start, stop);
+        }
+
+        @Nullable Chars getTextCs(Chars document) {
+            if (text != null || getType() == EOF || stop >= document.length()) {
+                return null;
+            }
+            return document.subSequence(start, stop + 1);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.antlr.v4.runtime.Token;
 
 import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.lang.ast.GenericToken;
+import net.sourceforge.pmd.lang.document.Chars;
 import net.sourceforge.pmd.lang.document.FileLocation;
 import net.sourceforge.pmd.lang.document.TextDocument;
 import net.sourceforge.pmd.lang.document.TextRegion;
@@ -49,7 +50,8 @@ public class AntlrToken implements GenericToken<AntlrToken> {
 
     @Override
     public CharSequence getImageCs() {
-        return token.getText();
+        Chars slice = AntlrCharStream.getTextCs(token);
+        return slice != null ? slice : token.getText();
     }
 
     /** Returns a text region with the coordinates of this token. */
@@ -4,6 +4,8 @@
 
 package net.sourceforge.pmd.lang.ast.impl.javacc;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+
 import net.sourceforge.pmd.lang.ast.GenericToken;
 import net.sourceforge.pmd.lang.document.Chars;
 import net.sourceforge.pmd.lang.document.FileLocation;
@@ -22,7 +24,9 @@ import net.sourceforge.pmd.lang.document.TextRegion;
  * and column bounds can be derived as well - though this should not be
  * done systematically because it's costlier.
  * <li>It's a bit lighter. Token instances are one of the most numerous
- * class in a typical PMD run and this may reduce GC pressure.
+ * class in a typical PMD run and this may reduce GC pressure. For the
+ * same reason, the image of most tokens is not stored, but cut out of
+ * the text of the document when it is requested.
  * </ul>
  */
 public class JavaccToken implements GenericToken<JavaccToken> {
@@ -47,7 +51,8 @@ public class JavaccToken implements GenericToken<JavaccToken> {
     public final int kind;
 
     private final JavaccTokenDocument document;
-    private final CharSequence image;
+    /** Null if the image is the text of the region of the token. */
+    private final @Nullable CharSequence image;
     private final int startOffset;
     private final int endOffset;
 
@@ -76,10 +81,11 @@ public class JavaccToken implements GenericToken<JavaccToken> {
     public JavaccToken specialToken;
 
 
-    // common constructor, with a CharSequence parameter
-    JavaccToken(int kind, CharSequence image, int startInclusive, int endExclusive, JavaccTokenDocument document) {
+    // common constructor, with a CharSequence parameter, which is null
+    // if the image is the text of the region
+    JavaccToken(int kind, @Nullable CharSequence image, int startInclusive, int endExclusive, JavaccTokenDocument document) {
         assert document != null : "Null document";
-        assert image instanceof String || image instanceof Chars : "Null image";
+        assert image == null || image instanceof String || image instanceof Chars : "Unexpected image " + image;
         assert TextRegion.isValidRegion(startInclusive, endExclusive, document.getTextDocument());
 
         this.kind = kind;
@@ -138,13 +144,16 @@ public class JavaccToken implements GenericToken<JavaccToken> {
 
     @Override
     public Chars getImageCs() {
+        if (image == null) {
+            return document.getTextDocument().getText().slice(startOffset, endOffset - startOffset);
+        }
         // wrap it: it's zero cost (images are either Chars or String) and Chars has a nice API
         return Chars.wrap(image);
     }
 
     @Override
     public String getImage() {
-        return image.toString();
+        return image == null ? getImageCs().toString() : image.toString();
     }
 
     @Override
@@ -186,7 +195,8 @@ public class JavaccToken implements GenericToken<JavaccToken> {
     public JavaccToken replaceImage(CharStream charStream) {
         return new JavaccToken(
             this.kind,
-            charStream.getTokenImageCs(),
+            // if the mark is the start of this token, the image is the text of the new region
+            charStream.getStartOffset() == this.startOffset ? null : charStream.getTokenImageCs(),
             this.startOffset,
             charStream.getEndOffset(),
             this.document
@@ -118,14 +118,15 @@ public final class JavaccTokenDocument extends TokenDocument<JavaccToken> {
          *              coordinates and the image
          * @param image Shared instance of the image token. If this is non-null,
          *              then no call to {@link CharStream#getTokenImage()} should be
-         *              issued.
+         *              issued. If this is null, the image of the token is cut out
+         *              of the text of the document only when it is requested.
          *
          * @return A new token
          */
         public JavaccToken createToken(JavaccTokenDocument self, int kind, CharStream cs, @Nullable String image) {
             return new JavaccToken(
                 kind,
-                image == null ? cs.getTokenImageCs() : image,
+                image,
                 cs.getStartOffset(),
                 cs.getEndOffset(),
                 self
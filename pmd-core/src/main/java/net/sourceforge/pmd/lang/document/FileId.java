@@ -311,6 +311,17 @@ public interface FileId extends Comparable<FileId> {
             public String getAbsolutePath() {
                 return self.getAbsolutePath();
             }
+
+            @Override
+            public boolean equals(Object obj) {
+                return obj instanceof FileId
+                    && ((FileId) obj).getUriString().equals(this.getUriString());
+            }
+
+            @Override
+            public int hashCode() {
+                return getUriString().hashCode();
+            }
         };
     }
 
@@ -89,6 +89,15 @@ class NioTextFile extends BaseCloseable implements TextFile {
         return TextFileContent.fromInputStream(Files.newInputStream(path), charset);
     }
 
+    @Override
+    public long getSizeHint() {
+        try {
+            return Files.size(path);
+        } catch (IOException | SecurityException e) {
+            return 0;
+        }
+    }
+
 
     @Override
     protected void doClose() throws IOException {
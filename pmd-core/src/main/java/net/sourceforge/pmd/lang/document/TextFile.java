@@ -103,6 +103,16 @@ public interface TextFile extends Closeable {
     TextFileContent readContents() throws IOException;
 
 
+    /**
+     * Returns an estimate of the size of this file, used to schedule
+     * the analysis. This should be cheap to compute, and need not be
+     * exact. Returns 0 if the size is unknown.
+     */
+    default long getSizeHint() {
+        return 0;
+    }
+
+
     /**
      * Release resources associated with this text file. Is a noop if
      * it is called several times.
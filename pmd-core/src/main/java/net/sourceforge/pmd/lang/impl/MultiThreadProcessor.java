@@ -4,6 +4,11 @@
 
 package net.sourceforge.pmd.lang.impl;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -41,7 +46,7 @@ final class MultiThreadProcessor extends AbstractPMDProcessor {
             return copy;
         });
 
-        for (final TextFile textFile : task.getFiles()) {
+        for (final TextFile textFile : largestFirst(task.getFiles())) {
             executor.submit(new PmdRunnable(textFile, task) {
                 @Override
                 protected RuleSets getRulesets() {
@@ -51,6 +56,24 @@ final class MultiThreadProcessor extends AbstractPMDProcessor {
         }
     }
 
+    /**
+     * Returns the files sorted by decreasing {@linkplain TextFile#getSizeHint() size}.
+     * The time taken to analyse a file grows with its size. If a big file
+     * is submitted last, a single thread ends up processing it while the
+     * other threads are idle. Starting with the biggest files keeps the
+     * threads busy until the end of the analysis. Files of the same size
+     * keep their relative order.
+     */
+    static List<TextFile> largestFirst(List<TextFile> files) {
+        Map<TextFile, Long> sizes = new IdentityHashMap<>(files.size());
+        for (TextFile file : files) {
+            sizes.put(file, file.getSizeHint());
+        }
+        List<TextFile> sorted = new ArrayList<>(files);
+        sorted.sort(Comparator.comparingLong((TextFile f) -> sizes.get(f)).reversed());
+        return sorted;
+    }
+
     @Override
     public void close() {
         try {
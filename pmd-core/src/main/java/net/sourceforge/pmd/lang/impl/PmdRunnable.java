@@ -55,7 +55,7 @@ abstract class PmdRunnable implements Runnable {
     public void run() throws FileAnalysisException {
         TimeTracker.initThread();
 
-        try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.FILE_PROCESSING);
+        try (TimedOperation ignored = TimeTracker.startFileProcessing(textFile.getFileId());
              FileAnalysisListener listener = task.getListener().startFileAnalysis(textFile)) {
 
             RuleSets ruleSets = getRulesets();
@@ -71,6 +71,7 @@ abstract class PmdRunnable implements Runnable {
 
                     if (analysisCache.isUpToDate(textDocument)) {
                         LOG.trace("Skipping file (lang: {}) because it was found in the cache: {}", textFile.getLanguageVersion(), textFile.getFileId().getAbsolutePath());
+                        listener.onCacheHit();
                         // note: no cache listener here
                         //                         vvvvvvvv
                         reportCachedRuleViolations(listener, textDocument);
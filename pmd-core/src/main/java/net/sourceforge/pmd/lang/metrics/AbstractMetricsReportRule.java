@@ -0,0 +1,166 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.LanguageProcessor;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.rule.AbstractRule;
+import net.sourceforge.pmd.lang.rule.RuleReference;
+import net.sourceforge.pmd.lang.rule.RuleTargetSelector;
+import net.sourceforge.pmd.properties.PropertyDescriptor;
+import net.sourceforge.pmd.properties.PropertyFactory;
+
+/**
+ * Base class for rules that don't look for problems, but report the
+ * values of a set of metrics on every node they target (typically
+ * classes and methods). Each targeted node produces exactly one
+ * violation. The computed values are stored in the
+ * {@linkplain RuleViolation#getAdditionalInfo() additional info} of the
+ * violation, and are read back with {@link #getMetricValues(RuleViolation)}.
+ * The message of the violation lists them too, e.g. {@code Cyclo=3;NCSS=12},
+ * for the other report formats. Such a rule can be combined with the
+ * {@code metricscsv} renderer to compute metrics over a whole code base
+ * without any other rule: the analysis runs in parallel like any other,
+ * and unchanged files are served by the analysis cache, as the values
+ * are stored there like any violation.
+ *
+ * <p>Subclasses only need to select the nodes to report on with
+ * {@link #buildTargetSelector()}. Metrics are looked up by name in the
+ * {@link LanguageMetricsProvider} of the rule's language.
+ *
+ * @since 7.0.0
+ */
+public abstract class AbstractMetricsReportRule extends AbstractRule {
+
+    /**
+     * Prefix of the keys of the metric values in the additional info
+     * of the violations, followed by the name of the metric.
+     */
+    public static final String METRIC_INFO_PREFIX = "metric:";
+
+    private static final char ENTRY_SEPARATOR = ';';
+    private static final char VALUE_SEPARATOR = '=';
+
+    private static final PropertyDescriptor<List<String>> METRICS_DESCRIPTOR =
+        PropertyFactory.stringListProperty("metrics")
+                       .desc("Names of the metrics to report. If empty, all metrics of the language are reported.")
+                       .emptyDefaultValue()
+                       .build();
+
+    private List<Metric<?, ?>> metrics = Collections.emptyList();
+
+    protected AbstractMetricsReportRule() {
+        definePropertyDescriptor(METRICS_DESCRIPTOR);
+    }
+
+    @Override
+    protected abstract @NonNull RuleTargetSelector buildTargetSelector();
+
+    @Override
+    public void initialize(LanguageProcessor languageProcessor) {
+        LanguageMetricsProvider provider = languageProcessor.services().getLanguageMetricsProvider();
+        List<String> names = getProperty(METRICS_DESCRIPTOR);
+        if (names.isEmpty()) {
+            List<Metric<?, ?>> all = new ArrayList<>(provider.getMetrics());
+            // the provider's set is unordered, sort them to have stable output
+            all.sort((a, b) -> metricLabel(a).compareToIgnoreCase(metricLabel(b)));
+            metrics = Collections.unmodifiableList(all);
+            return;
+        }
+
+        List<Metric<?, ?>> resolved = new ArrayList<>(names.size());
+        for (String name : names) {
+            Metric<?, ?> metric = provider.getMetricWithName(name);
+            if (metric == null) {
+                throw new IllegalArgumentException("Unknown metric '" + name + "' for language "
+                                                       + languageProcessor.getLanguage().getName());
+            }
+            resolved.add(metric);
+        }
+        metrics = Collections.unmodifiableList(resolved);
+    }
+
+    @Override
+    public void apply(Node target, RuleContext ctx) {
+        StringBuilder message = new StringBuilder();
+        Map<String, String> info = new LinkedHashMap<>();
+        for (Metric<?, ?> metric : metrics) {
+            Number value = computeIfSupported(metric, target);
+            if (value == null) {
+                continue;
+            }
+            if (message.length() > 0) {
+                message.append(ENTRY_SEPARATOR);
+            }
+            message.append(metricLabel(metric)).append(VALUE_SEPARATOR).append(value);
+            info.put(METRIC_INFO_PREFIX + metricLabel(metric), value.toString());
+        }
+
+        if (!info.isEmpty()) {
+            ctx.addViolationWithAdditionalInfo(target, message.toString(), info);
+        }
+    }
+
+    private static <N extends Node, R extends Number> @Nullable R computeIfSupported(Metric<N, R> metric, Node node) {
+        N n = metric.castIfSupported(node);
+        // go through MetricsUtil to share the memoized results with other rules
+        return n == null ? null : MetricsUtil.computeMetric(metric, n);
+    }
+
+    /**
+     * Returns the name under which the values of the metric are reported.
+     * This is the last (shortest) of its {@linkplain Metric#nameAliases() aliases}.
+     */
+    static String metricLabel(Metric<?, ?> metric) {
+        List<String> aliases = metric.nameAliases();
+        return aliases.get(aliases.size() - 1);
+    }
+
+    /**
+     * Returns true if the violation was reported by a subclass of this
+     * rule, in which case {@link #getMetricValues(RuleViolation)} returns
+     * the values of the metrics.
+     *
+     * @param violation A violation
+     */
+    public static boolean isMetricsReport(RuleViolation violation) {
+        Rule rule = violation.getRule();
+        while (rule instanceof RuleReference) {
+            rule = ((RuleReference) rule).getRule();
+        }
+        return rule instanceof AbstractMetricsReportRule;
+    }
+
+    /**
+     * Returns the metric values stored in the additional info of a
+     * violation reported by this rule. The map is ordered like the
+     * metrics were computed.
+     *
+     * @param violation A violation reported by a metrics report rule
+     *
+     * @return A map of metric name to the string value of the metric
+     */
+    public static Map<String, String> getMetricValues(RuleViolation violation) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : violation.getAdditionalInfo().entrySet()) {
+            if (entry.getKey().startsWith(METRIC_INFO_PREFIX)) {
+                values.put(entry.getKey().substring(METRIC_INFO_PREFIX.length()), entry.getValue());
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.rule.internal;
+
+import java.text.MessageFormat;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.FileLocation;
+import net.sourceforge.pmd.lang.document.TextRange2d;
+import net.sourceforge.pmd.properties.PropertyDescriptor;
+import net.sourceforge.pmd.util.AssertionUtil;
+
+/**
+ * The violations created by {@link net.sourceforge.pmd.RuleContext}.
+ * Noisy rules create a lot of violations, which are all kept until the
+ * end of the analysis by accumulating renderers, so they are stored
+ * compactly:
+ * <ul>
+ * <li>The file id is shared with the other violations of the file,
+ * and the coordinates are packed into two longs. The {@link FileLocation}
+ * is only created if it is requested.
+ * <li>The message is not formatted if the template contains no pattern.
+ * If it does, and the arguments are immutable, it is formatted
+ * each time {@link #getDescription()} is called.
+ * <li>The additional info is stored as an array of keys and values,
+ * whose keys are shared, and the map is only created if it is requested.
+ * </ul>
+ */
+public final class CompactRuleViolation implements RuleViolation {
+
+    private static final Object[] NO_ARGS = new Object[0];
+    private static final String[] NO_INFO = new String[0];
+
+    private final Rule rule;
+    private final FileId fileId;
+    /** Begin line in the high bits, begin column in the low bits. */
+    private final long begin;
+    /** End line in the high bits, end column in the low bits. */
+    private final long end;
+    /** The description, or the message template if {@link #args} is not null. */
+    private final String message;
+    private final Object[] args;
+    /** Alternating keys and values. */
+    private final String[] info;
+
+    private CompactRuleViolation(Rule rule, FileLocation location, String message, Object[] args, String[] info) {
+        this.rule = AssertionUtil.requireParamNotNull("rule", rule);
+        this.fileId = location.getFileId();
+        this.begin = pack(location.getStartLine(), location.getStartColumn());
+        this.end = pack(location.getEndLine(), location.getEndColumn());
+        this.message = message;
+        this.args = args;
+        this.info = info;
+    }
+
+    /**
+     * Create a violation whose message is the given template formatted with
+     * the arguments, like {@link MessageFormat}, where variables like
+     * <code>${name}</code> are replaced with the additional info, or with
+     * the properties of the rule.
+     */
+    public static CompactRuleViolation create(Rule rule, FileLocation location, String messageTemplate,
+                                              Object[] formatArgs, Map<String, String> additionalInfo) {
+        AssertionUtil.requireParamNotNull("message", messageTemplate);
+        String[] info = packInfo(additionalInfo);
+        if (formatArgs.length == 0 && isPlainText(messageTemplate)) {
+            // formatting would return an equal string
+            return new CompactRuleViolation(rule, location, messageTemplate, null, info);
+        } else if (areImmutable(formatArgs)) {
+            Object[] args = formatArgs.length == 0 ? NO_ARGS : formatArgs.clone();
+            return new CompactRuleViolation(rule, location, messageTemplate, args, info);
+        }
+        String description = formatMessage(rule, messageTemplate, formatArgs, additionalInfo);
+        return new CompactRuleViolation(rule, location, description, null, info);
+    }
+
+    private static long pack(int line, int column) {
+        return (long) line << 32 | column & 0xffffffffL;
+    }
+
+    private static boolean isPlainText(String template) {
+        // quotes and braces are interpreted by MessageFormat, ${ by expandVariables
+        return StringUtils.containsNone(template, '{', '\'');
+    }
+
+    private static boolean areImmutable(Object[] args) {
+        for (Object arg : args) {
+            if (!(arg instanceof String || arg instanceof Integer || arg instanceof Long
+                || arg instanceof Double || arg instanceof Float || arg instanceof Short
+                || arg instanceof Byte || arg instanceof Character || arg instanceof Boolean)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Rule getRule() {
+        return rule;
+    }
+
+    @Override
+    public String getDescription() {
+        if (args == null) {
+            return message;
+        }
+        return formatMessage(rule, message, args, getAdditionalInfo());
+    }
+
+    @Override
+    public FileLocation getLocation() {
+        return FileLocation.range(fileId, TextRange2d.range2d(getBeginLine(), getBeginColumn(), getEndLine(), getEndColumn()));
+    }
+
+    @Override
+    public FileId getFileId() {
+        return fileId;
+    }
+
+    @Override
+    public int getBeginLine() {
+        return (int) (begin >>> 32);
+    }
+
+    @Override
+    public int getBeginColumn() {
+        return (int) begin;
+    }
+
+    @Override
+    public int getEndLine() {
+        return (int) (end >>> 32);
+    }
+
+    @Override
+    public int getEndColumn() {
+        return (int) end;
+    }
+
+    @Override
+    public Map<String, String> getAdditionalInfo() {
+        return infoMap(info);
+    }
+
+    @Override
+    public String toString() {
+        return fileId.getOriginalPath() + ':' + getBeginLine() + ':' + getBeginColumn() + ':' + getRule() + ':' + getDescription();
+    }
+
+    /**
+     * Formats a violation message. The template is formatted with the
+     * arguments by {@link MessageFormat}, then variables like <code>${name}</code>
+     * are replaced with the value of the additional info, or of the property
+     * of the rule with this name.
+     */
+    public static String formatMessage(Rule rule, @NonNull String message, Object[] args, Map<String, String> extraVars) {
+        // Escape PMD specific variable message format, specifically the {
+        // in the ${, so MessageFormat doesn't bitch.
+        final String escapedMessage = StringUtils.replace(message, "${", "$'{'");
+        String formatted = MessageFormat.format(escapedMessage, args == null ? NO_ARGS : args);
+        return expandVariables(rule, formatted, extraVars);
+    }
+
+    private static String expandVariables(Rule rule, String message, Map<String, String> extraVars) {
+
+        if (!message.contains("${")) {
+            return message;
+        }
+
+        StringBuilder buf = new StringBuilder(message);
+        int startIndex = -1;
+        while ((startIndex = buf.indexOf("${", startIndex + 1)) >= 0) {
+            final int endIndex = buf.indexOf("}", startIndex);
+            if (endIndex >= 0) {
+                final String name = buf.substring(startIndex + 2, endIndex);
+                String variableValue = getVariableValue(rule, name, extraVars);
+                if (variableValue != null) {
+                    buf.replace(startIndex, endIndex + 1, variableValue);
+                }
+            }
+        }
+        return buf.toString();
+    }
+
+    private static String getVariableValue(Rule rule, String name, Map<String, String> extraVars) {
+        String value = extraVars.get(name);
+        if (value != null) {
+            return value;
+        }
+        final PropertyDescriptor<?> propertyDescriptor = rule.getPropertyDescriptor(name);
+        return propertyDescriptor == null ? null : String.valueOf(rule.getProperty(propertyDescriptor));
+    }
+
+    /**
+     * Packs the entries of the map into an array of alternating keys and
+     * values. The common keys defined in {@link RuleViolation} are replaced
+     * with the constants, so that they are shared.
+     */
+    public static String[] packInfo(Map<String, String> additionalInfo) {
+        if (additionalInfo.isEmpty()) {
+            return NO_INFO;
+        }
+        String[] packed = new String[additionalInfo.size() * 2];
+        int i = 0;
+        for (Map.Entry<String, String> entry : additionalInfo.entrySet()) {
+            packed[i++] = sharedKey(entry.getKey());
+            packed[i++] = entry.getValue();
+        }
+        return packed;
+    }
+
+    private static String sharedKey(String key) {
+        if (key == null) {
+            return null;
+        }
+        switch (key) {
+        case PACKAGE_NAME:
+            return PACKAGE_NAME;
+        case CLASS_NAME:
+            return CLASS_NAME;
+        case METHOD_NAME:
+            return METHOD_NAME;
+        case VARIABLE_NAME:
+            return VARIABLE_NAME;
+        default:
+            return key;
+        }
+    }
+
+    /**
+     * Returns an unmodifiable map view of an array created by {@link #packInfo(Map)}.
+     */
+    public static Map<String, String> infoMap(String[] packed) {
+        return packed.length == 0 ? Collections.emptyMap() : new PackedInfoMap(packed);
+    }
+
+    private static final class PackedInfoMap extends AbstractMap<String, String> {
+
+        private final String[] packed;
+
+        PackedInfoMap(String[] packed) {
+            this.packed = packed;
+        }
+
+        @Override
+        public String get(Object key) {
+            for (int i = 0; i < packed.length; i += 2) {
+                if (Objects.equals(packed[i], key)) {
+                    return packed[i + 1];
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            for (int i = 0; i < packed.length; i += 2) {
+                if (Objects.equals(packed[i], key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return packed.length / 2;
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<Entry<String, String>>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    return new Iterator<Entry<String, String>>() {
+                        private int i;
+
+                        @Override
+                        public boolean hasNext() {
+                            return i < packed.length;
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<String, String> entry = new SimpleImmutableEntry<>(packed[i], packed[i + 1]);
+                            i += 2;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return packed.length / 2;
+                }
+            };
+        }
+    }
+}
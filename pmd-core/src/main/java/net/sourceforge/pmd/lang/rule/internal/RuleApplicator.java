@@ -6,8 +6,10 @@ package net.sourceforge.pmd.lang.rule.internal;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.function.Function;
 
 import org.apache.commons.lang3.exception.ExceptionContext;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,6 +17,7 @@ import net.sourceforge.pmd.Report.ProcessingError;
 import net.sourceforge.pmd.Rule;
 import net.sourceforge.pmd.RuleContext;
 import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.ViolationSuppressor;
 import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.benchmark.TimedOperation;
 import net.sourceforge.pmd.benchmark.TimedOperationCategory;
@@ -22,6 +25,7 @@ import net.sourceforge.pmd.internal.SystemProps;
 import net.sourceforge.pmd.lang.LanguageVersion;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.rule.xpath.internal.SaxonXPathRuleQuery;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
 import net.sourceforge.pmd.util.AssertionUtil;
 import net.sourceforge.pmd.util.StringUtil;
@@ -52,16 +56,43 @@ public class RuleApplicator {
     }
 
     public void apply(Collection<? extends Rule> rules, FileAnalysisListener listener) {
-        applyOnIndex(idx, rules, listener);
+        apply(rules, listener, rule -> null);
     }
 
-    private void applyOnIndex(TreeIndex idx, Collection<? extends Rule> rules, FileAnalysisListener listener) {
+    /**
+     * Apply the rules on the indexed tree. The function returns the
+     * compiled violationSuppressXPath query of a rule, or null if the
+     * rule has none, or if it has not been compiled.
+     */
+    public void apply(Collection<? extends Rule> rules,
+                      FileAnalysisListener listener,
+                      Function<? super Rule, ? extends @Nullable SaxonXPathRuleQuery> suppressionQueries) {
+        apply(rules, listener, suppressionQueries, null);
+    }
+
+    /**
+     * Apply the rules on the indexed tree, like {@link #apply(Collection, FileAnalysisListener, Function)}.
+     * Violations are additionally checked against the given baseline
+     * suppressor, if it is not null.
+     */
+    public void apply(Collection<? extends Rule> rules,
+                      FileAnalysisListener listener,
+                      Function<? super Rule, ? extends @Nullable SaxonXPathRuleQuery> suppressionQueries,
+                      @Nullable ViolationSuppressor baselineSuppressor) {
+        applyOnIndex(idx, rules, listener, suppressionQueries, baselineSuppressor);
+    }
+
+    private void applyOnIndex(TreeIndex idx,
+                              Collection<? extends Rule> rules,
+                              FileAnalysisListener listener,
+                              Function<? super Rule, ? extends @Nullable SaxonXPathRuleQuery> suppressionQueries,
+                              @Nullable ViolationSuppressor baselineSuppressor) {
         for (Rule rule : rules) {
             if (!RuleSet.applies(rule, currentLangVer)) {
                 continue; // No point in even trying to apply the rule
             }
             
-            RuleContext ctx = RuleContext.create(listener, rule);
+            RuleContext ctx = RuleContext.create(listener, rule, suppressionQueries.apply(rule), baselineSuppressor);
             rule.start(ctx);
             try (TimedOperation rcto = TimeTracker.startOperation(TimedOperationCategory.RULE, rule.getName())) {
 
@@ -9,12 +9,15 @@ import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import org.apache.commons.lang3.exception.ContextedRuntimeException;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.sourceforge.pmd.Rule;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.RootNode;
 import net.sourceforge.pmd.lang.rule.XPathRule;
@@ -100,6 +103,27 @@ public class SaxonXPathRuleQuery {
     }
 
 
+    /**
+     * Compiles the {@linkplain Rule#VIOLATION_SUPPRESS_XPATH_DESCRIPTOR violationSuppressXPath}
+     * of the given rule. Returns null if the rule has no such property.
+     *
+     * @throws PmdXPathException If the expression is invalid
+     */
+    public static @Nullable SaxonXPathRuleQuery forViolationSuppression(Rule rule, XPathHandler xPathHandler) throws PmdXPathException {
+        Optional<String> xpath = rule.getProperty(Rule.VIOLATION_SUPPRESS_XPATH_DESCRIPTOR);
+        if (!xpath.isPresent()) {
+            return null;
+        }
+        return new SaxonXPathRuleQuery(
+            xpath.get(),
+            XPathVersion.DEFAULT,
+            rule.getPropertiesByPropertyDescriptor(),
+            xPathHandler,
+            DeprecatedAttrLogger.createForSuppression(rule)
+        );
+    }
+
+
     public String getXpathExpression() {
         return xpathExpr;
     }
@@ -0,0 +1,104 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.internal.util.IOUtil;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.reporting.binary.BinaryReportReader;
+import net.sourceforge.pmd.reporting.binary.BinaryReportWriter;
+import net.sourceforge.pmd.reporting.binary.ReportDiff;
+
+/**
+ * Renders the violations in a compact binary format, which can be read
+ * back with {@link BinaryReportReader}, and compared to another report
+ * with {@link ReportDiff}. Processing and configuration errors are not
+ * part of the format.
+ *
+ * <p>The format is binary, so this renderer writes to its {@linkplain #setReportFile(String) report file},
+ * or to stdout if none is set. It cannot write to a character writer: if only
+ * a {@linkplain #setWriter(Writer) writer} is set, {@link #start()} fails.
+ * On the command line, use this format with {@code --report-file}, or redirect
+ * stdout to a file.
+ */
+@Experimental
+public class BinaryRenderer extends AbstractRenderer {
+
+    public static final String NAME = "binary";
+
+    private OutputStream out;
+    private BinaryReportWriter reportWriter;
+
+    public BinaryRenderer() {
+        super(NAME, "Compact binary format, for comparison with a baseline.");
+    }
+
+    @Override
+    public String defaultFileExtension() {
+        return "pmdb";
+    }
+
+    @Override
+    public void setReportFile(String reportFilename) {
+        this.out = IOUtil.createOutputStream(reportFilename);
+    }
+
+    /**
+     * @throws IOException If a writer was set instead of a report file
+     */
+    @Override
+    public void start() throws IOException {
+        if (out == null) {
+            if (getWriter() != null) {
+                throw new IOException("The " + NAME + " format cannot be written to a character writer, "
+                                      + "set a report file instead");
+            }
+            // no report file was set, write to stdout like the other formats
+            out = IOUtil.createOutputStream(null);
+        }
+        reportWriter = new BinaryReportWriter(out);
+    }
+
+    @Override
+    public void startFileAnalysis(TextFile dataSource) {
+        // does nothing
+    }
+
+    @Override
+    public void renderFileReport(Report report) throws IOException {
+        // violations are sorted by file
+        List<RuleViolation> fileViolations = new ArrayList<>();
+        FileId currentFile = null;
+        for (RuleViolation violation : report.getViolations()) {
+            if (!violation.getFileId().equals(currentFile)) {
+                addFile(currentFile, fileViolations);
+                currentFile = violation.getFileId();
+            }
+            fileViolations.add(violation);
+        }
+        addFile(currentFile, fileViolations);
+    }
+
+    private void addFile(FileId fileId, List<RuleViolation> violations) throws IOException {
+        if (!violations.isEmpty()) {
+            reportWriter.addFile(determineFileName(fileId), violations);
+            violations.clear();
+        }
+    }
+
+    @Override
+    public void end() throws IOException {
+        reportWriter.close();
+    }
+}
@@ -0,0 +1,382 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RulePriority;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.properties.NumericConstraints;
+import net.sourceforge.pmd.properties.PropertyDescriptor;
+import net.sourceforge.pmd.properties.PropertyFactory;
+
+/**
+ * Renders an HTML report split into small pages, for reports that are
+ * too large for a single page. The violations of each file are written
+ * to their own pages as soon as the file is analyzed, and are not kept
+ * in memory. The report itself is an index with summary counts, that
+ * links to the pages of the files.
+ *
+ * <p>Pages contain at most {@link #PAGE_SIZE} rows, so that a browser
+ * can open them whatever the size of the report. They are written to the
+ * directory {@link #OUTPUT_DIR}, which defaults to the name of the report
+ * file with {@code _files} appended.
+ */
+@Experimental
+public class ChunkedHTMLRenderer extends AbstractRenderer {
+
+    public static final String NAME = "chunkedhtml";
+
+    public static final PropertyDescriptor<String> OUTPUT_DIR =
+        PropertyFactory.stringProperty("outputDir")
+                       .desc("Directory of the pages. Defaults to the name of the report file with '_files' appended.")
+                       .defaultValue("")
+                       .build();
+
+    public static final PropertyDescriptor<Integer> PAGE_SIZE =
+        PropertyFactory.intProperty("pageSize")
+                       .desc("Maximum number of rows of a page.")
+                       .require(NumericConstraints.positive())
+                       .defaultValue(1000)
+                       .build();
+
+    private static final String STYLE = "<style>"
+        + "body{font-family:sans-serif}"
+        + "table{border-collapse:collapse}"
+        + "th,td{border:1px solid #ccc;padding:2px 6px;text-align:left;vertical-align:top}"
+        + "tr:nth-child(even){background:#f3f3f3}"
+        + "</style>";
+
+    private Path reportFile;
+    private Path pageDir;
+    private String pageDirLink;
+    private int pageSize;
+
+    private PrintWriter fileList;
+    private int fileListPages;
+    private int fileListRows;
+
+    private PrintWriter suppressedPage;
+    private int suppressedPages;
+    private int suppressedRows;
+
+    private int fileCount;
+    private long violationCount;
+    private final long[] violationsByPriority = new long[RulePriority.values().length];
+    private final Map<String, RuleCount> violationsByRule = new TreeMap<>();
+    private final List<Report.ProcessingError> errors = new ArrayList<>();
+    private final List<Report.ConfigurationError> configErrors = new ArrayList<>();
+
+    public ChunkedHTMLRenderer() {
+        super(NAME, "HTML format split into small pages, for large reports.");
+        definePropertyDescriptor(OUTPUT_DIR);
+        definePropertyDescriptor(PAGE_SIZE);
+    }
+
+    @Override
+    public String defaultFileExtension() {
+        return "html";
+    }
+
+    @Override
+    public void setReportFile(String reportFilename) {
+        super.setReportFile(reportFilename);
+        this.reportFile = StringUtils.isBlank(reportFilename) ? null : Paths.get(reportFilename).toAbsolutePath();
+    }
+
+    @Override
+    public void start() throws IOException {
+        String outputDir = getProperty(OUTPUT_DIR);
+        if (StringUtils.isNotBlank(outputDir)) {
+            pageDir = Paths.get(outputDir).toAbsolutePath();
+        } else if (reportFile != null) {
+            String reportName = reportFile.getFileName().toString();
+            int extension = reportName.lastIndexOf('.');
+            pageDir = reportFile.resolveSibling((extension > 0 ? reportName.substring(0, extension) : reportName) + "_files");
+        } else {
+            throw new IOException("The " + NAME + " format needs a report file, or the property " + OUTPUT_DIR.name());
+        }
+        // links of the index are relative to the report file if possible
+        pageDirLink = reportFile != null
+                      ? reportFile.getParent().relativize(pageDir).toString().replace('\\', '/')
+                      : pageDir.toUri().toString();
+        if (!pageDirLink.isEmpty() && !pageDirLink.endsWith("/")) {
+            pageDirLink += "/";
+        }
+        pageSize = getProperty(PAGE_SIZE);
+        Files.createDirectories(pageDir);
+    }
+
+    @Override
+    public void startFileAnalysis(TextFile dataSource) {
+        // does nothing
+    }
+
+    @Override
+    public void renderFileReport(Report report) throws IOException {
+        // violations are sorted by file
+        List<RuleViolation> violations = report.getViolations();
+        int fileStart = 0;
+        for (int i = 1; i <= violations.size(); i++) {
+            if (i == violations.size() || !violations.get(i).getFileId().equals(violations.get(fileStart).getFileId())) {
+                renderFile(violations.get(fileStart).getFileId(), violations.subList(fileStart, i));
+                fileStart = i;
+            }
+        }
+
+        if (showSuppressedViolations) {
+            for (Report.SuppressedViolation suppressed : report.getSuppressedViolations()) {
+                renderSuppressed(suppressed);
+            }
+        }
+        errors.addAll(report.getProcessingErrors());
+        configErrors.addAll(report.getConfigurationErrors());
+    }
+
+    private void renderFile(FileId fileId, List<RuleViolation> violations) throws IOException {
+        int fileIndex = ++fileCount;
+        String fileName = StringEscapeUtils.escapeHtml4(determineFileName(fileId));
+        int numPages = (violations.size() - 1) / pageSize + 1;
+
+        for (int page = 1; page <= numPages; page++) {
+            try (PrintWriter out = openPage(filePageName(fileIndex, page), fileName)) {
+                out.print("<p>");
+                out.print(violations.size());
+                out.print(" violations");
+                renderPageLinks(out, page, numPages, p -> filePageName(fileIndex, p));
+                out.println("</p>");
+                out.println("<table><tr><th>#</th><th>Line</th><th>Rule</th><th>Priority</th><th>Problem</th></tr>");
+                int end = (int) Math.min((long) page * pageSize, violations.size());
+                for (int i = (page - 1) * pageSize; i < end; i++) {
+                    RuleViolation violation = violations.get(i);
+                    out.print("<tr><td>");
+                    out.print(i + 1);
+                    out.print("</td><td>");
+                    out.print(violation.getBeginLine());
+                    if (violation.getEndLine() > violation.getBeginLine()) {
+                        out.print('-');
+                        out.print(violation.getEndLine());
+                    }
+                    out.print("</td><td>");
+                    out.print(renderRuleName(violation.getRule()));
+                    out.print("</td><td>");
+                    out.print(violation.getRule().getPriority().getPriority());
+                    out.print("</td><td>");
+                    out.print(StringEscapeUtils.escapeHtml4(violation.getDescription()));
+                    out.println("</td></tr>");
+                    countViolation(violation.getRule());
+                }
+                out.println("</table>");
+                closePage(out);
+            }
+        }
+
+        if (fileList == null || fileListRows == pageSize) {
+            closeFileList();
+            fileList = openPage(listPageName("files", ++fileListPages), "Files");
+            fileList.println("<table><tr><th>#</th><th>File</th><th>Violations</th></tr>");
+            fileListRows = 0;
+        }
+        fileListRows++;
+        fileList.print("<tr><td>");
+        fileList.print(fileIndex);
+        fileList.print("</td><td><a href=\"");
+        fileList.print(filePageName(fileIndex, 1));
+        fileList.print("\">");
+        fileList.print(fileName);
+        fileList.print("</a></td><td>");
+        fileList.print(violations.size());
+        fileList.println("</td></tr>");
+    }
+
+    private void countViolation(Rule rule) {
+        violationCount++;
+        violationsByPriority[rule.getPriority().getPriority() - 1]++;
+        violationsByRule.computeIfAbsent(rule.getName(), name -> new RuleCount(rule)).count++;
+    }
+
+    private void renderSuppressed(Report.SuppressedViolation suppressed) throws IOException {
+        if (suppressedPage == null || suppressedRows == pageSize) {
+            closeSuppressedPage();
+            suppressedPage = openPage(listPageName("suppressed", ++suppressedPages), "Suppressed violations");
+            suppressedPage.println("<table><tr><th>File</th><th>Line</th><th>Rule</th><th>Suppressed by</th><th>Reason</th></tr>");
+            suppressedRows = 0;
+        }
+        suppressedRows++;
+        RuleViolation violation = suppressed.getRuleViolation();
+        suppressedPage.print("<tr><td>");
+        suppressedPage.print(StringEscapeUtils.escapeHtml4(determineFileName(violation.getFileId())));
+        suppressedPage.print("</td><td>");
+        suppressedPage.print(violation.getBeginLine());
+        suppressedPage.print("</td><td>");
+        suppressedPage.print(renderRuleName(violation.getRule()));
+        suppressedPage.print("</td><td>");
+        suppressedPage.print(suppressed.getSuppressor().getId());
+        suppressedPage.print("</td><td>");
+        suppressedPage.print(StringEscapeUtils.escapeHtml4(StringUtils.defaultString(suppressed.getUserMessage())));
+        suppressedPage.println("</td></tr>");
+    }
+
+    @Override
+    public void end() throws IOException {
+        closeFileList();
+        closeSuppressedPage();
+
+        writer.println("<!DOCTYPE html>");
+        writer.println("<html><head><meta charset=\"UTF-8\"><title>PMD</title>" + STYLE + "</head><body>");
+        writer.println("<h2>PMD report</h2>");
+        writer.println("<h3>Summary</h3>");
+        writer.println("<table>");
+        writer.println("<tr><th>Files with violations</th><td>" + fileCount + "</td></tr>");
+        writer.println("<tr><th>Violations</th><td>" + violationCount + "</td></tr>");
+        for (RulePriority priority : RulePriority.values()) {
+            writer.println("<tr><th>Priority " + priority.getPriority() + " (" + priority.getName() + ")</th><td>"
+                               + violationsByPriority[priority.getPriority() - 1] + "</td></tr>");
+        }
+        writer.println("<tr><th>Processing errors</th><td>" + errors.size() + "</td></tr>");
+        writer.println("<tr><th>Configuration errors</th><td>" + configErrors.size() + "</td></tr>");
+        writer.println("</table>");
+
+        if (fileListPages > 0) {
+            writer.println("<h3>Files</h3>");
+            renderListLinks("files", fileListPages, fileCount);
+        }
+
+        if (!violationsByRule.isEmpty()) {
+            writer.println("<h3>Violations by rule</h3>");
+            writer.println("<table><tr><th>Rule</th><th>Priority</th><th>Violations</th></tr>");
+            for (RuleCount ruleCount : violationsByRule.values()) {
+                writer.println("<tr><td>" + renderRuleName(ruleCount.rule) + "</td><td>"
+                                   + ruleCount.rule.getPriority().getPriority() + "</td><td>" + ruleCount.count + "</td></tr>");
+            }
+            writer.println("</table>");
+        }
+
+        if (suppressedPages > 0) {
+            writer.println("<h3>Suppressed violations</h3>");
+            renderListLinks("suppressed", suppressedPages, (suppressedPages - 1) * pageSize + suppressedRows);
+        }
+
+        if (!errors.isEmpty()) {
+            writer.println("<h3>Processing errors</h3>");
+            writer.println("<table><tr><th>File</th><th>Problem</th></tr>");
+            for (Report.ProcessingError error : errors) {
+                writer.println("<tr><td>" + StringEscapeUtils.escapeHtml4(determineFileName(error.getFileId()))
+                                   + "</td><td><pre>" + StringEscapeUtils.escapeHtml4(error.getDetail()) + "</pre></td></tr>");
+            }
+            writer.println("</table>");
+        }
+
+        if (!configErrors.isEmpty()) {
+            writer.println("<h3>Configuration errors</h3>");
+            writer.println("<table><tr><th>Rule</th><th>Problem</th></tr>");
+            for (Report.ConfigurationError error : configErrors) {
+                writer.println("<tr><td>" + renderRuleName(error.rule()) + "</td><td>"
+                                   + StringEscapeUtils.escapeHtml4(error.issue()) + "</td></tr>");
+            }
+            writer.println("</table>");
+        }
+        writer.println("</body></html>");
+    }
+
+    private void renderListLinks(String prefix, int numPages, long numRows) {
+        writer.println("<ul>");
+        for (int page = 1; page <= numPages; page++) {
+            long first = (long) (page - 1) * pageSize + 1;
+            long last = Math.min((long) page * pageSize, numRows);
+            writer.println("<li><a href=\"" + pageDirLink + listPageName(prefix, page) + "\">" + first + " - " + last + "</a></li>");
+        }
+        writer.println("</ul>");
+    }
+
+    private static void renderPageLinks(PrintWriter out, int page, int numPages, IntFunction<String> pageNames) {
+        if (numPages == 1) {
+            return;
+        }
+        out.print(", page " + page + " of " + numPages);
+        if (page > 1) {
+            out.print(" <a href=\"" + pageNames.apply(page - 1) + "\">previous</a>");
+        }
+        if (page < numPages) {
+            out.print(" <a href=\"" + pageNames.apply(page + 1) + "\">next</a>");
+        }
+    }
+
+    private static String renderRuleName(Rule rule) {
+        String name = StringEscapeUtils.escapeHtml4(rule.getName());
+        String infoUrl = rule.getExternalInfoUrl();
+        if (StringUtils.isNotBlank(infoUrl)) {
+            return "<a href=\"" + StringEscapeUtils.escapeHtml4(infoUrl) + "\">" + name + "</a>";
+        }
+        return name;
+    }
+
+    private static String filePageName(int fileIndex, int page) {
+        return page == 1 ? "file-" + fileIndex + ".html" : "file-" + fileIndex + "-" + page + ".html";
+    }
+
+    private static String listPageName(String prefix, int page) {
+        return prefix + "-" + page + ".html";
+    }
+
+    private PrintWriter openPage(String name, String title) throws IOException {
+        PrintWriter out = new PrintWriter(Files.newBufferedWriter(pageDir.resolve(name), StandardCharsets.UTF_8));
+        out.println("<!DOCTYPE html>");
+        out.println("<html><head><meta charset=\"UTF-8\"><title>PMD - " + title + "</title>" + STYLE + "</head><body>");
+        out.println("<h3>" + title + "</h3>");
+        return out;
+    }
+
+    private static void closePage(PrintWriter out) throws IOException {
+        out.println("</body></html>");
+        out.close();
+        if (out.checkError()) {
+            throw new IOException("Error while writing a page of the report");
+        }
+    }
+
+    private void closeFileList() throws IOException {
+        if (fileList != null) {
+            fileList.println("</table>");
+            closePage(fileList);
+            fileList = null;
+        }
+    }
+
+    private void closeSuppressedPage() throws IOException {
+        if (suppressedPage != null) {
+            suppressedPage.println("</table>");
+            closePage(suppressedPage);
+            suppressedPage = null;
+        }
+    }
+
+    private static final class RuleCount {
+        private final Rule rule;
+        private long count;
+
+        RuleCount(Rule rule) {
+            this.rule = rule;
+        }
+    }
+}
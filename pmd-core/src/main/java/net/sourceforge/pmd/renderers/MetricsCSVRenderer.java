@@ -0,0 +1,98 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.metrics.AbstractMetricsReportRule;
+
+/**
+ * Renders the values reported by {@linkplain AbstractMetricsReportRule metrics report rules}
+ * as a table, with one row per reported node (class, method...) and one column
+ * per metric. Violations of other rules are ignored. Nodes on which a metric
+ * was not computed have an empty cell in the column of that metric.
+ *
+ * <p>The set of columns is only known once all files have been analysed,
+ * which is why this renderer accumulates the report.
+ */
+public class MetricsCSVRenderer extends AbstractAccumulatingRenderer {
+
+    public static final String NAME = "metricscsv";
+
+    private static final String SEPARATOR = ",";
+    private static final String[] FIXED_TITLES = {"File", "Package", "Class", "Method", "Line"};
+
+    public MetricsCSVRenderer() {
+        super(NAME, "Comma-separated values of metrics reported by a metrics report rule.");
+    }
+
+    @Override
+    public String defaultFileExtension() {
+        return "csv";
+    }
+
+    @Override
+    protected void outputReport(Report report) throws IOException {
+        List<RuleViolation> rows = new ArrayList<>();
+        Set<String> metricNames = new LinkedHashSet<>();
+        for (RuleViolation rv : report.getViolations()) {
+            if (AbstractMetricsReportRule.isMetricsReport(rv)) {
+                rows.add(rv);
+                metricNames.addAll(AbstractMetricsReportRule.getMetricValues(rv).keySet());
+            }
+        }
+
+        StringBuilder buf = new StringBuilder(300);
+        List<String> cells = new ArrayList<>(FIXED_TITLES.length + metricNames.size());
+        Collections.addAll(cells, FIXED_TITLES);
+        cells.addAll(metricNames);
+        appendRow(buf, cells);
+        writer.write(buf.toString());
+
+        for (RuleViolation rv : rows) {
+            buf.setLength(0);
+            cells.clear();
+            Map<String, String> info = rv.getAdditionalInfo();
+            cells.add(determineFileName(rv.getFileId()));
+            cells.add(info.get(RuleViolation.PACKAGE_NAME));
+            cells.add(info.get(RuleViolation.CLASS_NAME));
+            cells.add(info.get(RuleViolation.METHOD_NAME));
+            cells.add(Integer.toString(rv.getBeginLine()));
+
+            Map<String, String> metricValues = AbstractMetricsReportRule.getMetricValues(rv);
+            for (String metric : metricNames) {
+                cells.add(metricValues.get(metric));
+            }
+            appendRow(buf, cells);
+            writer.write(buf.toString());
+        }
+    }
+
+    private static void appendRow(StringBuilder buf, Iterable<String> cells) {
+        boolean first = true;
+        for (String cell : cells) {
+            if (!first) {
+                buf.append(SEPARATOR);
+            }
+            quote(buf, cell);
+            first = false;
+        }
+        buf.append(System.lineSeparator());
+    }
+
+    private static void quote(StringBuilder buffer, String s) {
+        buffer.append('"').append(StringUtils.replaceChars(StringUtils.defaultString(s), '"', '\'')).append('"');
+    }
+}
@@ -21,6 +21,7 @@ import net.sourceforge.pmd.benchmark.TimedOperationCategory;
 import net.sourceforge.pmd.lang.document.TextFile;
 import net.sourceforge.pmd.properties.PropertyDescriptor;
 import net.sourceforge.pmd.properties.PropertySource;
+import net.sourceforge.pmd.renderers.internal.AsyncReportWriter;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
 import net.sourceforge.pmd.reporting.FileNameRenderer;
 import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
@@ -191,20 +192,32 @@ public interface Renderer extends PropertySource {
     /**
      * Returns a new analysis listener, that handles violations by rendering
      * them in an implementation-defined way.
+     *
+     * <p>The default implementation batches violations by file. When a
+     * file is done, its report is forwarded to {@link #renderFileReport(Report)}
+     * on a dedicated thread, so that analysis threads do not wait for the
+     * renderer. {@link #renderFileReport(Report)} is therefore never called
+     * concurrently. The thread is started with the first file report, and
+     * ends when the listener is closed. Closing the listener always
+     * {@linkplain #flush() flushes} the renderer, even if rendering failed.
      */
-    // TODO the default implementation matches the current behavior,
-    //  ie violations are batched by file and forwarded to the renderer
-    //  when the file is done. Many renderers could directly handle
-    //  violations as they come though.
+    // TODO Many renderers could directly handle violations as they come.
     default GlobalAnalysisListener newListener() throws IOException {
         try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.REPORTING)) {
             this.start();
+        } catch (IOException | RuntimeException e) {
+            // the listener won't be closed, close the output now
+            try {
+                flush();
+            } catch (IOException | RuntimeException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
         }
 
         return new GlobalAnalysisListener() {
 
-            // guard for the close routine
-            final Object reportMergeLock = new Object();
+            final AsyncReportWriter reportWriter = new AsyncReportWriter(Renderer.this);
 
             final GlobalReportBuilderListener configErrorReport = new GlobalReportBuilderListener();
 
@@ -249,12 +262,7 @@ public interface Renderer extends PropertySource {
                     @Override
                     public void close() throws Exception {
                         reportBuilder.close();
-                        synchronized (reportMergeLock) {
-                            // TODO renderFileReport should be thread-safe instead
-                            try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.REPORTING)) {
-                                renderer.renderFileReport(reportBuilder.getResult());
-                            }
-                        }
+                        reportWriter.render(reportBuilder.getResult());
                     }
 
                     @Override
@@ -266,11 +274,19 @@ public interface Renderer extends PropertySource {
 
             @Override
             public void close() throws Exception {
-                configErrorReport.close();
-                Renderer.this.renderFileReport(configErrorReport.getResult());
-                try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.REPORTING)) {
-                    end();
-                    flush();
+                try {
+                    // wait for the file reports to be rendered
+                    reportWriter.close();
+                    configErrorReport.close();
+                    Renderer.this.renderFileReport(configErrorReport.getResult());
+                    try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.REPORTING)) {
+                        end();
+                    }
+                } finally {
+                    // close the output, even if the renderer failed
+                    try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.REPORTING)) {
+                        flush();
+                    }
                 }
             }
         };
@@ -48,6 +48,9 @@ public final class RendererFactory {
         map.put(EmptyRenderer.NAME, EmptyRenderer.class);
         map.put(JsonRenderer.NAME, JsonRenderer.class);
         map.put(SarifRenderer.NAME, SarifRenderer.class);
+        map.put(MetricsCSVRenderer.NAME, MetricsCSVRenderer.class);
+        map.put(BinaryRenderer.NAME, BinaryRenderer.class);
+        map.put(ChunkedHTMLRenderer.NAME, ChunkedHTMLRenderer.class);
         REPORT_FORMAT_TO_RENDERER = Collections.unmodifiableMap(map);
     }
 
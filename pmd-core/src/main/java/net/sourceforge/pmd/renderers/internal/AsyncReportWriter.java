@@ -0,0 +1,166 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.benchmark.TimeTracker;
+import net.sourceforge.pmd.benchmark.TimedOperation;
+import net.sourceforge.pmd.benchmark.TimedOperationCategory;
+import net.sourceforge.pmd.renderers.Renderer;
+
+/**
+ * Renders file reports on a dedicated thread, so that analysis threads
+ * do not wait for the I/O of the renderer. The thread is started when
+ * the first report is queued, and ends when this writer is closed. Reports
+ * are put in a bounded
+ * queue, which the writer thread drains in batches. If the queue is full,
+ * because the renderer is slower than the analysis, the analysis threads
+ * block until there is room in the queue. No report is ever dropped.
+ *
+ * <p>With {@linkplain TimeTracker time tracking}, the rendering of each
+ * batch is tracked in the category {@link TimedOperationCategory#REPORTING},
+ * with the number of reports of the batch as counter. The time analysis
+ * threads spend waiting for room in the queue is tracked in the same
+ * category with a separate label.
+ *
+ * <p>This object is thread-safe. {@link #close()} must be called by the
+ * thread that calls {@link Renderer#end()} afterwards: when it returns,
+ * all the reports have been rendered.
+ */
+public final class AsyncReportWriter implements AutoCloseable {
+
+    static final int DEFAULT_CAPACITY = 256;
+
+    /** Marks the end of the queue. */
+    private static final Report END = new Report();
+
+    private final Renderer renderer;
+    private final BlockingQueue<Report> queue;
+    private volatile Thread writerThread;
+    private volatile boolean closed;
+    private final String batchLabel;
+    private final String waitLabel;
+
+    // only written by the writer thread, read after join
+    private Throwable failure;
+
+    public AsyncReportWriter(Renderer renderer) {
+        this(renderer, DEFAULT_CAPACITY);
+    }
+
+    AsyncReportWriter(Renderer renderer, int capacity) {
+        this.renderer = renderer;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchLabel = "Renderer " + renderer.getName();
+        this.waitLabel = "Waiting for renderer " + renderer.getName();
+    }
+
+    /**
+     * Queues the report for rendering. Blocks if the queue is full.
+     *
+     * @throws IllegalStateException If this writer is closed
+     */
+    public void render(Report report) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("Writer is closed");
+        }
+        if (writerThread == null) {
+            startWriterThread();
+        }
+        if (!queue.offer(report)) {
+            try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.REPORTING, waitLabel)) {
+                queue.put(report);
+            }
+        }
+    }
+
+    private synchronized void startWriterThread() {
+        if (closed) {
+            throw new IllegalStateException("Writer is closed");
+        }
+        if (writerThread == null) {
+            Thread thread = new Thread(this::drain, "PmdRenderer-" + renderer.getName());
+            thread.setDaemon(true);
+            thread.start();
+            writerThread = thread;
+        }
+    }
+
+    /** Returns true if the writer thread is started and not yet done. */
+    boolean isWriterThreadAlive() {
+        Thread thread = writerThread;
+        return thread != null && thread.isAlive();
+    }
+
+    private void drain() {
+        List<Report> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch);
+            // nothing is queued after the end marker
+            boolean end = batch.get(batch.size() - 1) == END;
+            if (end) {
+                batch.remove(batch.size() - 1);
+            }
+            renderBatch(batch);
+            batch.clear();
+            if (end) {
+                return;
+            }
+        }
+    }
+
+    private void renderBatch(List<Report> batch) {
+        if (failure != null || batch.isEmpty()) {
+            // keep draining the queue so that producers don't block
+            return;
+        }
+        try (TimedOperation op = TimeTracker.startOperation(TimedOperationCategory.REPORTING, batchLabel)) {
+            for (Report report : batch) {
+                renderer.renderFileReport(report);
+            }
+            op.close(batch.size());
+        } catch (Exception | Error e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Waits until all the queued reports have been rendered, and rethrows
+     * the exception thrown by the renderer, if any.
+     */
+    @Override
+    public void close() throws Exception {
+        Thread thread;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            thread = writerThread;
+        }
+        if (thread == null) {
+            // nothing was rendered
+            return;
+        }
+        queue.put(END);
+        thread.join();
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure != null) {
+            throw (Exception) failure;
+        }
+    }
+}
@@ -6,12 +6,16 @@ package net.sourceforge.pmd.renderers.internal.sarif;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import net.sourceforge.pmd.PMDVersion;
 import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
 import net.sourceforge.pmd.RuleViolation;
 import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.ArtifactLocation;
 import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.AssociatedRule;
@@ -32,7 +36,7 @@ import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.ToolConfigurationNo
 import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.ToolExecutionNotification;
 
 public class SarifLogBuilder {
-    private final List<ReportingDescriptor> rules = new ArrayList<>();
+    private final RuleIndex rules = new RuleIndex();
     private final List<Result> results = new ArrayList<>();
     private final List<ToolConfigurationNotification> toolConfigurationNotifications = new ArrayList<>();
     private final List<ToolExecutionNotification> toolExecutionNotifications = new ArrayList<>();
@@ -42,18 +46,18 @@ public class SarifLogBuilder {
     }
 
     public SarifLogBuilder add(RuleViolation violation) {
-        final ReportingDescriptor ruleDescriptor = getReportingDescriptor(violation);
-        int ruleIndex = rules.indexOf(ruleDescriptor);
-        if (ruleIndex == -1) {
-            rules.add(ruleDescriptor);
-            ruleIndex = rules.size() - 1;
-        }
+        results.add(resultFrom(violation, rules));
+        return this;
+    }
 
+    /**
+     * Returns the result for the given violation. The rule of the violation
+     * is added to the given index if it is not there yet.
+     */
+    static Result resultFrom(RuleViolation violation, RuleIndex rules) {
+        final Integer ruleIndex = rules.indexOf(violation.getRule());
         final Location location = getRuleViolationLocation(violation);
-        final Result result = resultFrom(ruleDescriptor, ruleIndex, location);
-        results.add(result);
-
-        return this;
+        return resultFrom(violation, ruleIndex, location);
     }
 
     public SarifLogBuilder addRunTimeError(Report.ProcessingError error) {
@@ -107,17 +111,10 @@ public class SarifLogBuilder {
     }
 
     public SarifLog build() {
-        final Component driver = getDriverComponent().toBuilder().rules(rules).build();
-        final Tool tool = Tool.builder().driver(driver).build();
-        final Invocation invocation = Invocation.builder()
-                .toolExecutionNotifications(toolExecutionNotifications)
-                .toolConfigurationNotifications(toolConfigurationNotifications)
-                .executionSuccessful(isExecutionSuccessful())
-                .build();
         final Run run = Run.builder()
-                .tool(tool)
+                .tool(buildTool(rules.getRules()))
                 .results(results)
-                .invocations(Collections.singletonList(invocation))
+                .invocations(Collections.singletonList(buildInvocation()))
                 .build();
 
         List<Run> runs = Collections.singletonList(run);
@@ -125,18 +122,35 @@ public class SarifLogBuilder {
         return SarifLog.builder().runs(runs).build();
     }
 
+    static Tool buildTool(Collection<Rule> rules) {
+        final List<ReportingDescriptor> descriptors = new ArrayList<>(rules.size());
+        for (Rule rule : rules) {
+            descriptors.add(getReportingDescriptor(rule));
+        }
+        final Component driver = getDriverComponent().toBuilder().rules(descriptors).build();
+        return Tool.builder().driver(driver).build();
+    }
+
+    Invocation buildInvocation() {
+        return Invocation.builder()
+                .toolExecutionNotifications(toolExecutionNotifications)
+                .toolConfigurationNotifications(toolConfigurationNotifications)
+                .executionSuccessful(isExecutionSuccessful())
+                .build();
+    }
+
     private boolean isExecutionSuccessful() {
         return toolExecutionNotifications.isEmpty() && toolConfigurationNotifications.isEmpty();
     }
 
-    private Result resultFrom(ReportingDescriptor rule, Integer ruleIndex, Location location) {
+    private static Result resultFrom(RuleViolation violation, Integer ruleIndex, Location location) {
         final Result result = Result.builder()
-                .ruleId(rule.getId())
+                .ruleId(violation.getRule().getName())
                 .ruleIndex(ruleIndex)
                 .build();
 
         final Message message = Message.builder()
-                .text(rule.getShortDescription().getText())
+                .text(violation.getDescription())
                 .build();
 
         result.setMessage(message);
@@ -145,7 +159,7 @@ public class SarifLogBuilder {
         return result;
     }
 
-    private Location getRuleViolationLocation(RuleViolation rv) {
+    private static Location getRuleViolationLocation(RuleViolation rv) {
         ArtifactLocation artifactLocation = ArtifactLocation.builder()
                 .uri(rv.getFileId().getUriString())
                 .build();
@@ -167,30 +181,52 @@ public class SarifLogBuilder {
             .build();
     }
 
-    private ReportingDescriptor getReportingDescriptor(RuleViolation rv) {
+    private static ReportingDescriptor getReportingDescriptor(Rule rule) {
         return ReportingDescriptor.builder()
-            .id(rv.getRule().getName())
-            .shortDescription(new MultiformatMessage(rv.getDescription()))
-            .fullDescription(new MultiformatMessage(rv.getRule().getDescription()))
-            .helpUri(rv.getRule().getExternalInfoUrl())
-            .help(new MultiformatMessage(rv.getRule().getDescription()))
-            .properties(getRuleProperties(rv))
+            .id(rule.getName())
+            .shortDescription(new MultiformatMessage(rule.getMessage()))
+            .fullDescription(new MultiformatMessage(rule.getDescription()))
+            .helpUri(rule.getExternalInfoUrl())
+            .help(new MultiformatMessage(rule.getDescription()))
+            .properties(getRuleProperties(rule))
             .build();
     }
 
-    private PropertyBag getRuleProperties(RuleViolation rv) {
+    private static PropertyBag getRuleProperties(Rule rule) {
         return PropertyBag.builder()
-                .ruleset(rv.getRule().getRuleSetName())
-                .priority(rv.getRule().getPriority().getPriority())
-                .tags(new HashSet<>(Arrays.asList(rv.getRule().getRuleSetName())))
+                .ruleset(rule.getRuleSetName())
+                .priority(rule.getPriority().getPriority())
+                .tags(new HashSet<>(Arrays.asList(rule.getRuleSetName())))
                 .build();
     }
 
-    private Component getDriverComponent() {
+    private static Component getDriverComponent() {
         return Component.builder()
                 .name("PMD")
                 .version(PMDVersion.VERSION)
                 .informationUri("https://docs.pmd-code.org/latest/")
                 .build();
     }
+
+    /**
+     * Indices of the rule descriptors in the {@code rules} array of the log.
+     * Rule instances are copied for each thread, and most rules compare by
+     * identity, so they are keyed by name.
+     */
+    static final class RuleIndex {
+
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final List<Rule> rules = new ArrayList<>();
+
+        int indexOf(Rule rule) {
+            return indices.computeIfAbsent(rule.getRuleSetName() + '\0' + rule.getName(), k -> {
+                rules.add(rule);
+                return rules.size() - 1;
+            });
+        }
+
+        List<Rule> getRules() {
+            return rules;
+        }
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers.internal.sarif;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.Invocation;
+import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.Result;
+import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.Tool;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes a SARIF log incrementally. Contrary to {@link SarifLogBuilder},
+ * results are written as soon as they are {@linkplain #add(RuleViolation) added},
+ * so the memory used does not depend on the number of violations.
+ * Only the rules and the errors are kept until the end.
+ * The {@code tool} section, which contains the rule descriptors, is
+ * therefore written after the {@code results} section.
+ */
+public class SarifLogWriter {
+
+    private final Gson gson = new GsonBuilder()
+            .disableHtmlEscaping()
+            .create();
+
+    private final JsonWriter jsonWriter;
+    private final SarifLogBuilder.RuleIndex rules = new SarifLogBuilder.RuleIndex();
+    private final SarifLogBuilder errors = SarifLogBuilder.sarifLogBuilder();
+
+    public SarifLogWriter(Writer writer) {
+        this.jsonWriter = new JsonWriter(writer);
+        jsonWriter.setHtmlSafe(false);
+        jsonWriter.setIndent("  ");
+    }
+
+    /**
+     * Writes the header of the log, up to the start of the results of the run.
+     */
+    public void start() throws IOException {
+        final SarifLog header = SarifLog.builder().build();
+        jsonWriter.beginObject();
+        jsonWriter.name("$schema").value(header.getSchema());
+        jsonWriter.name("version").value(header.getVersion());
+        jsonWriter.name("runs").beginArray();
+        jsonWriter.beginObject(); // run
+        jsonWriter.name("results").beginArray();
+    }
+
+    /**
+     * Writes the result for the given violation.
+     */
+    public void add(RuleViolation violation) throws IOException {
+        final Result result = SarifLogBuilder.resultFrom(violation, rules);
+        gson.toJson(result, Result.class, jsonWriter);
+    }
+
+    public void addRunTimeError(Report.ProcessingError error) {
+        errors.addRunTimeError(error);
+    }
+
+    public void addConfigurationError(Report.ConfigurationError error) {
+        errors.addConfigurationError(error);
+    }
+
+    /**
+     * Writes the rule descriptors and the errors, and closes the log.
+     * The underlying writer is flushed but not closed.
+     */
+    public void end() throws IOException {
+        jsonWriter.endArray(); // results
+
+        jsonWriter.name("tool");
+        gson.toJson(SarifLogBuilder.buildTool(rules.getRules()), Tool.class, jsonWriter);
+
+        jsonWriter.name("invocations").beginArray();
+        gson.toJson(errors.buildInvocation(), Invocation.class, jsonWriter);
+        jsonWriter.endArray();
+
+        jsonWriter.endObject(); // run
+        jsonWriter.endArray(); // runs
+        jsonWriter.endObject();
+        jsonWriter.flush();
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+
+import net.sourceforge.pmd.annotation.Experimental;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A snapshot of the metrics of an analysis, collected by an {@link AnalysisMetricsListener}.
+ * The metrics can be exported in the OpenMetrics text format, which is read by Prometheus,
+ * or as JSON.
+ */
+@Experimental
+public final class AnalysisMetrics {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final int filesToAnalyze;
+    private final int filesStarted;
+    private final int filesDone;
+    private final int cacheHits;
+    private final long violations;
+    private final long suppressedViolations;
+    private final int errors;
+    private final long elapsedNanos;
+    private final long fileNanos;
+    private final long[] fileTimeBuckets;
+    private final long allocatedBytes;
+    private final long[] fileAllocationBuckets;
+
+    AnalysisMetrics(int filesToAnalyze, int filesStarted, int filesDone, int cacheHits,
+                    long violations, long suppressedViolations, int errors,
+                    long elapsedNanos, long fileNanos, long[] fileTimeBuckets,
+                    long allocatedBytes, long[] fileAllocationBuckets) {
+        this.filesToAnalyze = filesToAnalyze;
+        this.filesStarted = filesStarted;
+        this.filesDone = filesDone;
+        this.cacheHits = cacheHits;
+        this.violations = violations;
+        this.suppressedViolations = suppressedViolations;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+        this.fileNanos = fileNanos;
+        this.fileTimeBuckets = fileTimeBuckets;
+        this.allocatedBytes = allocatedBytes;
+        this.fileAllocationBuckets = fileAllocationBuckets;
+    }
+
+    /** Returns the number of files collected for the analysis. */
+    public int getFilesToAnalyze() {
+        return filesToAnalyze;
+    }
+
+    /** Returns the number of files whose analysis is done. */
+    public int getFilesAnalyzed() {
+        return filesDone;
+    }
+
+    /** Returns the number of files being analyzed. */
+    public int getFilesInProgress() {
+        return filesStarted - filesDone;
+    }
+
+    /**
+     * Returns the depth of the queue of files of the analysis, that is,
+     * the number of files whose analysis has not started yet.
+     */
+    public int getQueueDepth() {
+        return Math.max(0, filesToAnalyze - filesStarted);
+    }
+
+    /** Returns the number of analyzed files whose results were taken from the analysis cache. */
+    public int getCacheHits() {
+        return cacheHits;
+    }
+
+    /** Returns the ratio of analyzed files that were found in the analysis cache, or 0 if no file was analyzed. */
+    public double getCacheHitRatio() {
+        return filesDone == 0 ? 0 : (double) cacheHits / filesDone;
+    }
+
+    public long getViolations() {
+        return violations;
+    }
+
+    public long getSuppressedViolations() {
+        return suppressedViolations;
+    }
+
+    /** Returns the number of processing errors. */
+    public int getErrors() {
+        return errors;
+    }
+
+    /** Returns the time elapsed since the start of the analysis, or its duration if it is done. */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getFilesPerSecond() {
+        return elapsedNanos == 0 ? 0 : filesDone * NANOS_PER_SECOND / elapsedNanos;
+    }
+
+    public double getViolationsPerSecond() {
+        return elapsedNanos == 0 ? 0 : violations * NANOS_PER_SECOND / elapsedNanos;
+    }
+
+    /** Returns the sum of the time spent on each file, over all threads. */
+    public long getFileNanos() {
+        return fileNanos;
+    }
+
+    /**
+     * Returns the number of bytes allocated while analyzing files, or -1
+     * if the JVM cannot measure the allocations of a thread.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Writes the metrics in the OpenMetrics text format. Counters are cumulative
+     * over the analysis, and the time and memory used per file are histograms.
+     */
+    public void writeOpenMetrics(Writer writer) throws IOException {
+        gauge(writer, "pmd_files_to_analyze", "Files collected for the analysis", filesToAnalyze);
+        gauge(writer, "pmd_files_in_progress", "Files being analyzed", getFilesInProgress());
+        gauge(writer, "pmd_queue_depth", "Files waiting in the queue to be analyzed", getQueueDepth());
+        counter(writer, "pmd_files_analyzed", "Files analyzed", filesDone);
+        counter(writer, "pmd_cache_hits", "Files found in the analysis cache", cacheHits);
+        counter(writer, "pmd_violations", "Rule violations", violations);
+        counter(writer, "pmd_suppressed_violations", "Suppressed rule violations", suppressedViolations);
+        counter(writer, "pmd_processing_errors", "Processing errors", errors);
+        gauge(writer, "pmd_elapsed_seconds", "Time since the start of the analysis", seconds(elapsedNanos));
+        histogram(writer, "pmd_file_analysis_seconds", "Time to analyze a file",
+                  AnalysisMetricsListener.TIME_BUCKETS_MILLIS, 1000.0, fileTimeBuckets, seconds(fileNanos));
+        if (fileAllocationBuckets != null) {
+            histogram(writer, "pmd_file_allocated_bytes", "Bytes allocated to analyze a file",
+                      AnalysisMetricsListener.ALLOCATION_BUCKETS_MB, 1.0 / (1 << 20), fileAllocationBuckets, allocatedBytes);
+        }
+        writer.write("# EOF\n");
+        writer.flush();
+    }
+
+    private static void gauge(Writer writer, String name, String help, Number value) throws IOException {
+        writeMetadata(writer, name, "gauge", help);
+        writeSample(writer, name, value);
+    }
+
+    private static void counter(Writer writer, String name, String help, Number value) throws IOException {
+        writeMetadata(writer, name, "counter", help);
+        writeSample(writer, name + "_total", value);
+    }
+
+    private static void histogram(Writer writer, String name, String help, long[] upperBounds, double boundDivisor,
+                                  long[] buckets, Number sum) throws IOException {
+        writeMetadata(writer, name, "histogram", help);
+        long cumulated = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            cumulated += buckets[i];
+            String bound = i < upperBounds.length ? format(upperBounds[i] / boundDivisor) : "+Inf";
+            writeSample(writer, name + "_bucket{le=\"" + bound + "\"}", cumulated);
+        }
+        writeSample(writer, name + "_count", cumulated);
+        writeSample(writer, name + "_sum", sum);
+    }
+
+    private static void writeMetadata(Writer writer, String name, String type, String help) throws IOException {
+        writer.write("# TYPE " + name + " " + type + "\n");
+        writer.write("# HELP " + name + " " + help + ".\n");
+    }
+
+    private static void writeSample(Writer writer, String name, Number value) throws IOException {
+        writer.write(name + " " + (value instanceof Double ? format(value.doubleValue()) : value.toString()) + "\n");
+    }
+
+    private static String format(double value) {
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / NANOS_PER_SECOND;
+    }
+
+    /**
+     * Writes the metrics as a JSON object.
+     */
+    public void writeJson(Writer writer) throws IOException {
+        @SuppressWarnings("PMD.CloseResource")
+        JsonWriter json = new JsonWriter(writer);
+        json.beginObject();
+        json.name("filesToAnalyze").value(filesToAnalyze);
+        json.name("filesAnalyzed").value(filesDone);
+        json.name("filesInProgress").value(getFilesInProgress());
+        json.name("queueDepth").value(getQueueDepth());
+        json.name("cacheHits").value(cacheHits);
+        json.name("cacheHitRatio").value(getCacheHitRatio());
+        json.name("violations").value(violations);
+        json.name("suppressedViolations").value(suppressedViolations);
+        json.name("processingErrors").value(errors);
+        json.name("elapsedSeconds").value(seconds(elapsedNanos));
+        json.name("filesPerSecond").value(getFilesPerSecond());
+        json.name("violationsPerSecond").value(getViolationsPerSecond());
+        json.name("fileSeconds").value(seconds(fileNanos));
+        writeBuckets(json, "fileTimeMillis", AnalysisMetricsListener.TIME_BUCKETS_MILLIS, fileTimeBuckets);
+        if (fileAllocationBuckets != null) {
+            json.name("allocatedBytes").value(allocatedBytes);
+            writeBuckets(json, "fileAllocationMegabytes", AnalysisMetricsListener.ALLOCATION_BUCKETS_MB, fileAllocationBuckets);
+        }
+        json.endObject();
+        json.flush();
+    }
+
+    private static void writeBuckets(JsonWriter json, String name, long[] upperBounds, long[] buckets) throws IOException {
+        // non-cumulative counts, by upper bound
+        json.name(name).beginObject();
+        for (int i = 0; i < buckets.length; i++) {
+            json.name(i < upperBounds.length ? "le" + upperBounds[i] : "inf").value(buckets[i]);
+        }
+        json.endObject();
+    }
+
+    @Override
+    public String toString() {
+        return "AnalysisMetrics[files=" + filesDone + "/" + filesToAnalyze + ", violations=" + violations
+            + ", errors=" + errors + ", cacheHits=" + cacheHits + "]";
+    }
+}
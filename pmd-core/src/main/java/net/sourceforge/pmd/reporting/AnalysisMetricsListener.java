@@ -0,0 +1,200 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import net.sourceforge.pmd.Report.ProcessingError;
+import net.sourceforge.pmd.Report.SuppressedViolation;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.lang.document.TextFile;
+
+/**
+ * Collects metrics about an analysis while it runs: progress, throughput,
+ * cache hits, and the distribution of the time and memory used per file.
+ * Unlike {@link ReportStatsListener}, the metrics can be read at any time
+ * with {@link #getMetrics()}, e.g. to export them periodically while a long
+ * analysis runs, and are cheap enough to be always enabled.
+ *
+ * <p>Register it with {@link net.sourceforge.pmd.PmdAnalysis#addListener(GlobalAnalysisListener)}.
+ *
+ * @see AnalysisMetrics#writeOpenMetrics(java.io.Writer)
+ * @see AnalysisMetrics#writeJson(java.io.Writer)
+ */
+@Experimental
+public final class AnalysisMetricsListener implements GlobalAnalysisListener {
+
+    /** Upper bounds of the buckets of the file time histogram, in milliseconds. */
+    static final long[] TIME_BUCKETS_MILLIS = {1, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+    /** Upper bounds of the buckets of the file allocation histogram, in megabytes. */
+    static final long[] ALLOCATION_BUCKETS_MB = {1, 4, 16, 64, 256, 1024};
+
+    private static final long NOT_STARTED = -1;
+
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final boolean measureAllocations;
+
+    private final AtomicInteger filesToAnalyze = new AtomicInteger();
+    private final AtomicLong startNanos = new AtomicLong(NOT_STARTED);
+    private final AtomicLong endNanos = new AtomicLong(NOT_STARTED);
+
+    private final AtomicInteger filesStarted = new AtomicInteger();
+    private final AtomicInteger filesDone = new AtomicInteger();
+    private final AtomicInteger cacheHits = new AtomicInteger();
+    private final AtomicLong violations = new AtomicLong();
+    private final AtomicLong suppressedViolations = new AtomicLong();
+    private final AtomicInteger errors = new AtomicInteger();
+
+    private final AtomicLong fileNanos = new AtomicLong();
+    private final AtomicLongArray fileTimeBuckets = new AtomicLongArray(TIME_BUCKETS_MILLIS.length + 1);
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final AtomicLongArray fileAllocationBuckets = new AtomicLongArray(ALLOCATION_BUCKETS_MB.length + 1);
+
+    public AnalysisMetricsListener() {
+        this.measureAllocations = allocationsSupported(threadBean);
+    }
+
+    private static boolean allocationsSupported(ThreadMXBean bean) {
+        try {
+            return bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemoryEnabled();
+        } catch (LinkageError | UnsupportedOperationException e) {
+            // not a HotSpot VM
+            return false;
+        }
+    }
+
+    @Override
+    public ListenerInitializer initializer() {
+        return new ListenerInitializer() {
+            @Override
+            public void setNumberOfFilesToAnalyze(int totalFiles) {
+                filesToAnalyze.set(totalFiles);
+            }
+
+            @Override
+            public void close() {
+                startNanos.compareAndSet(NOT_STARTED, System.nanoTime());
+            }
+        };
+    }
+
+    @Override
+    public FileAnalysisListener startFileAnalysis(TextFile file) {
+        startNanos.compareAndSet(NOT_STARTED, System.nanoTime());
+        filesStarted.incrementAndGet();
+        return new FileMetricsListener();
+    }
+
+    @Override
+    public void close() {
+        endNanos.compareAndSet(NOT_STARTED, System.nanoTime());
+    }
+
+    /**
+     * Returns a snapshot of the metrics of the analysis. This can be
+     * called at any time, from any thread.
+     */
+    public AnalysisMetrics getMetrics() {
+        long start = startNanos.get();
+        long end = endNanos.get();
+        long elapsedNanos = start == NOT_STARTED ? 0 : (end == NOT_STARTED ? System.nanoTime() : end) - start;
+        return new AnalysisMetrics(
+            filesToAnalyze.get(),
+            filesStarted.get(),
+            filesDone.get(),
+            cacheHits.get(),
+            violations.get(),
+            suppressedViolations.get(),
+            errors.get(),
+            elapsedNanos,
+            fileNanos.get(),
+            toArray(fileTimeBuckets),
+            measureAllocations ? allocatedBytes.get() : -1,
+            measureAllocations ? toArray(fileAllocationBuckets) : null
+        );
+    }
+
+    private static long[] toArray(AtomicLongArray array) {
+        long[] result = new long[array.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = array.get(i);
+        }
+        return result;
+    }
+
+    private static int bucket(long[] upperBounds, long value) {
+        int i = 0;
+        while (i < upperBounds.length && value > upperBounds[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    private static long ceilDiv(long value, long divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    private long currentThreadAllocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Counts the events of a file. File listeners are closed on the thread
+     * that analyzed the file, so the allocations of the thread in between
+     * are those of the file.
+     */
+    private final class FileMetricsListener implements FileAnalysisListener {
+        private final long fileStartNanos = System.nanoTime();
+        private final long fileStartAllocated = measureAllocations ? currentThreadAllocatedBytes() : 0;
+        private int numViolations;
+        private int numSuppressed;
+
+        @Override
+        public void onRuleViolation(RuleViolation violation) {
+            numViolations++;
+        }
+
+        @Override
+        public void onSuppressedRuleViolation(SuppressedViolation violation) {
+            numSuppressed++;
+        }
+
+        @Override
+        public void onError(ProcessingError error) {
+            errors.incrementAndGet();
+        }
+
+        @Override
+        public void onCacheHit() {
+            cacheHits.incrementAndGet();
+        }
+
+        @Override
+        public void close() {
+            long nanos = System.nanoTime() - fileStartNanos;
+            fileNanos.addAndGet(nanos);
+            fileTimeBuckets.incrementAndGet(bucket(TIME_BUCKETS_MILLIS, ceilDiv(nanos, 1_000_000)));
+            if (measureAllocations) {
+                long allocated = currentThreadAllocatedBytes() - fileStartAllocated;
+                allocatedBytes.addAndGet(allocated);
+                fileAllocationBuckets.incrementAndGet(bucket(ALLOCATION_BUCKETS_MB, ceilDiv(allocated, 1 << 20)));
+            }
+            if (numViolations > 0) {
+                violations.addAndGet(numViolations);
+            }
+            if (numSuppressed > 0) {
+                suppressedViolations.addAndGet(numSuppressed);
+            }
+            filesDone.incrementAndGet();
+        }
+    }
+}
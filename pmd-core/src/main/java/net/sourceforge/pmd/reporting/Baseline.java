@@ -0,0 +1,392 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.pmd.Report.SuppressedViolation;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.ViolationSuppressor;
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.lang.document.Chars;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.lang.document.TextFile;
+
+/**
+ * A set of violations that are known and should not be reported anymore,
+ * typically the violations that existed when PMD was introduced on a legacy
+ * code base. Violations of the baseline are reported as suppressed violations
+ * by {@link ViolationSuppressor#baselineSuppressor(Baseline)}.
+ *
+ * <p>A violation is identified by its rule, the display name of its file,
+ * and the code of the lines it spans, without whitespace. The display name
+ * is given by the {@link FileNameRenderer} of the analysis, so it is the
+ * path of the file relative to the relativize roots of the configuration,
+ * if there are any. Violations are therefore still matched when code is
+ * inserted before them, when the file is reformatted, or, with the same
+ * relativize roots, when the project is checked out in another directory.
+ * Files with the same name in different directories are told apart.
+ * Identical violations of a file, e.g. on duplicated lines, are numbered
+ * in the order in which they are reported: a file that has one more copy
+ * of a line than when the baseline was recorded has one new violation.
+ *
+ * <p>The baseline file is an open-addressing hash table of 64-bit hashes
+ * of these identities, which is memory-mapped: opening a baseline does not
+ * read it, and a lookup reads at most a few entries, whatever the size of
+ * the baseline. A baseline is written by the listener returned by
+ * {@link #recorder(Path)}.
+ *
+ * <p>This object is immutable and thread-safe.
+ */
+@Experimental
+public final class Baseline {
+
+    private static final int MAGIC = 0x504d424c; // "PMBL"
+    private static final int VERSION = 2;
+    // magic, version, capacity, size, checksum
+    private static final int HEADER_SIZE = 4 * Integer.BYTES + Long.BYTES;
+    private static final int MAX_CAPACITY = 1 << 27;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final ByteBuffer table;
+    private final int mask;
+    private final int size;
+    private final long checksum;
+    private final FileNameRenderer fileNameRenderer;
+
+    private Baseline(ByteBuffer table, int capacity, int size, long checksum, FileNameRenderer fileNameRenderer) {
+        this.table = table;
+        this.mask = capacity - 1;
+        this.size = size;
+        this.checksum = checksum;
+        this.fileNameRenderer = fileNameRenderer;
+    }
+
+    /**
+     * Opens the baseline at the given path. Files are identified by
+     * the path with which they were added to the analysis.
+     *
+     * @throws IOException If the file cannot be read, or is not a baseline
+     */
+    public static Baseline open(Path path) throws IOException {
+        return open(path, new ConfigurableFileNameRenderer());
+    }
+
+    /**
+     * Opens the baseline at the given path.
+     *
+     * @param path             Baseline file
+     * @param fileNameRenderer Renderer for the names of the files of the
+     *                         violations, which should be the renderer of
+     *                         the analysis that recorded the baseline
+     *
+     * @throws IOException If the file cannot be read, or is not a baseline
+     */
+    public static Baseline open(Path path, FileNameRenderer fileNameRenderer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new IOException("Not a baseline file: " + path);
+            }
+            // the mapping stays valid after the channel is closed
+            ByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, fileSize);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a baseline file, or unsupported version: " + path);
+            }
+            int capacity = buffer.getInt(8);
+            int size = buffer.getInt(12);
+            if (capacity <= 0 || capacity > MAX_CAPACITY || Integer.bitCount(capacity) != 1
+                || size < 0 || size >= capacity
+                || fileSize != HEADER_SIZE + (long) capacity * Long.BYTES) {
+                throw new IOException("Corrupted baseline file: " + path);
+            }
+            return new Baseline(buffer, capacity, size, buffer.getLong(16), fileNameRenderer);
+        }
+    }
+
+    /**
+     * Returns the number of violations of this baseline.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a checksum of the contents of this baseline. Analysis
+     * caches are invalidated when it changes.
+     */
+    public long getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Returns a new matcher for the violations of a single file.
+     */
+    public FileMatcher newFileMatcher() {
+        return new FileMatcher();
+    }
+
+    boolean contains(long key) {
+        int slot = slot(key, mask);
+        // bounded, in case the file is corrupted and has no empty slot
+        for (int probes = 0; probes <= mask; probes++) {
+            long entry = table.getLong(HEADER_SIZE + slot * Long.BYTES);
+            if (entry == key) {
+                return true;
+            } else if (entry == 0) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the key of a violation: a hash of its rule, of the display
+     * name of its file, and of the text of its lines without whitespace.
+     * The key is never zero, which marks empty slots.
+     */
+    static long key(RuleViolation violation, TextDocument document, FileNameRenderer fileNameRenderer) {
+        long hash = FNV_OFFSET;
+        hash = hash(hash, violation.getRule().getName());
+        // the separator differs between platforms
+        hash = hash(hash, fileNameRenderer.getDisplayName(violation.getFileId()).replace('\\', '/'));
+        if (violation.getFileId().equals(document.getFileId())) {
+            Chars snippet;
+            try {
+                snippet = document.sliceOriginalText(document.createLineRange(violation.getBeginLine(), violation.getEndLine()));
+            } catch (IndexOutOfBoundsException e) {
+                snippet = Chars.EMPTY;
+            }
+            for (int i = 0; i < snippet.length(); i++) {
+                char c = snippet.charAt(i);
+                if (!Character.isWhitespace(c)) {
+                    hash = (hash ^ c) * FNV_PRIME;
+                }
+            }
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Returns the key of the nth identical violation of a file, numbered
+     * from zero, given the key of the violation.
+     */
+    static long key(long key, int occurrence) {
+        if (occurrence == 0) {
+            return key;
+        }
+        long hash = (key ^ 0xfffe) * FNV_PRIME;
+        hash = (hash ^ occurrence) * FNV_PRIME;
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static long hash(long hash, String string) {
+        for (int i = 0; i < string.length(); i++) {
+            hash = (hash ^ string.charAt(i)) * FNV_PRIME;
+        }
+        // separator, so that ("ab", "c") and ("a", "bc") differ
+        return (hash ^ 0xffff) * FNV_PRIME;
+    }
+
+    private static int slot(long key, int mask) {
+        // the keys are hashes already, but their low bits are not well mixed
+        return (int) ((key ^ (key >>> 32)) * 0x9e3779b9L >>> 16) & mask;
+    }
+
+    /**
+     * Writes a baseline that contains the given keys. Duplicate keys are
+     * only stored once.
+     */
+    static void write(Path path, long[] keys) throws IOException {
+        long[] distinct = Arrays.stream(keys).distinct().sorted().toArray();
+        // the load factor is at most 1/2, so that probe sequences are short
+        long capacity = 16;
+        while (capacity < 2L * distinct.length) {
+            capacity <<= 1;
+        }
+        if (capacity > MAX_CAPACITY) {
+            throw new IOException("Baseline too large: " + distinct.length + " violations");
+        }
+        int mask = (int) capacity - 1;
+        long[] table = new long[(int) capacity];
+        long checksum = FNV_OFFSET;
+        for (long key : distinct) {
+            int slot = slot(key, mask);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = key;
+            checksum = (checksum ^ key) * FNV_PRIME;
+        }
+
+        if (path.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(table.length);
+            out.writeInt(distinct.length);
+            out.writeLong(checksum);
+            for (long entry : table) {
+                out.writeLong(entry);
+            }
+        }
+    }
+
+    /**
+     * Returns a listener that records all the violations of an analysis,
+     * and writes them as a baseline to the given path when it is closed.
+     * Violations that are suppressed by a baseline are recorded too, so
+     * that a baseline can be updated by an analysis that uses it.
+     *
+     * <p>Violations are only recorded if they are reported in the file
+     * being analyzed. Files are identified by the {@link FileNameRenderer}
+     * of the analysis, see {@link ListenerInitializer#setFileNameRenderer(FileNameRenderer)}.
+     * The analysis should not use incremental analysis: the analysis cache
+     * does not keep suppressed violations.
+     */
+    public static GlobalAnalysisListener recorder(Path path) {
+        return new Recorder(path);
+    }
+
+    private static final class Recorder implements GlobalAnalysisListener {
+
+        private final Path path;
+        private long[] keys = new long[1024];
+        private int numKeys;
+        private FileNameRenderer fileNameRenderer = new ConfigurableFileNameRenderer();
+
+        Recorder(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        public ListenerInitializer initializer() {
+            return new ListenerInitializer() {
+                @Override
+                public void setFileNameRenderer(FileNameRenderer fileNameRenderer) {
+                    Recorder.this.fileNameRenderer = fileNameRenderer;
+                }
+            };
+        }
+
+        @Override
+        public FileAnalysisListener startFileAnalysis(TextFile file) {
+            return new FileAnalysisListener() {
+                private final List<RuleViolation> violations = new ArrayList<>();
+                // The analysis closes the file before this listener, so the
+                // text is read while violations are reported.
+                private Chars text;
+                private IOException readError;
+
+                @Override
+                public void onRuleViolation(RuleViolation violation) {
+                    add(violation);
+                }
+
+                @Override
+                public void onSuppressedRuleViolation(SuppressedViolation violation) {
+                    if (ViolationSuppressor.BASELINE_SUPPRESSOR_ID.equals(violation.getSuppressor().getId())) {
+                        add(violation.getRuleViolation());
+                    }
+                }
+
+                private void add(RuleViolation violation) {
+                    if (text == null && readError == null) {
+                        try {
+                            text = file.readContents().getNormalizedText();
+                        } catch (IOException e) {
+                            readError = e;
+                        }
+                    }
+                    violations.add(violation);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    if (readError != null) {
+                        throw readError;
+                    } else if (violations.isEmpty()) {
+                        return;
+                    }
+                    long[] fileKeys = new long[violations.size()];
+                    Occurrences occurrences = new Occurrences();
+                    try (TextDocument document = TextDocument.readOnlyString(text, file.getFileId(), file.getLanguageVersion())) {
+                        for (int i = 0; i < fileKeys.length; i++) {
+                            fileKeys[i] = occurrences.next(key(violations.get(i), document, fileNameRenderer));
+                        }
+                    }
+                    addKeys(fileKeys);
+                }
+            };
+        }
+
+        private synchronized void addKeys(long[] fileKeys) {
+            if (numKeys + fileKeys.length > keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(keys.length * 2, numKeys + fileKeys.length));
+            }
+            System.arraycopy(fileKeys, 0, keys, numKeys, fileKeys.length);
+            numKeys += fileKeys.length;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            write(path, Arrays.copyOf(keys, numKeys));
+        }
+    }
+
+    /**
+     * Matches the violations of a single file against the baseline.
+     * Identical violations are numbered in the order in which they are
+     * matched, so the violations of a file must be matched in the order
+     * in which they are reported. This object is not thread-safe.
+     */
+    public final class FileMatcher {
+
+        private final Occurrences occurrences = new Occurrences();
+
+        private FileMatcher() {
+            // use Baseline#newFileMatcher
+        }
+
+        /**
+         * Returns true if the violation is part of the baseline.
+         *
+         * @param violation A violation
+         * @param document  The document in which the violation was found
+         */
+        public boolean contains(RuleViolation violation, TextDocument document) {
+            return Baseline.this.contains(occurrences.next(key(violation, document, fileNameRenderer)));
+        }
+    }
+
+    /** Numbers the identical keys of a file. */
+    private static final class Occurrences {
+
+        private final Map<Long, Integer> counts = new HashMap<>();
+
+        long next(long key) {
+            int occurrence = counts.merge(key, 1, Integer::sum) - 1;
+            return key(key, occurrence);
+        }
+    }
+}
@@ -12,6 +12,7 @@ import net.sourceforge.pmd.Report;
 import net.sourceforge.pmd.Report.ProcessingError;
 import net.sourceforge.pmd.Report.SuppressedViolation;
 import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.internal.util.IOUtil;
 import net.sourceforge.pmd.util.AssertionUtil;
 
@@ -51,6 +52,16 @@ public interface FileAnalysisListener extends AutoCloseable {
     }
 
 
+    /**
+     * Signals that the file is up-to-date in the analysis cache: it is
+     * not analyzed, and the violations that follow are the cached ones.
+     */
+    @Experimental
+    default void onCacheHit() {
+        // by default do nothing
+    }
+
+
     /**
      * Signals the end of the analysis: no further calls will be made
      * to this listener. This is run in the thread the listener has
@@ -123,6 +134,13 @@ public interface FileAnalysisListener extends AutoCloseable {
                 }
             }
 
+            @Override
+            public void onCacheHit() {
+                for (FileAnalysisListener it : list) {
+                    it.onCacheHit();
+                }
+            }
+
             @Override
             public void close() throws Exception {
                 Exception composed = IOUtil.closeAll(list);
@@ -0,0 +1,198 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting.binary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import net.sourceforge.pmd.RuleViolation;
+
+/**
+ * Constants and encoding helpers shared by {@link BinaryReportWriter}
+ * and {@link BinaryReportReader}.
+ *
+ * <p>A binary report has the following layout:
+ * <pre>
+ * header:   magic (int), version (varint)
+ * blocks:   one block per file, see below
+ * footer:   file table, rule table, block index
+ * trailer:  footer offset (long), magic (int)
+ * </pre>
+ *
+ * <p>A block contains the violations of one file, stored column by
+ * column: the number of violations, then the rule indices, the begin
+ * lines (delta-encoded), the begin columns, the line spans, the end
+ * columns, the messages, and the fingerprints. The violations of a block
+ * are sorted by position, so that the line deltas are small.
+ *
+ * <p>The block index records, for each block, the index of its file in
+ * the file table, its offset and length, the number of violations, a
+ * CRC32 of its bytes, and a digest of the fingerprints of its violations.
+ * The file table is sorted, which allows comparing two reports with a
+ * merge-join, without decoding the blocks whose digest is unchanged.
+ */
+final class BinaryReportFormat {
+
+    static final int MAGIC = 0x504d4442; // "PMDB"
+    static final int VERSION = 1;
+    static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private BinaryReportFormat() {
+        // utility class
+    }
+
+    /**
+     * Computes the fingerprint of a violation. The fingerprint depends on
+     * the rule, the file, the message and the additional info of the
+     * violation (e.g. the name of the enclosing method), but not on its
+     * position, so that it is stable when unrelated code is inserted
+     * before the violation.
+     */
+    static long fingerprint(RuleViolation violation, String fileName) {
+        long hash = FNV_OFFSET;
+        hash = hash(hash, violation.getRule().getName());
+        hash = hash(hash, fileName);
+        hash = hash(hash, violation.getDescription());
+        for (Map.Entry<String, String> entry : new TreeMap<>(violation.getAdditionalInfo()).entrySet()) {
+            hash = hash(hash, entry.getKey());
+            hash = hash(hash, entry.getValue());
+        }
+        return hash;
+    }
+
+    /**
+     * Computes a digest of the given fingerprints, independent of their order.
+     */
+    static long digest(long[] fingerprints) {
+        long[] sorted = fingerprints.clone();
+        Arrays.sort(sorted);
+        long hash = hash(FNV_OFFSET, sorted.length);
+        for (long fingerprint : sorted) {
+            hash = hash(hash, fingerprint);
+        }
+        return hash;
+    }
+
+    private static long hash(long hash, String string) {
+        for (int i = 0; i < string.length(); i++) {
+            hash = (hash ^ string.charAt(i)) * FNV_PRIME;
+        }
+        // separator, so that ("ab", "c") and ("a", "bc") differ
+        return (hash ^ 0xffff) * FNV_PRIME;
+    }
+
+    private static long hash(long hash, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash = (hash ^ (value & 0xff)) * FNV_PRIME;
+            value >>>= 8;
+        }
+        return hash;
+    }
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7fL) != 0) {
+            out.write((int) (value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static void writeVarInt(ByteArrayOutputStream out, int value) {
+        writeVarLong(out, value & 0xffffffffL);
+    }
+
+    /** Writes a signed value with zigzag encoding, so that small negative values are small. */
+    static void writeSignedVarInt(ByteArrayOutputStream out, int value) {
+        writeVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    static void writeInt(ByteArrayOutputStream out, int value) {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            out.write(value >>> shift);
+        }
+    }
+
+    static void writeLong(ByteArrayOutputStream out, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+
+    static void writeString(ByteArrayOutputStream out, String string) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    static long readVarLong(ByteBuffer in) throws IOException {
+        long result = 0;
+        try {
+            for (int shift = 0; shift < Long.SIZE; shift += 7) {
+                byte b = in.get();
+                result |= (long) (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated binary report", e);
+        }
+        throw new IOException("Malformed varint in binary report");
+    }
+
+    static int readVarInt(ByteBuffer in) throws IOException {
+        long value = readVarLong(in);
+        if ((value & ~0xffffffffL) != 0) {
+            throw new IOException("Malformed varint in binary report");
+        }
+        return (int) value;
+    }
+
+    static int readSignedVarInt(ByteBuffer in) throws IOException {
+        int value = readVarInt(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /** Reads a non-negative count, which must not exceed the remaining bytes. */
+    static int readCount(ByteBuffer in) throws IOException {
+        int count = readVarInt(in);
+        if (count < 0 || count > in.remaining()) {
+            throw new IOException("Malformed count in binary report: " + count);
+        }
+        return count;
+    }
+
+    static int readInt(ByteBuffer in) throws IOException {
+        try {
+            return in.getInt();
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated binary report", e);
+        }
+    }
+
+    static long readLong(ByteBuffer in) throws IOException {
+        try {
+            return in.getLong();
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated binary report", e);
+        }
+    }
+
+    static String readString(ByteBuffer in) throws IOException {
+        int length = readCount(in);
+        String string = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return string;
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting.binary;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import net.sourceforge.pmd.RulePriority;
+import net.sourceforge.pmd.annotation.Experimental;
+
+/**
+ * Reads a binary report written by {@link BinaryReportWriter}. Opening
+ * a report only reads its footer, which contains the file and rule tables
+ * and the block index. The violations of a file are decoded on demand,
+ * with {@link #readFile(String)}.
+ *
+ * <p>This object is not thread-safe.
+ */
+@Experimental
+public final class BinaryReportReader implements Closeable {
+
+    private final FileChannel channel;
+    private final List<String> files;
+    private final String[] ruleNames;
+    private final String[] ruleSetNames;
+    private final RulePriority[] priorities;
+    /** Blocks of each file, by file index. */
+    private final List<List<Block>> blocksByFile;
+
+    private BinaryReportReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+
+        long size = channel.size();
+        if (size < Integer.BYTES + 1 + BinaryReportFormat.TRAILER_SIZE) {
+            throw new IOException("Not a binary report");
+        }
+        ByteBuffer header = read(0, Integer.BYTES + 1);
+        if (BinaryReportFormat.readInt(header) != BinaryReportFormat.MAGIC) {
+            throw new IOException("Not a binary report");
+        }
+        int version = BinaryReportFormat.readVarInt(header);
+        if (version != BinaryReportFormat.VERSION) {
+            throw new IOException("Unsupported binary report version " + version);
+        }
+
+        ByteBuffer trailer = read(size - BinaryReportFormat.TRAILER_SIZE, BinaryReportFormat.TRAILER_SIZE);
+        long footerOffset = BinaryReportFormat.readLong(trailer);
+        if (BinaryReportFormat.readInt(trailer) != BinaryReportFormat.MAGIC
+            || footerOffset < 0 || footerOffset > size - BinaryReportFormat.TRAILER_SIZE) {
+            throw new IOException("Truncated binary report");
+        }
+        ByteBuffer footer = read(footerOffset, (int) (size - BinaryReportFormat.TRAILER_SIZE - footerOffset));
+
+        int fileCount = BinaryReportFormat.readCount(footer);
+        String[] fileArray = new String[fileCount];
+        blocksByFile = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            fileArray[i] = BinaryReportFormat.readString(footer);
+            blocksByFile.add(new ArrayList<>(1));
+        }
+        files = Collections.unmodifiableList(Arrays.asList(fileArray));
+
+        int ruleCount = BinaryReportFormat.readCount(footer);
+        ruleNames = new String[ruleCount];
+        ruleSetNames = new String[ruleCount];
+        priorities = new RulePriority[ruleCount];
+        for (int i = 0; i < ruleCount; i++) {
+            ruleNames[i] = BinaryReportFormat.readString(footer);
+            ruleSetNames[i] = BinaryReportFormat.readString(footer);
+            priorities[i] = RulePriority.valueOf(BinaryReportFormat.readVarInt(footer));
+        }
+
+        int blockCount = BinaryReportFormat.readCount(footer);
+        for (int i = 0; i < blockCount; i++) {
+            int fileIndex = BinaryReportFormat.readVarInt(footer);
+            long offset = BinaryReportFormat.readVarLong(footer);
+            int length = BinaryReportFormat.readVarInt(footer);
+            int count = BinaryReportFormat.readVarInt(footer);
+            int crc = BinaryReportFormat.readInt(footer);
+            long digest = BinaryReportFormat.readLong(footer);
+            if (fileIndex < 0 || fileIndex >= fileCount || offset < 0 || length < 0 || offset + length > footerOffset) {
+                throw new IOException("Malformed block index in binary report");
+            }
+            blocksByFile.get(fileIndex).add(new Block(offset, length, count, crc, digest));
+        }
+    }
+
+    /**
+     * Opens the binary report at the given path, and reads its footer.
+     *
+     * @throws IOException If the file is not a binary report, or is truncated
+     */
+    public static BinaryReportReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new BinaryReportReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the names of the files that have violations, in
+     * lexicographic order.
+     */
+    public List<String> getFileNames() {
+        return files;
+    }
+
+    /**
+     * Returns the number of violations of the given file.
+     */
+    public int getViolationCount(String fileName) {
+        int count = 0;
+        for (Block block : blocksOf(fileName)) {
+            count += block.count;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the violations of the given file, sorted by position.
+     */
+    public List<ReportedViolation> readFile(String fileName) throws IOException {
+        List<ReportedViolation> violations = new ArrayList<>();
+        for (Block block : blocksOf(fileName)) {
+            decode(fileName, block, violations);
+        }
+        if (blocksOf(fileName).size() > 1) {
+            violations.sort((a, b) -> a.getBeginLine() != b.getBeginLine()
+                                      ? Integer.compare(a.getBeginLine(), b.getBeginLine())
+                                      : Integer.compare(a.getBeginColumn(), b.getBeginColumn()));
+        }
+        return violations;
+    }
+
+    /**
+     * Returns a digest of the fingerprints of the violations of the given
+     * file, if it is stored in the index, that is, if the file was written
+     * in a single block. Returns null otherwise.
+     */
+    Long getDigest(String fileName) {
+        List<Block> blocks = blocksOf(fileName);
+        return blocks.size() == 1 ? blocks.get(0).digest : null;
+    }
+
+    private List<Block> blocksOf(String fileName) {
+        int index = Collections.binarySearch(files, fileName);
+        return index < 0 ? Collections.emptyList() : blocksByFile.get(index);
+    }
+
+    private void decode(String fileName, Block block, List<ReportedViolation> result) throws IOException {
+        ByteBuffer in = read(block.offset, block.length);
+        CRC32 crc = new CRC32();
+        crc.update(in.array(), 0, block.length);
+        if ((int) crc.getValue() != block.crc) {
+            throw new IOException("Corrupted block in binary report for file " + fileName);
+        }
+
+        int count = BinaryReportFormat.readCount(in);
+        if (count != block.count) {
+            throw new IOException("Corrupted block in binary report for file " + fileName);
+        }
+        int[] rules = new int[count];
+        int[] beginLines = new int[count];
+        int[] beginColumns = new int[count];
+        int[] endLines = new int[count];
+        int[] endColumns = new int[count];
+        String[] descriptions = new String[count];
+
+        for (int i = 0; i < count; i++) {
+            rules[i] = BinaryReportFormat.readVarInt(in);
+            if (rules[i] < 0 || rules[i] >= ruleNames.length) {
+                throw new IOException("Corrupted block in binary report for file " + fileName);
+            }
+        }
+        int line = 0;
+        for (int i = 0; i < count; i++) {
+            line += BinaryReportFormat.readSignedVarInt(in);
+            beginLines[i] = line;
+        }
+        for (int i = 0; i < count; i++) {
+            beginColumns[i] = BinaryReportFormat.readVarInt(in);
+        }
+        for (int i = 0; i < count; i++) {
+            endLines[i] = beginLines[i] + BinaryReportFormat.readSignedVarInt(in);
+        }
+        for (int i = 0; i < count; i++) {
+            endColumns[i] = BinaryReportFormat.readVarInt(in);
+        }
+        for (int i = 0; i < count; i++) {
+            descriptions[i] = BinaryReportFormat.readString(in);
+        }
+        for (int i = 0; i < count; i++) {
+            long fingerprint = BinaryReportFormat.readLong(in);
+            int rule = rules[i];
+            result.add(new ReportedViolation(fileName, ruleNames[rule], ruleSetNames[rule], priorities[rule],
+                                             beginLines[i], beginColumns[i], endLines[i], endColumns[i],
+                                             descriptions[i], fingerprint));
+        }
+    }
+
+    private ByteBuffer read(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("Truncated binary report");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static final class Block {
+
+        final long offset;
+        final int length;
+        final int count;
+        final int crc;
+        final long digest;
+
+        Block(long offset, int length, int count, int crc, long digest) {
+            this.offset = offset;
+            this.length = length;
+            this.count = count;
+            this.crc = crc;
+            this.digest = digest;
+        }
+    }
+}
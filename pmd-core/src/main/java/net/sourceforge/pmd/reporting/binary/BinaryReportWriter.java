@@ -0,0 +1,184 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting.binary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.annotation.Experimental;
+
+/**
+ * Writes a binary report. Violations are added file by file with
+ * {@link #addFile(String, List)}, and written immediately: only the file
+ * and rule tables and the block index are kept in memory until
+ * {@link #close()}. The report can be read back with {@link BinaryReportReader}.
+ *
+ * <p>This object is not thread-safe.
+ */
+@Experimental
+public class BinaryReportWriter implements Closeable {
+
+    private final OutputStream out;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private long position;
+
+    private final Map<String, Integer> fileIndices = new HashMap<>();
+    private final List<String> files = new ArrayList<>();
+    private final Map<String, Integer> ruleIndices = new HashMap<>();
+    private final List<Rule> rules = new ArrayList<>();
+    private final List<BlockEntry> blocks = new ArrayList<>();
+
+    /**
+     * Creates a new writer and writes the header of the report.
+     * The stream is closed by {@link #close()}.
+     */
+    public BinaryReportWriter(OutputStream out) throws IOException {
+        this.out = out;
+        BinaryReportFormat.writeInt(buffer, BinaryReportFormat.MAGIC);
+        BinaryReportFormat.writeVarInt(buffer, BinaryReportFormat.VERSION);
+        flushBuffer();
+    }
+
+    /**
+     * Writes the violations of one file. The same file may be added
+     * several times, the reader then merges the blocks.
+     *
+     * @param fileName   Name of the file, as it should appear in the report
+     * @param violations Violations of the file
+     */
+    public void addFile(String fileName, List<? extends RuleViolation> violations) throws IOException {
+        if (violations.isEmpty()) {
+            return;
+        }
+        List<RuleViolation> sorted = new ArrayList<>(violations);
+        sorted.sort(RuleViolation.DEFAULT_COMPARATOR);
+        int count = sorted.size();
+
+        BinaryReportFormat.writeVarInt(buffer, count);
+        for (RuleViolation violation : sorted) {
+            BinaryReportFormat.writeVarInt(buffer, ruleIndex(violation.getRule()));
+        }
+        int previousLine = 0;
+        for (RuleViolation violation : sorted) {
+            BinaryReportFormat.writeSignedVarInt(buffer, violation.getBeginLine() - previousLine);
+            previousLine = violation.getBeginLine();
+        }
+        for (RuleViolation violation : sorted) {
+            BinaryReportFormat.writeVarInt(buffer, violation.getBeginColumn());
+        }
+        for (RuleViolation violation : sorted) {
+            BinaryReportFormat.writeSignedVarInt(buffer, violation.getEndLine() - violation.getBeginLine());
+        }
+        for (RuleViolation violation : sorted) {
+            BinaryReportFormat.writeVarInt(buffer, violation.getEndColumn());
+        }
+        for (RuleViolation violation : sorted) {
+            BinaryReportFormat.writeString(buffer, violation.getDescription());
+        }
+        long[] fingerprints = new long[count];
+        for (int i = 0; i < count; i++) {
+            fingerprints[i] = BinaryReportFormat.fingerprint(sorted.get(i), fileName);
+            BinaryReportFormat.writeLong(buffer, fingerprints[i]);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.toByteArray(), 0, buffer.size());
+        blocks.add(new BlockEntry(fileIndex(fileName), position, buffer.size(), count,
+                                  (int) crc.getValue(), BinaryReportFormat.digest(fingerprints)));
+        flushBuffer();
+    }
+
+    private int fileIndex(String fileName) {
+        return fileIndices.computeIfAbsent(fileName, f -> {
+            files.add(f);
+            return files.size() - 1;
+        });
+    }
+
+    private int ruleIndex(Rule rule) {
+        // rule instances are copied for each thread, so they are keyed by name
+        return ruleIndices.computeIfAbsent(rule.getRuleSetName() + '\0' + rule.getName(), k -> {
+            rules.add(rule);
+            return rules.size() - 1;
+        });
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.writeTo(out);
+        position += buffer.size();
+        buffer.reset();
+    }
+
+    /**
+     * Writes the footer and the trailer of the report, and closes the stream.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            long footerOffset = position;
+            // the file table is sorted, the blocks refer to the sorted indices
+            List<String> sortedFiles = new ArrayList<>(files);
+            sortedFiles.sort(null);
+            int[] remap = new int[files.size()];
+            for (int i = 0; i < sortedFiles.size(); i++) {
+                remap[fileIndices.get(sortedFiles.get(i))] = i;
+            }
+
+            BinaryReportFormat.writeVarInt(buffer, sortedFiles.size());
+            for (String file : sortedFiles) {
+                BinaryReportFormat.writeString(buffer, file);
+            }
+            BinaryReportFormat.writeVarInt(buffer, rules.size());
+            for (Rule rule : rules) {
+                BinaryReportFormat.writeString(buffer, rule.getName());
+                BinaryReportFormat.writeString(buffer, String.valueOf(rule.getRuleSetName()));
+                BinaryReportFormat.writeVarInt(buffer, rule.getPriority().getPriority());
+            }
+            BinaryReportFormat.writeVarInt(buffer, blocks.size());
+            for (BlockEntry block : blocks) {
+                BinaryReportFormat.writeVarInt(buffer, remap[block.fileIndex]);
+                BinaryReportFormat.writeVarLong(buffer, block.offset);
+                BinaryReportFormat.writeVarInt(buffer, block.length);
+                BinaryReportFormat.writeVarInt(buffer, block.count);
+                BinaryReportFormat.writeInt(buffer, block.crc);
+                BinaryReportFormat.writeLong(buffer, block.digest);
+            }
+            BinaryReportFormat.writeLong(buffer, footerOffset);
+            BinaryReportFormat.writeInt(buffer, BinaryReportFormat.MAGIC);
+            flushBuffer();
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    static final class BlockEntry {
+
+        final int fileIndex;
+        final long offset;
+        final int length;
+        final int count;
+        final int crc;
+        final long digest;
+
+        BlockEntry(int fileIndex, long offset, int length, int count, int crc, long digest) {
+            this.fileIndex = fileIndex;
+            this.offset = offset;
+            this.length = length;
+            this.count = count;
+            this.crc = crc;
+            this.digest = digest;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting.binary;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.pmd.annotation.Experimental;
+
+/**
+ * Compares two binary reports, usually the report of a baseline and
+ * the report of the current state of the code, and reports the violations
+ * that were added and the ones that were fixed.
+ *
+ * <p>Violations are matched by {@linkplain ReportedViolation#getFingerprint() fingerprint},
+ * so a violation that only moved, because lines were inserted or removed
+ * before it, is neither new nor fixed. If several violations of a file
+ * have the same fingerprint, only the difference of their numbers is
+ * reported.
+ *
+ * <p>The files of both reports are visited in order, like in a merge-join,
+ * and only the violations of one file of each report are in memory at
+ * any time. Files whose violations have the same fingerprints in both
+ * reports are skipped without being decoded.
+ */
+@Experimental
+public final class ReportDiff {
+
+    private ReportDiff() {
+        // utility class
+    }
+
+    /**
+     * Compares the two reports. For each file, the fixed violations are
+     * reported before the new ones, both in order of position.
+     *
+     * @param baseline The report to compare against
+     * @param current  The new report
+     * @param listener Receives the differences
+     *
+     * @throws IOException If one of the reports cannot be read
+     */
+    public static void compare(BinaryReportReader baseline, BinaryReportReader current, DiffListener listener) throws IOException {
+        List<String> baselineFiles = baseline.getFileNames();
+        List<String> currentFiles = current.getFileNames();
+        int i = 0;
+        int j = 0;
+        while (i < baselineFiles.size() || j < currentFiles.size()) {
+            int cmp;
+            if (i == baselineFiles.size()) {
+                cmp = 1;
+            } else if (j == currentFiles.size()) {
+                cmp = -1;
+            } else {
+                cmp = baselineFiles.get(i).compareTo(currentFiles.get(j));
+            }
+
+            if (cmp < 0) {
+                for (ReportedViolation violation : baseline.readFile(baselineFiles.get(i++))) {
+                    listener.fixedViolation(violation);
+                }
+            } else if (cmp > 0) {
+                for (ReportedViolation violation : current.readFile(currentFiles.get(j++))) {
+                    listener.newViolation(violation);
+                }
+            } else {
+                compareFile(baseline, current, baselineFiles.get(i), listener);
+                i++;
+                j++;
+            }
+        }
+    }
+
+    private static void compareFile(BinaryReportReader baseline, BinaryReportReader current, String fileName, DiffListener listener) throws IOException {
+        Long baselineDigest = baseline.getDigest(fileName);
+        if (baselineDigest != null && baselineDigest.equals(current.getDigest(fileName))) {
+            return;
+        }
+
+        List<ReportedViolation> before = baseline.readFile(fileName);
+        List<ReportedViolation> after = current.readFile(fileName);
+
+        Map<Long, ArrayDeque<Integer>> unmatched = new HashMap<>();
+        for (int k = 0; k < before.size(); k++) {
+            unmatched.computeIfAbsent(before.get(k).getFingerprint(), f -> new ArrayDeque<>()).add(k);
+        }
+        boolean[] matched = new boolean[before.size()];
+        boolean[] added = new boolean[after.size()];
+        for (int k = 0; k < after.size(); k++) {
+            ArrayDeque<Integer> candidates = unmatched.get(after.get(k).getFingerprint());
+            if (candidates == null || candidates.isEmpty()) {
+                added[k] = true;
+            } else {
+                matched[candidates.poll()] = true;
+            }
+        }
+
+        for (int k = 0; k < before.size(); k++) {
+            if (!matched[k]) {
+                listener.fixedViolation(before.get(k));
+            }
+        }
+        for (int k = 0; k < after.size(); k++) {
+            if (added[k]) {
+                listener.newViolation(after.get(k));
+            }
+        }
+    }
+
+    /**
+     * Receives the differences found by {@link #compare(BinaryReportReader, BinaryReportReader, DiffListener)}.
+     */
+    public interface DiffListener {
+
+        /** A violation of the current report that is not in the baseline. */
+        void newViolation(ReportedViolation violation);
+
+        /** A violation of the baseline that is not in the current report anymore. */
+        void fixedViolation(ReportedViolation violation);
+    }
+}
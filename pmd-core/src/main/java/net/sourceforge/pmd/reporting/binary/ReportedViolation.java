@@ -0,0 +1,92 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting.binary;
+
+import net.sourceforge.pmd.RulePriority;
+import net.sourceforge.pmd.annotation.Experimental;
+
+/**
+ * A violation read from a binary report. Contrary to a {@link net.sourceforge.pmd.RuleViolation},
+ * it only refers to its rule by name.
+ */
+@Experimental
+public final class ReportedViolation {
+
+    private final String fileName;
+    private final String ruleName;
+    private final String ruleSetName;
+    private final RulePriority priority;
+    private final int beginLine;
+    private final int beginColumn;
+    private final int endLine;
+    private final int endColumn;
+    private final String description;
+    private final long fingerprint;
+
+    ReportedViolation(String fileName, String ruleName, String ruleSetName, RulePriority priority,
+                      int beginLine, int beginColumn, int endLine, int endColumn,
+                      String description, long fingerprint) {
+        this.fileName = fileName;
+        this.ruleName = ruleName;
+        this.ruleSetName = ruleSetName;
+        this.priority = priority;
+        this.beginLine = beginLine;
+        this.beginColumn = beginColumn;
+        this.endLine = endLine;
+        this.endColumn = endColumn;
+        this.description = description;
+        this.fingerprint = fingerprint;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getRuleName() {
+        return ruleName;
+    }
+
+    public String getRuleSetName() {
+        return ruleSetName;
+    }
+
+    public RulePriority getPriority() {
+        return priority;
+    }
+
+    public int getBeginLine() {
+        return beginLine;
+    }
+
+    public int getBeginColumn() {
+        return beginColumn;
+    }
+
+    public int getEndLine() {
+        return endLine;
+    }
+
+    public int getEndColumn() {
+        return endColumn;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Returns the fingerprint of this violation. Two violations with the
+     * same rule, file, message and additional info have the same fingerprint,
+     * even if they are not at the same position.
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public String toString() {
+        return fileName + ":" + beginLine + ":" + beginColumn + ": " + ruleName + ": " + description;
+    }
+}
@@ -4,8 +4,10 @@
 
 package net.sourceforge.pmd.util;
 
+import java.util.Arrays;
 import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -17,11 +19,30 @@ import org.checkerframework.checker.nullness.qual.Nullable;
  * The key can itself constrain the type of values, using its own type
  * parameter {@code T}.
  *
+ * <p>Keys created with {@link #simpleDataKey(String)} are given a slot
+ * when they are created, and their values are stored in an array indexed
+ * by that slot. Other keys are stored in a side table. Since such keys
+ * are typically constants, the array stays small, and a lookup is an
+ * array access.
+ *
  * @param <K> Type of keys in this map.
  */
 public final class DataMap<K> {
 
-    private Map<DataKey<? extends K, ?>, Object> map;
+    /**
+     * Maximum number of slotted keys. Keys created after that use the
+     * side table, so that creating keys dynamically doesn't grow the
+     * arrays of all data maps.
+     */
+    private static final int MAX_SLOTS = 128;
+    private static final AtomicInteger NEXT_SLOT = new AtomicInteger();
+
+    // both are lazily created, they're only needed if set() is called
+    // at least once, but get() might be called many more times, as
+    // sometimes you cache a key sparsely on some nodes, and default
+    // to the first parent for which the key is set.
+    private Object @Nullable [] slots;
+    private @Nullable Map<DataKey<? extends K, ?>, Object> sideTable;
 
     private DataMap() {
 
@@ -38,7 +59,14 @@ public final class DataMap<K> {
      */
     @SuppressWarnings("unchecked")
     public <T> @Nullable T set(DataKey<? extends K, ? super T> key, T data) {
-        return (T) getMap().put(key, data);
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return (T) getSideTable().put(key, data);
+        }
+        Object[] array = getSlots(slot);
+        T previous = (T) array[slot];
+        array[slot] = data;
+        return previous;
     }
 
     /**
@@ -51,12 +79,16 @@ public final class DataMap<K> {
      */
     @SuppressWarnings("unchecked")
     public <T> @Nullable T get(DataKey<? extends K, ? extends T> key) {
-        return map == null ? null : (T) map.get(key);
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return sideTable == null ? null : (T) sideTable.get(key);
+        }
+        return slots == null || slot >= slots.length ? null : (T) slots[slot];
     }
 
-    @SuppressWarnings("unchecked")
     public <T> T getOrDefault(DataKey<? extends K, ? extends T> key, T defaultValue) {
-        return map == null ? defaultValue : (T) map.getOrDefault(key, defaultValue);
+        T value = get(key);
+        return value == null ? defaultValue : value;
     }
 
     /**
@@ -70,7 +102,18 @@ public final class DataMap<K> {
      */
     @SuppressWarnings("unchecked")
     public <T> T computeIfAbsent(DataKey<? extends K, T> key, Supplier<? extends T> supplier) {
-        return (T) getMap().computeIfAbsent(key, k -> supplier.get());
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return (T) getSideTable().computeIfAbsent(key, k -> supplier.get());
+        }
+        T value = get(key);
+        if (value == null) {
+            value = supplier.get();
+            if (value != null) {
+                getSlots(slot)[slot] = value;
+            }
+        }
+        return value;
     }
 
     /**
@@ -85,20 +128,37 @@ public final class DataMap<K> {
      */
     @SuppressWarnings("unchecked")
     public <T> T compute(DataKey<? extends K, T> key, Function<? super @Nullable T, ? extends T> function) {
-        return (T) getMap().compute(key, (k, v) -> function.apply((T) v));
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return (T) getSideTable().compute(key, (k, v) -> function.apply((T) v));
+        }
+        T value = function.apply(get(key));
+        if (value != null || slots != null && slot < slots.length) {
+            getSlots(slot)[slot] = value;
+        }
+        return value;
+    }
+
+    private static int slotOf(DataKey<?, ?> key) {
+        return key instanceof SimpleDataKey ? ((SimpleDataKey<?>) key).slot : -1;
     }
 
-    private Map<DataKey<? extends K, ?>, Object> getMap() {
-        // the map is lazily created, it's only needed if set() is called
-        // at least once, but get() might be called many more times, as
-        // sometimes you cache a key sparsely on some nodes, and default
-        // to the first parent for which the key is set. The default expected
-        // max size is also 21, which is *way* bigger than what data maps
-        // typically contain (1/2 keys)
-        if (map == null) {
-            map = new IdentityHashMap<>(1);
+    private Object[] getSlots(int slot) {
+        if (slots == null) {
+            slots = new Object[slot + 1];
+        } else if (slot >= slots.length) {
+            slots = Arrays.copyOf(slots, slot + 1);
         }
-        return map;
+        return slots;
+    }
+
+    private Map<DataKey<? extends K, ?>, Object> getSideTable() {
+        // The default expected max size is 21, which is *way* bigger
+        // than what data maps typically contain (1/2 keys)
+        if (sideTable == null) {
+            sideTable = new IdentityHashMap<>(1);
+        }
+        return sideTable;
     }
 
     /**
@@ -109,7 +169,11 @@ public final class DataMap<K> {
      * @return True if some value is set
      */
     public boolean isSet(DataKey<? extends K, ?> key) {
-        return map != null && map.containsKey(key);
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return sideTable != null && sideTable.get(key) != null;
+        }
+        return get(key) != null;
     }
 
     public static <K> DataMap<K> newDataMap() {
@@ -135,9 +199,12 @@ public final class DataMap<K> {
     public static class SimpleDataKey<T> implements DataKey<SimpleDataKey<T>, T> {
 
         private final String name;
+        private final int slot;
 
         SimpleDataKey(String name) {
             this.name = name;
+            int next = NEXT_SLOT.getAndUpdate(i -> i < MAX_SLOTS ? i + 1 : i);
+            this.slot = next < MAX_SLOTS ? next : -1;
         }
 
         @Override
@@ -4,6 +4,8 @@
 
 package net.sourceforge.pmd.util.database;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.net.MalformedURLException;
 import java.sql.CallableStatement;
 import java.sql.Clob;
@@ -19,10 +21,18 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.sourceforge.pmd.internal.util.IOUtil;
+
 /**
  * Wrap JDBC connection for use by PMD: {@link DBURI} parameters specify the
  * source code to be passed to PMD.
@@ -91,6 +101,29 @@ public class DBMSMetadata {
      */
     protected int returnType = java.sql.Types.CLOB;
 
+    /**
+     * JDBC URL and properties of {@link #connection}, to open more connections
+     * like it.
+     */
+    private String connectionURL = null;
+    private Properties connectionProperties = null;
+
+    /**
+     * Receives the source code text retrieved by {@link DBMSMetadata#getSourceCode(List, SourceCodeConsumer)}.
+     */
+    public interface SourceCodeConsumer {
+
+        /**
+         * Called with the source code text of a source object.
+         */
+        void accept(SourceObject sourceObject, String sourceCode);
+
+        /**
+         * Called if the source code of a source object cannot be retrieved.
+         */
+        void failed(SourceObject sourceObject, Exception e);
+    }
+
     /* constructors */
     /**
      * Minimal constructor
@@ -131,7 +164,7 @@ public class DBMSMetadata {
         mergedProperties.put("user", user);
         mergedProperties.put("password", password);
 
-        connection = DriverManager.getConnection(urlString, mergedProperties);
+        connection = openConnection(urlString, mergedProperties);
         LOG.debug("we have a connection={}", connection);
     }
 
@@ -161,7 +194,7 @@ public class DBMSMetadata {
         mergedProperties.putAll(properties);
 
         LOG.debug("Retrieving connection for urlString={}", urlString);
-        connection = DriverManager.getConnection(urlString, mergedProperties);
+        connection = openConnection(urlString, mergedProperties);
         LOG.debug("Secured Connection for DBURI={}", dbURI);
     }
 
@@ -194,7 +227,24 @@ public class DBMSMetadata {
          */
         dbURIProperties.putAll(dbURIParameters);
 
-        connection = DriverManager.getConnection(urlString, dbURIProperties);
+        connection = openConnection(urlString, dbURIProperties);
+    }
+
+    /**
+     * Open another connection like the connection of the given instance.
+     */
+    private DBMSMetadata(DBMSMetadata other) throws SQLException {
+        this.dburi = other.dburi;
+        this.returnSourceCodeObjectsStatement = other.returnSourceCodeObjectsStatement;
+        this.returnSourceCodeStatement = other.returnSourceCodeStatement;
+        this.returnType = other.returnType;
+        connection = openConnection(other.connectionURL, other.connectionProperties);
+    }
+
+    private Connection openConnection(String urlString, Properties properties) throws SQLException {
+        this.connectionURL = urlString;
+        this.connectionProperties = properties;
+        return DriverManager.getConnection(urlString, properties);
     }
 
     /**
@@ -275,6 +325,104 @@ public class DBMSMetadata {
                 : new java.io.StringReader(result.toString());
     }
 
+    /**
+     * Retrieve the source code text of the source objects, and pass it to the consumer.
+     *
+     * <p>
+     * The source objects are retrieved over up to {@link DBURI#getConnections()}
+     * connections in parallel, each connection taking the next object that is
+     * not retrieved yet. Each connection reuses its statement for all the
+     * objects it retrieves. The connection of this instance is one of them, the
+     * others are opened by this method and closed before it returns.
+     * If this instance was created for a given connection, all objects are
+     * retrieved over this connection.
+     * </p>
+     *
+     * <p>
+     * The consumer is called by one thread at a time, but not necessarily in
+     * the order of the source objects.
+     * </p>
+     *
+     * @param sourceObjects
+     *            Source objects, e.g. from {@link #getSourceObjectList()}
+     * @param consumer
+     *            Receives the source code text, or the error, of each object
+     */
+    public void getSourceCode(List<SourceObject> sourceObjects, SourceCodeConsumer consumer) {
+        Queue<SourceObject> remaining = new ConcurrentLinkedQueue<>(sourceObjects);
+
+        int connections = null == connectionURL ? 1 : Math.max(1, Math.min(dburi.getConnections(), remaining.size()));
+        LOG.debug("Retrieving {} source objects over {} connections", sourceObjects.size(), connections);
+        if (connections == 1) {
+            retrieveSourceCode(this, remaining, consumer);
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(connections - 1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 1; i < connections; i++) {
+                futures.add(executor.submit(() -> retrieveSourceCodeOverNewConnection(remaining, consumer)));
+            }
+            retrieveSourceCode(this, remaining, consumer);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Problem retrieving source code", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void retrieveSourceCodeOverNewConnection(Queue<SourceObject> remaining, SourceCodeConsumer consumer) {
+        DBMSMetadata metadata;
+        try {
+            metadata = new DBMSMetadata(this);
+        } catch (SQLException e) {
+            // the other connections retrieve the remaining objects
+            LOG.warn("Cannot open another connection to {}", dburi, e);
+            return;
+        }
+
+        try {
+            retrieveSourceCode(metadata, remaining, consumer);
+        } finally {
+            try {
+                if (null != metadata.callableStatement) {
+                    metadata.callableStatement.close();
+                }
+                metadata.getConnection().close();
+            } catch (SQLException e) {
+                LOG.debug("Cannot close connection to {}", dburi, e);
+            }
+        }
+    }
+
+    private static void retrieveSourceCode(DBMSMetadata metadata, Queue<SourceObject> remaining,
+            SourceCodeConsumer consumer) {
+        SourceObject sourceObject;
+        while ((sourceObject = remaining.poll()) != null) {
+            String sourceCode = null;
+            Exception error = null;
+            try (Reader reader = metadata.getSourceCode(sourceObject)) {
+                sourceCode = IOUtil.readToString(reader);
+            } catch (SQLException | IOException e) {
+                error = e;
+            }
+
+            synchronized (consumer) {
+                if (error != null) {
+                    consumer.failed(sourceObject, error);
+                } else {
+                    consumer.accept(sourceObject, sourceCode);
+                }
+            }
+        }
+    }
+
     /**
      * Return all source code objects associated with any associated DBURI.
      *
@@ -496,6 +644,8 @@ public class DBMSMetadata {
          * procedureNamePattern) throws SQLException
          */
         try (ResultSet sourceCodeObjects = sourceCodeObjectsStatement.executeQuery()) {
+            // an optional fourth column holds the revision, e.g. the time of the last change
+            boolean hasRevision = sourceCodeObjects.getMetaData().getColumnCount() >= 4;
 
             /*
              * From Javadoc .... Each procedure description
@@ -524,7 +674,8 @@ public class DBMSMetadata {
                 sourceObjectsList
                         .add(new SourceObject(sourceCodeObjects.getString("PROCEDURE_SCHEM"),
                                 sourceCodeObjects.getString("PROCEDURE_TYPE"),
-                                sourceCodeObjects.getString("PROCEDURE_NAME"), null));
+                                sourceCodeObjects.getString("PROCEDURE_NAME"),
+                                hasRevision ? sourceCodeObjects.getString(4) : null));
             }
         }
         return sourceObjectsList;
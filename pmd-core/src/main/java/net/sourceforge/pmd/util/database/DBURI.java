@@ -52,6 +52,8 @@ import org.slf4j.LoggerFactory;
  * <dd>comma-separated list of database source code types</dd>
  * <dt>sourcecodenames</dt>
  * <dd>comma-separated list of database source code names</dd>
+ * <dt>connections</dt>
+ * <dd>number of connections used to retrieve the source code (default 4)</dd>
  * </dl>
  *
  * @see URI
@@ -122,6 +124,9 @@ public class DBURI {
     // Return class for source code, mapped fron java.sql.Types
     private int sourceCodeType;
 
+    // Number of connections retrieving source code in parallel
+    private int connections = 4;
+
     /**
      * Create DBURI from a string, combining a JDBC URL and query parameters.
      *
@@ -241,6 +246,10 @@ public class DBURI {
                 sourceCodeTypesList = Arrays.asList(sourceCodeTypes.split(","));
             }
 
+            if (null != parameters.get("connections")) {
+                connections = Integer.parseInt(parameters.get("connections"));
+            }
+
         }
 
     }
@@ -374,6 +383,14 @@ public class DBURI {
         this.sourceCodeType = sourceCodeType;
     }
 
+    public int getConnections() {
+        return connections;
+    }
+
+    public void setConnections(int connections) {
+        this.connections = connections;
+    }
+
     public String getSubprotocol() {
         return subprotocol;
     }
@@ -485,6 +502,10 @@ public class DBURI {
                 sourceCodeNames = dbType.getProperties().getProperty("sourcecodenames");
             }
 
+            if (null != dbType.getProperties().getProperty("connections")) {
+                connections = Integer.parseInt(dbType.getProperties().getProperty("connections"));
+            }
+
             String returnType = dbType.getProperties().getProperty("returnType");
             if (null != returnType) {
                 sourceCodeType = Integer.parseInt(returnType);
@@ -0,0 +1,200 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark.internal;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.Report.ProcessingError;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.benchmark.TimedOperation;
+import net.sourceforge.pmd.benchmark.TimedOperationCategory;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.reporting.FileAnalysisListener;
+import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The implementation of {@link FlightRecorderEvents}, which is loaded
+ * if the module {@code jdk.jfr} is present.
+ */
+final class FlightRecorderEventsImpl extends FlightRecorderEvents {
+
+    private static final EventType FILE_ANALYSIS = EventType.getEventType(FileAnalysisEvent.class);
+    private static final EventType PARSE = EventType.getEventType(ParseEvent.class);
+    private static final EventType PROCESSING_STAGE = EventType.getEventType(ProcessingStageEvent.class);
+    private static final EventType RULE = EventType.getEventType(RuleEvent.class);
+    private static final EventType OPERATION = EventType.getEventType(OperationEvent.class);
+
+    @Override
+    public @Nullable TimedOperation startOperation(TimedOperationCategory category, @Nullable String label) {
+        switch (category) {
+        case FILE_PROCESSING:
+        case UNACCOUNTED:
+            // files are recorded by the listener
+            return null;
+        case PARSER:
+            return PARSE.isEnabled() ? start(new ParseEvent()) : null;
+        case LANGUAGE_SPECIFIC_PROCESSING:
+            if (!PROCESSING_STAGE.isEnabled()) {
+                return null;
+            }
+            ProcessingStageEvent stage = new ProcessingStageEvent();
+            stage.stage = label;
+            return start(stage);
+        case RULE:
+            if (!RULE.isEnabled()) {
+                return null;
+            }
+            RuleEvent rule = new RuleEvent();
+            rule.rule = label;
+            return start(rule);
+        default:
+            if (!OPERATION.isEnabled()) {
+                return null;
+            }
+            OperationEvent operation = new OperationEvent();
+            operation.category = category.displayName();
+            operation.label = label;
+            return start(operation);
+        }
+    }
+
+    private static TimedOperation start(Event event) {
+        event.begin();
+        return new EventOperation(event);
+    }
+
+    @Override
+    public GlobalAnalysisListener newListener() {
+        return new GlobalAnalysisListener() {
+            @Override
+            public FileAnalysisListener startFileAnalysis(TextFile file) {
+                if (!FILE_ANALYSIS.isEnabled()) {
+                    return FileAnalysisListener.noop();
+                }
+                FileAnalysisEvent event = new FileAnalysisEvent();
+                event.file = file.getFileId().getAbsolutePath();
+                event.languageVersion = file.getLanguageVersion().getTerseName();
+                event.begin();
+                return new FileEventListener(event);
+            }
+
+            @Override
+            public void close() {
+                // nothing to do
+            }
+        };
+    }
+
+    private static final class EventOperation implements TimedOperation {
+        private final Event event;
+        private boolean closed;
+
+        EventOperation(Event event) {
+            this.event = event;
+        }
+
+        @Override
+        public void close() {
+            close(0);
+        }
+
+        @Override
+        public void close(int extraDataCounter) {
+            if (!closed) {
+                closed = true;
+                event.commit();
+            }
+        }
+    }
+
+    private static final class FileEventListener implements FileAnalysisListener {
+        private final FileAnalysisEvent event;
+
+        FileEventListener(FileAnalysisEvent event) {
+            this.event = event;
+        }
+
+        @Override
+        public void onRuleViolation(RuleViolation violation) {
+            event.violations++;
+        }
+
+        @Override
+        public void onError(ProcessingError error) {
+            event.errors++;
+        }
+
+        @Override
+        public void onCacheHit() {
+            event.cacheHit = true;
+        }
+
+        @Override
+        public void close() {
+            event.commit();
+        }
+    }
+
+    @Name("net.sourceforge.pmd.FileAnalysis")
+    @Label("File Analysis")
+    @Description("The analysis of a file, from its start to its end")
+    @Category("PMD")
+    static final class FileAnalysisEvent extends Event {
+        @Label("File")
+        String file;
+        @Label("Language Version")
+        String languageVersion;
+        @Label("Cache Hit")
+        @Description("Whether the file was found in the analysis cache, so that it was not analyzed")
+        boolean cacheHit;
+        @Label("Violations")
+        int violations;
+        @Label("Errors")
+        int errors;
+    }
+
+    @Name("net.sourceforge.pmd.Parse")
+    @Label("Parse")
+    @Description("The parsing of a file, including the processing of the AST by the language")
+    @Category("PMD")
+    static final class ParseEvent extends Event {
+    }
+
+    @Name("net.sourceforge.pmd.ProcessingStage")
+    @Label("Processing Stage")
+    @Description("A pass of the processing of the AST by the language, e.g. type resolution")
+    @Category("PMD")
+    static final class ProcessingStageEvent extends Event {
+        @Label("Stage")
+        String stage;
+    }
+
+    @Name("net.sourceforge.pmd.Rule")
+    @Label("Rule Execution")
+    @Description("The execution of a rule on a file")
+    @Category("PMD")
+    static final class RuleEvent extends Event {
+        @Label("Rule")
+        String rule;
+    }
+
+    @Name("net.sourceforge.pmd.Operation")
+    @Label("Operation")
+    @Description("Another operation tracked by PMD, e.g. loading the rules, checking the analysis cache or rendering the report")
+    @Category("PMD")
+    static final class OperationEvent extends Event {
+        @Label("Category")
+        String category;
+        @Label("Label")
+        String label;
+    }
+}
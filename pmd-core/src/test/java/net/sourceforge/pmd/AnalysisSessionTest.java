@@ -0,0 +1,139 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.pmd.cache.NoopAnalysisCache;
+import net.sourceforge.pmd.lang.document.FileId;
+
+class AnalysisSessionTest {
+
+    private static final String RULESET =
+        "<?xml version=\"1.0\"?>\n"
+            + "<ruleset name=\"session test\" xmlns=\"http://pmd.sourceforge.net/ruleset/2.0.0\">\n"
+            + "  <description>session test</description>\n"
+            + "  <rule name=\"Root\" language=\"dummy\" message=\"MESSAGE\" class=\"net.sourceforge.pmd.lang.rule.XPathRule\">\n"
+            + "    <priority>3</priority>\n"
+            + "    <properties>\n"
+            + "      <property name=\"xpath\" value=\"//dummyRootNode\"/>\n"
+            + "    </properties>\n"
+            + "  </rule>\n"
+            + "</ruleset>\n";
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testRuleSetsAreReusedUntilChanged() throws IOException {
+        Path ruleset = write("ruleset.xml", RULESET);
+
+        try (AnalysisSession session = new AnalysisSession()) {
+            List<RuleSet> first = analyze(session, config(ruleset)).rulesets;
+            List<RuleSet> second = analyze(session, config(ruleset)).rulesets;
+            assertSame(first.get(0), second.get(0));
+
+            write("ruleset.xml", RULESET.replace("MESSAGE", "changed"));
+            Result third = analyze(session, config(ruleset));
+            assertNotSame(first.get(0), third.rulesets.get(0));
+            assertEquals("changed", third.report.getViolations().get(0).getDescription());
+        }
+    }
+
+    @Test
+    void testLanguageProcessorsAreReusedUntilChanged() throws IOException {
+        Path ruleset = write("ruleset.xml", RULESET);
+
+        try (AnalysisSession session = new AnalysisSession()) {
+            PMDConfiguration first = config(ruleset);
+            assertEquals(1, analyze(session, first).report.getViolations().size());
+            // the processors keep the classloader of the configuration that started them
+            assertTrue(session.isInUse(first.getClassLoader()));
+
+            PMDConfiguration second = config(ruleset);
+            assertEquals(1, analyze(session, second).report.getViolations().size());
+            assertTrue(session.isInUse(first.getClassLoader()));
+            assertFalse(session.isInUse(second.getClassLoader()));
+
+            PMDConfiguration third = config(ruleset);
+            third.setSuppressMarker("SUPPRESSED");
+            analyze(session, third);
+            assertFalse(session.isInUse(first.getClassLoader()));
+            assertTrue(session.isInUse(third.getClassLoader()));
+        }
+    }
+
+    @Test
+    void testViolationsOfUnchangedFilesAreReused() throws IOException {
+        Path ruleset = write("ruleset.xml", RULESET);
+
+        try (AnalysisSession session = new AnalysisSession()) {
+            PMDConfiguration config = config(ruleset);
+            RuleViolation first = analyze(session, config, "foo").report.getViolations().get(0);
+            // the session cache is not set on the configuration
+            assertTrue(config.getAnalysisCache() instanceof NoopAnalysisCache);
+            RuleViolation second = analyze(session, config(ruleset), "foo").report.getViolations().get(0);
+            assertSame(first, second);
+
+            RuleViolation edited = analyze(session, config(ruleset), "foo bar").report.getViolations().get(0);
+            assertNotSame(first, edited);
+
+            PMDConfiguration noCache = config(ruleset);
+            noCache.setIgnoreIncrementalAnalysis(true);
+            RuleViolation notCached = analyze(session, noCache, "foo bar").report.getViolations().get(0);
+            assertNotSame(edited, notCached);
+        }
+    }
+
+    private PMDConfiguration config(Path ruleset) {
+        PMDConfiguration config = new PMDConfiguration();
+        config.setThreads(0);
+        config.addRuleSet(ruleset.toString());
+        config.prependAuxClasspath(tempDir.toString());
+        return config;
+    }
+
+    private Result analyze(AnalysisSession session, PMDConfiguration config) {
+        return analyze(session, config, "foo");
+    }
+
+    private Result analyze(AnalysisSession session, PMDConfiguration config, String source) {
+        try (PmdAnalysis pmd = session.newAnalysis(config)) {
+            pmd.files().addSourceFile(FileId.fromPathLikeString("Foo.dummy"), source);
+            List<RuleSet> rulesets = pmd.getRulesets();
+            return new Result(rulesets, pmd.performAnalysisAndCollectReport());
+        }
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static final class Result {
+
+        private final List<RuleSet> rulesets;
+        private final Report report;
+
+        Result(List<RuleSet> rulesets, Report report) {
+            this.rulesets = rulesets;
+            this.report = report;
+        }
+    }
+}
@@ -9,6 +9,7 @@ import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -17,6 +18,7 @@ import static org.mockito.Mockito.verify;
 
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
@@ -167,6 +169,31 @@ class PmdAnalysisTest {
         }
     }
 
+    @Test
+    void testLanguageWithoutFilesIsNotStarted() {
+        PMDConfiguration config = new PMDConfiguration();
+        config.setIgnoreIncrementalAnalysis(true);
+        MessageReporter mockReporter = spy(MessageReporter.quiet());
+        config.setReporter(mockReporter);
+        AtomicBoolean dummy2Started = new AtomicBoolean();
+
+        try (PmdAnalysis pmd = PmdAnalysis.create(config)) {
+            pmd.addRuleSet(RuleSet.forSingleRule(new MockRule()));
+            pmd.addRuleSet(RuleSet.forSingleRule(new TestRule() {
+                @Override
+                public void initialize(LanguageProcessor languageProcessor) {
+                    dummy2Started.set(true);
+                }
+            }));
+            pmd.files().addSourceFile(FileId.fromPathLikeString("fname1.dummy"), "some source");
+
+            ReportStats stats = pmd.runAndReturnStats();
+            assertEquals(0, stats.getNumErrors(), "Errors");
+        }
+        assertFalse(dummy2Started.get(), "Language dummy2 has no files, its processor should not be started");
+        verify(mockReporter, never()).errorEx(any(), any());
+    }
+
     private static class TestRule extends AbstractRule {
         TestRule() {
             setLanguage(Dummy2LanguageModule.getInstance());
@@ -10,6 +10,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -103,6 +105,32 @@ class ReportTest {
         assertEquals(2, union.getViolations().size());
     }
 
+    @Test
+    void testGlobalReportMergesFileReportsInOrder() throws Exception {
+        Rule rule = new MockRule("name", "desc", "msg", "rulesetname");
+        LanguageVersion dummyVersion = DummyLanguageModule.getInstance().getDefaultVersion();
+        TextFile fileB = TextFile.forCharSeq("b", FileId.fromPathLikeString("b"), dummyVersion);
+        TextFile fileA = TextFile.forCharSeq("a", FileId.fromPathLikeString("a"), dummyVersion);
+
+        Report.GlobalReportBuilderListener global = new Report.GlobalReportBuilderListener();
+        try (FileAnalysisListener b = global.startFileAnalysis(fileB);
+             FileAnalysisListener a = global.startFileAnalysis(fileA)) {
+            b.onRuleViolation(violation(rule, getNode(3, 1, "b")));
+            a.onRuleViolation(violation(rule, getNode(7, 1, "a")));
+            b.onRuleViolation(violation(rule, getNode(1, 1, "b")));
+            a.onRuleViolation(violation(rule, getNode(2, 1, "a")));
+            // a violation reported for another file than the analysed one
+            b.onRuleViolation(violation(rule, getNode(5, 1, "a")));
+        }
+        global.close();
+
+        List<RuleViolation> violations = global.getResult().getViolations();
+        assertEquals(5, violations.size());
+        List<RuleViolation> sorted = new ArrayList<>(violations);
+        sorted.sort(RuleViolation.DEFAULT_COMPARATOR);
+        assertEquals(sorted, violations);
+    }
+
     public static @NonNull RuleViolation violation(Rule rule, FileLocation loc2) {
         return violation(rule, loc2, rule.getMessage());
     }
@@ -0,0 +1,120 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.pmd.lang.rule.XPathRule;
+import net.sourceforge.pmd.properties.PropertyDescriptor;
+
+class RuleSetSnapshotTest {
+
+    private static final String RULESET =
+        "<?xml version=\"1.0\"?>\n"
+            + "<ruleset name=\"snapshot test\" xmlns=\"http://pmd.sourceforge.net/ruleset/2.0.0\">\n"
+            + "  <description>snapshot test</description>\n"
+            + "  <exclude-pattern>.*/generated/.*</exclude-pattern>\n"
+            + "  <rule name=\"WithProperties\" language=\"dummy\" message=\"m1\" class=\"net.sourceforge.pmd.RuleWithProperties\">\n"
+            + "    <priority>2</priority>\n"
+            + "    <properties>\n"
+            + "      <property name=\"multiString\" value=\"a,b\"/>\n"
+            + "    </properties>\n"
+            + "  </rule>\n"
+            + "  <rule name=\"XPath\" language=\"dummy\" message=\"m2\" class=\"net.sourceforge.pmd.lang.rule.XPathRule\">\n"
+            + "    <priority>4</priority>\n"
+            + "    <properties>\n"
+            + "      <property name=\"xpath\" value=\"//dummyRootNode[@Image = $name]\"/>\n"
+            + "      <property name=\"name\" type=\"String\" description=\"a name\" value=\"foo\"/>\n"
+            + "      <property name=\"count\" type=\"Integer\" description=\"a count\" min=\"1\" max=\"10\" value=\"3\"/>\n"
+            + "    </properties>\n"
+            + "  </rule>\n"
+            + "  <rule ref=\"rulesets/dummy/basic.xml/DummyBasicMockRule\" message=\"overridden\"/>\n"
+            + "</ruleset>\n";
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testRoundTrip() throws IOException {
+        Path ruleset = write("ruleset.xml", RULESET);
+        Path snapshot = tempDir.resolve("ruleset.snapshot");
+        new RuleSetLoader().writeSnapshot(ruleset.toString(), snapshot);
+
+        RuleSet fromXml = new RuleSetLoader().loadFromResource(ruleset.toString());
+        RuleSet fromSnapshot = new RuleSetLoader().loadFromResource(snapshot.toString());
+
+        assertEquals(fromXml.getName(), fromSnapshot.getName());
+        assertEquals(fromXml.getChecksum(), fromSnapshot.getChecksum());
+        assertEquals(".*/generated/.*", fromSnapshot.getFileExclusions().get(0).pattern());
+        assertEquals(3, fromSnapshot.size());
+
+        Rule withProperties = fromSnapshot.getRuleByName("WithProperties");
+        assertEquals(RulePriority.MEDIUM_HIGH, withProperties.getPriority());
+        assertEquals(Arrays.asList("a", "b"), withProperties.getProperty(RuleWithProperties.MULTI_STRING_PROPERTY_DESCRIPTOR));
+
+        Rule xpath = fromSnapshot.getRuleByName("XPath");
+        assertTrue(xpath instanceof XPathRule);
+        assertEquals("//dummyRootNode[@Image = $name]", ((XPathRule) xpath).getXPathExpression());
+        assertEquals("foo", xpath.getProperty(xpath.getPropertyDescriptor("name")));
+        PropertyDescriptor<?> count = xpath.getPropertyDescriptor("count");
+        assertNotNull(count);
+        assertEquals(3, xpath.getProperty(count));
+        // the constraints of the definition are restored
+        assertEquals(count.serializer().getConstraints().size(),
+                     fromXml.getRuleByName("XPath").getPropertyDescriptor("count").serializer().getConstraints().size());
+
+        Rule reference = fromSnapshot.getRuleByName("DummyBasicMockRule");
+        assertEquals("overridden", reference.getMessage());
+        Rule referenceFromXml = fromXml.getRuleByName("DummyBasicMockRule");
+        assertEquals(referenceFromXml.getDescription(), reference.getDescription());
+        assertEquals(referenceFromXml.getRuleSetName(), reference.getRuleSetName());
+    }
+
+    @Test
+    void testPriorityFilterIsAppliedOnLoad() throws IOException {
+        Path ruleset = write("ruleset.xml", RULESET);
+        Path snapshot = tempDir.resolve("ruleset.snapshot");
+        new RuleSetLoader().filterAbovePriority(RulePriority.HIGH).writeSnapshot(ruleset.toString(), snapshot);
+
+        RuleSet filtered = new RuleSetLoader().filterAbovePriority(RulePriority.MEDIUM).loadFromResource(snapshot.toString());
+        assertEquals(2, filtered.size());
+    }
+
+    @Test
+    void testStaleSnapshotFallsBackToXml() throws IOException {
+        Path ruleset = write("ruleset.xml", RULESET);
+        Path snapshot = tempDir.resolve("ruleset.snapshot");
+        new RuleSetLoader().writeSnapshot(ruleset.toString(), snapshot);
+
+        write("ruleset.xml", RULESET.replace("message=\"m2\"", "message=\"changed\""));
+        RuleSet ruleSet = new RuleSetLoader().loadFromResource(snapshot.toString());
+        assertEquals("changed", ruleSet.getRuleByName("XPath").getMessage());
+    }
+
+    @Test
+    void testNotASnapshot() throws IOException {
+        Path snapshot = write("ruleset.snapshot", RULESET);
+        RuleSetLoader loader = new RuleSetLoader();
+        assertThrows(RuleSetLoadException.class, () -> loader.loadFromResource(snapshot.toString()));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
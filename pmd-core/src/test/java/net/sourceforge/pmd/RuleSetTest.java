@@ -31,6 +31,7 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
 import java.util.regex.Pattern;
@@ -43,12 +44,15 @@ import org.junit.jupiter.api.extension.RegisterExtension;
 import net.sourceforge.pmd.Report.ProcessingError;
 import net.sourceforge.pmd.RuleSet.RuleSetBuilder;
 import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.LanguageProcessorRegistry;
 import net.sourceforge.pmd.lang.ast.DummyNode.DummyRootNode;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.document.TestMessageReporter;
 import net.sourceforge.pmd.lang.document.TextFile;
 import net.sourceforge.pmd.lang.rule.RuleReference;
 import net.sourceforge.pmd.lang.rule.RuleTargetSelector;
+import net.sourceforge.pmd.util.log.MessageReporter;
 
 class RuleSetTest {
 
@@ -574,6 +578,39 @@ class RuleSetTest {
     }
 
 
+    @Test
+    void violationsAreSuppressedByCompiledXPath() {
+        MockRule rule = new MockRule() {
+            @Override
+            public void apply(Node target, RuleContext ctx) {
+                addViolationWithMessage(ctx, target, "violation");
+            }
+        };
+        rule.setProperty(Rule.VIOLATION_SUPPRESS_XPATH_DESCRIPTOR, Optional.of(".[@Image = 'Foo']"));
+        RuleSet ruleset = createRuleSetBuilder("violationsAreSuppressedByCompiledXPath").addRule(rule).build();
+
+        Report report = getReportForRuleSetApply(ruleset, makeCompilationUnits());
+
+        assertThat(report.getViolations(), hasSize(0));
+        assertThat(report.getSuppressedViolations(), hasSize(1));
+        assertEquals("XPath", report.getSuppressedViolations().get(0).getSuppressor().getId());
+        assertEquals(".[@Image = 'Foo']", report.getSuppressedViolations().get(0).getUserMessage());
+    }
+
+    @Test
+    void invalidSuppressionXPathIsReportedAtInitialization() {
+        MockRule rule = new MockRule();
+        rule.setProperty(Rule.VIOLATION_SUPPRESS_XPATH_DESCRIPTOR, Optional.of("//["));
+        RuleSets ruleSets = new RuleSets(createRuleSetBuilder("invalidSuppressionXPath").addRule(rule).build());
+        MessageReporter reporter = new TestMessageReporter();
+
+        ruleSets.initializeRules(LanguageProcessorRegistry.singleton(makeCompilationUnits().getAstInfo().getLanguageProcessor()), reporter);
+
+        assertEquals(1, reporter.numErrors());
+        assertEquals(0, ruleSets.ruleCount());
+    }
+
+
     static class MockRule extends net.sourceforge.pmd.lang.rule.MockRule {
 
         MockRule() {
@@ -0,0 +1,113 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.PmdAnalysis;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.benchmark.CostProfile.FileCost;
+import net.sourceforge.pmd.benchmark.CostProfile.OperationCost;
+import net.sourceforge.pmd.benchmark.CostProfiler.Histogram;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.rule.AbstractRule;
+
+class CostProfileTest {
+
+    @Test
+    void testProfileIsRecordedPerFile() throws Exception {
+        TimeTracker.startGlobalTracking(true);
+        TimingReport report;
+        try {
+            PMDConfiguration config = new PMDConfiguration();
+            config.setThreads(2);
+            config.setIgnoreIncrementalAnalysis(true);
+            try (PmdAnalysis pmd = PmdAnalysis.create(config)) {
+                pmd.addRuleSet(RuleSet.forSingleRule(new SlowRule()));
+                pmd.files().addSourceFile(FileId.fromPathLikeString("Fast.dummy"), "fast");
+                pmd.files().addSourceFile(FileId.fromPathLikeString("Slow.dummy"), "slow");
+                pmd.performAnalysis();
+            }
+        } finally {
+            report = TimeTracker.stopGlobalTracking();
+        }
+
+        CostProfile profile = report.getCostProfile();
+        assertNotNull(profile);
+        OperationCost ruleCost = profile.getOperationCosts().stream()
+                                        .filter(cost -> "Slow".equals(cost.getLabel()))
+                                        .findFirst().orElseThrow(AssertionError::new);
+        assertEquals(TimedOperationCategory.RULE, ruleCost.getCategory());
+        assertEquals(2, ruleCost.getFileCount());
+        List<FileCost> files = ruleCost.getMostExpensiveFiles();
+        assertEquals("Slow.dummy", files.get(0).getFileId().getOriginalPath());
+        assertTrue(files.get(0).getNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(ruleCost.getPercentileNanos(100) >= ruleCost.getMaxNanos());
+        assertTrue(ruleCost.getPercentileNanos(50) < TimeUnit.MILLISECONDS.toNanos(20));
+
+        assertTrue(profile.getCollapsedStacks().containsKey("File Processing;Rule: Slow"),
+                   profile.getCollapsedStacks().toString());
+
+        StringWriter stacks = new StringWriter();
+        new CollapsedStacksRenderer().render(report, stacks);
+        assertTrue(stacks.toString().contains("File Processing;Rule: Slow "), stacks.toString());
+        StringWriter text = new StringWriter();
+        new TextCostProfileRenderer().render(report, text);
+        assertTrue(text.toString().contains("Slow.dummy"), text.toString());
+    }
+
+    @Test
+    void testNoProfileByDefault() {
+        TimeTracker.startGlobalTracking();
+        assertNull(TimeTracker.stopGlobalTracking().getCostProfile());
+    }
+
+    @Test
+    void testHistogramBuckets() {
+        for (long value : new long[] {0, 1, 15, 16, 17, 31, 32, 33, 1000, 123_456_789L, Long.MAX_VALUE}) {
+            int bucket = Histogram.bucket(value);
+            assertTrue(bucket < Histogram.NUM_BUCKETS);
+            long highest = Histogram.highestValue(bucket);
+            assertTrue(highest >= value, "Bucket of " + value);
+            assertTrue(highest - value <= value / 16, "Bucket of " + value);
+            if (value < Long.MAX_VALUE) {
+                assertEquals(bucket + 1, Histogram.bucket(highest + 1), "Next bucket of " + value);
+            }
+        }
+    }
+
+    private static class SlowRule extends AbstractRule {
+
+        SlowRule() {
+            setLanguage(DummyLanguageModule.getInstance());
+            setName("Slow");
+            setMessage("slow");
+        }
+
+        @Override
+        public void apply(Node node, RuleContext ctx) {
+            if (node.getTextDocument().getText().toString().startsWith("slow")) {
+                try {
+                    Thread.sleep(25);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.ast.impl.antlr4;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.TextDocument;
+
+class AntlrCharStreamTest {
+
+    @Test
+    void testBehavesLikeCodePointStream() {
+        String text = "class Foo {\n  int x = 0;\n}\n";
+        CharStream expected = CharStreams.fromString(text);
+        CharStream actual = AntlrCharStream.create(document(text));
+        assertTrue(actual instanceof AntlrCharStream);
+
+        assertEquals(expected.size(), actual.size());
+        assertEquals(0, actual.LA(0));
+        assertEquals(IntStream.EOF, actual.LA(-1));
+        while (expected.LA(1) != IntStream.EOF) {
+            assertEquals(expected.index(), actual.index());
+            assertEquals(expected.LA(1), actual.LA(1));
+            assertEquals(expected.LA(2), actual.LA(2));
+            assertEquals(expected.LA(-1), actual.LA(-1));
+            expected.consume();
+            actual.consume();
+        }
+        assertEquals(IntStream.EOF, actual.LA(1));
+        assertThrows(IllegalStateException.class, actual::consume);
+
+        assertEquals(expected.getText(Interval.of(6, 8)), actual.getText(Interval.of(6, 8)));
+        assertEquals(expected.getText(Interval.of(20, 100)), actual.getText(Interval.of(20, 100)));
+        assertEquals("", actual.getText(Interval.of(5, 4)));
+
+        actual.seek(6);
+        assertEquals('F', actual.LA(1));
+    }
+
+    @Test
+    void testSurrogatesAreCopiedIntoCodePointStream() {
+        CharStream stream = AntlrCharStream.create(document("a😀b"));
+        assertFalse(stream instanceof AntlrCharStream);
+        assertEquals(3, stream.size());
+    }
+
+    private static TextDocument document(String text) {
+        return TextDocument.readOnlyString(text, FileId.UNKNOWN, DummyLanguageModule.getInstance().getDefaultVersion());
+    }
+}
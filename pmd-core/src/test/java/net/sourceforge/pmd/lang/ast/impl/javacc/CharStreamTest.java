@@ -133,6 +133,30 @@ class CharStreamTest {
         assertThrows(IllegalArgumentException.class, () -> stream.backup(10));
     }
 
+    @Test
+    void testTokenImages() throws IOException {
+
+        CharStream stream = javaCharStream("a\\u00a0bc");
+        JavaccTokenDocument doc = stream.getTokenDocument();
+
+        assertEquals('a', stream.markTokenStart());
+        assertEquals('\u00a0', stream.readChar());
+        JavaccToken token = doc.createToken(1, stream, null);
+        // the image is cut out of the translated text
+        assertEquals("a\u00a0", token.getImage());
+        assertEquals("a\u00a0", token.getImageCs().toString());
+        assertEquals("shared", doc.createToken(1, stream, "shared").getImage());
+
+        assertEquals('b', stream.readChar());
+        assertEquals("a\u00a0b", token.replaceImage(stream).getImage());
+
+        assertEquals('c', stream.markTokenStart());
+        JavaccToken replaced = token.withKind(2).replaceImage(stream);
+        // the image of a replaced token starts at the mark
+        assertEquals("c", replaced.getImage());
+        assertEquals(0, replaced.getStartOffset());
+    }
+
 
     CharStream simpleCharStream(String abcd) {
         return CharStream.create(TextDocument.readOnlyString(abcd, dummyVersion), TokenDocumentBehavior.DEFAULT);
@@ -46,6 +46,15 @@ class FileIdTest {
         checkId(fileId.getParentFsPath(), zipPath.toAbsolutePath().toString(), "b.zip", zipPath.toUri().toString(), zipPath.toAbsolutePath().toString());
     }
 
+    @Test
+    void testAsChildOfIsEqualToSelf() {
+        FileId self = FileId.fromPathLikeString("a/b.c");
+        FileId child = FileId.asChildOf(self, FileId.fromPathLikeString("a.zip"));
+        assertEquals(self, child);
+        assertEquals(child, FileId.asChildOf(self, FileId.UNKNOWN));
+        assertEquals(self.hashCode(), child.hashCode());
+    }
+
 
     private static void checkId(FileId fileId, String absPath, String fileName, String uri, String originalPath) {
         assertNotNull(fileId);
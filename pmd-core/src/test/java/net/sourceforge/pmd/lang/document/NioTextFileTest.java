@@ -43,6 +43,7 @@ class NioTextFileTest {
             TextFile textFile = collectedFiles.get(0);
             assertEquals(zipArchive.toAbsolutePath() + "!/path/inside/someSource.dummy",
                     pmd.fileNameRenderer().getDisplayName(textFile));
+            assertEquals("dummy text".length(), textFile.getSizeHint());
         }
     }
 }
@@ -7,6 +7,7 @@ package net.sourceforge.pmd.lang.impl;
 import static net.sourceforge.pmd.util.CollectionUtil.listOf;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
@@ -83,6 +84,19 @@ class MultiThreadProcessorTest {
         assertEquals(1, reportListener.violations.get(), "Missing violation");
     }
 
+    @Test
+    void testLargestFilesAreScheduledFirst() {
+        LanguageVersion lv = DummyLanguageModule.getInstance().getDefaultVersion();
+        TextFile small = TextFile.forCharSeq("a", FileId.fromPathLikeString("small.dummy"), lv);
+        TextFile big = TextFile.forCharSeq("abcdef", FileId.fromPathLikeString("big.dummy"), lv);
+        TextFile medium1 = TextFile.forCharSeq("abc", FileId.fromPathLikeString("medium1.dummy"), lv);
+        TextFile medium2 = TextFile.forCharSeq("def", FileId.fromPathLikeString("medium2.dummy"), lv);
+
+        List<TextFile> files = listOf(small, medium1, big, medium2);
+        assertEquals(listOf(big, medium1, medium2, small), MultiThreadProcessor.largestFirst(files));
+        assertEquals(listOf(small, medium1, big, medium2), files, "Input should not be modified");
+    }
+
     public static class NotThreadSafeRule extends AbstractRule {
         public static AtomicInteger count = new AtomicInteger(0);
         private boolean hasViolation; // this variable will be overridden
@@ -0,0 +1,93 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.rule.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.FileLocation;
+import net.sourceforge.pmd.lang.document.TextPos2d;
+import net.sourceforge.pmd.lang.document.TextRange2d;
+import net.sourceforge.pmd.lang.rule.MockRule;
+
+class CompactRuleViolationTest {
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final Rule rule = new MockRule("Rule", "desc", "msg", "ruleset");
+    private final FileLocation location = FileLocation.range(FileId.fromPathLikeString("src/Foo.java"),
+                                                             TextRange2d.range2d(TextPos2d.pos2d(3, 5), TextPos2d.pos2d(100000, 1)));
+
+    @Test
+    void testPlainMessageIsNotCopied() {
+        String message = "Avoid this";
+        RuleViolation violation = CompactRuleViolation.create(rule, location, message, NO_ARGS, Collections.emptyMap());
+        assertSame(message, violation.getDescription());
+    }
+
+    @Test
+    void testMessageIsFormattedLazily() {
+        Map<String, String> info = new LinkedHashMap<>();
+        info.put(RuleViolation.VARIABLE_NAME, "foo");
+        RuleViolation violation = CompactRuleViolation.create(rule, location, "{0} ''{1}'' in ${variableName}",
+                                                              new Object[] {"Unused", 2}, info);
+        info.put(RuleViolation.VARIABLE_NAME, "bar");
+
+        assertEquals("Unused '2' in foo", violation.getDescription());
+        assertEquals(violation.getDescription(), violation.getDescription());
+    }
+
+    @Test
+    void testMutableArgumentsAreFormattedEagerly() {
+        StringBuilder arg = new StringBuilder("before");
+        RuleViolation violation = CompactRuleViolation.create(rule, location, "Value {0}",
+                                                              new Object[] {arg}, Collections.emptyMap());
+        arg.append(" after");
+        assertEquals("Value before", violation.getDescription());
+    }
+
+    @Test
+    void testLocation() {
+        RuleViolation violation = CompactRuleViolation.create(rule, location, "msg", NO_ARGS, Collections.emptyMap());
+        assertSame(location.getFileId(), violation.getFileId());
+        assertEquals(3, violation.getBeginLine());
+        assertEquals(5, violation.getBeginColumn());
+        assertEquals(100000, violation.getEndLine());
+        assertEquals(1, violation.getEndColumn());
+        assertEquals(location.getStartPos(), violation.getLocation().getStartPos());
+        assertEquals(location.getEndPos(), violation.getLocation().getEndPos());
+    }
+
+    @Test
+    void testAdditionalInfo() {
+        Map<String, String> info = new LinkedHashMap<>();
+        // not the constant
+        info.put(new String(RuleViolation.CLASS_NAME), "Foo");
+        info.put("custom", "value");
+        RuleViolation violation = CompactRuleViolation.create(rule, location, "msg", NO_ARGS, info);
+
+        Map<String, String> packed = violation.getAdditionalInfo();
+        assertEquals(info, packed);
+        assertEquals(info.hashCode(), packed.hashCode());
+        assertSame(RuleViolation.CLASS_NAME, packed.keySet().iterator().next());
+        assertEquals("value", packed.get("custom"));
+        assertNull(packed.get("other"));
+        assertTrue(packed.containsKey("custom"));
+        assertThrows(UnsupportedOperationException.class, () -> packed.put("k", "v"));
+        assertSame(Collections.emptyMap(), CompactRuleViolation.infoMap(CompactRuleViolation.packInfo(Collections.emptyMap())));
+    }
+}
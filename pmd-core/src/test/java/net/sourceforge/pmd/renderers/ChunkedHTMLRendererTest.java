@@ -0,0 +1,99 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.FileLocation;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.document.TextRange2d;
+import net.sourceforge.pmd.lang.rule.MockRule;
+import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+import net.sourceforge.pmd.reporting.FileAnalysisListener;
+import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
+
+class ChunkedHTMLRendererTest {
+
+    private final Rule rule = new MockRule("SomeRule", "desc", "msg", "ruleset");
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testPagesAreSplit() throws Exception {
+        Path reportFile = tempDir.resolve("report.html");
+        Renderer renderer = new ChunkedHTMLRenderer();
+        renderer.setProperty(ChunkedHTMLRenderer.PAGE_SIZE, 2);
+        renderer.setReportFile(reportFile.toString());
+
+        try (GlobalAnalysisListener listener = renderer.newListener()) {
+            renderFile(listener, "A.dummy", 5);
+            renderFile(listener, "B.dummy", 1);
+            renderFile(listener, "C<&>.dummy", 1);
+        }
+
+        Path pageDir = tempDir.resolve("report_files");
+        List<String> pages;
+        try (Stream<Path> files = Files.list(pageDir)) {
+            pages = files.map(p -> p.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+        assertEquals(Arrays.asList("file-1-2.html", "file-1-3.html", "file-1.html", "file-2.html", "file-3.html",
+                                   "files-1.html", "files-2.html"), pages);
+
+        String index = read(reportFile);
+        assertTrue(index.contains("<tr><th>Violations</th><td>7</td></tr>"), index);
+        assertTrue(index.contains("<a href=\"report_files/files-2.html\">3 - 3</a>"), index);
+
+        String lastPage = read(pageDir.resolve("file-1-3.html"));
+        assertTrue(lastPage.contains("page 3 of 3 <a href=\"file-1-2.html\">previous</a>"), lastPage);
+        assertTrue(lastPage.contains("<tr><td>5</td><td>5</td>"), lastPage);
+        assertFalse(lastPage.contains("<tr><td>4</td>"), lastPage);
+
+        assertTrue(read(pageDir.resolve("files-2.html")).contains("C&lt;&amp;&gt;.dummy"));
+    }
+
+    @Test
+    void testOutputDirIsRequiredWithoutReportFile() {
+        Renderer renderer = new ChunkedHTMLRenderer();
+        renderer.setWriter(new StringWriter());
+        assertThrows(IOException.class, renderer::start);
+    }
+
+    private void renderFile(GlobalAnalysisListener listener, String fileName, int numViolations) throws Exception {
+        FileId fileId = FileId.fromPathLikeString(fileName);
+        TextFile textFile = TextFile.forCharSeq("dummyText", fileId, DummyLanguageModule.getInstance().getDefaultVersion());
+        try (FileAnalysisListener fileListener = listener.startFileAnalysis(textFile)) {
+            for (int line = 1; line <= numViolations; line++) {
+                FileLocation location = FileLocation.range(fileId, TextRange2d.range2d(line, 1, line, 5));
+                RuleViolation violation = new ParametricRuleViolation(rule, location, "problem");
+                fileListener.onRuleViolation(violation);
+            }
+        }
+    }
+
+    private static String read(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import static net.sourceforge.pmd.lang.metrics.AbstractMetricsReportRule.METRIC_INFO_PREFIX;
+import static net.sourceforge.pmd.util.CollectionUtil.mapOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.Report.ConfigurationError;
+import net.sourceforge.pmd.Report.ProcessingError;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.metrics.AbstractMetricsReportRule;
+import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+import net.sourceforge.pmd.lang.rule.RuleTargetSelector;
+import net.sourceforge.pmd.reporting.FileAnalysisListener;
+
+class MetricsCSVRendererTest extends AbstractRendererTest {
+
+    private static final String HEADER = "\"File\",\"Package\",\"Class\",\"Method\",\"Line\"";
+
+    @Override
+    Renderer getRenderer() {
+        return new MetricsCSVRenderer();
+    }
+
+    @Override
+    String getExpected() {
+        // violations of rules that aren't metrics report rules are ignored
+        return HEADER + EOL;
+    }
+
+    @Override
+    String getExpectedEmpty() {
+        return HEADER + EOL;
+    }
+
+    @Override
+    String getExpectedMultiple() {
+        return HEADER + EOL;
+    }
+
+    @Override
+    String getExpectedError(ProcessingError error) {
+        return HEADER + EOL;
+    }
+
+    @Override
+    String getExpectedError(ConfigurationError error) {
+        return HEADER + EOL;
+    }
+
+    @Test
+    void testMetricsColumns() throws Exception {
+        MetricsRule rule = new MetricsRule();
+        rule.setLanguage(DummyLanguageModule.getInstance());
+        Consumer<FileAnalysisListener> effects = it -> {
+            // the values are read from the additional info, not from the message
+            it.onRuleViolation(metricsViolation(rule, 1, mapOf(METRIC_INFO_PREFIX + "Cyclo", "3", METRIC_INFO_PREFIX + "NCSS", "12")));
+            it.onRuleViolation(metricsViolation(rule, 5, mapOf(METRIC_INFO_PREFIX + "NCSS", "4", METRIC_INFO_PREFIX + "TCC", "0.5")));
+            it.onRuleViolation(newRuleViolation(6, 1, 6, 1, createFooRule()));
+        };
+
+        String actual = renderReport(getRenderer(), effects);
+        assertEquals(HEADER + ",\"Cyclo\",\"NCSS\",\"TCC\"" + EOL
+                         + "\"" + getSourceCodeFilename() + "\",\"\",\"\",\"\",\"1\",\"3\",\"12\",\"\"" + EOL
+                         + "\"" + getSourceCodeFilename() + "\",\"\",\"\",\"\",\"5\",\"\",\"4\",\"0.5\"" + EOL,
+                     actual);
+    }
+
+    private RuleViolation metricsViolation(MetricsRule rule, int line, Map<String, String> values) {
+        return new ParametricRuleViolation(rule, createLocation(line, 1, line, 1), "Metrics report", values);
+    }
+
+    private static class MetricsRule extends AbstractMetricsReportRule {
+
+        @Override
+        protected @NonNull RuleTargetSelector buildTargetSelector() {
+            return RuleTargetSelector.forTypes(RootNode.class);
+        }
+    }
+}
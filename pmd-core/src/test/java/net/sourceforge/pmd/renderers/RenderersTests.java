@@ -20,6 +20,7 @@ import org.junit.platform.suite.api.Suite;
     HTMLRendererTest.class,
     IDEAJRendererTest.class,
     JsonRendererTest.class,
+    MetricsCSVRendererTest.class,
     PapariTextRendererTest.class,
     SarifRendererTest.class,
     SummaryHTMLRendererTest.class,
@@ -5,14 +5,21 @@
 package net.sourceforge.pmd.renderers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
+import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.function.Consumer;
 
+import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Test;
 
 import net.sourceforge.pmd.Report;
 import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleSetReference;
+import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+import net.sourceforge.pmd.lang.rule.RuleReference;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
 
 import com.github.stefanbirkner.systemlambda.SystemLambda;
@@ -98,6 +105,66 @@ class SarifRendererTest extends AbstractRendererTest {
         assertEquals(filter(readFile("expected-multiple-locations.sarif.json")), filter(actual));
     }
 
+    @Test
+    void testResultsAreWrittenBeforeEnd() throws Exception {
+        StringWriter out = new StringWriter();
+        Renderer renderer = getRenderer();
+        renderer.setWriter(out);
+        renderer.start();
+        renderer.renderFileReport(Report.buildReport(reportThreeViolationsTwoRules()));
+        renderer.getWriter().flush();
+
+        // the results are not buffered until the end
+        String beforeEnd = out.toString();
+        assertEquals(3, StringUtils.countMatches(beforeEnd, "\"ruleId\""));
+        assertFalse(beforeEnd.contains("\"tool\""));
+
+        renderer.end();
+        renderer.flush();
+
+        JsonObject run = new Gson().fromJson(out.toString(), JsonObject.class).getAsJsonArray("runs").get(0).getAsJsonObject();
+        assertEquals(3, run.getAsJsonArray("results").size());
+        assertEquals(2, run.getAsJsonObject("tool").getAsJsonObject("driver").getAsJsonArray("rules").size());
+    }
+
+    @Test
+    void testRuleIsDescribedOnceWhateverTheViolationMessages() throws Exception {
+        Rule fooRule = createFooRule();
+        String actual = renderReport(getRenderer(), reportBuilder -> {
+            reportBuilder.onRuleViolation(new ParametricRuleViolation(fooRule, createLocation(1, 1, 1, 10), "first", Collections.emptyMap()));
+            reportBuilder.onRuleViolation(new ParametricRuleViolation(fooRule, createLocation(2, 1, 2, 10), "second", Collections.emptyMap()));
+        });
+
+        JsonObject run = new Gson().fromJson(actual, JsonObject.class).getAsJsonArray("runs").get(0).getAsJsonObject();
+        JsonArray results = run.getAsJsonArray("results");
+        assertEquals("first", results.get(0).getAsJsonObject().getAsJsonObject("message").get("text").getAsString());
+        assertEquals("second", results.get(1).getAsJsonObject().getAsJsonObject("message").get("text").getAsString());
+        assertEquals(0, results.get(1).getAsJsonObject().get("ruleIndex").getAsInt());
+
+        JsonArray rules = run.getAsJsonObject("tool").getAsJsonObject("driver").getAsJsonArray("rules");
+        assertEquals(1, rules.size());
+        // the descriptor is built from the rule, not from the first violation
+        assertEquals(fooRule.getMessage(), rules.get(0).getAsJsonObject().getAsJsonObject("shortDescription").get("text").getAsString());
+    }
+
+    @Test
+    void testCopiesOfARuleAreDescribedOnce() throws Exception {
+        // each analysis thread uses its own copy of the rules
+        RuleReference ref = new RuleReference(createFooRule(), new RuleSetReference("rulesets/test.xml"));
+        Rule copy1 = ref.deepCopy();
+        Rule copy2 = ref.deepCopy();
+        String actual = renderReport(getRenderer(), reportBuilder -> {
+            reportBuilder.onRuleViolation(newRuleViolation(1, 1, 1, 10, copy1));
+            reportBuilder.onRuleViolation(newRuleViolation(2, 1, 2, 10, copy2));
+        });
+
+        JsonObject run = new Gson().fromJson(actual, JsonObject.class).getAsJsonArray("runs").get(0).getAsJsonObject();
+        JsonArray results = run.getAsJsonArray("results");
+        assertEquals(0, results.get(0).getAsJsonObject().get("ruleIndex").getAsInt());
+        assertEquals(0, results.get(1).getAsJsonObject().get("ruleIndex").getAsInt());
+        assertEquals(1, run.getAsJsonObject("tool").getAsJsonObject("driver").getAsJsonArray("rules").size());
+    }
+
     private Consumer<FileAnalysisListener> reportThreeViolationsTwoRules() {
         Rule fooRule = createFooRule();
         Rule booRule = createBooRule();
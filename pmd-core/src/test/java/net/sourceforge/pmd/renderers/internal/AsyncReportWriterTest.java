@@ -0,0 +1,189 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.renderers.AbstractRenderer;
+import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
+
+class AsyncReportWriterTest {
+
+    @Test
+    void testAllReportsAreRenderedOnOneThread() throws Exception {
+        RecordingRenderer renderer = new RecordingRenderer();
+        List<Report> expected = Collections.synchronizedList(new ArrayList<>());
+
+        AsyncReportWriter writer = new AsyncReportWriter(renderer, 2);
+        List<Thread> producers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread producer = new Thread(() -> {
+                for (int j = 0; j < 50; j++) {
+                    Report report = new Report();
+                    expected.add(report);
+                    try {
+                        writer.render(report);
+                    } catch (InterruptedException e) {
+                        throw new AssertionError(e);
+                    }
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        writer.close();
+
+        assertEquals(new HashSet<>(expected), new HashSet<>(renderer.rendered));
+        assertEquals(200, renderer.rendered.size());
+        assertEquals(1, renderer.threads.size());
+    }
+
+    @Test
+    void testRendererExceptionIsRethrownOnClose() throws Exception {
+        IOException failure = new IOException("disk full");
+        RecordingRenderer renderer = new RecordingRenderer() {
+            @Override
+            public void renderFileReport(Report report) throws IOException {
+                throw failure;
+            }
+        };
+
+        AsyncReportWriter writer = new AsyncReportWriter(renderer, 1);
+        for (int i = 0; i < 10; i++) {
+            // the queue is still drained after the failure
+            writer.render(new Report());
+        }
+
+        assertSame(failure, assertThrows(IOException.class, writer::close));
+    }
+
+    @Test
+    void testWriterThreadRunsFromFirstReportUntilClose() throws Exception {
+        AsyncReportWriter writer = new AsyncReportWriter(new RecordingRenderer());
+        assertFalse(writer.isWriterThreadAlive());
+
+        writer.render(new Report());
+        assertTrue(writer.isWriterThreadAlive());
+
+        writer.close();
+        assertFalse(writer.isWriterThreadAlive());
+        assertThrows(IllegalStateException.class, () -> writer.render(new Report()));
+    }
+
+    @Test
+    void testCloseWithoutReports() throws Exception {
+        RecordingRenderer renderer = new RecordingRenderer();
+        AsyncReportWriter writer = new AsyncReportWriter(renderer);
+        writer.close();
+
+        assertFalse(writer.isWriterThreadAlive());
+        assertTrue(renderer.rendered.isEmpty());
+    }
+
+    @Test
+    void testListenerClosesOutputWhenRenderingFails() throws Exception {
+        IOException failure = new IOException("disk full");
+        ClosingWriter output = new ClosingWriter();
+        RecordingRenderer renderer = new RecordingRenderer() {
+            @Override
+            public void renderFileReport(Report report) throws IOException {
+                throw failure;
+            }
+        };
+        renderer.setWriter(output);
+
+        GlobalAnalysisListener listener = renderer.newListener();
+        TextFile file = TextFile.forCharSeq("", FileId.fromPathLikeString("a.dummy"), DummyLanguageModule.getInstance().getDefaultVersion());
+        listener.startFileAnalysis(file).close();
+
+        assertSame(failure, assertThrows(IOException.class, listener::close));
+        assertTrue(output.closed);
+    }
+
+    @Test
+    void testOutputIsClosedWhenStartFails() {
+        IOException failure = new IOException("cannot write header");
+        ClosingWriter output = new ClosingWriter();
+        RecordingRenderer renderer = new RecordingRenderer() {
+            @Override
+            public void start() throws IOException {
+                throw failure;
+            }
+        };
+        renderer.setWriter(output);
+
+        assertSame(failure, assertThrows(IOException.class, renderer::newListener));
+        assertTrue(output.closed);
+    }
+
+    private static class ClosingWriter extends StringWriter {
+
+        boolean closed;
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+
+    private static class RecordingRenderer extends AbstractRenderer {
+
+        final List<Report> rendered = new ArrayList<>();
+        final Set<Thread> threads = new HashSet<>();
+
+        RecordingRenderer() {
+            super("recording", "Records the reports");
+        }
+
+        @Override
+        public String defaultFileExtension() {
+            return "txt";
+        }
+
+        @Override
+        public void start() throws IOException {
+            // nothing to do
+        }
+
+        @Override
+        public void startFileAnalysis(TextFile dataSource) {
+            // nothing to do
+        }
+
+        @Override
+        public void renderFileReport(Report report) throws IOException {
+            // not synchronized, this is only called on the writer thread
+            threads.add(Thread.currentThread());
+            rendered.add(report);
+        }
+
+        @Override
+        public void end() {
+            // nothing to do
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting;
+
+import static net.sourceforge.pmd.util.CollectionUtil.listOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.PmdAnalysis;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.rule.AbstractRule;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+class AnalysisMetricsListenerTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testMetricsOfAnalysis() throws IOException {
+        Path cacheFile = tempDir.resolve("cache.bin");
+        // the same rule set is used twice, so that the cache is not invalidated
+        RuleSet ruleSet = RuleSet.forSingleRule(new ViolationPerFileRule());
+        AnalysisMetrics first = analyze(cacheFile, ruleSet);
+        assertEquals(3, first.getFilesToAnalyze());
+        assertEquals(3, first.getFilesAnalyzed());
+        assertEquals(0, first.getFilesInProgress());
+        assertEquals(0, first.getQueueDepth());
+        assertEquals(2, first.getViolations());
+        assertEquals(0, first.getCacheHits());
+
+        AnalysisMetrics second = analyze(cacheFile, ruleSet);
+        assertEquals(3, second.getCacheHits());
+        assertEquals(1.0, second.getCacheHitRatio());
+        // cached violations are reported too
+        assertEquals(2, second.getViolations());
+
+        StringWriter openMetrics = new StringWriter();
+        second.writeOpenMetrics(openMetrics);
+        String text = openMetrics.toString();
+        assertTrue(text.contains("# TYPE pmd_files_analyzed counter\n"), text);
+        assertTrue(text.contains("\npmd_files_analyzed_total 3\n"), text);
+        assertTrue(text.contains("\npmd_cache_hits_total 3\n"), text);
+        assertTrue(text.contains("\npmd_queue_depth 0\n"), text);
+        assertTrue(text.contains("\npmd_file_analysis_seconds_bucket{le=\"0.001\"} "), text);
+        assertTrue(text.contains("\npmd_file_analysis_seconds_bucket{le=\"+Inf\"} 3\n"), text);
+        assertTrue(text.endsWith("# EOF\n"), text);
+
+        StringWriter json = new StringWriter();
+        second.writeJson(json);
+        JsonObject object = JsonParser.parseString(json.toString()).getAsJsonObject();
+        assertEquals(3, object.get("filesAnalyzed").getAsInt());
+        assertEquals(2, object.get("violations").getAsInt());
+        assertEquals(1.0, object.get("cacheHitRatio").getAsDouble());
+    }
+
+    @Test
+    void testQueueDepth() {
+        AnalysisMetricsListener metrics = new AnalysisMetricsListener();
+        QueueDepthRule rule = new QueueDepthRule(metrics);
+        PMDConfiguration config = new PMDConfiguration();
+        config.setThreads(1);
+        try (PmdAnalysis pmd = PmdAnalysis.create(config)) {
+            pmd.addRuleSet(RuleSet.forSingleRule(rule));
+            pmd.addListener(metrics);
+            pmd.files().addSourceFile(FileId.fromPathLikeString("A.dummy"), "a");
+            pmd.files().addSourceFile(FileId.fromPathLikeString("B.dummy"), "b");
+            pmd.files().addSourceFile(FileId.fromPathLikeString("C.dummy"), "c");
+            pmd.performAnalysis();
+        }
+        // the queue shrinks as the files are started
+        assertEquals(listOf(2, 1, 0), rule.queueDepths);
+    }
+
+    @Test
+    void testMetricsBeforeStart() {
+        AnalysisMetrics metrics = new AnalysisMetricsListener().getMetrics();
+        assertEquals(0, metrics.getElapsedNanos());
+        assertEquals(0, metrics.getFilesPerSecond());
+        assertEquals(0, metrics.getCacheHitRatio());
+    }
+
+    private AnalysisMetrics analyze(Path cacheFile, RuleSet ruleSet) {
+        PMDConfiguration config = new PMDConfiguration();
+        config.setThreads(1);
+        config.setAnalysisCacheLocation(cacheFile.toString());
+        AnalysisMetricsListener metrics = new AnalysisMetricsListener();
+        try (PmdAnalysis pmd = PmdAnalysis.create(config)) {
+            pmd.addRuleSet(ruleSet);
+            pmd.addListener(metrics);
+            pmd.files().addSourceFile(FileId.fromPathLikeString("A.dummy"), "a");
+            pmd.files().addSourceFile(FileId.fromPathLikeString("B.dummy"), "b");
+            pmd.files().addSourceFile(FileId.fromPathLikeString("Ok.dummy"), "ok");
+            pmd.performAnalysis();
+        }
+        return metrics.getMetrics();
+    }
+
+    /** Records the depth of the queue when it is applied. */
+    private static class QueueDepthRule extends AbstractRule {
+
+        private final AnalysisMetricsListener metrics;
+        private final List<Integer> queueDepths = new ArrayList<>();
+
+        QueueDepthRule(AnalysisMetricsListener metrics) {
+            this.metrics = metrics;
+            setLanguage(DummyLanguageModule.getInstance());
+            setName("QueueDepth");
+            setMessage("violation");
+        }
+
+        @Override
+        public Rule deepCopy() {
+            // the analysis applies a copy
+            return this;
+        }
+
+        @Override
+        public void apply(Node node, RuleContext ctx) {
+            queueDepths.add(metrics.getMetrics().getQueueDepth());
+        }
+    }
+
+    /** Reports a violation on files whose text is not "ok". */
+    private static class ViolationPerFileRule extends AbstractRule {
+
+        ViolationPerFileRule() {
+            setLanguage(DummyLanguageModule.getInstance());
+            setName("ViolationPerFile");
+            setMessage("violation");
+        }
+
+        @Override
+        public void apply(Node node, RuleContext ctx) {
+            if (!"ok".equals(node.getTextDocument().getText().toString())) {
+                ctx.addViolation(node);
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.PmdAnalysis;
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.RuleSets;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.ViolationSuppressor;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.document.Chars;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.rule.AbstractRule;
+
+class BaselineTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testExistingViolationsAreSuppressed() throws IOException {
+        Path baselineFile = tempDir.resolve("baseline.pmdbl");
+        Path checkout = tempDir.resolve("checkout");
+        try (PmdAnalysis pmd = newAnalysis(null, checkout)) {
+            pmd.addListener(Baseline.recorder(baselineFile));
+            pmd.files().addSourceFile(FileId.fromPath(checkout.resolve("src/Foo.dummy")), "ok\nbad 1\nbad 2\n");
+            assertEquals(2, pmd.performAnalysisAndCollectReport().getViolations().size());
+        }
+        assertEquals(2, Baseline.open(baselineFile).size());
+
+        Path otherCheckout = tempDir.resolve("other");
+        try (PmdAnalysis pmd = newAnalysis(baselineFile, otherCheckout)) {
+            // lines were inserted, the file was reformatted, the project was checked out elsewhere
+            pmd.files().addSourceFile(FileId.fromPath(otherCheckout.resolve("src/Foo.dummy")),
+                                      "new line\nok\nbad 1\n   bad   2\nbad 3\n");
+            Report report = pmd.performAnalysisAndCollectReport();
+
+            List<String> reported = report.getViolations().stream().map(RuleViolation::getDescription).collect(Collectors.toList());
+            assertEquals(Collections.singletonList("bad 3"), reported);
+            assertEquals(2, report.getSuppressedViolations().size());
+            for (Report.SuppressedViolation suppressed : report.getSuppressedViolations()) {
+                assertEquals(ViolationSuppressor.BASELINE_SUPPRESSOR_ID, suppressed.getSuppressor().getId());
+            }
+        }
+    }
+
+    @Test
+    void testFilesWithTheSameNameAreDistinguished() throws IOException {
+        // files on disk are closed by the analysis before the recorder is
+        Path fooA = write("a/Foo.dummy", "bad 1\n");
+        Path fooB = write("b/Foo.dummy", "bad 1\n");
+        Path baselineFile = tempDir.resolve("baseline.pmdbl");
+        try (PmdAnalysis pmd = newAnalysis(null, tempDir)) {
+            pmd.addListener(Baseline.recorder(baselineFile));
+            pmd.files().addFile(fooA);
+            pmd.performAnalysis();
+        }
+        assertEquals(1, Baseline.open(baselineFile).size());
+
+        try (PmdAnalysis pmd = newAnalysis(baselineFile, tempDir)) {
+            pmd.files().addFile(fooA);
+            pmd.files().addFile(fooB);
+            Report report = pmd.performAnalysisAndCollectReport();
+
+            assertEquals(1, report.getViolations().size());
+            assertEquals(fooB.toString(), report.getViolations().get(0).getFileId().getAbsolutePath());
+            assertEquals(1, report.getSuppressedViolations().size());
+        }
+    }
+
+    @Test
+    void testNewCopyOfABaselinedLineIsReported() throws IOException {
+        Path baselineFile = tempDir.resolve("baseline.pmdbl");
+        try (PmdAnalysis pmd = newAnalysis(null)) {
+            pmd.addListener(Baseline.recorder(baselineFile));
+            pmd.files().addSourceFile(FileId.fromPathLikeString("Foo.dummy"), "bad 1\nok\nbad 1\n");
+            pmd.performAnalysis();
+        }
+        assertEquals(2, Baseline.open(baselineFile).size());
+
+        try (PmdAnalysis pmd = newAnalysis(baselineFile)) {
+            pmd.files().addSourceFile(FileId.fromPathLikeString("Foo.dummy"), "bad 1\nbad 1\nok\nbad 1\n");
+            Report report = pmd.performAnalysisAndCollectReport();
+
+            assertEquals(1, report.getViolations().size());
+            assertEquals("bad 1", report.getViolations().get(0).getDescription());
+            assertEquals(2, report.getSuppressedViolations().size());
+        }
+    }
+
+    @Test
+    void testRecordingKeepsSuppressedViolations() throws IOException {
+        Path baselineFile = tempDir.resolve("baseline.pmdbl");
+        try (PmdAnalysis pmd = newAnalysis(null)) {
+            pmd.addListener(Baseline.recorder(baselineFile));
+            pmd.files().addSourceFile(FileId.fromPathLikeString("Foo.dummy"), "bad 1\n");
+            pmd.performAnalysis();
+        }
+
+        // the baseline is updated by a run that uses it
+        Path updatedFile = tempDir.resolve("updated.pmdbl");
+        try (PmdAnalysis pmd = newAnalysis(baselineFile)) {
+            pmd.addListener(Baseline.recorder(updatedFile));
+            pmd.files().addSourceFile(FileId.fromPathLikeString("Foo.dummy"), "bad 1\nbad 2\n");
+            pmd.performAnalysis();
+        }
+        assertEquals(2, Baseline.open(updatedFile).size());
+    }
+
+    @Test
+    void testLookup() throws IOException {
+        Path file = tempDir.resolve("baseline.pmdbl");
+        long[] keys = LongStream.rangeClosed(1, 10_000).map(i -> i * 0x9e3779b97f4a7c15L).toArray();
+        Baseline.write(file, keys);
+
+        Baseline baseline = Baseline.open(file);
+        assertEquals(keys.length, baseline.size());
+        for (long key : keys) {
+            assertTrue(baseline.contains(key));
+        }
+        assertFalse(baseline.contains(42));
+
+        Baseline.write(file, new long[] {keys[0]});
+        assertNotEquals(baseline.getChecksum(), Baseline.open(file).getChecksum());
+    }
+
+    @Test
+    void testInvalidFile() throws IOException {
+        Path file = tempDir.resolve("baseline.pmdbl");
+        Files.write(file, "not a baseline, really not".getBytes());
+        assertThrows(IOException.class, () -> Baseline.open(file));
+    }
+
+    @Test
+    void testBaselineIsPartOfTheChecksum() throws IOException {
+        Path file = tempDir.resolve("baseline.pmdbl");
+        Baseline.write(file, new long[] {1, 2, 3});
+
+        RuleSets ruleSets = new RuleSets(RuleSet.forSingleRule(new BadLineRule()));
+        long checksum = ruleSets.getChecksum();
+        ruleSets.setBaseline(Baseline.open(file));
+        assertNotEquals(checksum, ruleSets.getChecksum());
+        assertEquals(ruleSets.getChecksum(), new RuleSets(ruleSets).getChecksum());
+    }
+
+    private Path write(String name, String contents) throws IOException {
+        Path path = tempDir.resolve(name);
+        Files.createDirectories(path.getParent());
+        return Files.write(path, contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static PmdAnalysis newAnalysis(Path baseline) {
+        return newAnalysis(baseline, null);
+    }
+
+    private static PmdAnalysis newAnalysis(Path baseline, Path relativizeRoot) {
+        PMDConfiguration config = new PMDConfiguration();
+        if (relativizeRoot != null) {
+            config.addRelativizeRoot(relativizeRoot);
+        }
+        config.setThreads(1);
+        config.setIgnoreIncrementalAnalysis(true);
+        config.setBaselineFile(baseline);
+        PmdAnalysis pmd = PmdAnalysis.create(config);
+        pmd.addRuleSet(RuleSet.forSingleRule(new BadLineRule()));
+        return pmd;
+    }
+
+    /** Reports each line that starts with "bad", with the line as message. */
+    private static class BadLineRule extends AbstractRule {
+
+        BadLineRule() {
+            setLanguage(DummyLanguageModule.getInstance());
+            setName("BadLine");
+            setMessage("bad line");
+        }
+
+        @Override
+        public void apply(Node node, RuleContext ctx) {
+            int lineNumber = 0;
+            for (Chars line : node.getTextDocument().getText().lines()) {
+                lineNumber++;
+                String text = line.toString().trim().replaceAll("\\s+", " ");
+                if (text.startsWith("bad")) {
+                    ctx.addViolationWithPosition(node, lineNumber, lineNumber, text);
+                }
+            }
+        }
+    }
+}
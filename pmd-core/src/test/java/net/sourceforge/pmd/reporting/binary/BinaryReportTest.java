@@ -0,0 +1,214 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting.binary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RulePriority;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.FileLocation;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.document.TextPos2d;
+import net.sourceforge.pmd.lang.document.TextRange2d;
+import net.sourceforge.pmd.lang.rule.MockRule;
+import net.sourceforge.pmd.lang.rule.ParametricRuleViolation;
+import net.sourceforge.pmd.renderers.BinaryRenderer;
+import net.sourceforge.pmd.renderers.Renderer;
+import net.sourceforge.pmd.reporting.FileAnalysisListener;
+import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
+
+class BinaryReportTest {
+
+    private final Rule ruleA = new MockRule("RuleA", "desc", "msg", "ruleset");
+    private final Rule ruleB = new MockRule("RuleB", "desc", "msg", "ruleset");
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testRoundTrip() throws IOException {
+        ruleB.setPriority(RulePriority.HIGH);
+        Path report = write("report.pmdb",
+                            violation(ruleA, "b.java", 20, "second"),
+                            violation(ruleB, "b.java", 3, "first ünïcödé"),
+                            violation(ruleA, "a.java", 100000, "far"));
+
+        try (BinaryReportReader reader = BinaryReportReader.open(report)) {
+            assertEquals(Arrays.asList("a.java", "b.java"), reader.getFileNames());
+            assertEquals(2, reader.getViolationCount("b.java"));
+            assertEquals(0, reader.getViolationCount("c.java"));
+
+            List<ReportedViolation> b = reader.readFile("b.java");
+            assertEquals(2, b.size());
+            ReportedViolation first = b.get(0);
+            assertEquals("b.java", first.getFileName());
+            assertEquals("RuleB", first.getRuleName());
+            assertEquals("ruleset", first.getRuleSetName());
+            assertEquals(RulePriority.HIGH, first.getPriority());
+            assertEquals("first ünïcödé", first.getDescription());
+            assertEquals(3, first.getBeginLine());
+            assertEquals(2, first.getBeginColumn());
+            assertEquals(4, first.getEndLine());
+            assertEquals(7, first.getEndColumn());
+            assertEquals(20, b.get(1).getBeginLine());
+
+            assertEquals(100000, reader.readFile("a.java").get(0).getBeginLine());
+        }
+    }
+
+    @Test
+    void testDiffIgnoresLineShifts() throws IOException {
+        Path baseline = write("baseline.pmdb",
+                              violation(ruleA, "a.java", 10, "unchanged"),
+                              violation(ruleA, "b.java", 10, "moved"),
+                              violation(ruleA, "b.java", 20, "fixed"),
+                              violation(ruleA, "c.java", 1, "file deleted"));
+        Path current = write("current.pmdb",
+                             violation(ruleA, "a.java", 10, "unchanged"),
+                             violation(ruleA, "b.java", 15, "moved"),
+                             violation(ruleB, "b.java", 30, "added"),
+                             violation(ruleA, "d.java", 1, "file added"));
+
+        List<String> fixed = new ArrayList<>();
+        List<String> added = new ArrayList<>();
+        try (BinaryReportReader before = BinaryReportReader.open(baseline);
+             BinaryReportReader after = BinaryReportReader.open(current)) {
+            ReportDiff.compare(before, after, new ReportDiff.DiffListener() {
+                @Override
+                public void newViolation(ReportedViolation violation) {
+                    added.add(violation.getDescription());
+                }
+
+                @Override
+                public void fixedViolation(ReportedViolation violation) {
+                    fixed.add(violation.getDescription());
+                }
+            });
+        }
+
+        assertEquals(Arrays.asList("fixed", "file deleted"), fixed);
+        assertEquals(Arrays.asList("added", "file added"), added);
+    }
+
+    @Test
+    void testDuplicateFingerprintsAreCounted() throws IOException {
+        Path baseline = write("baseline.pmdb",
+                              violation(ruleA, "a.java", 1, "same"));
+        Path current = write("current.pmdb",
+                             violation(ruleA, "a.java", 1, "same"),
+                             violation(ruleA, "a.java", 5, "same"));
+
+        List<ReportedViolation> added = new ArrayList<>();
+        try (BinaryReportReader before = BinaryReportReader.open(baseline);
+             BinaryReportReader after = BinaryReportReader.open(current)) {
+            ReportDiff.compare(before, after, new ReportDiff.DiffListener() {
+                @Override
+                public void newViolation(ReportedViolation violation) {
+                    added.add(violation);
+                }
+
+                @Override
+                public void fixedViolation(ReportedViolation violation) {
+                    throw new AssertionError("Nothing was fixed");
+                }
+            });
+        }
+
+        assertEquals(1, added.size());
+        assertEquals(5, added.get(0).getBeginLine());
+    }
+
+    @Test
+    void testCorruptedReport() throws IOException {
+        Path report = write("report.pmdb", violation(ruleA, "a.java", 1, "message"));
+        byte[] bytes = Files.readAllBytes(report);
+        // flip a byte of the first block, after the header
+        bytes[8] ^= 0x55;
+        Files.write(report, bytes);
+
+        try (BinaryReportReader reader = BinaryReportReader.open(report)) {
+            assertThrows(IOException.class, () -> reader.readFile("a.java"));
+        }
+
+        Files.write(report, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> BinaryReportReader.open(report));
+    }
+
+    @Test
+    void testRenderer() throws Exception {
+        Path reportFile = tempDir.resolve("sub/report.pmdb");
+        Renderer renderer = new BinaryRenderer();
+        renderer.setReportFile(reportFile.toString());
+        LanguageVersion dummyVersion = DummyLanguageModule.getInstance().getDefaultVersion();
+        TextFile textFile = TextFile.forCharSeq("dummyText", FileId.fromPathLikeString("a.java"), dummyVersion);
+        try (GlobalAnalysisListener listener = renderer.newListener()) {
+            try (FileAnalysisListener fileListener = listener.startFileAnalysis(textFile)) {
+                fileListener.onRuleViolation(violation(ruleA, "a.java", 2, "message"));
+                fileListener.onRuleViolation(violation(ruleA, "a.java", 1, "message"));
+            }
+        }
+
+        try (BinaryReportReader reader = BinaryReportReader.open(reportFile)) {
+            assertEquals(Collections.singletonList("a.java"), reader.getFileNames());
+            assertEquals(2, reader.getViolationCount("a.java"));
+        }
+    }
+
+    @Test
+    void testRendererCannotUseAWriter() {
+        Renderer renderer = new BinaryRenderer();
+        renderer.setWriter(new StringWriter());
+        IOException e = assertThrows(IOException.class, renderer::start);
+        assertTrue(e.getMessage().contains("report file"), e.getMessage());
+    }
+
+    private Path write(String name, RuleViolation... violations) throws IOException {
+        Report report = new Report();
+        for (RuleViolation violation : violations) {
+            report.addRuleViolation(violation);
+        }
+        Path path = tempDir.resolve(name);
+        try (OutputStream out = Files.newOutputStream(path);
+             BinaryReportWriter writer = new BinaryReportWriter(out)) {
+            // violations are sorted by file
+            List<RuleViolation> file = new ArrayList<>();
+            for (RuleViolation violation : report.getViolations()) {
+                if (!file.isEmpty() && !file.get(0).getFileId().equals(violation.getFileId())) {
+                    writer.addFile(file.get(0).getFileId().getOriginalPath(), file);
+                    file.clear();
+                }
+                file.add(violation);
+            }
+            writer.addFile(file.get(0).getFileId().getOriginalPath(), file);
+        }
+        return path;
+    }
+
+    private RuleViolation violation(Rule rule, String file, int line, String message) {
+        FileLocation location = FileLocation.range(FileId.fromPathLikeString(file),
+                                                   TextRange2d.range2d(TextPos2d.pos2d(line, 2), TextPos2d.pos2d(line + 1, 7)));
+        return new ParametricRuleViolation(rule, location, message);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.util.DataMap.DataKey;
+import net.sourceforge.pmd.util.DataMap.SimpleDataKey;
+
+class DataMapTest {
+
+    private static final SimpleDataKey<String> FIRST = DataMap.simpleDataKey("first");
+    private static final SimpleDataKey<String> SECOND = DataMap.simpleDataKey("second");
+
+    @Test
+    void testSlottedKeys() {
+        DataMap<DataKey<?, ?>> map = DataMap.newDataMap();
+        assertNull(map.get(SECOND));
+        assertFalse(map.isSet(SECOND));
+
+        assertNull(map.set(SECOND, "a"));
+        assertEquals("a", map.set(SECOND, "b"));
+        assertEquals("b", map.get(SECOND));
+        assertTrue(map.isSet(SECOND));
+
+        // the array of slots already covers the lower slot of FIRST
+        assertNull(map.get(FIRST));
+        assertEquals("c", map.getOrDefault(FIRST, "c"));
+        assertEquals("d", map.computeIfAbsent(FIRST, () -> "d"));
+        assertEquals("d", map.computeIfAbsent(FIRST, () -> "e"));
+        assertEquals("dd", map.compute(FIRST, v -> v + v));
+        assertNull(map.compute(FIRST, v -> null));
+        assertFalse(map.isSet(FIRST));
+        assertEquals("b", map.get(SECOND));
+    }
+
+    @Test
+    void testOtherKeys() {
+        DataKey<OtherKey, String> key = new OtherKey();
+        DataMap<DataKey<?, ?>> map = DataMap.newDataMap();
+        assertNull(map.get(key));
+
+        map.set(key, "a");
+        map.set(FIRST, "b");
+        assertEquals("a", map.get(key));
+        assertEquals("b", map.get(FIRST));
+        assertEquals("ab", map.compute(key, v -> v + "b"));
+        assertTrue(map.isSet(key));
+        assertFalse(map.isSet(new OtherKey()));
+    }
+
+    @Test
+    void testManyKeys() {
+        DataMap<DataKey<?, ?>> map = DataMap.newDataMap();
+        for (int i = 0; i < 200; i++) {
+            // beyond the slots, keys use the side table
+            SimpleDataKey<Integer> key = DataMap.simpleDataKey("key" + i);
+            map.set(key, i);
+            assertEquals(i, map.get(key));
+        }
+    }
+
+    private static final class OtherKey implements DataKey<OtherKey, String> {
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.util.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.util.database.DBMSMetadata.SourceCodeConsumer;
+
+class DBMSMetadataSourceCodeTest {
+
+    private static final String URL = "jdbc:oracle:fetchtest:@//localhost:1521/ORCL";
+
+    private static final FakeDriver DRIVER = new FakeDriver();
+
+    @BeforeAll
+    static void registerDriver() throws SQLException {
+        DriverManager.registerDriver(DRIVER);
+    }
+
+    @AfterAll
+    static void deregisterDriver() throws SQLException {
+        DriverManager.deregisterDriver(DRIVER);
+    }
+
+    @BeforeEach
+    void resetDriver() {
+        FakeDriver.OPENED.set(0);
+        FakeDriver.CLOSED.set(0);
+    }
+
+    @Test
+    void testSourceCodeIsRetrievedOverSeveralConnections() throws Exception {
+        DBMSMetadata metadata = new DBMSMetadata(new DBURI(URL + "?connections=3"));
+        List<SourceObject> sourceObjects = sourceObjects("A", "B", "C", "BROKEN", "D", "E", "F", "G", "H");
+
+        Map<String, String> sources = new HashMap<>();
+        List<String> failed = new ArrayList<>();
+        metadata.getSourceCode(sourceObjects, consumer(sources, failed));
+
+        assertEquals(8, sources.size());
+        for (String name : sources.keySet()) {
+            assertEquals("source of " + name, sources.get(name));
+        }
+        assertEquals(Collections.singletonList("BROKEN"), failed);
+        assertEquals(3, FakeDriver.OPENED.get());
+        // the connection of the metadata itself stays open
+        assertEquals(2, FakeDriver.CLOSED.get());
+    }
+
+    @Test
+    void testConnectionsAreLimitedByTheNumberOfObjects() throws Exception {
+        DBMSMetadata metadata = new DBMSMetadata(new DBURI(URL + "?schemas=SCOTT"));
+
+        Map<String, String> sources = new HashMap<>();
+        metadata.getSourceCode(sourceObjects("A", "B"), consumer(sources, new ArrayList<>()));
+
+        assertEquals(2, sources.size());
+        // the default is 4 connections
+        assertEquals(2, FakeDriver.OPENED.get());
+    }
+
+    @Test
+    void testGivenConnectionRetrievesAllSourceCode() throws Exception {
+        DBMSMetadata metadata = new DBMSMetadata(new FakeDriver().connect(URL, new Properties()));
+        metadata.returnSourceCodeStatement = "CALL get_source_code(?, ?, ?, ?)";
+        metadata.returnType = java.sql.Types.VARCHAR;
+
+        Map<String, String> sources = new HashMap<>();
+        metadata.getSourceCode(sourceObjects("A", "B", "C"), consumer(sources, new ArrayList<>()));
+
+        assertEquals(3, sources.size());
+        assertEquals(0, FakeDriver.CLOSED.get());
+    }
+
+    private static List<SourceObject> sourceObjects(String... names) {
+        List<SourceObject> sourceObjects = new ArrayList<>();
+        for (String name : names) {
+            sourceObjects.add(new SourceObject("SCOTT", "PROCEDURE", name, null));
+        }
+        return sourceObjects;
+    }
+
+    private static SourceCodeConsumer consumer(Map<String, String> sources, List<String> failed) {
+        return new SourceCodeConsumer() {
+            @Override
+            public void accept(SourceObject sourceObject, String sourceCode) {
+                sources.put(sourceObject.getName(), sourceCode);
+            }
+
+            @Override
+            public void failed(SourceObject sourceObject, Exception e) {
+                failed.add(sourceObject.getName());
+            }
+        };
+    }
+
+    /**
+     * Driver for the "fetchtest" DBType, whose connections return the source
+     * code "source of NAME" for each object, or fail for objects named "BROKEN".
+     */
+    public static final class FakeDriver implements Driver {
+
+        static final AtomicInteger OPENED = new AtomicInteger();
+        static final AtomicInteger CLOSED = new AtomicInteger();
+
+        @Override
+        public Connection connect(String url, Properties info) throws SQLException {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            OPENED.incrementAndGet();
+
+            AtomicReference<String> name = new AtomicReference<>();
+            CallableStatement statement = mock(CallableStatement.class);
+            doAnswer(invocation -> {
+                name.set(invocation.getArgument(1));
+                return null;
+            }).when(statement).setString(eq(3), anyString());
+            when(statement.executeUpdate()).then(invocation -> {
+                if ("BROKEN".equals(name.get())) {
+                    throw new SQLException("cannot get source code");
+                }
+                return 0;
+            });
+            when(statement.getObject(1)).then(invocation -> "source of " + name.get());
+            doAnswer(invocation -> null).when(statement).registerOutParameter(eq(1), anyInt());
+
+            Connection connection = mock(Connection.class);
+            when(connection.prepareCall(anyString())).thenReturn(statement);
+            doAnswer(invocation -> CLOSED.incrementAndGet()).when(connection).close();
+            return connection;
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith("jdbc:oracle:fetchtest:");
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+    }
+}
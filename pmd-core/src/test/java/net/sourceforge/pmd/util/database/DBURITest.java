@@ -518,6 +518,18 @@ class DBURITest {
         // fail("The test case is a prototype.");
     }
 
+    /**
+     * Verify the number of connections used to retrieve the source code.
+     */
+    @Test
+    void testConnections() throws URISyntaxException, Exception {
+        DBURI defaults = new DBURI(C_TEST_DEFAULTS);
+        assertEquals(4, defaults.getConnections());
+
+        DBURI explicit = new DBURI(C_TEST_DEFAULTS + "?connections=2");
+        assertEquals(2, explicit.getConnections());
+    }
+
     /**
      * Verify that default CharacterSet are returned if non are provided in the
      * DBURI.
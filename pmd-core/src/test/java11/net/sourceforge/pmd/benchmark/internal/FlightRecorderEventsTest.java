@@ -0,0 +1,97 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.benchmark.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.PmdAnalysis;
+import net.sourceforge.pmd.RuleContext;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.rule.AbstractRule;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class FlightRecorderEventsTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testEventsOfAnalysis() throws IOException {
+        Path cacheFile = tempDir.resolve("cache.bin");
+        Path dump = tempDir.resolve("pmd.jfr");
+        RuleSet ruleSet = RuleSet.forSingleRule(new ViolationRule());
+        try (Recording recording = new Recording()) {
+            recording.enable("net.sourceforge.pmd.FileAnalysis").withoutThreshold();
+            recording.enable("net.sourceforge.pmd.Parse").withoutThreshold();
+            recording.enable("net.sourceforge.pmd.Rule").withoutThreshold();
+            recording.start();
+            analyze(cacheFile, ruleSet);
+            // the second analysis takes the file from the cache
+            analyze(cacheFile, ruleSet);
+            recording.stop();
+            recording.dump(dump);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+
+        List<RecordedEvent> files = ofType(events, "net.sourceforge.pmd.FileAnalysis");
+        assertEquals(2, files.size());
+        for (RecordedEvent file : files) {
+            assertTrue(file.getString("file").endsWith("A.dummy"), file.getString("file"));
+            assertEquals("dummy 1.7", file.getString("languageVersion"));
+            assertEquals(1, file.getInt("violations"));
+        }
+        assertEquals(1, files.stream().filter(it -> it.getBoolean("cacheHit")).count());
+
+        assertEquals(1, ofType(events, "net.sourceforge.pmd.Parse").size());
+        List<RecordedEvent> rules = ofType(events, "net.sourceforge.pmd.Rule");
+        assertEquals(1, rules.size());
+        assertEquals("Violation", rules.get(0).getString("rule"));
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events.stream().filter(it -> it.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+
+    private static void analyze(Path cacheFile, RuleSet ruleSet) {
+        PMDConfiguration config = new PMDConfiguration();
+        config.setThreads(1);
+        config.setAnalysisCacheLocation(cacheFile.toString());
+        try (PmdAnalysis pmd = PmdAnalysis.create(config)) {
+            pmd.addRuleSet(ruleSet);
+            pmd.files().addSourceFile(FileId.fromPathLikeString("A.dummy"), "a");
+            pmd.performAnalysis();
+        }
+    }
+
+    private static class ViolationRule extends AbstractRule {
+
+        ViolationRule() {
+            setLanguage(DummyLanguageModule.getInstance());
+            setName("Violation");
+            setMessage("violation");
+        }
+
+        @Override
+        public void apply(Node node, RuleContext ctx) {
+            ctx.addViolation(node);
+        }
+    }
+}
@@ -4,6 +4,8 @@
 
 package net.sourceforge.pmd.lang.java.ast;
 
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 import net.sourceforge.pmd.lang.java.types.JTypeMirror;
@@ -19,7 +21,11 @@ import net.sourceforge.pmd.util.AssertionUtil;
  */
 abstract class AbstractJavaTypeNode extends AbstractJavaNode implements TypeNode {
 
-    private JTypeMirror typeMirror;
+    // this is volatile as the bodies of a file may be analysed in parallel
+    private static final AtomicReferenceFieldUpdater<AbstractJavaTypeNode, JTypeMirror> TYPE_MIRROR =
+        AtomicReferenceFieldUpdater.newUpdater(AbstractJavaTypeNode.class, JTypeMirror.class, "typeMirror");
+
+    private volatile JTypeMirror typeMirror;
 
     AbstractJavaTypeNode(int i) {
         super(i);
@@ -41,8 +47,9 @@ abstract class AbstractJavaTypeNode extends AbstractJavaNode implements TypeNode
 
     @Override
     public @NonNull JTypeMirror getTypeMirror(TypingContext context) {
-        if (context.isEmpty() && typeMirror != null) {
-            return typeMirror;
+        JTypeMirror cached = typeMirror;
+        if (context.isEmpty() && cached != null) {
+            return cached;
         }
 
         LazyTypeResolver resolver = getRoot().getLazyTypeResolver();
@@ -56,8 +63,8 @@ abstract class AbstractJavaTypeNode extends AbstractJavaNode implements TypeNode
             throw AssertionUtil.contexted(e).addContextValue("Resolving type of", this);
         }
 
-        if (context.isEmpty() && typeMirror == null) {
-            typeMirror = result; // cache it
+        if (context.isEmpty()) {
+            TYPE_MIRROR.compareAndSet(this, null, result); // cache it
         }
         return result;
     }
@@ -4,6 +4,9 @@
 
 package net.sourceforge.pmd.lang.java.ast;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -87,15 +90,46 @@ public final class InternalApiBridge {
      * the
      */
     public static void forceTypeResolutionPhase(JavaAstProcessor processor, ASTCompilationUnit root) {
-        root.descendants(TypeNode.class)
-            .crossFindBoundaries()
-            .forEach(it -> {
-                try {
-                    it.getTypeMirror();
-                } catch (Exception e) {
-                    processor.getLogger().warning(it, "Error during type resolution of node " + it.getXPathNodeName());
-                }
-            });
+        if (!processor.isParallel()) {
+            root.descendants(TypeNode.class)
+                .crossFindBoundaries()
+                .forEach(it -> forceTypeResolution(processor, it));
+            return;
+        }
+        // The nodes outside of the bodies are resolved first, as
+        // the bodies depend on them. The bodies don't depend on each
+        // other and are resolved in parallel.
+        List<ASTBlock> bodies = new ArrayList<>();
+        forceTypeResolutionOutsideBodies(processor, root, bodies);
+        bodies.parallelStream().forEach(
+            body -> body.descendants(TypeNode.class)
+                        .crossFindBoundaries()
+                        .forEach(it -> forceTypeResolution(processor, it))
+        );
+    }
+
+    private static void forceTypeResolutionOutsideBodies(JavaAstProcessor processor, JavaNode node, List<ASTBlock> bodies) {
+        for (JavaNode child : node.children()) {
+            if (child instanceof ASTBlock
+                && (node instanceof ASTMethodOrConstructorDeclaration
+                    || node instanceof ASTInitializer
+                    || node instanceof ASTCompactConstructorDeclaration)) {
+                bodies.add((ASTBlock) child);
+                continue;
+            }
+            if (child instanceof TypeNode) {
+                forceTypeResolution(processor, (TypeNode) child);
+            }
+            forceTypeResolutionOutsideBodies(processor, child, bodies);
+        }
+    }
+
+    private static void forceTypeResolution(JavaAstProcessor processor, TypeNode node) {
+        try {
+            node.getTypeMirror();
+        } catch (Exception e) {
+            processor.getLogger().warning(node, "Error during type resolution of node " + node.getXPathNodeName());
+        }
     }
 
     public static void usageResolution(JavaAstProcessor processor, ASTCompilationUnit root) {
@@ -30,8 +30,12 @@ import net.sourceforge.pmd.lang.java.types.internal.infer.TypeInferenceLogger;
  * This performs all semantic analyses in layered passes.
  *
  * <p>This is the root context object for file-specific context. Instances
- * do not need to be thread-safe. Global information about eg the classpath
- * is held in a {@link TypeSystem} instance.
+ * do not need to be thread-safe, unless the file is {@linkplain #isParallel() analysed in parallel}.
+ * In that case the bodies of the methods, constructors and initializers
+ * are analysed concurrently, and the mutable state they share (the logger,
+ * the unresolved classes, the caches of the symbol tables and of the
+ * types of the nodes) is thread-safe. Global information about eg the
+ * classpath is held in a {@link TypeSystem} instance.
  *
  * <p>The object lives as long as a file, it is accessible from nodes
  * using {@link InternalApiBridge#getProcessor(JavaNode)}.
@@ -45,6 +49,7 @@ public final class JavaAstProcessor {
 
     private final UnresolvedClassStore unresolvedTypes;
     private final ASTCompilationUnit acu;
+    private final boolean parallel;
 
 
     private JavaAstProcessor(JavaLanguageProcessor globalProc,
@@ -52,9 +57,12 @@ public final class JavaAstProcessor {
                              TypeInferenceLogger typeInfLogger,
                              ASTCompilationUnit acu) {
 
+        int parallelLines = globalProc.getProperties().getProperty(JavaLanguageProperties.PARALLEL_ANALYSIS_LINES);
+        // the type inference loggers are not thread-safe
+        this.parallel = parallelLines > 0 && acu.getEndLine() >= parallelLines && typeInfLogger.isNoop();
         this.symResolver = globalProc.getTypeSystem().bootstrapResolver();
         this.globalProc = globalProc;
-        this.logger = logger;
+        this.logger = parallel ? new SynchronizedErrorReporter(logger) : logger;
         this.typeInferenceLogger = typeInfLogger;
         this.unresolvedTypes = new UnresolvedClassStore(globalProc.getTypeSystem());
         this.acu = acu;
@@ -111,6 +119,14 @@ public final class JavaAstProcessor {
         return logger;
     }
 
+    /**
+     * Whether the bodies of the declarations of this file are analysed
+     * in parallel. This is set with the property {@code parallelAnalysisLines}.
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
     public int getJdkVersion() {
         return JavaLanguageProperties.getInternalJdkVersion(acu.getLanguageVersion());
     }
@@ -4,14 +4,18 @@
 
 package net.sourceforge.pmd.lang.java.internal;
 
+import java.net.URLClassLoader;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import net.sourceforge.pmd.ViolationSuppressor;
 import net.sourceforge.pmd.lang.LanguageVersionHandler;
 import net.sourceforge.pmd.lang.ast.Parser;
+import net.sourceforge.pmd.lang.document.TextFile;
 import net.sourceforge.pmd.lang.impl.BatchLanguageProcessor;
 import net.sourceforge.pmd.lang.java.ast.JavaParser;
 import net.sourceforge.pmd.lang.java.internal.JavaLanguageProperties.InferenceLoggingVerbosity;
@@ -21,6 +25,11 @@ import net.sourceforge.pmd.lang.java.rule.xpath.internal.GetModifiersFun;
 import net.sourceforge.pmd.lang.java.rule.xpath.internal.MatchesSignatureFunction;
 import net.sourceforge.pmd.lang.java.rule.xpath.internal.MetricFunction;
 import net.sourceforge.pmd.lang.java.rule.xpath.internal.NodeIsFunction;
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.AsmSymbolResolver;
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.ClassfileSource;
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.Classpath;
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.JdkStubImage;
+import net.sourceforge.pmd.lang.java.symbols.internal.source.SourceDeclarationIndex;
 import net.sourceforge.pmd.lang.java.types.TypeSystem;
 import net.sourceforge.pmd.lang.java.types.internal.infer.TypeInferenceLogger;
 import net.sourceforge.pmd.lang.java.types.internal.infer.TypeInferenceLogger.SimpleLogger;
@@ -39,19 +48,79 @@ public class JavaLanguageProcessor extends BatchLanguageProcessor<JavaLanguagePr
     private final LanguageMetricsProvider myMetricsProvider = new JavaMetricsProvider();
     private final JavaParser parser;
     private final JavaParser parserWithoutProcessing;
+    private final @Nullable SourceDeclarationIndex sourceIndex;
     private TypeSystem typeSystem;
 
     public JavaLanguageProcessor(JavaLanguageProperties properties, TypeSystem typeSystem) {
+        this(properties, typeSystem, null);
+    }
+
+    public JavaLanguageProcessor(JavaLanguageProperties properties) {
+        this(properties, newSourceIndex(properties));
+    }
+
+    private JavaLanguageProcessor(JavaLanguageProperties properties, @Nullable SourceDeclarationIndex sourceIndex) {
+        this(properties, newTypeSystem(properties, sourceIndex), sourceIndex);
+    }
+
+    private JavaLanguageProcessor(JavaLanguageProperties properties, TypeSystem typeSystem, @Nullable SourceDeclarationIndex sourceIndex) {
         super(properties);
         this.typeSystem = typeSystem;
+        this.sourceIndex = sourceIndex;
 
         String suppressMarker = properties.getSuppressMarker();
         this.parser = new JavaParser(suppressMarker, this, true);
         this.parserWithoutProcessing = new JavaParser(suppressMarker, this, false);
     }
 
-    public JavaLanguageProcessor(JavaLanguageProperties properties) {
-        this(properties, TypeSystem.usingClassLoaderClasspath(properties.getAnalysisClassLoader()));
+    private static @Nullable SourceDeclarationIndex newSourceIndex(JavaLanguageProperties properties) {
+        if (!properties.getProperty(JavaLanguageProperties.INDEX_SOURCE_DECLARATIONS)) {
+            return null;
+        }
+        return new SourceDeclarationIndex(Classpath.forClassLoader(properties.getAnalysisClassLoader()));
+    }
+
+    private static TypeSystem newTypeSystem(JavaLanguageProperties properties, @Nullable SourceDeclarationIndex sourceIndex) {
+        // the classes that are on the classpath take precedence over the sources
+        Classpath classpath = Classpath.forClassLoader(properties.getAnalysisClassLoader());
+        ClassfileSource platform = newPlatformSource(properties);
+        boolean internTypes = properties.getProperty(JavaLanguageProperties.INTERN_TYPES);
+        return new TypeSystem(ts -> new AsmSymbolResolver(ts, classpath, platform, sourceIndex), internTypes);
+    }
+
+    private static @Nullable ClassfileSource newPlatformSource(JavaLanguageProperties properties) {
+        if (!properties.getProperty(JavaLanguageProperties.USE_JDK_STUB_IMAGE)) {
+            return null;
+        }
+        int release = JavaLanguageProperties.getInternalJdkVersion(properties.getLanguageVersion());
+        JdkStubImage image = JdkStubImage.forRelease(release);
+        if (image == null) {
+            return null;
+        }
+        ClassLoader loader = properties.getAnalysisClassLoader();
+        if (loader instanceof URLClassLoader) {
+            // The auxclasspath takes precedence, eg android.jar contains its own java.lang classes.
+            // This only looks into the URLs of the auxclasspath, not into its parent.
+            URLClassLoader auxclasspath = (URLClassLoader) loader;
+            return internalName -> auxclasspath.findResource(internalName + ".class") != null
+                                   ? null : image.getClassBytes(internalName);
+        }
+        return image;
+    }
+
+    @Override
+    public @NonNull AutoCloseable launchAnalysis(@NonNull AnalysisTask task) {
+        if (sourceIndex != null) {
+            List<TextFile> files = new ArrayList<>(task.getFiles());
+            files.removeIf(it -> !it.getLanguageVersion().getLanguage().equals(getLanguage()));
+            if (!sourceIndex.indexFiles(files, parserWithoutProcessing, task.getLpRegistry(), task.getThreadCount() > 1)) {
+                // a previous analysis of this processor resolved symbols from other sources,
+                // the cached violations of the unchanged files may depend on them too
+                this.typeSystem = newTypeSystem(getProperties(), sourceIndex);
+                task.getAnalysisCache().invalidate(files);
+            }
+        }
+        return super.launchAnalysis(task);
     }
 
     @Override
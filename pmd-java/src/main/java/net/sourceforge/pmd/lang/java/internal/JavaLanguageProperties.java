@@ -25,9 +25,43 @@ public class JavaLanguageProperties extends JvmLanguagePropertyBundle {
                        .defaultValue(InferenceLoggingVerbosity.DISABLED)
                        .build();
 
+    static final PropertyDescriptor<Boolean> INDEX_SOURCE_DECLARATIONS =
+        PropertyFactory.booleanProperty("indexSourceDeclarations")
+                       .desc("Whether to index the type declarations of all analysed sources before the analysis starts. "
+                                 + "This allows resolving the types declared in the sources that are missing from the auxclasspath.")
+                       .defaultValue(false)
+                       .build();
+
+    static final PropertyDescriptor<Boolean> INTERN_TYPES =
+        PropertyFactory.booleanProperty("internTypes")
+                       .desc("Whether to share equal instances of generic types. "
+                                 + "This reduces the memory usage of the analysis of code that uses generics heavily.")
+                       .defaultValue(false)
+                       .build();
+
+    static final PropertyDescriptor<Boolean> USE_JDK_STUB_IMAGE =
+        PropertyFactory.booleanProperty("useJdkStubImage")
+                       .desc("Whether to read the classes of the JDK from an image of the API of the JDK release "
+                                 + "that matches the language version, which is bundled with PMD. "
+                                 + "Otherwise they are read from the JDK that runs PMD.")
+                       .defaultValue(false)
+                       .build();
+
+    static final PropertyDescriptor<Integer> PARALLEL_ANALYSIS_LINES =
+        PropertyFactory.intProperty("parallelAnalysisLines")
+                       .desc("Minimum number of lines of a file for the semantic analysis of the bodies of its "
+                                 + "methods, constructors and initializers to be performed in parallel. "
+                                 + "Zero disables the parallel analysis.")
+                       .defaultValue(0)
+                       .build();
+
     public JavaLanguageProperties() {
         super(JavaLanguageModule.getInstance());
         definePropertyDescriptor(INTERNAL_INFERENCE_LOGGING_VERBOSITY);
+        definePropertyDescriptor(INDEX_SOURCE_DECLARATIONS);
+        definePropertyDescriptor(INTERN_TYPES);
+        definePropertyDescriptor(USE_JDK_STUB_IMAGE);
+        definePropertyDescriptor(PARALLEL_ANALYSIS_LINES);
         definePropertyDescriptor(CpdLanguageProperties.CPD_IGNORE_METADATA);
         definePropertyDescriptor(CpdLanguageProperties.CPD_ANONYMIZE_IDENTIFIERS);
         definePropertyDescriptor(CpdLanguageProperties.CPD_ANONYMIZE_LITERALS);
@@ -0,0 +1,39 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.internal;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.SemanticErrorReporter;
+import net.sourceforge.pmd.lang.ast.SemanticException;
+
+/**
+ * Makes a {@link SemanticErrorReporter} usable by the threads that
+ * analyse a file in parallel.
+ */
+final class SynchronizedErrorReporter implements SemanticErrorReporter {
+
+    private final SemanticErrorReporter delegate;
+
+    SynchronizedErrorReporter(SemanticErrorReporter delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void warning(Node location, String message, Object... formatArgs) {
+        delegate.warning(location, message, formatArgs);
+    }
+
+    @Override
+    public synchronized SemanticException error(Node location, String message, Object... formatArgs) {
+        return delegate.error(location, message, formatArgs);
+    }
+
+    @Override
+    public synchronized @Nullable SemanticException getFirstError() {
+        return delegate.getFirstError();
+    }
+}
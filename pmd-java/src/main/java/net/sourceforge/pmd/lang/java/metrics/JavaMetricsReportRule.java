@@ -0,0 +1,26 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.metrics;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+import net.sourceforge.pmd.lang.java.ast.ASTAnyTypeDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodOrConstructorDeclaration;
+import net.sourceforge.pmd.lang.metrics.AbstractMetricsReportRule;
+import net.sourceforge.pmd.lang.rule.RuleTargetSelector;
+
+/**
+ * Reports the values of {@link net.sourceforge.pmd.lang.java.metrics.JavaMetrics}
+ * on every class and method or constructor. Not meant as a real rule,
+ * it is used by the {@code rulesets/java/metrics-report.xml} ruleset
+ * together with the {@code metricscsv} report format.
+ */
+public class JavaMetricsReportRule extends AbstractMetricsReportRule {
+
+    @Override
+    protected @NonNull RuleTargetSelector buildTargetSelector() {
+        return RuleTargetSelector.forTypes(ASTAnyTypeDeclaration.class, ASTMethodOrConstructorDeclaration.class);
+    }
+}
@@ -19,7 +19,8 @@ import net.sourceforge.pmd.lang.java.types.JTypeVar;
 import net.sourceforge.pmd.lang.java.types.TypeSystem;
 
 /**
- * Unresolved <i>external reference</i> to a class.
+ * Unresolved <i>external reference</i> to a class. The mutators are
+ * synchronized, as the bodies of a file may be analysed in parallel.
  *
  * @see JClassSymbol#isUnresolved()
  */
@@ -28,8 +29,9 @@ final class FlexibleUnresolvedClassImpl extends UnresolvedClassImpl {
     private static final int UNKNOWN_ARITY = 0;
 
     private int arity = UNKNOWN_ARITY;
-    private List<JTypeVar> tparams = Collections.emptyList();
-    private List<UnresolvedClassImpl> childClasses = Collections.emptyList();
+    private volatile List<JTypeVar> tparams = Collections.emptyList();
+    // copied on write
+    private volatile List<UnresolvedClassImpl> childClasses = Collections.emptyList();
 
     FlexibleUnresolvedClassImpl(TypeSystem ts,
                                 @Nullable JClassSymbol enclosing,
@@ -46,7 +48,7 @@ final class FlexibleUnresolvedClassImpl extends UnresolvedClassImpl {
      * @param newArity New number of type parameters
      */
     @Override
-    void setTypeParameterCount(int newArity) {
+    synchronized void setTypeParameterCount(int newArity) {
         if (arity == UNKNOWN_ARITY) {
             this.arity = newArity;
             List<JTypeVar> newParams = new ArrayList<>(newArity);
@@ -58,10 +60,7 @@ final class FlexibleUnresolvedClassImpl extends UnresolvedClassImpl {
     }
 
     @Override
-    UnresolvedClassImpl getOrCreateUnresolvedChildClass(String simpleName) {
-        if (childClasses.isEmpty()) {
-            childClasses = new ArrayList<>(); // make it mutable
-        }
+    synchronized UnresolvedClassImpl getOrCreateUnresolvedChildClass(String simpleName) {
         for (UnresolvedClassImpl childClass : childClasses) {
             if (childClass.nameEquals(simpleName)) {
                 return childClass;
@@ -69,7 +68,9 @@ final class FlexibleUnresolvedClassImpl extends UnresolvedClassImpl {
         }
         FlexibleUnresolvedClassImpl newChild =
             new FlexibleUnresolvedClassImpl(getTypeSystem(), this, getCanonicalName() + '.' + simpleName);
-        childClasses.add(newChild);
+        List<UnresolvedClassImpl> newChildren = new ArrayList<>(childClasses);
+        newChildren.add(newChild);
+        childClasses = newChildren;
         return newChild;
     }
 
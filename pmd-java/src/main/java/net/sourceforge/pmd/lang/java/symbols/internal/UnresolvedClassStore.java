@@ -4,8 +4,8 @@
 
 package net.sourceforge.pmd.lang.java.symbols.internal;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -25,12 +25,13 @@ import net.sourceforge.pmd.lang.java.types.TypeSystem;
  * disambiguation pass (but zero type arguments is always allowed, that
  * could be a raw type) to not throw off errors later during type resolution.
  *
- * <p>Not thread-safe. One instance is created by file (in JavaAstProcessor),
- * so these symbols are not global.
+ * <p>One instance is created by file (in JavaAstProcessor), so these
+ * symbols are not global. This is thread-safe, as the bodies of a file
+ * may be analysed in parallel.
  */
 public final class UnresolvedClassStore {
 
-    private final Map<String, UnresolvedClassImpl> unresolved = new HashMap<>();
+    private final Map<String, UnresolvedClassImpl> unresolved = new ConcurrentHashMap<>();
     private final TypeSystem ts;
 
     public UnresolvedClassStore(TypeSystem ts) {
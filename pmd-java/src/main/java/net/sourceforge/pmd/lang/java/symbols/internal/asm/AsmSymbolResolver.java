@@ -15,6 +15,7 @@ import org.objectweb.asm.Opcodes;
 
 import net.sourceforge.pmd.lang.java.symbols.JClassSymbol;
 import net.sourceforge.pmd.lang.java.symbols.SymbolResolver;
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.Loader.BytesLoader;
 import net.sourceforge.pmd.lang.java.symbols.internal.asm.Loader.FailedLoader;
 import net.sourceforge.pmd.lang.java.symbols.internal.asm.Loader.UrlLoader;
 import net.sourceforge.pmd.lang.java.types.TypeSystem;
@@ -29,6 +30,8 @@ public class AsmSymbolResolver implements SymbolResolver {
 
     private final TypeSystem ts;
     private final Classpath classLoader;
+    private final @Nullable ClassfileSource platform;
+    private final @Nullable ClassfileSource fallback;
     private final SignatureParser typeLoader;
 
     private final ConcurrentMap<String, ClassStub> knownStubs = new ConcurrentHashMap<>();
@@ -40,8 +43,28 @@ public class AsmSymbolResolver implements SymbolResolver {
     private final ClassStub failed;
 
     public AsmSymbolResolver(TypeSystem ts, Classpath classLoader) {
+        this(ts, classLoader, null);
+    }
+
+    /**
+     * Create a resolver that asks the given fallback for the classes
+     * that are not found on the classpath.
+     */
+    public AsmSymbolResolver(TypeSystem ts, Classpath classLoader, @Nullable ClassfileSource fallback) {
+        this(ts, classLoader, null, fallback);
+    }
+
+    /**
+     * Create a resolver that asks the given platform source for classes
+     * before looking into the classpath, and asks the given fallback for
+     * the classes that are not found on the classpath. The platform source
+     * is typically a {@link JdkStubImage}.
+     */
+    public AsmSymbolResolver(TypeSystem ts, Classpath classLoader, @Nullable ClassfileSource platform, @Nullable ClassfileSource fallback) {
         this.ts = ts;
         this.classLoader = classLoader;
+        this.platform = platform;
+        this.fallback = fallback;
         this.typeLoader = new SignatureParser(this);
         this.failed = new ClassStub(this, "/*failed-lookup*/", FailedLoader.INSTANCE, 0);
     }
@@ -53,12 +76,12 @@ public class AsmSymbolResolver implements SymbolResolver {
         String internalName = getInternalName(binaryName);
 
         ClassStub found = knownStubs.computeIfAbsent(internalName, iname -> {
-            @Nullable URL url = getUrlOfInternalName(iname);
-            if (url == null) {
+            @Nullable Loader loader = getLoaderOfInternalName(iname);
+            if (loader == null) {
                 return failed;
             }
 
-            return new ClassStub(this, iname, new UrlLoader(url), ClassStub.UNKNOWN_ARITY);
+            return new ClassStub(this, iname, loader, ClassStub.UNKNOWN_ARITY);
         });
 
         if (!found.hasCanonicalName()) {
@@ -88,6 +111,26 @@ public class AsmSymbolResolver implements SymbolResolver {
         return classLoader.findResource(internalName + ".class");
     }
 
+    private @Nullable Loader getLoaderOfInternalName(String internalName) {
+        if (platform != null) {
+            byte @Nullable [] bytes = platform.getClassBytes(internalName);
+            if (bytes != null) {
+                return new BytesLoader(bytes);
+            }
+        }
+        @Nullable URL url = getUrlOfInternalName(internalName);
+        if (url != null) {
+            return new UrlLoader(url);
+        }
+        if (fallback != null) {
+            byte @Nullable [] bytes = fallback.getClassBytes(internalName);
+            if (bytes != null) {
+                return new BytesLoader(bytes);
+            }
+        }
+        return null;
+    }
+
     /*
        These methods return an unresolved symbol if the url is not found.
      */
@@ -105,9 +148,8 @@ public class AsmSymbolResolver implements SymbolResolver {
             if (prev != failed && prev != null) {
                 return prev;
             }
-            @Nullable URL url = getUrlOfInternalName(iname);
-            Loader loader = url == null ? FailedLoader.INSTANCE : new UrlLoader(url);
-            return new ClassStub(this, iname, loader, observedArity);
+            @Nullable Loader loader = getLoaderOfInternalName(iname);
+            return new ClassStub(this, iname, loader == null ? FailedLoader.INSTANCE : loader, observedArity);
         });
     }
 }
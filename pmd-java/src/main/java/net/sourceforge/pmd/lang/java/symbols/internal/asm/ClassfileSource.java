@@ -0,0 +1,29 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal.asm;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Provides the contents of class files that are not found on the
+ * {@link Classpath}, for instance because they are generated on the
+ * fly from source files. The {@link AsmSymbolResolver} asks this
+ * only after the classpath lookup has failed.
+ */
+@FunctionalInterface
+public interface ClassfileSource {
+
+    /**
+     * Returns the bytes of the class file for the given internal name,
+     * or null if this source does not know about it. A typical input
+     * would be {@code java/lang/String}.
+     *
+     * @param internalName Internal name of a class, as described in the JVMS
+     *
+     * @return The bytes of a class file, or null
+     */
+    byte @Nullable [] getClassBytes(String internalName);
+
+}
@@ -0,0 +1,204 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal.asm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A precomputed image of the public API of the {@code java.base} module
+ * of a given JDK release. The images are generated when pmd-java is
+ * built, see {@link JdkStubImageBuilder}, and bundled as resources.
+ *
+ * <p>An image contains class files stripped of method bodies, debug
+ * information and private members. Reading the classes of the JDK from
+ * there is much faster than looking them up in the {@code jrt:} file
+ * system of the running JVM. It also makes the analysis see the API
+ * of the JDK release that matches the language version, instead of
+ * the API of the running JVM.
+ *
+ * <p>The image is only read when the first class is requested from
+ * it. Images are shared by all the analyses of the same JVM.
+ */
+public final class JdkStubImage implements ClassfileSource {
+
+    static final String RESOURCE_DIR = "jdk-stubs/";
+    static final String RELEASES_INDEX = RESOURCE_DIR + "releases.txt";
+
+    private static final Logger LOG = LoggerFactory.getLogger(JdkStubImage.class);
+
+    private static final int MAGIC = 0x504d444a; // "PMDJ"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final ConcurrentMap<Integer, JdkStubImage> LOADED_IMAGES = new ConcurrentHashMap<>();
+    private static volatile List<Integer> bundledReleases;
+
+    private final int release;
+    private volatile Map<String, byte[]> classes;
+
+    private JdkStubImage(int release) {
+        this.release = release;
+    }
+
+    /**
+     * Returns the image that should be used to analyse code written
+     * for the given JDK release. This is the image with the oldest
+     * release that is not older than the parameter. Returns null
+     * if there is no such image.
+     *
+     * @param release A JDK release, eg 8 or 17
+     */
+    public static @Nullable JdkStubImage forRelease(int release) {
+        for (int bundled : getBundledReleases()) {
+            if (bundled >= release) {
+                return LOADED_IMAGES.computeIfAbsent(bundled, JdkStubImage::new);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the JDK releases for which an image is bundled, in
+     * ascending order.
+     */
+    static List<Integer> getBundledReleases() {
+        List<Integer> result = bundledReleases;
+        if (result == null) {
+            result = readBundledReleases();
+            bundledReleases = result;
+        }
+        return result;
+    }
+
+    private static List<Integer> readBundledReleases() {
+        InputStream index = JdkStubImage.class.getResourceAsStream(RELEASES_INDEX);
+        if (index == null) {
+            return Collections.emptyList();
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(index, StandardCharsets.UTF_8))) {
+            return reader.lines()
+                         .map(String::trim)
+                         .filter(it -> !it.isEmpty())
+                         .map(Integer::parseInt)
+                         .sorted()
+                         .collect(Collectors.toList());
+        } catch (IOException | NumberFormatException e) {
+            LOG.debug("Cannot read the index of the JDK stub images", e);
+            return Collections.emptyList();
+        }
+    }
+
+    static String resourceName(int release) {
+        return RESOURCE_DIR + "java" + release + ".bin";
+    }
+
+    /** Returns the JDK release whose API is described by this image. */
+    public int getRelease() {
+        return release;
+    }
+
+    @Override
+    public byte @Nullable [] getClassBytes(String internalName) {
+        return getClasses().get(internalName);
+    }
+
+    private Map<String, byte[]> getClasses() {
+        Map<String, byte[]> result = classes;
+        if (result == null) {
+            synchronized (this) {
+                result = classes;
+                if (result == null) {
+                    result = load();
+                    classes = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Map<String, byte[]> load() {
+        InputStream stream = JdkStubImage.class.getResourceAsStream(resourceName(release));
+        if (stream == null) {
+            LOG.debug("Missing JDK stub image for release {}", release);
+            return Collections.emptyMap();
+        }
+        try (InputStream in = stream) {
+            return read(in, release);
+        } catch (IOException e) {
+            // then all classes will be looked up on the classpath
+            LOG.debug("Cannot read JDK stub image for release {}", release, e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Writes an image with the given class files, indexed by internal name.
+     */
+    static void write(OutputStream out, int release, Map<String, byte[]> classes) throws IOException {
+        DataOutputStream data = new DataOutputStream(new GZIPOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(release);
+        data.writeInt(classes.size());
+        for (Entry<String, byte[]> entry : classes.entrySet()) {
+            data.writeUTF(entry.getKey());
+            data.writeInt(entry.getValue().length);
+            data.write(entry.getValue());
+        }
+        data.close();
+    }
+
+    /**
+     * Reads an image written by {@link #write(OutputStream, int, Map)}.
+     *
+     * @throws IOException If the image is not in the current format,
+     *                     or is not for the given release
+     */
+    static Map<String, byte[]> read(InputStream in, int release) throws IOException {
+        DataInputStream data = new DataInputStream(new GZIPInputStream(new BufferedInputStream(in)));
+        if (data.readInt() != MAGIC || data.readInt() != FORMAT_VERSION) {
+            throw new IOException("Not a JDK stub image, or unsupported format");
+        }
+        int actualRelease = data.readInt();
+        if (actualRelease != release) {
+            throw new IOException("Expected an image for JDK " + release + ", got " + actualRelease);
+        }
+        int size = data.readInt();
+        Map<String, byte[]> result = new HashMap<>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            String name = data.readUTF();
+            byte[] bytes = new byte[data.readInt()];
+            data.readFully(bytes);
+            result.put(name, bytes);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public String toString() {
+        return "JdkStubImage[java" + release + "]";
+    }
+}
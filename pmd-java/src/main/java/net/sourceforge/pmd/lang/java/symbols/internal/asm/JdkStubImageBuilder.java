@@ -0,0 +1,207 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal.asm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.ProviderNotFoundException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.ModuleVisitor;
+import org.objectweb.asm.Opcodes;
+
+import net.sourceforge.pmd.internal.util.IOUtil;
+
+/**
+ * Generates the {@link JdkStubImage}s that are bundled with pmd-java.
+ * This is run by the build of pmd-java, on the JDK used for the build.
+ *
+ * <p>The images are read from the {@code lib/ct.sym} file of the JDK,
+ * which is where javac finds the API of the older releases to implement
+ * its {@code --release} option. That API does not depend on the JDK that
+ * contains it. Only the release of the JDK itself, which is not in its
+ * ct.sym file, is read from the {@code jrt:} file system. The build fails
+ * if one of the requested releases is newer than the JDK.
+ */
+public final class JdkStubImageBuilder {
+
+    private static final String JAVA_BASE = "java.base";
+    private static final int STRIP_FLAGS = ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+
+    private JdkStubImageBuilder() {
+        // main class
+    }
+
+    /**
+     * Usage: {@code JdkStubImageBuilder <output directory> <release>...}.
+     * The output directory is the directory of the resources of the package
+     * of {@link JdkStubImage}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            throw new IllegalArgumentException("Usage: JdkStubImageBuilder <output directory> <release>...");
+        }
+        Path outputDir = Paths.get(args[0]);
+        int currentRelease = currentRelease();
+
+        List<String> written = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            int release = Integer.parseInt(args[i]);
+            Map<String, byte[]> classes = null;
+            if (release < currentRelease) {
+                classes = readCtSym(release);
+            } else if (release == currentRelease) {
+                classes = readRuntimeImage();
+            }
+            if (classes == null || classes.isEmpty()) {
+                throw new IllegalStateException("The JDK stub image for release " + release
+                                                    + " cannot be generated with JDK " + currentRelease
+                                                    + ", build with a newer JDK or remove the release from the build");
+            }
+            Path file = outputDir.resolve(JdkStubImage.resourceName(release));
+            Files.createDirectories(file.getParent());
+            try (OutputStream out = Files.newOutputStream(file)) {
+                JdkStubImage.write(out, release, classes);
+            }
+            written.add(String.valueOf(release));
+        }
+
+        Path index = outputDir.resolve(JdkStubImage.RELEASES_INDEX);
+        Files.createDirectories(index.getParent());
+        Files.write(index, written, StandardCharsets.UTF_8);
+    }
+
+    private static int currentRelease() {
+        String version = System.getProperty("java.specification.version");
+        return Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version);
+    }
+
+    /**
+     * Reads the classes of the exported packages of java.base in the
+     * JDK that runs this program. Returns null if this is not a modular JDK.
+     */
+    private static @Nullable Map<String, byte[]> readRuntimeImage() throws IOException {
+        FileSystem jrt;
+        try {
+            jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
+        } catch (FileSystemNotFoundException | ProviderNotFoundException e) {
+            return null;
+        }
+        Path module = jrt.getPath("/modules", JAVA_BASE);
+        Map<String, byte[]> result = new TreeMap<>();
+        for (String packageName : exportedPackages(Files.readAllBytes(module.resolve("module-info.class")))) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(module.resolve(packageName), "*.class")) {
+                for (Path file : files) {
+                    String fileName = file.getFileName().toString();
+                    String internalName = packageName + "/" + fileName.substring(0, fileName.length() - ".class".length());
+                    result.put(internalName, strip(Files.readAllBytes(file)));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> exportedPackages(byte[] moduleInfo) {
+        Set<String> packages = new TreeSet<>();
+        new ClassReader(moduleInfo).accept(new ClassVisitor(AsmSymbolResolver.ASM_API_V) {
+            @Override
+            public ModuleVisitor visitModule(String name, int access, String version) {
+                return new ModuleVisitor(api) {
+                    @Override
+                    public void visitExport(String packageName, int access, String... modules) {
+                        // qualified exports are not part of the public API
+                        if (modules == null || modules.length == 0) {
+                            packages.add(packageName);
+                        }
+                    }
+                };
+            }
+        }, 0);
+        return packages;
+    }
+
+    /**
+     * Reads the classes of java.base for an older release from ct.sym.
+     * Its entries are named {@code <releases>/<module>/<internal name>.sig},
+     * where {@code <releases>} contains one character per release in which
+     * the class has this signature, eg {@code 9ABC} for releases 9 to 12.
+     * Returns null if the JDK has no ct.sym file.
+     */
+    private static @Nullable Map<String, byte[]> readCtSym(int release) throws IOException {
+        Path ctSym = Paths.get(System.getProperty("java.home"), "lib", "ct.sym");
+        if (!Files.isRegularFile(ctSym)) {
+            return null;
+        }
+        char releaseChar = Character.toUpperCase(Character.forDigit(release, Character.MAX_RADIX));
+        Map<String, byte[]> result = new TreeMap<>();
+        try (ZipFile zip = new ZipFile(ctSym.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                String[] parts = entry.getName().split("/", 3);
+                if (parts.length == 3
+                    && parts[0].indexOf(releaseChar) >= 0
+                    && JAVA_BASE.equals(parts[1])
+                    && parts[2].endsWith(".sig")
+                    && !parts[2].startsWith("module-info")) {
+                    String internalName = parts[2].substring(0, parts[2].length() - ".sig".length());
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        result.put(internalName, strip(IOUtil.toByteArray(in)));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Removes from the class file everything that the symbol resolver
+     * does not use: method bodies, debug information, private and
+     * synthetic members.
+     */
+    static byte[] strip(byte[] classFile) {
+        ClassWriter writer = new ClassWriter(0);
+        new ClassReader(classFile).accept(new ClassVisitor(AsmSymbolResolver.ASM_API_V, writer) {
+            @Override
+            public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+                return isOmitted(access) ? null : super.visitField(access, name, descriptor, signature, value);
+            }
+
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                return isOmitted(access) ? null : super.visitMethod(access, name, descriptor, signature, exceptions);
+            }
+        }, STRIP_FLAGS);
+        return writer.toByteArray();
+    }
+
+    private static boolean isOmitted(int access) {
+        return (access & (Opcodes.ACC_PRIVATE | Opcodes.ACC_SYNTHETIC)) != 0;
+    }
+}
@@ -5,6 +5,7 @@
 package net.sourceforge.pmd.lang.java.symbols.internal.asm;
 
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -57,5 +58,25 @@ abstract class Loader {
         }
     }
 
+    static class BytesLoader extends Loader {
+
+        private final byte @NonNull [] bytes;
+
+        BytesLoader(byte @NonNull [] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        @NonNull
+        InputStream getInputStream() {
+            return new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public String toString() {
+            return "(bytes loader)";
+        }
+    }
+
 
 }
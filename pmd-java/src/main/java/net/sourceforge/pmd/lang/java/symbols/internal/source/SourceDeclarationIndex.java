@@ -0,0 +1,293 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal.source;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.pmd.lang.LanguageProcessorRegistry;
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.TokenManager;
+import net.sourceforge.pmd.lang.ast.Parser;
+import net.sourceforge.pmd.lang.ast.Parser.ParserTask;
+import net.sourceforge.pmd.lang.ast.SemanticErrorReporter;
+import net.sourceforge.pmd.lang.ast.impl.javacc.CharStream;
+import net.sourceforge.pmd.lang.ast.impl.javacc.JavaccToken;
+import net.sourceforge.pmd.lang.document.Chars;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.InternalApiBridge;
+import net.sourceforge.pmd.lang.java.ast.JavaTokenKinds;
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.AsmSymbolResolver;
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.ClassfileSource;
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.Classpath;
+
+/**
+ * Index of the type declarations of all the Java sources of an analysis.
+ * This allows the {@link AsmSymbolResolver} to resolve classes that are
+ * declared in the analysed sources, but are not on the auxclasspath.
+ *
+ * <p>The index is built in two steps:
+ * <ul>
+ * <li>{@link #indexFiles(Collection, Parser, LanguageProcessorRegistry, boolean) indexFiles}
+ * is called before the analysis starts. It only runs the lexer on each
+ * file, to find its package and the names of its top-level types.
+ * <li>When the symbol resolver asks for a class that is not on the classpath,
+ * the file that declares it is parsed (without semantic analysis), and
+ * stub class files are generated for all the types it declares, see
+ * {@link SourceStubGenerator}. Those are then read like any other class file.
+ * </ul>
+ *
+ * <p>Both steps are thread-safe.
+ *
+ * <p>A language processor may run several analyses, eg in an
+ * {@link net.sourceforge.pmd.AnalysisSession}. Each analysis indexes its
+ * files again. The stubs of files whose contents did not change are kept.
+ * The stubs of edited files that were already used are generated again:
+ * if they changed, the symbols that were built from the previous stubs
+ * are stale, see {@link #indexFiles(Collection, Parser, LanguageProcessorRegistry, boolean) indexFiles}.
+ * Edits of method bodies, which are not part of the stubs, keep them valid.
+ */
+public final class SourceDeclarationIndex implements ClassfileSource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SourceDeclarationIndex.class);
+
+    private final Classpath classpath;
+    private volatile Map<String, SourceFile> topLevelTypes = Collections.emptyMap();
+    private boolean indexed;
+    private final ConcurrentMap<String, Boolean> classpathCache = new ConcurrentHashMap<>();
+
+    private Parser parser;
+    private LanguageProcessorRegistry lpRegistry;
+
+    /**
+     * Create a new empty index.
+     *
+     * @param classpath Classpath used to resolve the names of the types
+     *                  that are referenced by the indexed sources
+     */
+    public SourceDeclarationIndex(Classpath classpath) {
+        this.classpath = classpath;
+    }
+
+    /**
+     * Index the type declarations of the given files. Files that cannot
+     * be read or lexed are ignored. This must be called before the symbol
+     * resolver starts to request classes from this index.
+     *
+     * @param files      Java source files
+     * @param parser     Parser used to parse the files lazily. This should not
+     *                   perform semantic analysis (which is the job of the symbol
+     *                   resolver that uses this index)
+     * @param lpRegistry Registry passed to the parser
+     * @param parallel   Whether to lex the files in parallel
+     *
+     * @return False if the files of a previous call declare other types, or
+     *     the stubs that were already generated from them changed. The symbols
+     *     that were resolved from this index must then be dropped, by using a
+     *     new type system.
+     */
+    public boolean indexFiles(Collection<? extends TextFile> files, Parser parser, LanguageProcessorRegistry lpRegistry, boolean parallel) {
+        this.parser = parser;
+        this.lpRegistry = lpRegistry;
+        ConcurrentMap<String, SourceFile> newTypes = new ConcurrentHashMap<>();
+        Stream<? extends TextFile> stream = parallel ? files.parallelStream() : files.stream();
+        stream.forEach(file -> indexFile(file, newTypes));
+
+        Map<String, SourceFile> oldTypes = topLevelTypes;
+        // nothing can have been resolved from this index on the first call
+        boolean unchanged = !indexed || oldTypes.keySet().equals(newTypes.keySet());
+        // the new stubs are generated with the new declarations
+        topLevelTypes = newTypes;
+        for (Map.Entry<String, SourceFile> entry : newTypes.entrySet()) {
+            SourceFile old = oldTypes.get(entry.getKey());
+            if (old == null) {
+                continue;
+            }
+            if (old.hasSameContents(entry.getValue())) {
+                entry.getValue().reuseStubs(old);
+            } else if (unchanged && !old.hasSameStubs(entry.getValue())) {
+                unchanged = false;
+            }
+        }
+        indexed = true;
+        return unchanged;
+    }
+
+    /**
+     * Returns true if this index knows about a top-level type with the given internal name.
+     */
+    boolean isIndexed(String internalName) {
+        return topLevelTypes.containsKey(internalName);
+    }
+
+    /**
+     * Returns true if the given class is either on the classpath, or
+     * declared as a top-level type in the indexed files.
+     */
+    boolean classExists(String internalName) {
+        return isIndexed(internalName)
+            || classpathCache.computeIfAbsent(internalName, n -> classpath.findResource(n + ".class") != null);
+    }
+
+    @Override
+    public byte @Nullable [] getClassBytes(String internalName) {
+        SourceFile source = findDeclaringFile(internalName);
+        return source == null ? null : source.getStubs().get(internalName);
+    }
+
+    private @Nullable SourceFile findDeclaringFile(String internalName) {
+        String name = internalName;
+        while (true) {
+            SourceFile file = topLevelTypes.get(name);
+            if (file != null) {
+                return file;
+            }
+            // the class may be nested, try the enclosing class
+            int lastDollar = name.lastIndexOf('$');
+            if (lastDollar <= 0) {
+                return null;
+            }
+            name = name.substring(0, lastDollar);
+        }
+    }
+
+    private void indexFile(TextFile file, ConcurrentMap<String, SourceFile> types) {
+        try (TextDocument doc = readDocument(file.getFileId(), file.getLanguageVersion(), file.readContents().getNormalizedText())) {
+            SourceFile sourceFile = new SourceFile(file.getFileId(), file.getLanguageVersion(), doc);
+            TokenManager<JavaccToken> lexer = JavaTokenKinds.newTokenManager(CharStream.create(doc, InternalApiBridge.javaTokenDoc()));
+
+            String packagePrefix = "";
+            StringBuilder packageName = null;
+            int depth = 0;
+            JavaccToken prev = null;
+            for (JavaccToken t = lexer.getNextToken(); t.kind != JavaTokenKinds.EOF; prev = t, t = lexer.getNextToken()) {
+                if (packageName != null) {
+                    if (t.kind == JavaTokenKinds.SEMICOLON) {
+                        packagePrefix = packageName.append('/').toString();
+                        packageName = null;
+                    } else if (t.kind == JavaTokenKinds.IDENTIFIER) {
+                        packageName.append(t.getImage());
+                    } else if (t.kind == JavaTokenKinds.DOT) {
+                        packageName.append('/');
+                    }
+                } else if (t.kind == JavaTokenKinds.LBRACE) {
+                    depth++;
+                } else if (t.kind == JavaTokenKinds.RBRACE) {
+                    depth--;
+                } else if (t.kind == JavaTokenKinds.PACKAGE && depth == 0) {
+                    packageName = new StringBuilder();
+                } else if (depth == 0 && t.kind == JavaTokenKinds.IDENTIFIER && prev != null && isTypeDeclKeyword(prev)) {
+                    types.putIfAbsent(packagePrefix + t.getImage(), sourceFile);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // this file will be reported by the analysis, if it's broken
+            LOG.debug("Cannot index source file {}", file.getFileId(), e);
+        }
+    }
+
+    private static TextDocument readDocument(FileId fileId, LanguageVersion version, Chars text) {
+        // Don't use TextDocument.create, as closing the document would close
+        // the file, which is still needed by the analysis
+        return TextDocument.readOnlyString(text, fileId, version);
+    }
+
+    private static boolean isTypeDeclKeyword(JavaccToken prev) {
+        // enum and record are contextual keywords, lexed as identifiers
+        return prev.kind == JavaTokenKinds.CLASS
+            || prev.kind == JavaTokenKinds.INTERFACE
+            || prev.kind == JavaTokenKinds.IDENTIFIER && ("enum".equals(prev.getImage()) || "record".equals(prev.getImage()));
+    }
+
+    private Map<String, byte[]> generateStubs(FileId fileId, LanguageVersion version, Chars text) {
+        try (TextDocument doc = readDocument(fileId, version, text)) {
+            ParserTask task = new ParserTask(doc, SemanticErrorReporter.noop(), lpRegistry);
+            ASTCompilationUnit acu = (ASTCompilationUnit) parser.parse(task);
+            return new SourceStubGenerator(this, acu).generate();
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Cannot generate stubs for source file {}", fileId, e);
+            return Collections.emptyMap();
+        }
+    }
+
+    private final class SourceFile {
+
+        private final FileId fileId;
+        private final LanguageVersion version;
+        private final long checksum;
+        // The analysis closes the file once it is processed, which may be
+        // before the stubs are requested, so the text is kept until then.
+        private Chars text;
+        private volatile Map<String, byte[]> stubs;
+
+        SourceFile(FileId fileId, LanguageVersion version, TextDocument doc) {
+            this.fileId = fileId;
+            this.version = version;
+            this.checksum = doc.getCheckSum();
+            this.text = doc.getText();
+        }
+
+        boolean hasSameContents(SourceFile other) {
+            return fileId.equals(other.fileId) && checksum == other.checksum;
+        }
+
+        /**
+         * Returns false if the stubs of the old version of this file were
+         * already used, and the new version has different stubs.
+         */
+        boolean hasSameStubs(SourceFile newVersion) {
+            Map<String, byte[]> oldStubs = stubs;
+            if (oldStubs == null) {
+                return true;
+            }
+            Map<String, byte[]> newStubs = newVersion.getStubs();
+            if (!oldStubs.keySet().equals(newStubs.keySet())) {
+                return false;
+            }
+            for (Map.Entry<String, byte[]> stub : oldStubs.entrySet()) {
+                if (!Arrays.equals(stub.getValue(), newStubs.get(stub.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void reuseStubs(SourceFile old) {
+            Map<String, byte[]> oldStubs = old.stubs;
+            if (oldStubs != null) {
+                stubs = oldStubs;
+                text = null;
+            }
+        }
+
+        Map<String, byte[]> getStubs() {
+            Map<String, byte[]> result = stubs;
+            if (result == null) {
+                synchronized (this) {
+                    result = stubs;
+                    if (result == null) {
+                        result = generateStubs(fileId, version, text);
+                        stubs = result;
+                        text = null;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
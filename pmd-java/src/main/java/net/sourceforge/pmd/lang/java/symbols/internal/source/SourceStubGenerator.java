@@ -0,0 +1,699 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal.source;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.signature.SignatureVisitor;
+import org.objectweb.asm.signature.SignatureWriter;
+
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.NodeStream;
+import net.sourceforge.pmd.lang.java.ast.ASTAmbiguousName;
+import net.sourceforge.pmd.lang.java.ast.ASTAnnotation;
+import net.sourceforge.pmd.lang.java.ast.ASTAnyTypeDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTArrayDimensions;
+import net.sourceforge.pmd.lang.java.ast.ASTArrayType;
+import net.sourceforge.pmd.lang.java.ast.ASTClassLiteral;
+import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTClassOrInterfaceType;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.ASTConstructorDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTDefaultValue;
+import net.sourceforge.pmd.lang.java.ast.ASTEnumConstant;
+import net.sourceforge.pmd.lang.java.ast.ASTFieldAccess;
+import net.sourceforge.pmd.lang.java.ast.ASTFieldDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTFormalParameter;
+import net.sourceforge.pmd.lang.java.ast.ASTImportDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTIntersectionType;
+import net.sourceforge.pmd.lang.java.ast.ASTLiteral;
+import net.sourceforge.pmd.lang.java.ast.ASTMemberValue;
+import net.sourceforge.pmd.lang.java.ast.ASTMemberValueArrayInitializer;
+import net.sourceforge.pmd.lang.java.ast.ASTMemberValuePair;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodOrConstructorDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTNullLiteral;
+import net.sourceforge.pmd.lang.java.ast.ASTPrimitiveType;
+import net.sourceforge.pmd.lang.java.ast.ASTRecordComponent;
+import net.sourceforge.pmd.lang.java.ast.ASTRecordComponentList;
+import net.sourceforge.pmd.lang.java.ast.ASTType;
+import net.sourceforge.pmd.lang.java.ast.ASTTypeArguments;
+import net.sourceforge.pmd.lang.java.ast.ASTTypeExpression;
+import net.sourceforge.pmd.lang.java.ast.ASTTypeParameter;
+import net.sourceforge.pmd.lang.java.ast.ASTTypeParameters;
+import net.sourceforge.pmd.lang.java.ast.ASTVariableDeclaratorId;
+import net.sourceforge.pmd.lang.java.ast.ASTWildcardType;
+import net.sourceforge.pmd.lang.java.ast.AccessNode;
+import net.sourceforge.pmd.lang.java.ast.JModifier;
+import net.sourceforge.pmd.lang.java.ast.JavaNode;
+import net.sourceforge.pmd.lang.java.ast.TypeParamOwnerNode;
+
+/**
+ * Generates stub class files for the types declared in a source file.
+ * The stubs contain the signatures of the type and its members, and
+ * their annotations, but no code. The input AST is not processed, so
+ * type names are resolved here with a simplified version of the scoping
+ * rules of the JLS: type parameters, member types declared in the same
+ * file, imports, the current package and {@code java.lang} are considered.
+ * Notably, member types inherited from supertypes are not. Names that
+ * cannot be resolved are written as-is, which means they will end up
+ * as unresolved classes.
+ *
+ * <p>Local and anonymous classes are not part of the output.
+ */
+final class SourceStubGenerator {
+
+    private static final String OBJECT = "java/lang/Object";
+    private static final int MAX_ERASURE_DEPTH = 10;
+
+    private final SourceDeclarationIndex index;
+    private final ASTCompilationUnit acu;
+    private final String packagePrefix;
+
+    /** Internal names of the type declarations of the file. */
+    private final Map<ASTAnyTypeDeclaration, String> internalNames = new IdentityHashMap<>();
+    /** Simple name to internal name, for single-type imports. */
+    private final Map<String, String> singleImports = new HashMap<>();
+    /** Prefixes of internal names, for on-demand imports, e.g. {@code java/util/} or {@code java/util/Map$}. */
+    private final List<String> onDemandImports = new ArrayList<>();
+
+    private final Map<String, byte[]> result = new HashMap<>();
+
+    SourceStubGenerator(SourceDeclarationIndex index, ASTCompilationUnit acu) {
+        this.index = index;
+        this.acu = acu;
+        String pkg = acu.getPackageName();
+        this.packagePrefix = pkg.isEmpty() ? "" : pkg.replace('.', '/') + "/";
+    }
+
+    /**
+     * Returns a map of internal names to the bytes of the class file
+     * generated for each type declared in the file.
+     */
+    Map<String, byte[]> generate() {
+        for (ASTAnyTypeDeclaration decl : acu.getTypeDeclarations()) {
+            registerNames(decl, packagePrefix + decl.getSimpleName());
+        }
+        for (ASTImportDeclaration imp : acu.children(ASTImportDeclaration.class)) {
+            registerImport(imp);
+        }
+        for (Map.Entry<ASTAnyTypeDeclaration, String> entry : internalNames.entrySet()) {
+            result.put(entry.getValue(), generateClass(entry.getKey(), entry.getValue()));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private void registerNames(ASTAnyTypeDeclaration decl, String internalName) {
+        internalNames.put(decl, internalName);
+        for (ASTAnyTypeDeclaration member : memberTypes(decl)) {
+            registerNames(member, internalName + "$" + member.getSimpleName());
+        }
+    }
+
+    private void registerImport(ASTImportDeclaration imp) {
+        String importedName = imp.getImportedName();
+        if (imp.isImportOnDemand()) {
+            String prefix = importedName.replace('.', '/');
+            // the name may be a package or a type
+            onDemandImports.add(prefix + "/");
+            onDemandImports.add(prefix + "$");
+        } else if (imp.isStatic()) {
+            // may import a member type
+            int lastDot = importedName.lastIndexOf('.');
+            if (lastDot > 0) {
+                String owner = importedName.substring(0, lastDot).replace('.', '/');
+                singleImports.putIfAbsent(imp.getImportedSimpleName(), owner + "$" + imp.getImportedSimpleName());
+            }
+        } else {
+            singleImports.put(imp.getImportedSimpleName(), importedName.replace('.', '/'));
+        }
+    }
+
+    private static NodeStream<ASTAnyTypeDeclaration> memberTypes(ASTAnyTypeDeclaration decl) {
+        return decl.getDeclarations(ASTAnyTypeDeclaration.class);
+    }
+
+    // <editor-fold  defaultstate="collapsed" desc="Class generation">
+
+    private byte[] generateClass(ASTAnyTypeDeclaration decl, String internalName) {
+        ClassWriter cw = new ClassWriter(0);
+
+        SignatureWriter sig = new SignatureWriter();
+        writeTypeParams(sig, decl);
+        String superName = writeSupertypes(sig, decl, internalName);
+
+        List<String> interfaces = new ArrayList<>();
+        for (ASTClassOrInterfaceType itf : decl.getSuperInterfaceTypeNodes()) {
+            interfaces.add(resolveClass(itf));
+        }
+        if (decl.isAnnotation()) {
+            interfaces.add("java/lang/annotation/Annotation");
+        }
+
+        cw.visit(Opcodes.V17, classAccess(decl), internalName, sig.toString(), superName, interfaces.toArray(new String[0]));
+
+        writeAnnotations(decl, cw::visitAnnotation);
+
+        if (decl.isNested()) {
+            ASTAnyTypeDeclaration outer = decl.getEnclosingType();
+            cw.visitInnerClass(internalName, internalNames.get(outer), decl.getSimpleName(), classAccess(decl));
+        }
+        for (ASTAnyTypeDeclaration member : memberTypes(decl)) {
+            cw.visitInnerClass(internalNames.get(member), internalName, member.getSimpleName(), classAccess(member));
+        }
+
+        writeEnumMembers(cw, decl, internalName);
+        writeRecordMembers(cw, decl);
+
+        for (ASTFieldDeclaration field : decl.getDeclarations(ASTFieldDeclaration.class)) {
+            for (ASTVariableDeclaratorId id : field) {
+                writeField(cw, field, id);
+            }
+        }
+
+        boolean hasCtor = false;
+        for (ASTMethodOrConstructorDeclaration method : decl.getDeclarations(ASTMethodOrConstructorDeclaration.class)) {
+            writeMethod(cw, method);
+            hasCtor |= method instanceof ASTConstructorDeclaration;
+        }
+        if (!hasCtor && !decl.isInterface() && !decl.isRecord()) {
+            // default constructor
+            int access = decl.isEnum() ? Opcodes.ACC_PRIVATE : classAccess(decl) & (Opcodes.ACC_PUBLIC | Opcodes.ACC_PROTECTED | Opcodes.ACC_PRIVATE);
+            // always give a signature, so that the descriptor is not interpreted
+            // as that of an inner class constructor, which has an additional parameter
+            cw.visitMethod(access, "<init>", "()V", "()V", null).visitEnd();
+        }
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private String writeSupertypes(SignatureWriter sig, ASTAnyTypeDeclaration decl, String internalName) {
+        String superName;
+        if (decl.isEnum()) {
+            superName = "java/lang/Enum";
+            SignatureVisitor sup = sig.visitSuperclass();
+            sup.visitClassType(superName);
+            sup.visitTypeArgument(SignatureVisitor.INSTANCEOF).visitClassType(internalName);
+            sup.visitEnd();
+            sup.visitEnd();
+        } else if (decl.isRecord()) {
+            superName = "java/lang/Record";
+            writeClassType(sig.visitSuperclass(), superName);
+        } else {
+            ASTClassOrInterfaceType superClass = decl instanceof ASTClassOrInterfaceDeclaration
+                                                 ? ((ASTClassOrInterfaceDeclaration) decl).getSuperClassTypeNode()
+                                                 : null;
+            if (superClass != null) {
+                superName = resolveClass(superClass);
+                writeType(sig.visitSuperclass(), superClass, 0);
+            } else {
+                superName = OBJECT;
+                writeClassType(sig.visitSuperclass(), superName);
+            }
+        }
+
+        for (ASTClassOrInterfaceType itf : decl.getSuperInterfaceTypeNodes()) {
+            writeType(sig.visitInterface(), itf, 0);
+        }
+        if (decl.isAnnotation()) {
+            writeClassType(sig.visitInterface(), "java/lang/annotation/Annotation");
+        }
+        return superName;
+    }
+
+    private static int classAccess(ASTAnyTypeDeclaration decl) {
+        int access = accessFlags(decl);
+        if (decl.isInterface()) {
+            access |= Opcodes.ACC_INTERFACE | Opcodes.ACC_ABSTRACT;
+        }
+        if (decl.isAnnotation()) {
+            access |= Opcodes.ACC_ANNOTATION;
+        }
+        if (decl.isEnum()) {
+            access |= Opcodes.ACC_ENUM;
+        }
+        return access;
+    }
+
+    private static int accessFlags(AccessNode node) {
+        // the values of java.lang.reflect.Modifier match those of the access flags
+        return JModifier.toReflect(node.getModifiers().getEffectiveModifiers());
+    }
+
+    private void writeEnumMembers(ClassWriter cw, ASTAnyTypeDeclaration decl, String internalName) {
+        if (!decl.isEnum()) {
+            return;
+        }
+        String selfDescriptor = "L" + internalName + ";";
+        for (ASTEnumConstant constant : decl.getEnumConstants()) {
+            int access = Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL | Opcodes.ACC_ENUM;
+            FieldVisitor fv = cw.visitField(access, constant.getName(), selfDescriptor, null, null);
+            writeAnnotations(constant, fv::visitAnnotation);
+            fv.visitEnd();
+        }
+        String valuesDesc = "()[" + selfDescriptor;
+        String valueOfDesc = "(Ljava/lang/String;)" + selfDescriptor;
+        cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "values", valuesDesc, valuesDesc, null).visitEnd();
+        cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "valueOf", valueOfDesc, valueOfDesc, null).visitEnd();
+    }
+
+    private void writeRecordMembers(ClassWriter cw, ASTAnyTypeDeclaration decl) {
+        ASTRecordComponentList components = decl.getRecordComponents();
+        if (components == null) {
+            return;
+        }
+        SignatureWriter ctorSig = new SignatureWriter();
+        StringBuilder ctorDesc = new StringBuilder("(");
+        for (ASTRecordComponent component : components) {
+            String name = component.getVarId().getName();
+            String descriptor = erasure(component.getTypeNode(), 0);
+            String signature = typeSignature(component.getTypeNode(), 0);
+
+            cw.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, name, descriptor, signature, null).visitEnd();
+
+            boolean hasAccessor = decl.getDeclarations(ASTMethodDeclaration.class)
+                                      .any(m -> m.getName().equals(name) && m.getArity() == 0);
+            if (!hasAccessor) {
+                MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, name, "()" + descriptor, "()" + signature, null);
+                writeAnnotations(component, mv::visitAnnotation);
+                mv.visitEnd();
+            }
+
+            ctorDesc.append(descriptor);
+            writeType(ctorSig.visitParameterType(), component.getTypeNode(), 0);
+        }
+        ctorDesc.append(")V");
+        ctorSig.visitReturnType().visitBaseType('V');
+
+        boolean hasCanonicalCtor = decl.getDeclarations(ASTConstructorDeclaration.class)
+                                       .any(c -> c.getArity() == components.size());
+        if (!hasCanonicalCtor) {
+            int access = accessFlags(decl) & (Opcodes.ACC_PUBLIC | Opcodes.ACC_PROTECTED | Opcodes.ACC_PRIVATE);
+            if (components.isVarargs()) {
+                access |= Opcodes.ACC_VARARGS;
+            }
+            cw.visitMethod(access, "<init>", ctorDesc.toString(), ctorSig.toString(), null).visitEnd();
+        }
+    }
+
+    private void writeField(ClassWriter cw, ASTFieldDeclaration field, ASTVariableDeclaratorId id) {
+        ASTType type = field.getTypeNode();
+        int extraDims = arrayDepth(id.getExtraDimensions());
+
+        FieldVisitor fv = cw.visitField(accessFlags(field), id.getName(), erasure(type, extraDims), typeSignature(type, extraDims), null);
+        writeAnnotations(field, fv::visitAnnotation);
+        fv.visitEnd();
+    }
+
+    private void writeMethod(ClassWriter cw, ASTMethodOrConstructorDeclaration method) {
+        SignatureWriter sig = new SignatureWriter();
+        StringBuilder descriptor = new StringBuilder("(");
+
+        writeTypeParams(sig, method);
+
+        for (ASTFormalParameter param : method.getFormalParameters()) {
+            int extraDims = arrayDepth(param.getVarId().getExtraDimensions());
+            descriptor.append(erasure(param.getTypeNode(), extraDims));
+            writeType(sig.visitParameterType(), param.getTypeNode(), extraDims);
+        }
+        descriptor.append(')');
+
+        String name;
+        if (method instanceof ASTMethodDeclaration) {
+            ASTMethodDeclaration m = (ASTMethodDeclaration) method;
+            int extraDims = arrayDepth(m.getExtraDimensions());
+            name = m.getName();
+            descriptor.append(erasure(m.getResultTypeNode(), extraDims));
+            writeType(sig.visitReturnType(), m.getResultTypeNode(), extraDims);
+        } else {
+            name = "<init>";
+            descriptor.append('V');
+            sig.visitReturnType().visitBaseType('V');
+        }
+
+        List<String> exceptions = new ArrayList<>();
+        if (method.getThrowsList() != null) {
+            for (ASTClassOrInterfaceType thrown : method.getThrowsList()) {
+                writeType(sig.visitExceptionType(), thrown, 0);
+                exceptions.add(erasure(thrown, 0));
+            }
+        }
+
+        int access = accessFlags(method);
+        if (method.isVarargs()) {
+            access |= Opcodes.ACC_VARARGS;
+        }
+
+        MethodVisitor mv = cw.visitMethod(access, name, descriptor.toString(), sig.toString(), null);
+        writeAnnotations(method, mv::visitAnnotation);
+        if (method instanceof ASTMethodDeclaration) {
+            ASTDefaultValue defaultValue = ((ASTMethodDeclaration) method).getDefaultClause();
+            if (defaultValue != null) {
+                AnnotationVisitor av = mv.visitAnnotationDefault();
+                writeValue(av, null, defaultValue.getConstant());
+                av.visitEnd();
+            }
+        }
+        mv.visitEnd();
+    }
+
+    // </editor-fold>
+
+    // <editor-fold  defaultstate="collapsed" desc="Annotations">
+
+    @FunctionalInterface
+    private interface AnnotationSink {
+
+        AnnotationVisitor visitAnnotation(String descriptor, boolean visible);
+    }
+
+    private void writeAnnotations(AccessNode owner, AnnotationSink sink) {
+        for (ASTAnnotation annot : owner.getDeclaredAnnotations()) {
+            // the retention of the annotation is unknown, assume it's visible
+            AnnotationVisitor av = sink.visitAnnotation("L" + resolveClass(annot.getTypeNode()) + ";", true);
+            writeAnnotationValues(av, annot);
+        }
+    }
+
+    private void writeAnnotationValues(AnnotationVisitor av, ASTAnnotation annot) {
+        for (ASTMemberValuePair pair : annot.getMembers()) {
+            writeValue(av, pair.getName(), pair.getValue());
+        }
+        av.visitEnd();
+    }
+
+    /**
+     * Write a value if it is simple enough to be interpreted without
+     * semantic analysis. Other values (eg constant expressions) are
+     * ignored.
+     */
+    private void writeValue(AnnotationVisitor av, @Nullable String name, ASTMemberValue value) {
+        if (value instanceof ASTLiteral && !(value instanceof ASTNullLiteral)) {
+            av.visit(name, ((ASTLiteral) value).getConstValue());
+        } else if (value instanceof ASTClassLiteral) {
+            ASTType type = ((ASTClassLiteral) value).getTypeNode();
+            av.visit(name, Type.getType(erasure(type, 0)));
+        } else if (value instanceof ASTAnnotation) {
+            ASTAnnotation annot = (ASTAnnotation) value;
+            writeAnnotationValues(av.visitAnnotation(name, "L" + resolveClass(annot.getTypeNode()) + ";"), annot);
+        } else if (value instanceof ASTMemberValueArrayInitializer) {
+            AnnotationVisitor arr = av.visitArray(name);
+            for (ASTMemberValue elt : (ASTMemberValueArrayInitializer) value) {
+                writeValue(arr, null, elt);
+            }
+            arr.visitEnd();
+        } else {
+            writeEnumValue(av, name, value);
+        }
+    }
+
+    private void writeEnumValue(AnnotationVisitor av, @Nullable String name, ASTMemberValue value) {
+        // An enum constant is written eg ElementType.METHOD. This is either
+        // parsed as an ambiguous name, or as a field access
+        List<String> segments = new ArrayList<>();
+        if (value instanceof ASTAmbiguousName) {
+            segments.addAll(Arrays.asList(((ASTAmbiguousName) value).getName().split("\\.")));
+        } else if (value instanceof ASTFieldAccess) {
+            ASTFieldAccess access = (ASTFieldAccess) value;
+            if (access.getQualifier() instanceof ASTAmbiguousName) {
+                segments.addAll(Arrays.asList(((ASTAmbiguousName) access.getQualifier()).getName().split("\\.")));
+            } else if (access.getQualifier() instanceof ASTTypeExpression
+                && ((ASTTypeExpression) access.getQualifier()).getTypeNode() instanceof ASTClassOrInterfaceType) {
+                segments.addAll(nameSegments((ASTClassOrInterfaceType) ((ASTTypeExpression) access.getQualifier()).getTypeNode()));
+            }
+            segments.add(access.getName());
+        }
+
+        if (segments.size() >= 2) {
+            String constant = segments.remove(segments.size() - 1);
+            av.visitEnum(name, "L" + resolveName(segments, value) + ";", constant);
+        }
+    }
+
+    // </editor-fold>
+
+    // <editor-fold  defaultstate="collapsed" desc="Types and signatures">
+
+    private void writeTypeParams(SignatureVisitor sig, TypeParamOwnerNode owner) {
+        ASTTypeParameters tparams = owner.getTypeParameters();
+        if (tparams == null) {
+            return;
+        }
+        for (ASTTypeParameter tparam : tparams) {
+            sig.visitFormalTypeParameter(tparam.getName());
+            ASTType bound = tparam.getTypeBoundNode();
+            if (bound == null) {
+                writeClassType(sig.visitClassBound(), OBJECT);
+            } else if (bound instanceof ASTIntersectionType) {
+                boolean first = true;
+                for (ASTClassOrInterfaceType component : ((ASTIntersectionType) bound).getComponents()) {
+                    writeType(first ? sig.visitClassBound() : sig.visitInterfaceBound(), component, 0);
+                    first = false;
+                }
+            } else {
+                writeType(sig.visitClassBound(), bound, 0);
+            }
+        }
+    }
+
+    private static void writeClassType(SignatureVisitor sv, String internalName) {
+        sv.visitClassType(internalName);
+        sv.visitEnd();
+    }
+
+    private String typeSignature(ASTType type, int extraDims) {
+        SignatureWriter sw = new SignatureWriter();
+        writeType(sw, type, extraDims);
+        return sw.toString();
+    }
+
+    private void writeType(SignatureVisitor sv, ASTType type, int extraDims) {
+        for (int i = 0; i < extraDims; i++) {
+            sv = sv.visitArrayType();
+        }
+
+        if (type instanceof ASTArrayType) {
+            writeType(sv, ((ASTArrayType) type).getElementType(), ((ASTArrayType) type).getArrayDepth());
+        } else if (type instanceof ASTPrimitiveType) {
+            sv.visitBaseType(Type.getDescriptor(((ASTPrimitiveType) type).getKind().jvmRepr()).charAt(0));
+        } else if (type instanceof ASTClassOrInterfaceType) {
+            ASTClassOrInterfaceType classType = (ASTClassOrInterfaceType) type;
+            if (findTypeVar(classType) != null) {
+                sv.visitTypeVariable(classType.getSimpleName());
+                return;
+            }
+            sv.visitClassType(resolveClass(classType));
+            // Type arguments of enclosing types are not written
+            ASTTypeArguments targs = classType.getTypeArguments();
+            if (targs != null) {
+                for (ASTType targ : targs) {
+                    writeTypeArgument(sv, targ);
+                }
+            }
+            sv.visitEnd();
+        } else {
+            // void
+            sv.visitBaseType('V');
+        }
+    }
+
+    private void writeTypeArgument(SignatureVisitor sv, ASTType targ) {
+        if (targ instanceof ASTWildcardType) {
+            ASTWildcardType wild = (ASTWildcardType) targ;
+            if (wild.getTypeBoundNode() == null) {
+                sv.visitTypeArgument();
+            } else {
+                char kind = wild.isUpperBound() ? SignatureVisitor.EXTENDS : SignatureVisitor.SUPER;
+                writeType(sv.visitTypeArgument(kind), wild.getTypeBoundNode(), 0);
+            }
+        } else {
+            writeType(sv.visitTypeArgument(SignatureVisitor.INSTANCEOF), targ, 0);
+        }
+    }
+
+    private String erasure(ASTType type, int extraDims) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < extraDims; i++) {
+            sb.append('[');
+        }
+        appendErasure(sb, type, 0);
+        return sb.toString();
+    }
+
+    private void appendErasure(StringBuilder sb, ASTType type, int depth) {
+        if (type instanceof ASTArrayType) {
+            for (int i = 0; i < ((ASTArrayType) type).getArrayDepth(); i++) {
+                sb.append('[');
+            }
+            appendErasure(sb, ((ASTArrayType) type).getElementType(), depth);
+        } else if (type instanceof ASTPrimitiveType) {
+            sb.append(Type.getDescriptor(((ASTPrimitiveType) type).getKind().jvmRepr()));
+        } else if (type instanceof ASTClassOrInterfaceType) {
+            ASTClassOrInterfaceType classType = (ASTClassOrInterfaceType) type;
+            ASTTypeParameter tvar = findTypeVar(classType);
+            if (tvar == null) {
+                sb.append('L').append(resolveClass(classType)).append(';');
+            } else if (tvar.getTypeBoundNode() == null || depth > MAX_ERASURE_DEPTH) {
+                // the depth guards against cyclic bounds, which don't compile
+                sb.append('L').append(OBJECT).append(';');
+            } else {
+                ASTType bound = tvar.getTypeBoundNode();
+                if (bound instanceof ASTIntersectionType) {
+                    bound = ((ASTIntersectionType) bound).getComponents().firstOrThrow();
+                }
+                appendErasure(sb, bound, depth + 1);
+            }
+        } else {
+            sb.append('V');
+        }
+    }
+
+    private static int arrayDepth(@Nullable ASTArrayDimensions dims) {
+        return dims == null ? 0 : dims.size();
+    }
+
+    // </editor-fold>
+
+    // <editor-fold  defaultstate="collapsed" desc="Name resolution">
+
+    /**
+     * Returns the type parameter that the given type refers to, or null
+     * if it is not a type variable.
+     */
+    private @Nullable ASTTypeParameter findTypeVar(ASTClassOrInterfaceType type) {
+        if (type.getQualifier() != null || type.getTypeArguments() != null
+            || type.firstChild(ASTAmbiguousName.class) != null) {
+            return null;
+        }
+        String name = type.getSimpleName();
+        for (JavaNode node : type.ancestors()) {
+            if (node instanceof TypeParamOwnerNode) {
+                ASTTypeParameters tparams = ((TypeParamOwnerNode) node).getTypeParameters();
+                if (tparams != null) {
+                    for (ASTTypeParameter tparam : tparams) {
+                        if (tparam.getName().equals(name)) {
+                            return tparam;
+                        }
+                    }
+                }
+            }
+            if (node instanceof ASTAnyTypeDeclaration && isTypeDeclaredIn((ASTAnyTypeDeclaration) node, name)) {
+                // member types shadow the type params of enclosing classes
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private boolean isTypeDeclaredIn(ASTAnyTypeDeclaration decl, String simpleName) {
+        return memberTypes(decl).any(it -> it.getSimpleName().equals(simpleName));
+    }
+
+    private String resolveClass(ASTClassOrInterfaceType type) {
+        return resolveName(nameSegments(type), type);
+    }
+
+    private static List<String> nameSegments(ASTClassOrInterfaceType type) {
+        List<String> segments = new ArrayList<>();
+        ASTClassOrInterfaceType qualifier = type.getQualifier();
+        if (qualifier != null) {
+            segments.addAll(nameSegments(qualifier));
+        } else {
+            ASTAmbiguousName ambiguous = type.firstChild(ASTAmbiguousName.class);
+            if (ambiguous != null) {
+                segments.addAll(Arrays.asList(ambiguous.getName().split("\\.")));
+            }
+        }
+        segments.add(type.getSimpleName());
+        return segments;
+    }
+
+    /**
+     * Resolve a possibly qualified name to the internal name of a class.
+     * The first segment is considered as a simple type name, then as a
+     * package name.
+     */
+    private String resolveName(List<String> segments, Node context) {
+        String first = resolveSimpleName(segments.get(0), context);
+        if (first != null) {
+            return appendNested(first, segments, 1);
+        }
+
+        StringBuilder pkg = new StringBuilder();
+        for (int i = 0; i < segments.size() - 1; i++) {
+            pkg.append(segments.get(i)).append('/');
+            String candidate = pkg + segments.get(i + 1);
+            if (index.classExists(candidate)) {
+                return appendNested(candidate, segments, i + 2);
+            }
+        }
+        // unresolved
+        return String.join("/", segments);
+    }
+
+    private static String appendNested(String outer, List<String> segments, int start) {
+        StringBuilder sb = new StringBuilder(outer);
+        for (int i = start; i < segments.size(); i++) {
+            sb.append('$').append(segments.get(i));
+        }
+        return sb.toString();
+    }
+
+    private @Nullable String resolveSimpleName(String simpleName, Node context) {
+        // types declared in this file
+        for (Node node : context.ancestorsOrSelf()) {
+            if (node instanceof ASTAnyTypeDeclaration && internalNames.containsKey(node)) {
+                ASTAnyTypeDeclaration decl = (ASTAnyTypeDeclaration) node;
+                for (ASTAnyTypeDeclaration member : memberTypes(decl)) {
+                    if (member.getSimpleName().equals(simpleName)) {
+                        return internalNames.get(member);
+                    }
+                }
+                if (decl.getSimpleName().equals(simpleName)) {
+                    return internalNames.get(decl);
+                }
+            }
+        }
+        for (ASTAnyTypeDeclaration decl : acu.getTypeDeclarations()) {
+            if (decl.getSimpleName().equals(simpleName)) {
+                return internalNames.get(decl);
+            }
+        }
+
+        String imported = singleImports.get(simpleName);
+        if (imported != null) {
+            return imported;
+        }
+
+        if (index.classExists(packagePrefix + simpleName)) {
+            return packagePrefix + simpleName;
+        }
+        for (String prefix : onDemandImports) {
+            if (index.classExists(prefix + simpleName)) {
+                return prefix + simpleName;
+            }
+        }
+        if (index.classExists("java/lang/" + simpleName)) {
+            return "java/lang/" + simpleName;
+        }
+        return null;
+    }
+
+    // </editor-fold>
+}
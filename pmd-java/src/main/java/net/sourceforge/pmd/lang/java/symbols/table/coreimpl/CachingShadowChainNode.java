@@ -5,15 +5,20 @@
 package net.sourceforge.pmd.lang.java.symbols.table.coreimpl;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.BinaryOperator;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 import net.sourceforge.pmd.util.OptionalBool;
 
+/**
+ * The caches are concurrent maps, as the bodies of a file may be
+ * resolved in parallel with the same tables.
+ */
 class CachingShadowChainNode<S, I> extends ShadowChainNodeBase<S, I> {
 
     private final Map<String, List<S>> cache;
@@ -21,7 +26,7 @@ class CachingShadowChainNode<S, I> extends ShadowChainNodeBase<S, I> {
     // contains YES/NO depending on whether *this* name resolver knew a
     // result when asked for it. The cache also contains entries for parents
     // that knew results
-    private final Map<String, OptionalBool> keysThatIKnow = new HashMap<>();
+    private final Map<String, OptionalBool> keysThatIKnow = new ConcurrentHashMap<>();
 
     protected CachingShadowChainNode(@NonNull ShadowChainNode<S, I> parent,
                                      Map<String, List<S>> known,
@@ -30,7 +35,7 @@ class CachingShadowChainNode<S, I> extends ShadowChainNodeBase<S, I> {
                                      I scopeTag,
                                      BinaryOperator<List<S>> merger) {
         super(parent, shadowBarrier, scopeTag, resolver, merger);
-        this.cache = known;
+        this.cache = known instanceof ConcurrentMap ? known : new ConcurrentHashMap<>(known);
     }
 
     @Override
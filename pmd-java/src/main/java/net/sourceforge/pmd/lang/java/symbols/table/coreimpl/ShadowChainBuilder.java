@@ -9,11 +9,11 @@ import static net.sourceforge.pmd.lang.java.symbols.table.coreimpl.CoreResolvers
 import static net.sourceforge.pmd.lang.java.symbols.table.coreimpl.CoreResolvers.singleton;
 import static net.sourceforge.pmd.lang.java.symbols.table.coreimpl.CoreResolvers.singularMapResolver;
 
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
 
@@ -94,13 +94,13 @@ public abstract class ShadowChainBuilder<S, I> {
     }
 
     public ShadowChainNode<S, I> augmentWithCache(ShadowChainNode<S, I> parent, boolean shadowBarrier, I scopeTag, NameResolver<? extends S> resolver, BinaryOperator<List<S>> merger) {
-        return new CachingShadowChainNode<>(parent, new HashMap<>(), resolver, shadowBarrier, scopeTag, merger);
+        return new CachingShadowChainNode<>(parent, new ConcurrentHashMap<>(), resolver, shadowBarrier, scopeTag, merger);
     }
 
     public ShadowChainNode<S, I> shadowWithCache(ShadowChainNode<S, I> parent,
                                                  I scopeTag,
-                                                 // this map will be used as the cache without copy,
-                                                 // it may contain initial bindings, which is only
+                                                 // this map will be used as the cache without copy if it
+                                                 // is a concurrent map, it may contain initial bindings, which is only
                                                  // valid if the built group is a shadow barrier, which
                                                  // is why this parameter is defaulted.
                                                  Map<String, List<S>> cacheMap,
@@ -9,6 +9,7 @@ import static net.sourceforge.pmd.lang.java.symbols.table.internal.AbruptComplet
 import static net.sourceforge.pmd.lang.java.symbols.table.internal.PatternBindingsUtil.bindersOfExpr;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashSet;
@@ -16,9 +17,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.pcollections.PSet;
 
 import net.sourceforge.pmd.lang.ast.Node;
@@ -87,16 +90,29 @@ public final class SymbolTableResolver {
         // façade
     }
 
+    /**
+     * Builds the symbol tables of the given compilation unit. If the
+     * {@linkplain JavaAstProcessor#isParallel() processor is parallel},
+     * the declarations of the file are processed first, and the bodies
+     * of the methods, constructors and initializers are then processed
+     * in parallel. A body is only visible to itself, while it may use
+     * the declarations of any type of the file.
+     */
     public static void traverse(JavaAstProcessor processor, ASTCompilationUnit root) {
         SymTableFactory helper = new SymTableFactory(root.getPackageName(), processor);
         ReferenceCtx ctx = ReferenceCtx.root(processor, root);
-        Set<DeferredNode> todo = Collections.singleton(new DeferredNode(root, ctx, SymbolTableImpl.EMPTY));
+        Set<DeferredNode> todo = Collections.singleton(new DeferredNode(root, ctx, SymbolTableImpl.EMPTY, null));
         do {
-            Set<DeferredNode> newDeferred = new HashSet<>();
+            Set<DeferredNode> prevDeferred = todo;
+            Set<DeferredNode> newDeferred = processor.isParallel() ? ConcurrentHashMap.newKeySet() : new HashSet<>();
+            List<DeferredNode> bodies = processor.isParallel() ? new ArrayList<>() : null;
             for (DeferredNode deferred : todo) {
-                MyVisitor visitor = new MyVisitor(helper, todo, newDeferred);
+                MyVisitor visitor = new MyVisitor(helper, prevDeferred, newDeferred, bodies);
                 visitor.traverse(deferred);
             }
+            if (bodies != null) {
+                bodies.parallelStream().forEach(body -> new MyVisitor(helper, prevDeferred, newDeferred, null).traverse(body));
+            }
             todo = newDeferred;
         } while (!todo.isEmpty());
     }
@@ -107,11 +123,13 @@ public final class SymbolTableResolver {
         // this is data used to resume the traversal
         final ReferenceCtx enclosingCtx;
         final JSymbolTable localStackTop;
+        final @Nullable ASTAnyTypeDeclaration enclosingType;
 
-        private DeferredNode(JavaNode node, ReferenceCtx enclosingCtx, JSymbolTable localStackTop) {
+        private DeferredNode(JavaNode node, ReferenceCtx enclosingCtx, JSymbolTable localStackTop, @Nullable ASTAnyTypeDeclaration enclosingType) {
             this.node = node;
             this.enclosingCtx = enclosingCtx;
             this.localStackTop = localStackTop;
+            this.enclosingType = enclosingType;
         }
 
         @Override
@@ -141,12 +159,15 @@ public final class SymbolTableResolver {
 
         private final Set<DeferredNode> deferredInPrevRound;
         private final Set<DeferredNode> newDeferred;
+        // if non-null, the bodies are added there instead of being visited
+        private final @Nullable List<DeferredNode> bodies;
         private final StatementVisitor stmtVisitor = new StatementVisitor();
 
-        MyVisitor(SymTableFactory helper, Set<DeferredNode> deferredInPrevRound, Set<DeferredNode> newDeferred) {
+        MyVisitor(SymTableFactory helper, Set<DeferredNode> deferredInPrevRound, Set<DeferredNode> newDeferred, @Nullable List<DeferredNode> bodies) {
             f = helper;
             this.deferredInPrevRound = deferredInPrevRound;
             this.newDeferred = newDeferred;
+            this.bodies = bodies;
         }
 
 
@@ -157,12 +178,18 @@ public final class SymbolTableResolver {
             assert stack.isEmpty()
                 : "Stack should be empty when starting the traversal";
 
+            if (task.enclosingType != null) {
+                enclosingType.push(task.enclosingType);
+            }
             stack.push(task.localStackTop);
             task.node.acceptVisitor(this, task.enclosingCtx);
             JSymbolTable last = stack.pop();
 
             assert last == task.localStackTop  // NOPMD CompareObjectsWithEquals
                 : "Unbalanced stack push/pop! Started with " + task.localStackTop + ", finished on " + last;
+            if (task.enclosingType != null) {
+                enclosingType.pop();
+            }
         }
 
         @Override
@@ -288,7 +315,7 @@ public final class SymbolTableResolver {
                 // on typeres of the ctor which may be qualified, and refer
                 // to stuff that are declared later in the compilation unit,
                 // and not yet disambiged.
-                DeferredNode deferredSpec = new DeferredNode(node, ctx, top());
+                DeferredNode deferredSpec = new DeferredNode(node, ctx, top(), null);
                 if (!deferredInPrevRound.contains(deferredSpec)) {
                     newDeferred.add(deferredSpec);
                     return null;
@@ -302,7 +329,7 @@ public final class SymbolTableResolver {
         public Void visitMethodOrCtor(ASTMethodOrConstructorDeclaration node, @NonNull ReferenceCtx ctx) {
             setTopSymbolTable(node.getModifiers());
             int pushed = pushOnStack(f.bodyDeclaration(top(), enclosing(), node.getFormalParameters(), node.getTypeParameters()));
-            setTopSymbolTableAndVisitAllChildren(node, ctx);
+            setTopSymbolTableAndVisitDeclaration(node, node.getBody(), ctx);
             popStack(pushed);
             return null;
         }
@@ -310,7 +337,7 @@ public final class SymbolTableResolver {
         @Override
         public Void visit(ASTInitializer node, @NonNull ReferenceCtx ctx) {
             int pushed = pushOnStack(f.bodyDeclaration(top(), enclosing(), null, null));
-            setTopSymbolTableAndVisitAllChildren(node, ctx);
+            setTopSymbolTableAndVisitDeclaration(node, node.getBody(), ctx);
             popStack(pushed);
             return null;
         }
@@ -320,11 +347,30 @@ public final class SymbolTableResolver {
         public Void visit(ASTCompactConstructorDeclaration node, @NonNull ReferenceCtx ctx) {
             setTopSymbolTable(node.getModifiers());
             int pushed = pushOnStack(f.recordCtor(top(), enclosing(), node.getSymbol()));
-            setTopSymbolTableAndVisitAllChildren(node, ctx);
+            setTopSymbolTableAndVisitDeclaration(node, node.getBody(), ctx);
             popStack(pushed);
             return null;
         }
 
+        /**
+         * Visits the children of a declaration that has a body, the body
+         * may be deferred to be visited in parallel.
+         */
+        private void setTopSymbolTableAndVisitDeclaration(JavaNode node, @Nullable ASTBlock body, @NonNull ReferenceCtx ctx) {
+            if (bodies == null || body == null) {
+                setTopSymbolTableAndVisitAllChildren(node, ctx);
+                return;
+            }
+            setTopSymbolTable(node);
+            for (JavaNode child : node.children()) {
+                if (child == body) { // NOPMD CompareObjectsWithEquals
+                    bodies.add(new DeferredNode(body, ctx, top(), enclosingType.getFirst()));
+                } else {
+                    child.acceptVisitor(this, ctx);
+                }
+            }
+        }
+
 
         @Override
         public Void visit(ASTLambdaExpression node, @NonNull ReferenceCtx ctx) {
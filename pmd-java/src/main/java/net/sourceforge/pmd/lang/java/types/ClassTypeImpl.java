@@ -207,12 +207,12 @@ class ClassTypeImpl implements JClassType {
 
     @Override
     public final JClassType selectInner(JClassSymbol symbol, List<? extends JTypeMirror> targs, PSet<SymAnnot> typeAnnotations) {
-        return new ClassTypeImpl(ts,
-                                 this,
-                                 symbol,
-                                 CollectionUtil.defensiveUnmodifiableCopy(targs),
-                                 typeAnnotations,
-                                 isRaw());
+        return ts.intern(new ClassTypeImpl(ts,
+                                           this,
+                                           symbol,
+                                           CollectionUtil.defensiveUnmodifiableCopy(targs),
+                                           typeAnnotations,
+                                           isRaw()));
     }
 
     @Override
@@ -278,7 +278,7 @@ class ClassTypeImpl implements JClassType {
         if (expected == 0 && typeArgs.isEmpty() && this.typeArgs.isEmpty()) {
             return this; // non-generic
         }
-        return new ClassTypeImpl(ts, symbol, CollectionUtil.defensiveUnmodifiableCopy(typeArgs), true, typeAnnotations);
+        return ts.intern(new ClassTypeImpl(ts, symbol, CollectionUtil.defensiveUnmodifiableCopy(typeArgs), true, typeAnnotations));
     }
 
     @Override
@@ -0,0 +1,115 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.types;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import net.sourceforge.pmd.lang.java.symbols.JClassSymbol;
+
+/**
+ * Weak interning table for the types of a {@link TypeSystem}. Interning
+ * makes equal types share the same instance, which saves memory, makes
+ * {@link TypeOps#isSameType(JTypeMirror, JTypeMirror)} exit on its identity
+ * check, and shares the lazily computed supertypes of class types.
+ *
+ * <p>Only ground types are interned: parameterized class types, arrays
+ * and wildcards that mention no type variable, no inference variable,
+ * no type annotation, and only classes that were read from a class file.
+ * Type equality ignores type annotations, so annotated types must keep
+ * their own instance. Class symbols are compared by name, so a class
+ * declared in an analysed file could otherwise be confused with another
+ * declaration of the same name, or with its compiled version on the
+ * auxclasspath. Other types are returned unchanged.
+ *
+ * <p>Entries are weak: a type that is not referenced anymore may be
+ * garbage collected. The table is thread-safe, it is split into several
+ * stripes to reduce contention.
+ */
+final class TypeInterner {
+
+    private static final int NUM_STRIPES = 16; // must be a power of 2
+
+    private final Map<JTypeMirror, WeakReference<JTypeMirror>>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    TypeInterner() {
+        stripes = new Map[NUM_STRIPES];
+        for (int i = 0; i < NUM_STRIPES; i++) {
+            stripes[i] = new WeakHashMap<>();
+        }
+    }
+
+    /**
+     * Returns the canonical instance of the given type. If the type is
+     * not ground, or if it is the first type of its kind, the parameter
+     * is returned.
+     */
+    @SuppressWarnings("unchecked")
+    <T extends JTypeMirror> T intern(T type) {
+        if (!type.acceptVisitor(GroundTypeVisitor.INSTANCE, null)) {
+            return type;
+        }
+        int hash = type.hashCode();
+        Map<JTypeMirror, WeakReference<JTypeMirror>> stripe = stripes[(hash ^ hash >>> 16) & NUM_STRIPES - 1];
+        synchronized (stripe) {
+            WeakReference<JTypeMirror> ref = stripe.get(type);
+            JTypeMirror existing = ref == null ? null : ref.get();
+            if (existing != null && existing.getClass() == type.getClass()) {
+                return (T) existing;
+            }
+            stripe.put(type, new WeakReference<>(type));
+            return type;
+        }
+    }
+
+    /**
+     * Returns true if the type can be shared by the whole analysis.
+     */
+    private static final class GroundTypeVisitor implements JTypeVisitor<Boolean, Void> {
+
+        static final GroundTypeVisitor INSTANCE = new GroundTypeVisitor();
+
+        @Override
+        public Boolean visit(JTypeMirror t, Void v) {
+            // type variables, inference variables, intersections and sentinel types
+            return false;
+        }
+
+        @Override
+        public Boolean visitPrimitive(JPrimitiveType t, Void v) {
+            return t.getTypeAnnotations().isEmpty();
+        }
+
+        @Override
+        public Boolean visitClass(JClassType t, Void v) {
+            JClassSymbol sym = t.getSymbol();
+            if (!t.getTypeAnnotations().isEmpty() || sym.isUnresolved() || sym.tryGetNode() != null) {
+                return false;
+            }
+            JClassType enclosing = t.getEnclosingType();
+            if (enclosing != null && !enclosing.acceptVisitor(this, v)) {
+                return false;
+            }
+            for (JTypeMirror arg : t.getTypeArgs()) {
+                if (!arg.acceptVisitor(this, v)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Boolean visitWildcard(JWildcardType t, Void v) {
+            return t.getTypeAnnotations().isEmpty() && t.getBound().acceptVisitor(this, v);
+        }
+
+        @Override
+        public Boolean visitArray(JArrayType t, Void v) {
+            return t.getTypeAnnotations().isEmpty() && t.getComponentType().acceptVisitor(this, v);
+        }
+    }
+}
@@ -172,6 +172,8 @@ public final class TypeSystem {
 
     /** Contains special types, that must be shared to be comparable by reference. */
     private final Map<JTypeDeclSymbol, JTypeMirror> sharedTypes;
+    /** Shares ground generic types, null if disabled. */
+    private final @Nullable TypeInterner interner;
     // test only
     final SymbolResolver resolver;
 
@@ -215,6 +217,25 @@ public final class TypeSystem {
      *                         {@link #SERIALIZABLE}, {@link #BOXED_VOID}.
      */
     public TypeSystem(Function<TypeSystem, ? extends SymbolResolver> symResolverMaker) {
+        this(symResolverMaker, false);
+    }
+
+    /**
+     * Builds a new type system. Its public fields will be initialized
+     * with fresh types, unrelated to other types.
+     *
+     * @param symResolverMaker A function that creates a new symbol
+     *                         resolver, see {@link #TypeSystem(Function)}
+     * @param internTypes      If true, equal parameterized types, array types
+     *                         and wildcard types are shared, provided they
+     *                         don't mention type variables, unresolved types,
+     *                         or type annotations. This saves memory and speeds
+     *                         up type comparisons on code that uses generics
+     *                         heavily, at the cost of a lookup in a concurrent
+     *                         table each time such a type is created.
+     */
+    public TypeSystem(Function<TypeSystem, ? extends SymbolResolver> symResolverMaker, boolean internTypes) {
+        this.interner = internTypes ? new TypeInterner() : null;
         this.resolver = symResolverMaker.apply(this); // leak the this
 
         // initialize primitives. their constructor also initializes their box + box erasure
@@ -519,7 +540,7 @@ public final class TypeSystem {
             return rawType(klass); // note this ensures that OBJECT and such is preserved
         }
         // if the type arguments are mismatched, the constructor will throw
-        return new ClassTypeImpl(this, klass, CollectionUtil.defensiveUnmodifiableCopy(typeArgs), true, HashTreePSet.empty());
+        return intern(new ClassTypeImpl(this, klass, CollectionUtil.defensiveUnmodifiableCopy(typeArgs), true, HashTreePSet.empty()));
     }
 
 
@@ -551,9 +572,9 @@ public final class TypeSystem {
             return element;
         }
 
-        JArrayType res = new JArrayType(this, element);
+        JArrayType res = intern(new JArrayType(this, element));
         while (--numDimensions > 0) {
-            res = new JArrayType(this, res);
+            res = intern(new JArrayType(this, res));
         }
         return res;
     }
@@ -576,7 +597,9 @@ public final class TypeSystem {
     /** Trusted constructor. */
     private JArrayType arrayType(@NonNull JTypeMirror component, @Nullable JClassSymbol symbol) {
         checkArrayElement(component);
-        return new JArrayType(this, component, symbol, HashTreePSet.empty());
+        JArrayType array = new JArrayType(this, component, symbol, HashTreePSet.empty());
+        // types built from an array symbol keep that symbol
+        return symbol == null ? intern(array) : array;
     }
 
 
@@ -640,7 +663,15 @@ public final class TypeSystem {
             throw new IllegalArgumentException("<" + bound + "> cannot be a wildcard bound");
         }
         return isUpperBound && bound == OBJECT ? UNBOUNDED_WILD
-                                               : new WildcardTypeImpl(this, isUpperBound, bound, HashTreePSet.empty());
+                                               : intern(new WildcardTypeImpl(this, isUpperBound, bound, HashTreePSet.empty()));
+    }
+
+    /**
+     * Returns the shared instance of the given type if interning
+     * is enabled, see {@link TypeInterner}.
+     */
+    <T extends JTypeMirror> T intern(T type) {
+        return interner == null ? type : interner.intern(type);
     }
 
     /**
@@ -14,7 +14,8 @@ import net.sourceforge.pmd.lang.java.types.JPrimitiveType;
 import net.sourceforge.pmd.lang.java.types.JTypeMirror;
 
 /**
- * Caches some results of subtyping checks.
+ * Caches some results of subtyping checks. This is synchronized, as
+ * the bodies of a file may be analysed in parallel.
  */
 final class SupertypeCheckCache {
 
@@ -35,12 +36,12 @@ final class SupertypeCheckCache {
      * Returns true if t is certainly a subtype of s. Otherwise it
      * needs to be recomputed.
      */
-    boolean isCertainlyASubtype(JTypeMirror t, JTypeMirror s) {
+    synchronized boolean isCertainlyASubtype(JTypeMirror t, JTypeMirror s) {
         Set<JTypeMirror> superTypesOfT = cache.get(t);
         return superTypesOfT != null && superTypesOfT.contains(s);
     }
 
-    void remember(JTypeMirror t, JTypeMirror s) {
+    synchronized void remember(JTypeMirror t, JTypeMirror s) {
         if (shouldCache(t) && shouldCache(s)) {
             cache.computeIfAbsent(t, k -> new HashSet<>()).add(s);
         }
@@ -0,0 +1,88 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.pmd.AnalysisSession;
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.PmdAnalysis;
+import net.sourceforge.pmd.lang.LanguagePropertyBundle;
+import net.sourceforge.pmd.properties.PropertyDescriptor;
+
+/**
+ * Analyses of an {@link AnalysisSession} reuse the Java processor, and
+ * must see the current version of the source-only types.
+ */
+class JavaAnalysisSessionTest {
+
+    private static final String RULESET =
+        "<?xml version=\"1.0\"?>\n"
+            + "<ruleset name=\"session test\" xmlns=\"http://pmd.sourceforge.net/ruleset/2.0.0\">\n"
+            + "  <description>session test</description>\n"
+            + "  <rule name=\"CallsFoo\" language=\"java\" message=\"calls foo\" class=\"net.sourceforge.pmd.lang.rule.XPathRule\">\n"
+            + "    <priority>3</priority>\n"
+            + "    <properties>\n"
+            + "      <property name=\"xpath\" value=\"//MethodCall[pmd-java:matchesSig('p.A#foo()')]\"/>\n"
+            + "    </properties>\n"
+            + "  </rule>\n"
+            + "</ruleset>\n";
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testEditedSourceOnlyTypeIsResolvedAgain() throws IOException {
+        Path ruleset = write("ruleset.xml", RULESET);
+        write("p/B.java", "package p; class B { void b() { new A().foo(); } }");
+
+        try (AnalysisSession session = new AnalysisSession()) {
+            write("p/A.java", "package p; public class A { public void foo() { } }");
+            assertEquals(1, countViolations(session, ruleset));
+
+            // now the call in B resolves to A#foo(int)
+            write("p/A.java", "package p; public class A { public void foo(int... i) { } }");
+            assertEquals(0, countViolations(session, ruleset));
+
+            write("p/A.java", "package p; public class A { public void foo() { } }");
+            assertEquals(1, countViolations(session, ruleset));
+            assertEquals(1, countViolations(session, ruleset));
+
+            // the declarations of A did not change
+            write("p/A.java", "package p; public class A { public void foo() { int x; } }");
+            assertEquals(1, countViolations(session, ruleset));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int countViolations(AnalysisSession session, Path ruleset) {
+        PMDConfiguration config = new PMDConfiguration();
+        config.setThreads(0);
+        config.addRuleSet(ruleset.toString());
+        // B only finds A in the sources
+        LanguagePropertyBundle properties = config.getLanguageProperties(JavaLanguageModule.getInstance());
+        PropertyDescriptor<Boolean> indexSources = (PropertyDescriptor<Boolean>) properties.getPropertyDescriptor("indexSourceDeclarations");
+        properties.setProperty(indexSources, true);
+        // the cached violations of B depend on A
+        config.addInputPath(tempDir.resolve("p"));
+        try (PmdAnalysis pmd = session.newAnalysis(config)) {
+            return pmd.performAnalysisAndCollectReport().getViolations().size();
+        }
+    }
+
+    private Path write(String name, String contents) throws IOException {
+        Path path = tempDir.resolve(name);
+        Files.createDirectories(path.getParent());
+        return Files.write(path, contents.getBytes(StandardCharsets.UTF_8));
+    }
+}
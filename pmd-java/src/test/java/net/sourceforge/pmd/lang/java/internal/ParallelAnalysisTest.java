@@ -0,0 +1,64 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Objects;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import net.sourceforge.pmd.lang.ast.SemanticErrorReporter;
+import net.sourceforge.pmd.lang.java.JavaParsingHelper;
+import net.sourceforge.pmd.lang.java.ast.ASTAssignableExpr.ASTNamedReferenceExpr;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.JavaNode;
+import net.sourceforge.pmd.lang.java.ast.TypeNode;
+
+/**
+ * The parallel analysis of the bodies of a file must produce the same
+ * types and symbols as the sequential analysis.
+ */
+class ParallelAnalysisTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "src/main/java/net/sourceforge/pmd/lang/java/symbols/table/internal/SymbolTableResolver.java",
+        "src/main/java/net/sourceforge/pmd/lang/java/types/ast/LazyTypeResolver.java",
+        "src/main/java/net/sourceforge/pmd/lang/java/types/TypeOps.java"
+    })
+    void testSameResultAsSequentialAnalysis(String file) throws Exception {
+        Path path = Paths.get(file);
+        ASTCompilationUnit sequential = JavaParsingHelper.DEFAULT.parseFile(path);
+
+        JavaLanguageProperties properties = new JavaLanguageProperties();
+        properties.setProperty(JavaLanguageProperties.PARALLEL_ANALYSIS_LINES, 1);
+        try (JavaLanguageProcessor processor = new JavaLanguageProcessor(properties, JavaParsingHelper.TEST_TYPE_SYSTEM)) {
+            ASTCompilationUnit parallel = JavaParsingHelper.DEFAULT.withProcessing(false).parseFile(path);
+            JavaAstProcessor.process(processor, SemanticErrorReporter.noop(), parallel);
+
+            assertEquals(types(sequential), types(parallel));
+            assertEquals(referencedSymbols(sequential), referencedSymbols(parallel));
+        }
+    }
+
+    private static List<String> types(ASTCompilationUnit root) {
+        // the names of captured and inference variables are numbered globally
+        return root.descendants(TypeNode.class)
+                   .crossFindBoundaries()
+                   .toList(it -> it.getXPathNodeName() + " " + it.getBeginLine() + ": "
+                       + it.getTypeMirror().toString().replaceAll("capture#\\d+|['^][a-z]\\d*", "?"));
+    }
+
+    private static List<String> referencedSymbols(ASTCompilationUnit root) {
+        return root.descendants(ASTNamedReferenceExpr.class)
+                   .crossFindBoundaries()
+                   .toList(it -> ((JavaNode) it).getBeginLine() + ": " + Objects.toString(it.getReferencedSym()));
+    }
+}
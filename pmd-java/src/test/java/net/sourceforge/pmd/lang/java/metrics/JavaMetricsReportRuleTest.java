@@ -0,0 +1,78 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.Report;
+import net.sourceforge.pmd.Rule;
+import net.sourceforge.pmd.RuleSet;
+import net.sourceforge.pmd.RuleSetLoader;
+import net.sourceforge.pmd.RuleViolation;
+import net.sourceforge.pmd.lang.java.JavaParsingHelper;
+import net.sourceforge.pmd.lang.metrics.AbstractMetricsReportRule;
+import net.sourceforge.pmd.properties.PropertyDescriptor;
+import net.sourceforge.pmd.util.CollectionUtil;
+
+class JavaMetricsReportRuleTest {
+
+    private final JavaParsingHelper java = JavaParsingHelper.DEFAULT;
+
+    private static final String CODE =
+        "class Foo {\n"
+            + "  Foo() {}\n"
+            + "  int bar(int a) {\n"
+            + "    if (a > 0) return 1;\n"
+            + "    return 0;\n"
+            + "  }\n"
+            + "}";
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReportsClassesAndMethods() {
+        JavaMetricsReportRule rule = new JavaMetricsReportRule();
+        PropertyDescriptor<List<String>> metrics = (PropertyDescriptor<List<String>>) rule.getPropertyDescriptor("metrics");
+        rule.setProperty(metrics, CollectionUtil.listOf("cyclo", "NCSS"));
+
+        Report report = java.executeRule(rule, CODE);
+        List<RuleViolation> violations = report.getViolations();
+        assertEquals(3, violations.size());
+        assertTrue(violations.stream().allMatch(AbstractMetricsReportRule::isMetricsReport));
+
+        // the class only supports NCSS
+        Map<String, String> classValues = AbstractMetricsReportRule.getMetricValues(violations.get(0));
+        assertEquals(CollectionUtil.mapOf("NCSS", "6"), classValues);
+        assertEquals("NCSS=6", violations.get(0).getDescription());
+
+        Map<String, String> methodValues = AbstractMetricsReportRule.getMetricValues(violations.get(2));
+        assertEquals("2", methodValues.get("Cyclo"));
+        assertEquals("bar", violations.get(2).getAdditionalInfo().get(RuleViolation.METHOD_NAME));
+    }
+
+    @Test
+    void testAllMetricsByDefault() {
+        Report report = java.executeRule(new JavaMetricsReportRule(), CODE);
+        Map<String, String> methodValues = AbstractMetricsReportRule.getMetricValues(report.getViolations().get(2));
+        assertTrue(methodValues.containsKey("NPath"));
+        assertTrue(methodValues.containsKey("LOC"));
+    }
+
+    @Test
+    void testBundledRuleset() {
+        RuleSet ruleset = new RuleSetLoader().loadFromResource("rulesets/java/metrics-report.xml");
+        Rule rule = ruleset.getRuleByName("MetricsReport");
+
+        Report report = java.executeRule(rule, CODE);
+        Map<String, String> classValues = AbstractMetricsReportRule.getMetricValues(report.getViolations().get(0));
+        assertEquals(CollectionUtil.listOf("NCSS", "WMC", "ATFD", "TCC"), new ArrayList<>(classValues.keySet()));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal.asm
+
+import io.kotest.assertions.throwables.shouldThrow
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.collections.shouldContain
+import io.kotest.matchers.collections.shouldNotContain
+import io.kotest.matchers.shouldBe
+import net.sourceforge.pmd.lang.java.types.TypeSystem
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.IOException
+
+class JdkStubImageTest : FunSpec({
+
+    // a classpath that doesn't contain the JDK
+    val emptyClasspath = Classpath { null }
+
+    fun typeSystemWithImage(release: Int): TypeSystem =
+        TypeSystem { AsmSymbolResolver(it, emptyClasspath, JdkStubImage.forRelease(release), null) }
+
+    test("Images are selected by release") {
+        JdkStubImage.forRelease(3)!!.release shouldBe 8
+        JdkStubImage.forRelease(8)!!.release shouldBe 8
+        JdkStubImage.forRelease(9)!!.release shouldBe 11
+        JdkStubImage.forRelease(11)!!.release shouldBe 11
+        JdkStubImage.forRelease(999) shouldBe null
+    }
+
+    test("JDK classes are resolved from the image") {
+        val ts = typeSystemWithImage(8)
+
+        val string = ts.getClassSymbol("java.lang.String")!!
+        string.isUnresolved shouldBe false
+        string.superclass shouldBe ts.OBJECT.symbol
+        string.declaredMethods.map { it.simpleName } shouldContain "length"
+        // added in Java 11
+        string.declaredMethods.map { it.simpleName } shouldNotContain "isBlank"
+
+        // package-private supertype
+        ts.getClassSymbol("java.lang.StringBuilder")!!.superclass!!.isUnresolved shouldBe false
+        // not in java.base
+        ts.getClassSymbol("java.sql.Connection") shouldBe null
+    }
+
+    test("The image of a newer release has the newer API") {
+        val ts = typeSystemWithImage(11)
+
+        val string = ts.getClassSymbol("java.lang.String")!!
+        string.declaredMethods.map { it.simpleName } shouldContain "isBlank"
+    }
+
+    test("Images can be read back") {
+        val out = ByteArrayOutputStream()
+        val classes = mapOf("a/B" to byteArrayOf(1, 2, 3), "a/C" to byteArrayOf())
+        JdkStubImage.write(out, 14, classes)
+
+        val read = JdkStubImage.read(ByteArrayInputStream(out.toByteArray()), 14)
+        read.keys shouldBe classes.keys
+        read["a/B"]!!.toList() shouldBe listOf<Byte>(1, 2, 3)
+
+        shouldThrow<IOException> {
+            JdkStubImage.read(ByteArrayInputStream(out.toByteArray()), 15)
+        }
+    }
+})
@@ -0,0 +1,165 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal.source
+
+import io.kotest.assertions.fail
+import io.kotest.core.spec.style.FunSpec
+import io.kotest.matchers.collections.shouldContainExactly
+import io.kotest.matchers.shouldBe
+import io.kotest.matchers.shouldNotBe
+import net.sourceforge.pmd.lang.LanguageProcessorRegistry
+import net.sourceforge.pmd.lang.document.FileId
+import net.sourceforge.pmd.lang.document.TextFile
+import net.sourceforge.pmd.lang.java.JavaLanguageModule
+import net.sourceforge.pmd.lang.java.JavaParsingHelper
+import net.sourceforge.pmd.lang.java.internal.JavaLanguageProcessor
+import net.sourceforge.pmd.lang.java.symbols.JClassSymbol
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.AsmSymbolResolver
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.Classpath
+import net.sourceforge.pmd.lang.java.types.JClassType
+import net.sourceforge.pmd.lang.java.types.Substitution
+import net.sourceforge.pmd.lang.java.types.TypeSystem
+
+class SourceDeclarationIndexTest : FunSpec({
+
+    lateinit var ts: TypeSystem
+
+    fun resolverFor(vararg sources: Pair<String, String>): AsmSymbolResolver {
+        val processor = JavaParsingHelper.DEFAULT.newProcessor() as JavaLanguageProcessor
+        val version = JavaLanguageModule.getInstance().defaultVersion
+        val files = sources.map { (path, code) -> TextFile.forCharSeq(code, FileId.fromPathLikeString(path), version) }
+
+        val index = SourceDeclarationIndex(Classpath.contextClasspath())
+        index.indexFiles(files, processor.parserWithoutProcessing, LanguageProcessorRegistry.singleton(processor), false)
+
+        lateinit var resolver: AsmSymbolResolver
+        ts = TypeSystem { AsmSymbolResolver(it, Classpath.contextClasspath(), index).also { r -> resolver = r } }
+        return resolver
+    }
+
+    fun AsmSymbolResolver.resolve(binaryName: String): JClassSymbol =
+        resolveClassFromBinaryName(binaryName) ?: fail("$binaryName not found")
+
+    test("Source-only classes are resolved") {
+        val resolver = resolverFor(
+            "p/Base.java" to """
+                package p;
+                public abstract class Base<T> implements Comparable<Base<T>> {
+                    protected T value;
+                    public abstract <E extends Exception> T get(int i, String... rest) throws E;
+                }
+            """,
+            "p/Sub.java" to """
+                package p;
+                import java.util.List;
+                public class Sub extends Base<List<String>> {
+                    public List<String> get(int i, String... rest) { return null; }
+                    static final int[] ARR = {};
+                }
+            """,
+        )
+
+        val sub = resolver.resolve("p.Sub")
+        sub.isUnresolved shouldBe false
+        sub.superclass!!.binaryName shouldBe "p.Base"
+        sub.getDeclaredField("ARR")!!.isStatic shouldBe true
+
+        val base = sub.superclass!!
+        base.isAbstract shouldBe true
+        base.typeParameterCount shouldBe 1
+        base.superInterfaces.map { it.binaryName } shouldContainExactly listOf("java.lang.Comparable")
+
+        val get = base.declaredMethods.single { it.simpleName == "get" }
+        get.isVarargs shouldBe true
+        get.typeParameterCount shouldBe 1
+        get.arity shouldBe 2
+
+        // the type system sees the type arguments
+        val subType = ts.declaration(sub) as JClassType
+        subType.superClass.toString() shouldBe "p.Base<java.util.List<java.lang.String>>"
+    }
+
+    test("Nested types, enums and annotations") {
+        val resolver = resolverFor(
+            "q/Outer.java" to """
+                package q;
+                import java.lang.annotation.*;
+                public class Outer {
+                    @Retention(RetentionPolicy.RUNTIME)
+                    @interface Marker { String value() default "x"; }
+
+                    @Marker("y")
+                    public enum Kind { A, B }
+
+                    class Inner { Kind kind; }
+                }
+                class Other { Outer.Inner inner; }
+            """,
+        )
+
+        val outer = resolver.resolve("q.Outer")
+        outer.declaredClasses.map { it.simpleName } shouldContainExactly listOf("Marker", "Kind", "Inner")
+
+        val kind = resolver.resolve("q.Outer\$Kind")
+        kind.isEnum shouldBe true
+        kind.enclosingClass shouldBe outer
+        kind.enumConstants.map { it.simpleName } shouldContainExactly listOf("A", "B")
+        val annot = kind.declaredAnnotations.single()
+        annot.binaryName shouldBe "q.Outer\$Marker"
+        annot.getAttribute("value")!!.valueEquals("y") shouldBe true
+
+        val marker = resolver.resolve("q.Outer\$Marker")
+        marker.isAnnotation shouldBe true
+        marker.getDeclaredAnnotation(java.lang.annotation.Retention::class.java) shouldNotBe null
+
+        val inner = resolver.resolve("q.Outer\$Inner")
+        inner.getDeclaredField("kind")!!.getTypeMirror(Substitution.EMPTY)
+            .symbol shouldBe kind
+
+        val other = resolver.resolve("q.Other")
+        other.getDeclaredField("inner")!!.getTypeMirror(Substitution.EMPTY)
+            .symbol shouldBe inner
+    }
+
+    test("Re-indexing tells whether the stubs that were used changed") {
+        val processor = JavaParsingHelper.DEFAULT.newProcessor() as JavaLanguageProcessor
+        val registry = LanguageProcessorRegistry.singleton(processor)
+        val version = JavaLanguageModule.getInstance().defaultVersion
+        val index = SourceDeclarationIndex(Classpath.contextClasspath())
+
+        fun reindex(a: String, b: String = "package s; class B { }"): Boolean =
+            index.indexFiles(
+                listOf(
+                    TextFile.forCharSeq(a, FileId.fromPathLikeString("s/A.java"), version),
+                    TextFile.forCharSeq(b, FileId.fromPathLikeString("s/B.java"), version),
+                ),
+                processor.parserWithoutProcessing, registry, false
+            )
+
+        reindex("package s; public class A { void foo() { } }") shouldBe true
+        index.getClassBytes("s/A") shouldNotBe null
+
+        // unchanged, or only method bodies changed
+        reindex("package s; public class A { void foo() { } }") shouldBe true
+        reindex("package s; public class A { void foo() { int x; } }") shouldBe true
+        // the stubs of B were never used
+        reindex("package s; public class A { void foo() { int x; } }", "package s; class B { int b; }") shouldBe true
+
+        reindex("package s; public class A { void foo(int i) { } }", "package s; class B { int b; }") shouldBe false
+        reindex("package s; public class A { void foo(int i) { } }", "package s; class C { }") shouldBe false
+    }
+
+    test("Unknown classes are still unresolved") {
+        val resolver = resolverFor(
+            "r/A.java" to """
+                package r;
+                public class A extends Missing { }
+            """,
+        )
+
+        resolver.resolveClassFromBinaryName("r.B") shouldBe null
+        resolver.resolve("r.A").superclass!!.isUnresolved shouldBe true
+    }
+})
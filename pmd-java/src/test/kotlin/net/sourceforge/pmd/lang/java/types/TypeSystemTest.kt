@@ -19,6 +19,8 @@ import net.sourceforge.pmd.lang.ast.test.shouldBeA
 import net.sourceforge.pmd.lang.java.ast.ParserTestCtx
 import net.sourceforge.pmd.lang.java.symbols.JClassSymbol
 import net.sourceforge.pmd.lang.java.symbols.internal.FakeSymAnnot
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.AsmSymbolResolver
+import net.sourceforge.pmd.lang.java.symbols.internal.asm.Classpath
 import net.sourceforge.pmd.lang.java.symbols.testdata.ClassWithTypeAnnotationsInside
 
 /**
@@ -192,6 +194,31 @@ class TypeSystemTest : IntelliMarker, FunSpec({
         }
     }
 
+    test("Test interning of ground types") {
+        val internTs = TypeSystem({ AsmSymbolResolver(it, Classpath.contextClasspath()) }, true)
+        with(TypeDslOf(internTs)) {
+            val listOfString = List::class[String::class]
+            List::class[String::class] shouldBeSameInstanceAs listOfString
+            internTs.parameterise(List::class.decl.symbol, listOf(String::class.decl)) shouldBeSameInstanceAs listOfString
+            Map::class[String::class, Any::class] shouldBeSameInstanceAs Map::class[String::class, Any::class]
+            listOfString.toArray(2) shouldBeSameInstanceAs listOfString.toArray(2)
+            (`?` extends Number::class) shouldBeSameInstanceAs (`?` extends Number::class)
+            List::class[`?` `super` Number::class] shouldBeSameInstanceAs List::class[`?` `super` Number::class]
+
+            // types that mention type variables or type annotations are not shared
+            val tvar = List::class.decl.typeArgs[0]
+            Collection::class[tvar] shouldNotBeSameInstanceAs Collection::class[tvar]
+            val annotString = `@A` on String::class.decl
+            List::class[annotString] shouldNotBeSameInstanceAs List::class[annotString]
+            List::class[annotString] shouldBe listOfString
+        }
+
+        with(TypeDslOf(ts)) {
+            // interning is disabled by default
+            List::class[String::class] shouldNotBeSameInstanceAs List::class[String::class]
+        }
+    }
+
     test("Test init succeeds") {
 
         ts.OBJECT shouldNotBe null
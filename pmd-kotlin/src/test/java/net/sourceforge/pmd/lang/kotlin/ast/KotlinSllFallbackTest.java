@@ -0,0 +1,104 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.kotlin.ast;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.impl.antlr4.BaseAntlrTerminalNode;
+
+/**
+ * The parser first tries SLL prediction, and parses again with full LL
+ * prediction if that fails. Whatever the stage that succeeds, the tree
+ * must be the one of an LL-only parse.
+ */
+class KotlinSllFallbackTest {
+
+    @Test
+    void testValidCodeThatSllCannotPredict() {
+        // SLL cannot tell whether the newline ends the if expression
+        String code = "fun f(x: Int): Int {\n"
+            + "    val y = if (x > 0) 1\n"
+            + "            else 2\n"
+            + "    return y\n"
+            + "}\n";
+
+        assertThrows(ParseCancellationException.class, () -> parseSllOnly(code));
+        String tree = dump(KotlinParsingHelper.DEFAULT.parse(code));
+        assertEquals(dump(parseLlOnly(code)), tree);
+        assertFalse(tree.contains("Error"), tree);
+    }
+
+    @Test
+    void testSyntaxError() {
+        String code = "fun f(x: Int {\n"
+            + "    return x\n"
+            + "}\n";
+
+        assertThrows(ParseCancellationException.class, () -> parseSllOnly(code));
+        String tree = dump(KotlinParsingHelper.DEFAULT.parse(code));
+        assertEquals(dump(parseLlOnly(code)), tree);
+        assertTrue(tree.contains("Error"), tree);
+    }
+
+    @Test
+    void testValidCodeThatSllCanPredict() {
+        String code = "fun f(x: Int): Int {\n"
+            + "    return x + 1\n"
+            + "}\n";
+
+        parseSllOnly(code);
+        assertEquals(dump(parseLlOnly(code)), dump(KotlinParsingHelper.DEFAULT.parse(code)));
+    }
+
+    private static KotlinParser newParser(String code) {
+        KotlinParser parser = new KotlinParser(new CommonTokenStream(new KotlinLexer(CharStreams.fromString(code))));
+        parser.removeErrorListeners();
+        return parser;
+    }
+
+    private static void parseSllOnly(String code) {
+        KotlinParser parser = newParser(code);
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        parser.setErrorHandler(new BailErrorStrategy());
+        parser.kotlinFile();
+    }
+
+    private static KotlinParser.KtKotlinFile parseLlOnly(String code) {
+        KotlinParser parser = newParser(code);
+        parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+        return parser.kotlinFile();
+    }
+
+    private static String dump(Node node) {
+        StringBuilder sb = new StringBuilder();
+        dump(node, 0, sb);
+        return sb.toString();
+    }
+
+    private static void dump(Node node, int depth, StringBuilder sb) {
+        for (int i = 0; i < depth; i++) {
+            sb.append("  ");
+        }
+        sb.append(node.getXPathNodeName());
+        if (node instanceof BaseAntlrTerminalNode) {
+            sb.append(' ').append(((BaseAntlrTerminalNode<?>) node).getText());
+        }
+        sb.append('\n');
+        for (Node child : node.children()) {
+            dump(child, depth + 1, sb);
+        }
+    }
+}
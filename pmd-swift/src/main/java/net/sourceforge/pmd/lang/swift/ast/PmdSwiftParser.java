@@ -19,7 +19,7 @@ public final class PmdSwiftParser extends AntlrBaseParser<SwiftNode, SwTopLevel>
     @Override
     protected SwTopLevel parse(final Lexer lexer, ParserTask task) {
         SwiftParser parser = new SwiftParser(new CommonTokenStream(lexer));
-        return parser.topLevel().makeAstInfo(task);
+        return parseWithSllFirst(parser, SwiftParser::topLevel).makeAstInfo(task);
     }
 
     @Override
@@ -22,9 +22,9 @@ public class VmParser extends JjtreeParserAdapter<ASTTemplate> {
 
         @Override
         public JavaccToken createToken(JavaccTokenDocument self, int kind, CharStream cs, @Nullable String image) {
-            String realImage = image == null ? cs.getTokenImage() : image;
+            String realImage = image;
             if (kind == VmTokenKinds.ESCAPE_DIRECTIVE) {
-                realImage = escapedDirective(realImage);
+                realImage = escapedDirective(image == null ? cs.getTokenImage() : image);
             }
 
             return super.createToken(self, kind, cs, realImage);